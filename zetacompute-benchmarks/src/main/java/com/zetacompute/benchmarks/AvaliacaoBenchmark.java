@@ -0,0 +1,86 @@
+package com.zetacompute.benchmarks;
+
+import com.zetacompute.compilador.ProgramaPosfixo;
+import com.zetacompute.metricas.ExpressaoInstrumentada;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Expressao.avaliar em árvores rasas e profundas com o mesmo número de
+ * operações: a rasa é uma soma equilibrada de produtos (profundidade
+ * logarítmica) e a profunda é uma cadeia ((z * w + 1) * w + 1) ...
+ * avaliarInstrumentada mede o custo da ExpressaoInstrumentada com as
+ * métricas desativadas, e avaliarPosfixo o interpretador de pilha do
+ * ProgramaPosfixo sobre a mesma árvore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvaliacaoBenchmark {
+
+    @Param({ "rasa", "profunda" })
+    public String forma;
+
+    @Param({ "64", "1024" })
+    public int operacoes;
+
+    private Expressao expressao;
+    private Expressao instrumentada;
+    private Expressao posfixo;
+    private Map<String, NumeroComplexo> variaveis;
+
+    @Setup
+    public void preparar() {
+        String fonte = forma.equals("rasa") ? rasa(operacoes) : profunda(operacoes);
+        expressao = new ParserIterativo(fonte).parse();
+        instrumentada = ExpressaoInstrumentada.instrumentar(expressao);
+        posfixo = ProgramaPosfixo.linearizar(expressao);
+        // |w| < 1 mantém a cadeia profunda limitada
+        variaveis = Map.of("z", new NumeroComplexo(0.5, 0.25), "w", new NumeroComplexo(0.75, -0.5));
+    }
+
+    // Cada parcela "z * w" soma duas operações (o produto e a soma)
+    private static String rasa(int operacoes) {
+        return equilibrada(Math.max(1, operacoes / 2));
+    }
+
+    private static String equilibrada(int parcelas) {
+        if (parcelas == 1) return "z * w";
+        int metade = parcelas / 2;
+        return "(" + equilibrada(metade) + ") + (" + equilibrada(parcelas - metade) + ")";
+    }
+
+    private static String profunda(int operacoes) {
+        StringBuilder sb = new StringBuilder("z");
+        for (int k = 0; k < operacoes / 2; k++) sb.insert(0, '(').append(" * w + 1)");
+        return sb.toString();
+    }
+
+    @Benchmark
+    public NumeroComplexo avaliar() {
+        return expressao.avaliar(variaveis);
+    }
+
+    @Benchmark
+    public NumeroComplexo avaliarInstrumentada() {
+        return instrumentada.avaliar(variaveis);
+    }
+
+    @Benchmark
+    public NumeroComplexo avaliarPosfixo() {
+        return posfixo.avaliar(variaveis);
+    }
+}
@@ -0,0 +1,45 @@
+package com.zetacompute.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Ponto de entrada do benchmarks.jar.
+ * Uso: java -jar target/benchmarks.jar [filtro...] [--resultado arquivo.json]
+ *
+ * Sempre liga o profiler de GC (alocação por operação e coletas) e grava os
+ * resultados em JSON (por padrão jmh-resultado.json), para comparar versões
+ * com qualquer ferramenta de diff de JSON ou com o JMH Visualizer.
+ * Sem filtro, executa todos os benchmarks.
+ */
+public final class Executar {
+
+    private Executar() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String resultado = "jmh-resultado.json";
+        ChainedOptionsBuilder opcoes = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .jvmArgsAppend("--add-modules", "jdk.incubator.vector");
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("--resultado")) {
+                if (k + 1 >= args.length) {
+                    throw new IllegalArgumentException("Faltou o valor de --resultado");
+                }
+                resultado = args[++k];
+            } else {
+                opcoes.include(args[k]);
+            }
+        }
+        new Runner(opcoes.result(resultado).build()).run();
+    }
+}
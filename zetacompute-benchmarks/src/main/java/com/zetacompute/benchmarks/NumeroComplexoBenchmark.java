@@ -0,0 +1,62 @@
+package com.zetacompute.benchmarks;
+
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Cada operação de NumeroComplexo isoladamente. Os operandos ficam em campos
+ * não finais para que o JIT não dobre as contas em constantes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumeroComplexoBenchmark {
+
+    public NumeroComplexo a = new NumeroComplexo(1.25, -0.75);
+    public NumeroComplexo b = new NumeroComplexo(-2.5, 3.125);
+    public int expoente = 7;
+    public int grau = 3;
+
+    @Benchmark
+    public NumeroComplexo somar() {
+        return a.somar(b);
+    }
+
+    @Benchmark
+    public NumeroComplexo subtrair() {
+        return a.subtrair(b);
+    }
+
+    @Benchmark
+    public NumeroComplexo multiplicar() {
+        return a.multiplicar(b);
+    }
+
+    @Benchmark
+    public NumeroComplexo dividir() {
+        return a.dividir(b);
+    }
+
+    @Benchmark
+    public NumeroComplexo conjugado() {
+        return a.getConjugado();
+    }
+
+    @Benchmark
+    public NumeroComplexo potencia() {
+        return a.potencia(expoente);
+    }
+
+    @Benchmark
+    public NumeroComplexo raiz() {
+        return a.raiz(grau);
+    }
+}
@@ -0,0 +1,41 @@
+package com.zetacompute.benchmarks;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.RelatorioParser;
+import com.zetacompute.models.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * parser.parse em expressões pequenas (1 termo), médias (100 termos) e
+ * enormes (100 mil termos, cerca de 2 MB), geradas pelo RelatorioParser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+
+    @Param({ "1", "100", "100000" })
+    public int termos;
+
+    private String fonte;
+
+    @Setup
+    public void preparar() {
+        fonte = RelatorioParser.gerarExpressao(termos, 1);
+    }
+
+    @Benchmark
+    public Expressao parse() {
+        return new parser(fonte).parse();
+    }
+}
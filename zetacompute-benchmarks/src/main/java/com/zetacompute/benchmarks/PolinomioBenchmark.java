@@ -0,0 +1,47 @@
+package com.zetacompute.benchmarks;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+import com.zetacompute.otimizacao.ReconhecedorPolinomios;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Polinômio na forma expandida: árvore com potências vs NoPolinomio (Horner)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PolinomioBenchmark {
+
+    private static final String FONTE = "3*z^8 - 2*z^7 + (1+i)*z^5 + 4*z^4 - z^3 + 2*z^2 - z + 7";
+
+    private Expressao arvore;
+    private Expressao polinomio;
+    private Map<String, NumeroComplexo> variaveis;
+
+    @Setup
+    public void preparar() {
+        arvore = new parser(FONTE).parse();
+        polinomio = ReconhecedorPolinomios.reconhecer(arvore);
+        variaveis = Map.of("z", new NumeroComplexo(0.5, -0.75));
+    }
+
+    @Benchmark
+    public NumeroComplexo arvore() {
+        return arvore.avaliar(variaveis);
+    }
+
+    @Benchmark
+    public NumeroComplexo horner() {
+        return polinomio.avaliar(variaveis);
+    }
+}
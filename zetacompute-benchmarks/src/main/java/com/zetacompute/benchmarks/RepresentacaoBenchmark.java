@@ -0,0 +1,44 @@
+package com.zetacompute.benchmarks;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.RelatorioParser;
+import com.zetacompute.models.parser;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// toLisp e getVariaveis sobre árvores de tamanhos diferentes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepresentacaoBenchmark {
+
+    @Param({ "10", "1000" })
+    public int termos;
+
+    private Expressao expressao;
+
+    @Setup
+    public void preparar() {
+        expressao = new parser(RelatorioParser.gerarExpressao(termos, 2)).parse();
+    }
+
+    @Benchmark
+    public String toLisp() {
+        return expressao.toLisp();
+    }
+
+    @Benchmark
+    public Set<String> getVariaveis() {
+        return expressao.getVariaveis();
+    }
+}
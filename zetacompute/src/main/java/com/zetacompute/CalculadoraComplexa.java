@@ -1,24 +1,37 @@
 package com.zetacompute;
 
+import com.zetacompute.lote.ModoLote;
 import com.zetacompute.models.Expressao;
 import com.zetacompute.models.NoConstante;
 import com.zetacompute.models.NoOperacao;
 import com.zetacompute.models.NoVariavel;
 import com.zetacompute.models.NumeroComplexo;
 import com.zetacompute.models.parser;
+import com.zetacompute.servidor.ServidorAvaliacao;
+import com.zetacompute.sessao.AreaTrabalho;
 
 import com.zetacompute.utils.AnsiColor; // <<< IMPORTANTE
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.Set;
 
 public class CalculadoraComplexa {
 
     public static void main(String[] args) {
+        // Modo não interativo: java CalculadoraComplexa --lote [--expressao E] [--entrada A] [--saida B]
+        if (args.length > 0 && args[0].equals("--lote")) {
+            executarLote(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Servidor HTTP local: java CalculadoraComplexa --servidor [--porta N]
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            executarServidor(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
-        Map<String, NumeroComplexo> variaveis = new HashMap<>();
+        AreaTrabalho area = new AreaTrabalho();
 
         while (true) {
             exibirMenu();
@@ -35,6 +48,14 @@ public class CalculadoraComplexa {
                 continue;
 
             try {
+                // Atribuição (w = z*z + 1): fica na área de trabalho da sessão
+                String nome = null;
+                int igual = entrada.indexOf('=');
+                if (igual > 0) {
+                    nome = entrada.substring(0, igual).trim();
+                    entrada = entrada.substring(igual + 1);
+                }
+
                 // 1. Parse
                 parser parser = new parser(entrada);
                 Expressao arvore = parser.parse();
@@ -47,24 +68,25 @@ public class CalculadoraComplexa {
                 System.out.println(AnsiColor.applyColor("\n[Árvore Gerada - Notação LISP]", AnsiColor.ARROW));
                 System.out.println(AnsiColor.applyColor(arvore.toLisp(), AnsiColor.CYAN));
 
-                // 3. Variáveis
-                variaveis.clear();
-                Set<String> varsNaExpressao = arvore.getVariaveis();
+                if (nome != null) area.definir(nome, arvore);
+
+                // 3. Variáveis: só as que ainda não existem na sessão
+                Set<String> faltando = area.faltando(arvore);
 
-                if (!varsNaExpressao.isEmpty()) {
+                if (!faltando.isEmpty()) {
                     System.out.println(AnsiColor.applyColor("\n--- Definição de Variáveis ---", AnsiColor.HIGHLIGHT));
 
-                    for (String varNome : varsNaExpressao) {
-                        pedirVariavel(scanner, variaveis, varNome);
+                    for (String varNome : faltando) {
+                        pedirVariavel(scanner, area, varNome);
                     }
                 }
 
-                // 4. Calcular
-                NumeroComplexo resultado = arvore.avaliar(variaveis);
+                // 4. Calcular (na sessão, só o que depende de algo que mudou é recalculado)
+                NumeroComplexo resultado = nome != null ? area.obter(nome) : area.avaliar(arvore);
 
                 System.out.println(
                         AnsiColor.applyColor("\n>>> RESULTADO FINAL: ", AnsiColor.SUCCESS)
-                                + AnsiColor.applyColor(resultado.toString(), AnsiColor.GREEN));
+                                + AnsiColor.applyColor((nome != null ? nome + " = " : "") + resultado, AnsiColor.GREEN));
 
                 System.out.println(AnsiColor.applyColor("\nPressione ENTER para continuar...", AnsiColor.CYAN));
                 scanner.nextLine();
@@ -79,6 +101,24 @@ public class CalculadoraComplexa {
         scanner.close();
     }
 
+    private static void executarLote(String[] args) {
+        try {
+            ModoLote.main(args);
+        } catch (Exception e) {
+            System.err.println("Erro no modo lote: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void executarServidor(String[] args) {
+        try {
+            ServidorAvaliacao.main(args);
+        } catch (Exception e) {
+            System.err.println("Erro no servidor: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     private static void exibirMenu() {
         System.out
                 .println(AnsiColor.applyColor("\n===================================================", AnsiColor.MENU));
@@ -87,11 +127,12 @@ public class CalculadoraComplexa {
         System.out.println(AnsiColor.applyColor("Operadores: +  -  * /  ^ (potência)", AnsiColor.CYAN));
         System.out.println(AnsiColor.applyColor("Funções:    raiz(exp, grau), conj(exp)", AnsiColor.CYAN));
         System.out.println(AnsiColor.applyColor("Exemplo:    (2 + 3i) * z + raiz(16,2)", AnsiColor.HIGHLIGHT));
+        System.out.println(AnsiColor.applyColor("Atribuição: w = z*z + 1  (z = 2 + i muda z e recalcula w)", AnsiColor.HIGHLIGHT));
         System.out.println(AnsiColor.applyColor("Digite 'sair' para encerrar.", AnsiColor.YELLOW));
         System.out.println(AnsiColor.applyColor("---------------------------------------------------", AnsiColor.MENU));
     }
 
-    private static void pedirVariavel(Scanner sc, Map<String, NumeroComplexo> map, String nome) {
+    private static void pedirVariavel(Scanner sc, AreaTrabalho area, String nome) {
         while (true) {
             try {
                 System.out.println(
@@ -103,7 +144,7 @@ public class CalculadoraComplexa {
                 System.out.print(AnsiColor.applyColor("   Parte Imaginária: ", AnsiColor.PROMPT));
                 double i = Double.parseDouble(sc.nextLine().replace(",", "."));
 
-                map.put(nome, new NumeroComplexo(r, i));
+                area.definirValor(nome, new NumeroComplexo(r, i));
                 break;
 
             } catch (NumberFormatException e) {
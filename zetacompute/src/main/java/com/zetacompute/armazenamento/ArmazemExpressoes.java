@@ -0,0 +1,237 @@
+package com.zetacompute.armazenamento;
+
+import com.zetacompute.cache.CacheExpressoes;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.ParserIterativo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Biblioteca de expressões pré-analisadas num arquivo mapeado em memória,
+ * indexada pelo hash do texto. Na partida, abrir() só mapeia o arquivo: cada
+ * árvore é decodificada do FormatoBinario na primeira vez que é pedida, sem
+ * passar pelo parser. Formato (little-endian):
+ *
+ *   int    mágica "ZEXP"
+ *   int    versão (1)
+ *   int    quantidade de expressões
+ *   int    reservado
+ *   índice por expressão, em ordem de hash:
+ *            long hash FNV-1a de 64 bits do texto normalizado
+ *            long posição da entrada no arquivo
+ *   entradas: varint tamanho + texto UTF-8 normalizado, seguido da árvore
+ *
+ * O texto é normalizado como no CacheExpressoes (espaços repetidos e das
+ * pontas removidos) e guardado para desfazer colisões de hash. O arquivo
+ * inteiro é um único MappedByteBuffer, então é limitado a 2 GB.
+ *
+ * Leituras podem vir de várias threads; as árvores decodificadas são
+ * guardadas e compartilham nós pela mesma FabricaNos (subexpressões iguais
+ * em fórmulas diferentes viram o mesmo nó).
+ */
+public final class ArmazemExpressoes implements Closeable {
+
+    private static final int MAGICA = 0x5058455A; // "ZEXP" em little-endian
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 16;
+    private static final int ENTRADA_INDICE = 16;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int quantidade;
+    private final AtomicReferenceArray<Expressao> arvores;
+    private final FabricaNos fabrica = new FabricaNos();
+
+    private ArmazemExpressoes(FileChannel canal) throws IOException {
+        this.canal = canal;
+        if (canal.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Armazém maior que 2 GB.");
+        }
+        this.mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        mapa.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapa.limit() < CABECALHO || mapa.getInt(0) != MAGICA) {
+            throw new IllegalArgumentException("Arquivo não é um armazém de expressões.");
+        }
+        if (mapa.getInt(4) != VERSAO) {
+            throw new IllegalArgumentException("Versão de armazém não suportada: " + mapa.getInt(4));
+        }
+        this.quantidade = mapa.getInt(8);
+        if (quantidade < 0 || CABECALHO + (long) quantidade * ENTRADA_INDICE > mapa.limit()) {
+            throw new IllegalArgumentException("Índice do armazém corrompido.");
+        }
+        this.arvores = new AtomicReferenceArray<>(quantidade);
+    }
+
+    public static ArmazemExpressoes abrir(Path caminho) throws IOException {
+        FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ);
+        try {
+            return new ArmazemExpressoes(canal);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Analisa cada fonte e grava o armazém. Textos repetidos (após a
+     * normalização) são gravados uma vez; erros de sintaxe são propagados.
+     */
+    public static void gravar(Path caminho, Iterable<String> fontes) throws IOException {
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        for (String fonte : fontes) {
+            String normalizada = CacheExpressoes.normalizar(fonte);
+            if (entradas.containsKey(normalizada)) continue;
+            Expressao arvore = new ParserIterativo(normalizada).parse();
+            byte[] texto = normalizada.getBytes(StandardCharsets.UTF_8);
+            FormatoBinario.Saida entrada = new FormatoBinario.Saida(texto.length + 64);
+            entrada.varint(texto.length);
+            entrada.write(texto, 0, texto.length);
+            byte[] binario = FormatoBinario.serializar(arvore);
+            entrada.write(binario, 0, binario.length);
+            entradas.put(normalizada, entrada.toByteArray());
+        }
+
+        List<String> ordem = new ArrayList<>(entradas.keySet());
+        ordem.sort((a, b) -> Long.compare(hash(a), hash(b)));
+        ByteBuffer indice = ByteBuffer.allocate(CABECALHO + ordem.size() * ENTRADA_INDICE).order(ByteOrder.LITTLE_ENDIAN);
+        indice.putInt(MAGICA).putInt(VERSAO).putInt(ordem.size()).putInt(0);
+        long posicao = indice.capacity();
+        for (String fonte : ordem) {
+            indice.putLong(hash(fonte)).putLong(posicao);
+            posicao += entradas.get(fonte).length;
+        }
+        indice.flip();
+
+        try (FileChannel saida = FileChannel.open(caminho, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escrever(saida, indice);
+            for (String fonte : ordem) escrever(saida, ByteBuffer.wrap(entradas.get(fonte)));
+        }
+    }
+
+    private static void escrever(FileChannel saida, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) saida.write(bytes);
+    }
+
+    // FNV-1a de 64 bits sobre os bytes UTF-8
+    static long hash(String fonte) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : fonte.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    public int tamanho() {
+        return quantidade;
+    }
+
+    public boolean contem(String fonte) {
+        return procurar(CacheExpressoes.normalizar(fonte)) >= 0;
+    }
+
+    /*
+     * Árvore pré-analisada da fonte, ou null se ela não estiver no armazém.
+     * A primeira leitura de cada expressão decodifica a árvore; as seguintes
+     * devolvem a mesma instância.
+     */
+    public Expressao obter(String fonte) {
+        String normalizada = CacheExpressoes.normalizar(fonte);
+        int i = procurar(normalizada);
+        if (i < 0) return null;
+        Expressao arvore = arvores.get(i);
+        if (arvore == null) {
+            ByteBuffer entrada = entrada(i);
+            pularTexto(entrada);
+            arvore = FormatoBinario.ler(entrada, fabrica);
+            if (!arvores.compareAndSet(i, null, arvore)) arvore = arvores.get(i);
+        }
+        return arvore;
+    }
+
+    // Como obter, mas analisa a fonte quando ela não está no armazém
+    public Expressao obterOuAnalisar(String fonte) {
+        Expressao arvore = obter(fonte);
+        return arvore != null ? arvore : new ParserIterativo(fonte).parse();
+    }
+
+    // Todas as fontes guardadas, na ordem do índice
+    public List<String> getFontes() {
+        List<String> fontes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) fontes.add(lerTexto(entrada(i)));
+        return fontes;
+    }
+
+    // Índice da entrada com o texto, ou -1
+    private int procurar(String normalizada) {
+        long h = hash(normalizada);
+        int baixo = 0;
+        int alto = quantidade - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            long m = hashDoIndice(meio);
+            if (m < h) {
+                baixo = meio + 1;
+            } else if (m > h) {
+                alto = meio - 1;
+            } else {
+                // Colisões ficam vizinhas: volta ao início do trecho e compara os textos
+                int i = meio;
+                while (i > 0 && hashDoIndice(i - 1) == h) i--;
+                for (; i < quantidade && hashDoIndice(i) == h; i++) {
+                    if (lerTexto(entrada(i)).equals(normalizada)) return i;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private long hashDoIndice(int i) {
+        return mapa.getLong(CABECALHO + i * ENTRADA_INDICE);
+    }
+
+    // Buffer próprio, posicionado no início da entrada i
+    private ByteBuffer entrada(int i) {
+        long posicao = mapa.getLong(CABECALHO + i * ENTRADA_INDICE + 8);
+        if (posicao < 0 || posicao >= mapa.limit()) {
+            throw new IllegalArgumentException("Índice do armazém corrompido.");
+        }
+        return mapa.duplicate().order(ByteOrder.LITTLE_ENDIAN).position((int) posicao);
+    }
+
+    private static String lerTexto(ByteBuffer entrada) {
+        int tamanho = FormatoBinario.varint(entrada);
+        if (tamanho < 0 || tamanho > entrada.remaining()) {
+            throw new IllegalArgumentException("Entrada do armazém corrompida.");
+        }
+        byte[] bytes = new byte[tamanho];
+        entrada.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void pularTexto(ByteBuffer entrada) {
+        int tamanho = FormatoBinario.varint(entrada);
+        entrada.position(entrada.position() + tamanho);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
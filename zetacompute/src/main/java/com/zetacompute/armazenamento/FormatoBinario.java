@@ -0,0 +1,313 @@
+package com.zetacompute.armazenamento;
+
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Serialização binária compacta de árvores de expressão (o toLisp só serve
+ * para exibir: arredonda as constantes e não é lido de volta). Formato:
+ *
+ *   varint  quantidade de nomes de variáveis
+ *   nomes   (varint tamanho + bytes UTF-8) cada
+ *   varint  quantidade de nós
+ *   nós     em pós-ordem (filhos antes do pai); a raiz é o último
+ *
+ * Cada nó começa com um opcode de 1 byte. Filhos são referenciados pela
+ * distância para trás (índice do nó - índice do filho), em varint, o que
+ * costuma caber em 1 byte; nós repetidos (DAG) são gravados uma vez só.
+ *
+ *   CONSTANTE_REAL  double re                     (8 bytes, little-endian)
+ *   CONSTANTE       double re, double im
+ *   VARIAVEL        varint índice do nome
+ *   SOMA .. POTENCIA varint esquerda, varint direita
+ *   RAIZ            varint filho, varint zigzag grau
+ *   CONJUGADO       varint filho
+ *   POLINOMIO       varint variável, varint grau, (re, im) por coeficiente
+ *
+ * As constantes são gravadas com todos os bits, então a leitura devolve uma
+ * árvore que avalia exatamente como a original. Envoltórios (compilação,
+ * programa pós-fixo, compartilhamento, métricas, memorização) são removidos
+ * antes de gravar.
+ */
+public final class FormatoBinario {
+
+    static final int CONSTANTE_REAL = 0;
+    static final int CONSTANTE = 1;
+    static final int VARIAVEL = 2;
+    static final int SOMA = 3;
+    static final int SUBTRACAO = 4;
+    static final int MULTIPLICACAO = 5;
+    static final int DIVISAO = 6;
+    static final int POTENCIA = 7;
+    static final int RAIZ = 8;
+    static final int CONJUGADO = 9;
+    static final int POLINOMIO = 10;
+
+    private FormatoBinario() {
+    }
+
+    public static byte[] serializar(Expressao expressao) {
+        Expressao raiz = Envoltorio.arvore(expressao);
+
+        // Pós-ordem iterativa, cada nó distinto uma vez
+        List<Expressao> nos = new ArrayList<>();
+        Map<Expressao, Integer> indices = new IdentityHashMap<>();
+        Map<String, Integer> nomes = new LinkedHashMap<>();
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        Deque<Boolean> expandido = new ArrayDeque<>();
+        pilha.push(raiz);
+        expandido.push(false);
+        while (!pilha.isEmpty()) {
+            Expressao no = pilha.pop();
+            boolean filhosProntos = expandido.pop();
+            if (indices.containsKey(no)) continue;
+            Expressao[] filhos = filhos(no);
+            if (filhosProntos || filhos.length == 0) {
+                if (no instanceof NoVariavel) nomes.putIfAbsent(((NoVariavel) no).getNome(), nomes.size());
+                indices.put(no, nos.size());
+                nos.add(no);
+                continue;
+            }
+            pilha.push(no);
+            expandido.push(true);
+            for (int k = filhos.length - 1; k >= 0; k--) {
+                pilha.push(filhos[k]);
+                expandido.push(false);
+            }
+        }
+
+        Saida saida = new Saida(16 * nos.size());
+        saida.varint(nomes.size());
+        for (String nome : nomes.keySet()) {
+            byte[] bytes = nome.getBytes(StandardCharsets.UTF_8);
+            saida.varint(bytes.length);
+            saida.write(bytes, 0, bytes.length);
+        }
+        saida.varint(nos.size());
+        for (int i = 0; i < nos.size(); i++) {
+            Expressao no = nos.get(i);
+            if (no instanceof NoConstante) {
+                NumeroComplexo v = ((NoConstante) no).getValor();
+                // -0.0 no imaginário precisa da forma completa para ser preservado
+                if (Double.doubleToRawLongBits(v.getImaginario()) == 0) {
+                    saida.write(CONSTANTE_REAL);
+                    saida.dbl(v.getReal());
+                } else {
+                    saida.write(CONSTANTE);
+                    saida.dbl(v.getReal());
+                    saida.dbl(v.getImaginario());
+                }
+            } else if (no instanceof NoVariavel) {
+                saida.write(VARIAVEL);
+                saida.varint(nomes.get(((NoVariavel) no).getNome()));
+            } else if (no instanceof NoPolinomio) {
+                NoPolinomio p = (NoPolinomio) no;
+                saida.write(POLINOMIO);
+                saida.varint(i - indices.get(p.getVariavel()));
+                saida.varint(p.getGrau());
+                double[] re = p.getCoeficientesReais();
+                double[] im = p.getCoeficientesImaginarios();
+                for (int k = 0; k < re.length; k++) {
+                    saida.dbl(re[k]);
+                    saida.dbl(im[k]);
+                }
+            } else {
+                NoOperacao op = (NoOperacao) no;
+                saida.write(opcode(op.getOperador()));
+                saida.varint(i - indices.get(op.getEsquerda()));
+                switch (op.getOperador()) {
+                    case RAIZ:
+                        int grau = op.getParametroAuxiliar();
+                        saida.varint((grau << 1) ^ (grau >> 31));
+                        break;
+                    case CONJUGADO:
+                        break;
+                    default:
+                        saida.varint(i - indices.get(op.getDireita()));
+                        break;
+                }
+            }
+        }
+        return saida.toByteArray();
+    }
+
+    private static Expressao[] filhos(Expressao no) {
+        if (no instanceof NoConstante || no instanceof NoVariavel) return new Expressao[0];
+        if (no instanceof NoPolinomio) return new Expressao[] { ((NoPolinomio) no).getVariavel() };
+        if (no instanceof NoOperacao) {
+            NoOperacao op = (NoOperacao) no;
+            return op.getDireita() != null
+                    ? new Expressao[] { op.getEsquerda(), op.getDireita() }
+                    : new Expressao[] { op.getEsquerda() };
+        }
+        throw new IllegalArgumentException("Nó não suportado na serialização: " + no.getClass().getSimpleName());
+    }
+
+    private static int opcode(NoOperacao.Operador operador) {
+        switch (operador) {
+            case SOMA: return SOMA;
+            case SUBTRACAO: return SUBTRACAO;
+            case MULTIPLICACAO: return MULTIPLICACAO;
+            case DIVISAO: return DIVISAO;
+            case POTENCIA: return POTENCIA;
+            case RAIZ: return RAIZ;
+            case CONJUGADO: return CONJUGADO;
+            default: throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    public static Expressao ler(byte[] dados) {
+        return ler(ByteBuffer.wrap(dados), new FabricaNos());
+    }
+
+    /*
+     * Lê uma árvore a partir da posição atual do buffer, deixando a posição
+     * logo depois dela. Os nós são criados pela fábrica (use a mesma fábrica
+     * para compartilhar nós entre várias árvores). Dados corrompidos geram
+     * IllegalArgumentException.
+     */
+    public static Expressao ler(ByteBuffer buffer, FabricaNos fabrica) {
+        ByteBuffer entrada = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            String[] nomes = new String[limitar(varint(entrada), entrada.remaining())];
+            for (int k = 0; k < nomes.length; k++) {
+                byte[] bytes = new byte[limitar(varint(entrada), entrada.remaining())];
+                entrada.get(bytes);
+                nomes[k] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            Expressao[] nos = new Expressao[limitar(varint(entrada), entrada.remaining())];
+            if (nos.length == 0) {
+                throw new IllegalArgumentException("Árvore binária vazia.");
+            }
+            for (int i = 0; i < nos.length; i++) {
+                int opcode = entrada.get();
+                switch (opcode) {
+                    case CONSTANTE_REAL:
+                        nos[i] = fabrica.constante(new NumeroComplexo(entrada.getDouble(), 0.0));
+                        break;
+                    case CONSTANTE:
+                        nos[i] = fabrica.constante(new NumeroComplexo(entrada.getDouble(), entrada.getDouble()));
+                        break;
+                    case VARIAVEL:
+                        nos[i] = fabrica.variavel(nomes[indice(varint(entrada), nomes.length)]);
+                        break;
+                    case RAIZ: {
+                        Expressao filho = filho(nos, i, entrada);
+                        int z = varint(entrada);
+                        nos[i] = fabrica.raiz(filho, (z >>> 1) ^ -(z & 1));
+                        break;
+                    }
+                    case CONJUGADO:
+                        nos[i] = fabrica.conjugado(filho(nos, i, entrada));
+                        break;
+                    case POLINOMIO: {
+                        Expressao variavel = filho(nos, i, entrada);
+                        if (!(variavel instanceof NoVariavel)) {
+                            throw new IllegalArgumentException("Polinômio sem variável na serialização.");
+                        }
+                        NumeroComplexo[] coeficientes = new NumeroComplexo[limitar(varint(entrada), entrada.remaining() / 16) + 1];
+                        for (int k = 0; k < coeficientes.length; k++) {
+                            coeficientes[k] = new NumeroComplexo(entrada.getDouble(), entrada.getDouble());
+                        }
+                        nos[i] = new NoPolinomio((NoVariavel) variavel, coeficientes);
+                        break;
+                    }
+                    default: {
+                        NoOperacao.Operador operador = operador(opcode);
+                        Expressao esquerda = filho(nos, i, entrada);
+                        nos[i] = fabrica.operacao(esquerda, filho(nos, i, entrada), operador);
+                        break;
+                    }
+                }
+            }
+            buffer.position(entrada.position());
+            return nos[nos.length - 1];
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Árvore binária truncada.", e);
+        }
+    }
+
+    private static NoOperacao.Operador operador(int opcode) {
+        switch (opcode) {
+            case SOMA: return NoOperacao.Operador.SOMA;
+            case SUBTRACAO: return NoOperacao.Operador.SUBTRACAO;
+            case MULTIPLICACAO: return NoOperacao.Operador.MULTIPLICACAO;
+            case DIVISAO: return NoOperacao.Operador.DIVISAO;
+            case POTENCIA: return NoOperacao.Operador.POTENCIA;
+            default: throw new IllegalArgumentException("Opcode desconhecido na serialização: " + opcode);
+        }
+    }
+
+    private static Expressao filho(Expressao[] nos, int i, ByteBuffer entrada) {
+        int distancia = varint(entrada);
+        if (distancia <= 0 || distancia > i) {
+            throw new IllegalArgumentException("Referência inválida na serialização.");
+        }
+        return nos[i - distancia];
+    }
+
+    private static int indice(int valor, int limite) {
+        if (valor < 0 || valor >= limite) {
+            throw new IllegalArgumentException("Índice de variável inválido na serialização.");
+        }
+        return valor;
+    }
+
+    // Quantidades maiores que os bytes restantes só podem vir de dados corrompidos
+    private static int limitar(int valor, int maximo) {
+        if (valor < 0 || valor > maximo) {
+            throw new IllegalArgumentException("Quantidade inválida na serialização: " + valor);
+        }
+        return valor;
+    }
+
+    // --- Varints (7 bits por byte, bit alto = continua) ---
+
+    static int varint(ByteBuffer entrada) {
+        int valor = 0;
+        for (int deslocamento = 0; deslocamento < 35; deslocamento += 7) {
+            byte b = entrada.get();
+            valor |= (b & 0x7F) << deslocamento;
+            if (b >= 0) return valor;
+        }
+        throw new IllegalArgumentException("Varint inválido na serialização.");
+    }
+
+    static final class Saida extends ByteArrayOutputStream {
+        Saida(int tamanho) {
+            super(tamanho);
+        }
+
+        void varint(int valor) {
+            while ((valor & ~0x7F) != 0) {
+                write((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            write(valor);
+        }
+
+        void dbl(double valor) {
+            long bits = Double.doubleToRawLongBits(valor);
+            for (int k = 0; k < 8; k++) write((int) (bits >>> (8 * k)));
+        }
+    }
+}
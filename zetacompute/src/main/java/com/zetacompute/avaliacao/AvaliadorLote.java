@@ -0,0 +1,289 @@
+package com.zetacompute.avaliacao;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/*
+ * Avaliação de uma expressão sobre muitos pontos de uma vez.
+ * As variáveis chegam em formato "struct of arrays": para cada slot do
+ * layout, um double[] com as partes reais e outro com as imaginárias.
+ *
+ * Os pontos são processados em blocos que cabem no cache; em cada bloco a
+ * árvore é percorrida uma única vez e cada nó aplica o kernel do operador
+ * sobre o bloco inteiro (vetorizado quando a Vector API está disponível).
+ * Os resultados são idênticos aos de Expressao.avaliar ponto a ponto.
+ */
+public final class AvaliadorLote {
+
+    public static final int TAMANHO_BLOCO = 1024;
+
+    private final Expressao expressao;
+    private final Bindings layout;
+    private final KernelsComplexos kernels;
+    private final int registradores;
+
+    // Plano da travessia em pós-ordem: cada passo deixa o valor de nos[i] no registrador destinos[i]
+    private final Expressao[] nos;
+    private final int[] destinos;
+    private final int[] slots;
+
+    private volatile Expressao vinculada;
+
+    private AvaliadorLote(Expressao expressao, Bindings layout, KernelsComplexos kernels) {
+        this.expressao = expressao;
+        this.layout = layout;
+        this.kernels = kernels;
+
+        List<Expressao> ordem = new ArrayList<>();
+        List<Integer> registros = new ArrayList<>();
+        int maximo = planejar(expressao, ordem, registros);
+        this.registradores = maximo + 1;
+        this.nos = ordem.toArray(new Expressao[0]);
+        this.destinos = new int[nos.length];
+        this.slots = new int[nos.length];
+        for (int i = 0; i < nos.length; i++) {
+            destinos[i] = registros.get(i);
+            // Variáveis fora do layout falham aqui, antes de qualquer ponto
+            if (nos[i] instanceof NoVariavel) slots[i] = layout.slot(((NoVariavel) nos[i]).getNome());
+        }
+    }
+
+    public static AvaliadorLote para(Expressao expressao, Bindings layout) {
+        return para(expressao, layout, KernelsComplexos.padrao());
+    }
+
+    /*
+     * Prepara a avaliação em lote. Variáveis fora do layout geram o erro
+     * de variável não definida aqui, antes de qualquer ponto ser avaliado.
+     */
+    public static AvaliadorLote para(Expressao expressao, Bindings layout, KernelsComplexos kernels) {
+        return new AvaliadorLote(Envoltorio.arvore(expressao), layout, kernels);
+    }
+
+    public Bindings getLayout() {
+        return layout;
+    }
+
+    /*
+     * Árvore vinculada ao layout, para quem precisa reavaliar ponto a ponto.
+     * Só é montada no primeiro uso: o caminho em lote lê os slots do plano.
+     */
+    public Expressao getExpressao() {
+        Expressao v = vinculada;
+        if (v == null) {
+            v = expressao.vincular(layout);
+            vinculada = v;
+        }
+        return v;
+    }
+
+    /*
+     * Área de trabalho (registradores de um bloco). Não é thread-safe:
+     * cada thread deve usar o seu próprio rascunho.
+     */
+    public static final class Rascunho {
+        final double[][] re;
+        final double[][] im;
+        final ComplexAccumulator acc = new ComplexAccumulator(); // potência e raiz elemento a elemento
+        private final IdentityHashMap<NoPolinomio, Coeficientes> coeficientes = new IdentityHashMap<>();
+
+        private Rascunho(int registradores) {
+            re = new double[registradores][TAMANHO_BLOCO];
+            im = new double[registradores][TAMANHO_BLOCO];
+        }
+
+        // Cópia dos coeficientes feita uma vez por polinômio, e não a cada bloco
+        Coeficientes coeficientes(NoPolinomio p) {
+            return coeficientes.computeIfAbsent(p, Coeficientes::new);
+        }
+    }
+
+    static final class Coeficientes {
+        final double[] re;
+        final double[] im;
+
+        Coeficientes(NoPolinomio p) {
+            re = p.getCoeficientesReais();
+            im = p.getCoeficientesImaginarios();
+        }
+    }
+
+    public Rascunho novoRascunho() {
+        return new Rascunho(registradores);
+    }
+
+    /*
+     * Origem dos valores das variáveis: copia n pontos do slot a partir de
+     * 'inicio' para re/im. Permite avaliar direto de fontes que não são
+     * double[] (ex.: arquivos mapeados em memória).
+     */
+    public interface Colunas {
+        void ler(int slot, long inicio, double[] re, double[] im, int n);
+    }
+
+    // Recebe n resultados que correspondem aos pontos a partir de 'inicio'
+    public interface Destino {
+        void escrever(long inicio, double[] re, double[] im, int n);
+    }
+
+    /*
+     * Avalia os n primeiros pontos. re[slot] e im[slot] seguem a ordem do layout.
+     */
+    public void avaliar(double[][] re, double[][] im, double[] saidaRe, double[] saidaIm, int n) {
+        avaliar(re, im, saidaRe, saidaIm, 0, n, novoRascunho());
+    }
+
+    /*
+     * Avalia os pontos no intervalo [inicio, fim), escrevendo nas mesmas
+     * posições das saídas. Em caso de divisão por zero lança
+     * ArithmeticException; blocos anteriores já terão sido escritos.
+     */
+    public void avaliar(double[][] re, double[][] im, double[] saidaRe, double[] saidaIm,
+                        int inicio, int fim, Rascunho rascunho) {
+        if (re.length < layout.tamanho() || im.length < layout.tamanho()) {
+            throw new IllegalArgumentException("Esperado um vetor de entrada por variável do layout.");
+        }
+        Colunas entrada = (slot, base, rRe, rIm, n) -> {
+            System.arraycopy(re[slot], (int) base, rRe, 0, n);
+            System.arraycopy(im[slot], (int) base, rIm, 0, n);
+        };
+        Destino saida = (base, rRe, rIm, n) -> {
+            System.arraycopy(rRe, 0, saidaRe, (int) base, n);
+            System.arraycopy(rIm, 0, saidaIm, (int) base, n);
+        };
+        avaliar(entrada, saida, inicio, fim, rascunho);
+    }
+
+    /*
+     * Mesma avaliação em blocos, lendo as variáveis de 'entrada' e entregando
+     * os resultados de cada bloco para 'saida'.
+     */
+    public void avaliar(Colunas entrada, Destino saida, long inicio, long fim, Rascunho rascunho) {
+        for (long bloco = inicio; bloco < fim; bloco += TAMANHO_BLOCO) {
+            int n = (int) Math.min(TAMANHO_BLOCO, fim - bloco);
+            for (int i = 0; i < nos.length; i++) executar(i, entrada, bloco, n, rascunho);
+            saida.escrever(bloco, rascunho.re[0], rascunho.im[0], n);
+        }
+    }
+
+    /*
+     * Um passo do plano. Os filhos já estão nos registradores: o esquerdo
+     * (ou a variável do polinômio) em r, o direito em r + 1.
+     */
+    private void executar(int i, Colunas entrada, long base, int n, Rascunho rascunho) {
+        Expressao no = nos[i];
+        int r = destinos[i];
+        double[] rRe = rascunho.re[r];
+        double[] rIm = rascunho.im[r];
+
+        if (no instanceof NoConstante) {
+            NumeroComplexo valor = ((NoConstante) no).getValor();
+            Arrays.fill(rRe, 0, n, valor.getReal());
+            Arrays.fill(rIm, 0, n, valor.getImaginario());
+            return;
+        }
+        if (no instanceof NoVariavel) {
+            entrada.ler(slots[i], base, rRe, rIm, n);
+            return;
+        }
+        if (no instanceof NoPolinomio) {
+            // z no registrador r + 1, Horner direto para r
+            Coeficientes c = rascunho.coeficientes((NoPolinomio) no);
+            kernels.horner(c.re, c.im, rascunho.re[r + 1], rascunho.im[r + 1], rRe, rIm, n);
+            return;
+        }
+
+        NoOperacao op = (NoOperacao) no;
+        switch (op.getOperador()) {
+            case CONJUGADO:
+                kernels.conjugar(rIm, n);
+                return;
+            case RAIZ:
+                for (int k = 0; k < n; k++) {
+                    ComplexAccumulator v = rascunho.acc.definir(rRe[k], rIm[k]).raiz(op.getParametroAuxiliar());
+                    rRe[k] = v.getReal();
+                    rIm[k] = v.getImaginario();
+                }
+                return;
+            default:
+                break;
+        }
+
+        double[] sRe = rascunho.re[r + 1];
+        double[] sIm = rascunho.im[r + 1];
+        switch (op.getOperador()) {
+            case SOMA: kernels.somar(rRe, rIm, sRe, sIm, n); break;
+            case SUBTRACAO: kernels.subtrair(rRe, rIm, sRe, sIm, n); break;
+            case MULTIPLICACAO: kernels.multiplicar(rRe, rIm, sRe, sIm, n); break;
+            case DIVISAO: kernels.dividir(rRe, rIm, sRe, sIm, n); break;
+            case POTENCIA:
+                for (int k = 0; k < n; k++) {
+                    ComplexAccumulator v = rascunho.acc.definir(rRe[k], rIm[k]).potencia((int) sRe[k]);
+                    rRe[k] = v.getReal();
+                    rIm[k] = v.getImaginario();
+                }
+                break;
+            default: throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    /*
+     * Lineariza a árvore em pós-ordem com pilha explícita (sem limite de
+     * profundidade). Mesma alocação de registradores do compilador: o filho
+     * direito usa r + 1. Devolve o maior registrador usado.
+     */
+    private static int planejar(Expressao raiz, List<Expressao> ordem, List<Integer> registros) {
+        Deque<Passo> pilha = new ArrayDeque<>();
+        pilha.push(new Passo(raiz, 0, false));
+        int maximo = 0;
+        while (!pilha.isEmpty()) {
+            Passo p = pilha.pop();
+            Expressao no = p.no;
+            maximo = Math.max(maximo, p.r);
+            if (p.expandido || no instanceof NoConstante || no instanceof NoVariavel) {
+                ordem.add(no);
+                registros.add(p.r);
+                continue;
+            }
+            // O próprio nó volta para a pilha e sai depois dos filhos
+            pilha.push(new Passo(no, p.r, true));
+            if (no instanceof NoPolinomio) {
+                pilha.push(new Passo(((NoPolinomio) no).getVariavel(), p.r + 1, false));
+                continue;
+            }
+            if (!(no instanceof NoOperacao)) {
+                throw new IllegalArgumentException("Nó não suportado na avaliação em lote: " + no.getClass().getSimpleName());
+            }
+            NoOperacao op = (NoOperacao) no;
+            if (op.getDireita() != null) pilha.push(new Passo(op.getDireita(), p.r + 1, false));
+            pilha.push(new Passo(op.getEsquerda(), p.r, false));
+        }
+        return maximo;
+    }
+
+    private static final class Passo {
+        final Expressao no;
+        final int r;
+        final boolean expandido;
+
+        Passo(Expressao no, int r, boolean expandido) {
+            this.no = no;
+            this.r = r;
+            this.expandido = expandido;
+        }
+    }
+}
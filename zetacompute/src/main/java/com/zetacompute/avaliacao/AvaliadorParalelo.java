@@ -0,0 +1,97 @@
+package com.zetacompute.avaliacao;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Avaliação em lote dividida entre vários núcleos com ForkJoinPool.
+ * O intervalo de pontos é dividido ao meio até atingir o limiar de tamanho
+ * (sempre em fronteiras de bloco do AvaliadorLote). Cada tarefa recebe o
+ * rascunho em que vai trabalhar: a metade executada pela própria tarefa
+ * herda o dela e a metade bifurcada (que pode rodar em outra thread) cria
+ * o seu na folha. Nada fica preso às threads do pool depois da chamada.
+ * Cada ponto é escrito na sua posição da saída, então o resultado é
+ * idêntico ao da avaliação sequencial.
+ */
+public final class AvaliadorParalelo {
+
+    // Pontos por tarefa folha: grande o bastante para amortizar o fork
+    public static final int LIMIAR_PADRAO = 16 * AvaliadorLote.TAMANHO_BLOCO;
+
+    private final AvaliadorLote lote;
+    private final ForkJoinPool pool;
+    private final int limiar;
+
+    public AvaliadorParalelo(AvaliadorLote lote) {
+        this(lote, ForkJoinPool.commonPool(), LIMIAR_PADRAO);
+    }
+
+    public AvaliadorParalelo(AvaliadorLote lote, ForkJoinPool pool, int limiar) {
+        if (limiar <= 0) {
+            throw new IllegalArgumentException("O limiar deve ser positivo.");
+        }
+        this.lote = lote;
+        this.pool = pool;
+        // Arredonda para um múltiplo do bloco para não quebrar blocos entre tarefas
+        long arredondado = (long) Math.ceilDiv(limiar, AvaliadorLote.TAMANHO_BLOCO) * AvaliadorLote.TAMANHO_BLOCO;
+        int maximo = Integer.MAX_VALUE / AvaliadorLote.TAMANHO_BLOCO * AvaliadorLote.TAMANHO_BLOCO;
+        this.limiar = (int) Math.min(arredondado, maximo);
+    }
+
+    public AvaliadorLote getLote() {
+        return lote;
+    }
+
+    public int getParalelismo() {
+        return pool.getParallelism();
+    }
+
+    /*
+     * Avalia os n primeiros pontos (mesmo formato de AvaliadorLote.avaliar).
+     * Uma ArithmeticException em qualquer tarefa é relançada aqui.
+     */
+    public void avaliar(double[][] re, double[][] im, double[] saidaRe, double[] saidaIm, int n) {
+        if (n <= limiar) {
+            lote.avaliar(re, im, saidaRe, saidaIm, n);
+            return;
+        }
+        pool.invoke(new Tarefa(re, im, saidaRe, saidaIm, 0, n, lote.novoRascunho()));
+    }
+
+    private final class Tarefa extends RecursiveAction {
+        private final double[][] re;
+        private final double[][] im;
+        private final double[] saidaRe;
+        private final double[] saidaIm;
+        private final int inicio;
+        private final int fim;
+        private final AvaliadorLote.Rascunho rascunho; // null: criado na folha
+
+        Tarefa(double[][] re, double[][] im, double[] saidaRe, double[] saidaIm, int inicio, int fim,
+               AvaliadorLote.Rascunho rascunho) {
+            this.re = re;
+            this.im = im;
+            this.saidaRe = saidaRe;
+            this.saidaIm = saidaIm;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.rascunho = rascunho;
+        }
+
+        @Override
+        protected void compute() {
+            int tamanho = fim - inicio;
+            int blocos = tamanho / AvaliadorLote.TAMANHO_BLOCO;
+            if (tamanho <= limiar || blocos < 2) {
+                lote.avaliar(re, im, saidaRe, saidaIm, inicio, fim,
+                        rascunho != null ? rascunho : lote.novoRascunho());
+                return;
+            }
+            // Meio alinhado ao bloco
+            int meio = inicio + (blocos / 2) * AvaliadorLote.TAMANHO_BLOCO;
+            // invokeAll executa a primeira aqui e bifurca a segunda
+            invokeAll(new Tarefa(re, im, saidaRe, saidaIm, inicio, meio, rascunho),
+                    new Tarefa(re, im, saidaRe, saidaIm, meio, fim, null));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.zetacompute.avaliacao;
+
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * Diferenciação automática no modo direto: uma única passada pela árvore
+ * calcula o valor e as derivadas em relação às variáveis escolhidas, sem
+ * diferenças finitas.
+ *
+ * Cada nó carrega o valor f e, para cada variável z, as derivadas de
+ * Wirtinger df/dz e df/dz̄. Para uma função holomorfa df/dz̄ = 0 e df/dz é a
+ * derivada complexa usual; o conjugado é o caso não holomorfo:
+ * d(conj f)/dz = conj(df/dz̄) e d(conj f)/dz̄ = conj(df/dz).
+ *
+ * Regras das outras operações (todas holomorfas, aplicadas às duas derivadas):
+ *  - soma, subtração, produto e quociente pelas regras usuais;
+ *  - potência: o expoente é truncado para inteiro na avaliação, então só a
+ *    base contribui: d(f^n) = n f^(n-1) df;
+ *  - raiz n-ésima principal: d(f^(1/n)) = f^(1/n) / (n f) df, fora do corte
+ *    no semieixo real negativo. Em f = 0 o valor existe (Expressao.avaliar
+ *    devolve 0), mas a derivada não: a derivação lança ArithmeticException
+ *    com mensagem própria. É a única divergência em relação a avaliar.
+ *
+ * Os valores usam as mesmas operações de NumeroComplexo, então coincidem
+ * com Expressao.avaliar, inclusive nas exceções e na ordem em que aparecem.
+ * A árvore é percorrida com uma pilha explícita (árvores profundas não
+ * estouram a pilha de chamadas) e subárvores compartilhadas (FabricaNos /
+ * ExpressaoCompartilhada) são calculadas uma vez.
+ */
+public final class DerivacaoAutomatica {
+
+    private static final NumeroComplexo ZERO = new NumeroComplexo(0, 0);
+    private static final NumeroComplexo UM = new NumeroComplexo(1, 0);
+    private static final Expressao[] SEM_FILHOS = new Expressao[0];
+
+    private final Map<String, NumeroComplexo> variaveis;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final String[] nomes;
+    private final NumeroComplexo[] zeros;
+    private final Map<Expressao, Dual> calculados = new IdentityHashMap<>();
+    private final Map<Expressao, Expressao> expandidos = new IdentityHashMap<>(); // NoPolinomio -> forma expandida
+
+    private DerivacaoAutomatica(Map<String, NumeroComplexo> variaveis, String[] nomes) {
+        this.variaveis = variaveis;
+        this.nomes = nomes.clone();
+        for (int k = 0; k < nomes.length; k++) {
+            if (indices.put(nomes[k], k) != null) {
+                throw new IllegalArgumentException("Variável repetida: " + nomes[k]);
+            }
+        }
+        this.zeros = new NumeroComplexo[nomes.length];
+        Arrays.fill(zeros, ZERO);
+    }
+
+    /*
+     * Avalia a expressão e as derivadas em relação a cada variável de 'derivarEm'.
+     * Variáveis que não aparecem na expressão têm derivadas nulas.
+     */
+    public static Resultado avaliar(Expressao expressao, Map<String, NumeroComplexo> variaveis, String... derivarEm) {
+        DerivacaoAutomatica d = new DerivacaoAutomatica(variaveis, derivarEm);
+        Dual r = d.calcular(Envoltorio.arvore(expressao));
+        return new Resultado(d.nomes, r);
+    }
+
+    // Valor e derivadas de Wirtinger de um nó (vetores indexados pela variável)
+    private static final class Dual {
+        final NumeroComplexo valor;
+        final NumeroComplexo[] dz;
+        final NumeroComplexo[] dzConj;
+
+        Dual(NumeroComplexo valor, NumeroComplexo[] dz, NumeroComplexo[] dzConj) {
+            this.valor = valor;
+            this.dz = dz;
+            this.dzConj = dzConj;
+        }
+    }
+
+    // Pós-ordem com a esquerda antes da direita: os erros saem na mesma ordem de Expressao.avaliar
+    private Dual calcular(Expressao raiz) {
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Expressao no = pilha.peek();
+            if (calculados.containsKey(no)) {
+                pilha.pop();
+                continue;
+            }
+            Expressao[] filhos = filhos(no);
+            boolean pronto = true;
+            for (int k = filhos.length - 1; k >= 0; k--) {
+                if (!calculados.containsKey(filhos[k])) {
+                    pilha.push(filhos[k]);
+                    pronto = false;
+                }
+            }
+            if (!pronto) continue;
+            pilha.pop();
+            calculados.put(no, combinar(no, filhos));
+        }
+        return calculados.get(raiz);
+    }
+
+    private Expressao[] filhos(Expressao no) {
+        if (no instanceof NoConstante || no instanceof NoVariavel) return SEM_FILHOS;
+        if (no instanceof NoPolinomio) {
+            // Horner: mesmo valor de NoPolinomio.avaliar
+            return new Expressao[] { expandidos.computeIfAbsent(no, p -> ((NoPolinomio) p).expandir()) };
+        }
+        if (!(no instanceof NoOperacao)) {
+            throw new IllegalArgumentException("Não é possível derivar " + no.getClass().getSimpleName());
+        }
+        NoOperacao op = (NoOperacao) no;
+        return op.getDireita() == null
+                ? new Expressao[] { op.getEsquerda() }
+                : new Expressao[] { op.getEsquerda(), op.getDireita() };
+    }
+
+    // Dual de um nó a partir dos duais já calculados dos filhos
+    private Dual combinar(Expressao no, Expressao[] filhos) {
+        if (no instanceof NoConstante) {
+            return new Dual(((NoConstante) no).getValor(), zeros, zeros);
+        }
+        if (no instanceof NoVariavel) {
+            String nome = ((NoVariavel) no).getNome();
+            NumeroComplexo valor = no.avaliar(variaveis); // mesmo erro de variável indefinida
+            Integer k = indices.get(nome);
+            if (k == null) return new Dual(valor, zeros, zeros);
+            NumeroComplexo[] dz = zeros.clone();
+            dz[k] = UM;
+            return new Dual(valor, dz, zeros);
+        }
+        if (no instanceof NoPolinomio) {
+            return calculados.get(filhos[0]);
+        }
+
+        NoOperacao op = (NoOperacao) no;
+        Dual a = calculados.get(filhos[0]);
+        switch (op.getOperador()) {
+            case CONJUGADO:
+                return new Dual(a.valor.getConjugado(), conjugar(a.dzConj), conjugar(a.dz));
+            case RAIZ: {
+                int n = op.getParametroAuxiliar();
+                NumeroComplexo valor = a.valor.raiz(n);
+                if (constante(a)) return new Dual(valor, zeros, zeros);
+                if (a.valor.getReal() == 0 && a.valor.getImaginario() == 0) {
+                    throw new ArithmeticException("A derivada da raiz não existe quando o radicando é zero.");
+                }
+                NumeroComplexo fator = valor.dividir(a.valor.multiplicar(new NumeroComplexo(n, 0)));
+                return new Dual(valor, escalar(fator, a.dz), escalar(fator, a.dzConj));
+            }
+            default:
+                return binaria(op.getOperador(), a, calculados.get(filhos[1]));
+        }
+    }
+
+    private Dual binaria(NoOperacao.Operador operador, Dual a, Dual b) {
+        switch (operador) {
+            case SOMA:
+                return new Dual(a.valor.somar(b.valor), somar(a.dz, b.dz), somar(a.dzConj, b.dzConj));
+            case SUBTRACAO:
+                return new Dual(a.valor.subtrair(b.valor), subtrair(a.dz, b.dz), subtrair(a.dzConj, b.dzConj));
+            case MULTIPLICACAO:
+                // (ab)' = a' b + a b'
+                return new Dual(a.valor.multiplicar(b.valor),
+                        somar(escalar(b.valor, a.dz), escalar(a.valor, b.dz)),
+                        somar(escalar(b.valor, a.dzConj), escalar(a.valor, b.dzConj)));
+            case DIVISAO: {
+                // (a/b)' = (a' - (a/b) b') / b
+                NumeroComplexo valor = a.valor.dividir(b.valor);
+                return new Dual(valor,
+                        dividir(subtrair(a.dz, escalar(valor, b.dz)), b.valor),
+                        dividir(subtrair(a.dzConj, escalar(valor, b.dzConj)), b.valor));
+            }
+            case POTENCIA: {
+                int n = (int) b.valor.getReal();
+                NumeroComplexo valor = a.valor.potencia(n);
+                if (n == 0 || constante(a)) return new Dual(valor, zeros, zeros);
+                NumeroComplexo fator = a.valor.potencia(n - 1).multiplicar(new NumeroComplexo(n, 0));
+                return new Dual(valor, escalar(fator, a.dz), escalar(fator, a.dzConj));
+            }
+            default:
+                throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    // --- Operações sobre os vetores de derivadas ---
+
+    private static boolean constante(Dual d) {
+        return todosZero(d.dz) && todosZero(d.dzConj);
+    }
+
+    private static boolean todosZero(NumeroComplexo[] v) {
+        for (NumeroComplexo x : v) {
+            if (x.getReal() != 0 || x.getImaginario() != 0) return false;
+        }
+        return true;
+    }
+
+    private NumeroComplexo[] somar(NumeroComplexo[] a, NumeroComplexo[] b) {
+        if (a == zeros) return b;
+        if (b == zeros) return a;
+        NumeroComplexo[] r = new NumeroComplexo[a.length];
+        for (int k = 0; k < r.length; k++) r[k] = a[k].somar(b[k]);
+        return r;
+    }
+
+    private NumeroComplexo[] subtrair(NumeroComplexo[] a, NumeroComplexo[] b) {
+        if (b == zeros) return a;
+        NumeroComplexo[] r = new NumeroComplexo[a.length];
+        for (int k = 0; k < r.length; k++) r[k] = a[k].subtrair(b[k]);
+        return r;
+    }
+
+    private NumeroComplexo[] escalar(NumeroComplexo fator, NumeroComplexo[] v) {
+        if (v == zeros) return zeros;
+        NumeroComplexo[] r = new NumeroComplexo[v.length];
+        for (int k = 0; k < r.length; k++) r[k] = fator.multiplicar(v[k]);
+        return r;
+    }
+
+    private NumeroComplexo[] dividir(NumeroComplexo[] v, NumeroComplexo divisor) {
+        if (v == zeros) return zeros;
+        NumeroComplexo[] r = new NumeroComplexo[v.length];
+        for (int k = 0; k < r.length; k++) r[k] = v[k].dividir(divisor);
+        return r;
+    }
+
+    private NumeroComplexo[] conjugar(NumeroComplexo[] v) {
+        if (v == zeros) return zeros;
+        NumeroComplexo[] r = new NumeroComplexo[v.length];
+        for (int k = 0; k < r.length; k++) r[k] = v[k].getConjugado();
+        return r;
+    }
+
+    /*
+     * Valor da expressão e derivadas de Wirtinger em relação a cada variável pedida.
+     */
+    public static final class Resultado {
+        private final String[] nomes;
+        private final Dual dual;
+
+        private Resultado(String[] nomes, Dual dual) {
+            this.nomes = nomes;
+            this.dual = dual;
+        }
+
+        public NumeroComplexo getValor() {
+            return dual.valor;
+        }
+
+        // df/dz: a derivada complexa quando f é holomorfa em z
+        public NumeroComplexo getDerivada(String variavel) {
+            return dual.dz[indice(variavel)];
+        }
+
+        // df/dz̄: zero quando f é holomorfa em z
+        public NumeroComplexo getDerivadaConjugada(String variavel) {
+            return dual.dzConj[indice(variavel)];
+        }
+
+        public boolean isHolomorfa(String variavel) {
+            NumeroComplexo d = getDerivadaConjugada(variavel);
+            return d.getReal() == 0 && d.getImaginario() == 0;
+        }
+
+        private int indice(String variavel) {
+            for (int k = 0; k < nomes.length; k++) {
+                if (nomes[k].equals(variavel)) return k;
+            }
+            throw new IllegalArgumentException("Derivada não calculada para a variável '" + variavel + "'.");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.zetacompute.avaliacao;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+
+/*
+ * Tempo de escape de iterações z -> f(z, c), como z^2 + c (Mandelbrot).
+ * Para cada parâmetro c, a partir de z0 (0 por padrão):
+ *
+ *   for (n = 0; n < maximo; n++) { if (|z| > raio) break; z = f(z, c); }
+ *
+ * e a contagem é n: valores menores que o máximo indicam que o ponto escapou.
+ * NaN e infinito contam como escape.
+ *
+ * Os pontos são processados em blocos do AvaliadorLote, com z e c em arrays
+ * primitivos. A cada passo os pontos que escaparam saem do bloco (o último
+ * ponto ativo ocupa a vaga), então as lanes vetoriais só trabalham com
+ * pontos ativos e o bloco termina assim que todos escapam. Se f lança
+ * ArithmeticException num ponto (ex.: 1 / z com z = 0), o ponto vira NaN e
+ * escapa no passo seguinte.
+ *
+ * As instâncias podem ser usadas por várias threads: o estado dos blocos é
+ * criado a cada chamada de calcular e não fica preso à thread. Para
+ * paralelizar, divida os parâmetros entre as threads; para amortizar o
+ * estado, passe muitos parâmetros por chamada.
+ */
+public final class IteracaoEscape {
+
+    private static final int SLOT_ITERADA = 0;
+    private static final int SLOT_PARAMETRO = 1;
+
+    private final AvaliadorLote lote;
+    private final int maximoIteracoes;
+    private final double raioQuadrado;
+
+    public IteracaoEscape(Expressao f, String iterada, String parametro, int maximoIteracoes, double raioEscape) {
+        if (maximoIteracoes < 0) {
+            throw new IllegalArgumentException("O máximo de iterações não pode ser negativo.");
+        }
+        if (!(raioEscape > 0)) {
+            throw new IllegalArgumentException("O raio de escape deve ser positivo.");
+        }
+        this.lote = AvaliadorLote.para(f, new Bindings(iterada, parametro));
+        this.maximoIteracoes = maximoIteracoes;
+        this.raioQuadrado = raioEscape * raioEscape;
+    }
+
+    public int getMaximoIteracoes() {
+        return maximoIteracoes;
+    }
+
+    // Contagens dos n primeiros parâmetros, com z0 = 0
+    public void calcular(double[] cRe, double[] cIm, int[] contagens, int n) {
+        calcular(cRe, cIm, null, null, contagens, n);
+    }
+
+    // Contagens dos n primeiros parâmetros, com z0 dado por ponto (z0Re/z0Im null: z0 = 0)
+    public void calcular(double[] cRe, double[] cIm, double[] z0Re, double[] z0Im, int[] contagens, int n) {
+        if (n <= 0) return;
+        Estado estado = new Estado(lote, Math.min(n, AvaliadorLote.TAMANHO_BLOCO));
+        for (int base = 0; base < n; base += AvaliadorLote.TAMANHO_BLOCO) {
+            calcularBloco(cRe, cIm, z0Re, z0Im, contagens, base, Math.min(AvaliadorLote.TAMANHO_BLOCO, n - base), estado);
+        }
+    }
+
+    public int calcular(NumeroComplexo c) {
+        int[] contagem = new int[1];
+        calcular(new double[] { c.getReal() }, new double[] { c.getImaginario() }, contagem, 1);
+        return contagem[0];
+    }
+
+    private void calcularBloco(double[] cRe, double[] cIm, double[] z0Re, double[] z0Im,
+                               int[] contagens, int base, int m, Estado e) {
+        for (int k = 0; k < m; k++) {
+            e.ponto[k] = base + k;
+            e.zRe[k] = z0Re != null ? z0Re[base + k] : 0.0;
+            e.zIm[k] = z0Im != null ? z0Im[base + k] : 0.0;
+            e.cRe[k] = cRe[base + k];
+            e.cIm[k] = cIm[base + k];
+        }
+
+        int ativos = m;
+        for (int passo = 0; passo < maximoIteracoes; passo++) {
+            // Compactação: quem escapou recebe a contagem e dá a vaga ao último ativo
+            for (int k = 0; k < ativos; ) {
+                double re = e.zRe[k];
+                double im = e.zIm[k];
+                if (re * re + im * im <= raioQuadrado) {
+                    k++;
+                    continue;
+                }
+                contagens[e.ponto[k]] = passo;
+                ativos--;
+                e.mover(ativos, k);
+            }
+            if (ativos == 0) return;
+
+            try {
+                lote.avaliar(e.entrada, e.saida, 0, ativos, e.rascunho);
+            } catch (ArithmeticException erro) {
+                passoPontoAPonto(e, ativos);
+            }
+        }
+        for (int k = 0; k < ativos; k++) contagens[e.ponto[k]] = maximoIteracoes;
+    }
+
+    private void passoPontoAPonto(Estado e, int ativos) {
+        Expressao f = lote.getExpressao();
+        for (int k = 0; k < ativos; k++) {
+            e.valores.definir(SLOT_ITERADA, e.zRe[k], e.zIm[k]);
+            e.valores.definir(SLOT_PARAMETRO, e.cRe[k], e.cIm[k]);
+            try {
+                NumeroComplexo z = f.avaliar(e.valores);
+                e.zRe[k] = z.getReal();
+                e.zIm[k] = z.getImaginario();
+            } catch (ArithmeticException erro) {
+                e.zRe[k] = Double.NaN;
+                e.zIm[k] = Double.NaN;
+            }
+        }
+    }
+
+    // Estado dos blocos de uma chamada: só as posições [0, ativos) estão em uso
+    private static final class Estado {
+        final double[] zRe;
+        final double[] zIm;
+        final double[] cRe;
+        final double[] cIm;
+        final int[] ponto; // índice original
+        final AvaliadorLote.Rascunho rascunho;
+        final Bindings valores;
+        final AvaliadorLote.Colunas entrada;
+        final AvaliadorLote.Destino saida;
+
+        Estado(AvaliadorLote lote, int tamanho) {
+            zRe = new double[tamanho];
+            zIm = new double[tamanho];
+            cRe = new double[tamanho];
+            cIm = new double[tamanho];
+            ponto = new int[tamanho];
+            rascunho = lote.novoRascunho();
+            valores = lote.getLayout().novaInstancia();
+            // Os ativos formam um único bloco: todas as leituras terminam antes da escrita do novo z
+            entrada = (slot, inicio, re, im, n) -> {
+                System.arraycopy(slot == SLOT_ITERADA ? zRe : cRe, (int) inicio, re, 0, n);
+                System.arraycopy(slot == SLOT_ITERADA ? zIm : cIm, (int) inicio, im, 0, n);
+            };
+            saida = (inicio, re, im, n) -> {
+                System.arraycopy(re, 0, zRe, (int) inicio, n);
+                System.arraycopy(im, 0, zIm, (int) inicio, n);
+            };
+        }
+
+        void mover(int de, int para) {
+            zRe[para] = zRe[de];
+            zIm[para] = zIm[de];
+            cRe[para] = cRe[de];
+            cIm[para] = cIm[de];
+            ponto[para] = ponto[de];
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.zetacompute.avaliacao;
+
+/*
+ * Kernels elemento a elemento sobre vetores de números complexos no formato
+ * "struct of arrays" (partes reais e imaginárias em vetores separados).
+ * Todas as operações são feitas no lugar: a = a (op) b, para os índices [0, n).
+ *
+ * Os resultados são idênticos bit a bit aos de NumeroComplexo, pois usam as
+ * mesmas fórmulas e a mesma ordem de operações (sem FMA).
+ */
+public abstract class KernelsComplexos {
+
+    private static final KernelsComplexos ESCALARES = new KernelsEscalares();
+    private static final KernelsComplexos VETORIAIS = carregarVetoriais();
+    private static final KernelsComplexos PADRAO =
+            VETORIAIS != null && !Boolean.getBoolean("zetacompute.lote.escalar") ? VETORIAIS : ESCALARES;
+
+    public abstract void somar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n);
+
+    public abstract void subtrair(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n);
+
+    public abstract void multiplicar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n);
+
+    // Lança ArithmeticException se algum divisor for zero (mesma tolerância de NumeroComplexo)
+    public abstract void dividir(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n);
+
+    /*
+     * a = polinômio de coeficientes (cRe, cIm), em ordem crescente de grau,
+     * avaliado em z pela regra de Horner (mesmas operações de NoPolinomio).
+     */
+    public abstract void horner(double[] cRe, double[] cIm, double[] zRe, double[] zIm, double[] aRe, double[] aIm, int n);
+
+    public void conjugar(double[] aIm, int n) {
+        for (int k = 0; k < n; k++) {
+            aIm[k] = -aIm[k];
+        }
+    }
+
+    public abstract String getNome();
+
+    /*
+     * Implementação usada por padrão: vetorial quando o módulo
+     * jdk.incubator.vector está disponível (--add-modules), senão escalar.
+     * A propriedade -Dzetacompute.lote.escalar=true força a versão escalar.
+     */
+    public static KernelsComplexos padrao() {
+        return PADRAO;
+    }
+
+    public static KernelsComplexos escalares() {
+        return ESCALARES;
+    }
+
+    // Retorna null quando a Vector API não está disponível nesta JVM
+    public static KernelsComplexos vetoriais() {
+        return VETORIAIS;
+    }
+
+    private static KernelsComplexos carregarVetoriais() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return new KernelsVetoriais();
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    static ArithmeticException divisaoPorZero() {
+        return new ArithmeticException("Divisão por zero não é permitida para números complexos.");
+    }
+}
@@ -0,0 +1,89 @@
+package com.zetacompute.avaliacao;
+
+/*
+ * Versão escalar dos kernels. Também é usada pela versão vetorial
+ * para processar o resto que não completa um vetor inteiro.
+ */
+final class KernelsEscalares extends KernelsComplexos {
+
+    private static final double EPSILON = 1e-9;
+
+    @Override
+    public void somar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        somar(aRe, aIm, bRe, bIm, 0, n);
+    }
+
+    @Override
+    public void subtrair(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        subtrair(aRe, aIm, bRe, bIm, 0, n);
+    }
+
+    @Override
+    public void multiplicar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        multiplicar(aRe, aIm, bRe, bIm, 0, n);
+    }
+
+    @Override
+    public void dividir(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        dividir(aRe, aIm, bRe, bIm, 0, n);
+    }
+
+    @Override
+    public void horner(double[] cRe, double[] cIm, double[] zRe, double[] zIm, double[] aRe, double[] aIm, int n) {
+        horner(cRe, cIm, zRe, zIm, aRe, aIm, 0, n);
+    }
+
+    @Override
+    public String getNome() {
+        return "escalar";
+    }
+
+    static void somar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int de, int ate) {
+        for (int k = de; k < ate; k++) {
+            aRe[k] = aRe[k] + bRe[k];
+            aIm[k] = aIm[k] + bIm[k];
+        }
+    }
+
+    static void subtrair(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int de, int ate) {
+        for (int k = de; k < ate; k++) {
+            aRe[k] = aRe[k] - bRe[k];
+            aIm[k] = aIm[k] - bIm[k];
+        }
+    }
+
+    static void multiplicar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int de, int ate) {
+        for (int k = de; k < ate; k++) {
+            double a = aRe[k], b = aIm[k], c = bRe[k], d = bIm[k];
+            aRe[k] = a * c - b * d;
+            aIm[k] = a * d + b * c;
+        }
+    }
+
+    static void dividir(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int de, int ate) {
+        for (int k = de; k < ate; k++) {
+            double a = aRe[k], b = aIm[k], c = bRe[k], d = bIm[k];
+            double denominador = c * c + d * d;
+            if (Math.abs(denominador) < EPSILON) {
+                throw divisaoPorZero();
+            }
+            aRe[k] = (a * c + b * d) / denominador;
+            aIm[k] = (b * c - a * d) / denominador;
+        }
+    }
+
+    static void horner(double[] cRe, double[] cIm, double[] zRe, double[] zIm, double[] aRe, double[] aIm, int de, int ate) {
+        int grau = cRe.length - 1;
+        for (int k = de; k < ate; k++) {
+            double a = cRe[grau], b = cIm[grau], c = zRe[k], d = zIm[k];
+            for (int j = grau - 1; j >= 0; j--) {
+                double novoA = a * c - b * d;
+                b = a * d + b * c;
+                a = novoA + cRe[j];
+                b = b + cIm[j];
+            }
+            aRe[k] = a;
+            aIm[k] = b;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.zetacompute.avaliacao;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * Kernels com a Vector API (jdk.incubator.vector). Só é carregada quando o
+ * módulo está presente; caso contrário KernelsComplexos usa a versão escalar.
+ */
+final class KernelsVetoriais extends KernelsComplexos {
+
+    private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+    private static final double EPSILON = 1e-9;
+
+    @Override
+    public void somar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        int limite = ESPECIE.loopBound(n);
+        int k = 0;
+        for (; k < limite; k += ESPECIE.length()) {
+            DoubleVector.fromArray(ESPECIE, aRe, k).add(DoubleVector.fromArray(ESPECIE, bRe, k)).intoArray(aRe, k);
+            DoubleVector.fromArray(ESPECIE, aIm, k).add(DoubleVector.fromArray(ESPECIE, bIm, k)).intoArray(aIm, k);
+        }
+        KernelsEscalares.somar(aRe, aIm, bRe, bIm, k, n);
+    }
+
+    @Override
+    public void subtrair(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        int limite = ESPECIE.loopBound(n);
+        int k = 0;
+        for (; k < limite; k += ESPECIE.length()) {
+            DoubleVector.fromArray(ESPECIE, aRe, k).sub(DoubleVector.fromArray(ESPECIE, bRe, k)).intoArray(aRe, k);
+            DoubleVector.fromArray(ESPECIE, aIm, k).sub(DoubleVector.fromArray(ESPECIE, bIm, k)).intoArray(aIm, k);
+        }
+        KernelsEscalares.subtrair(aRe, aIm, bRe, bIm, k, n);
+    }
+
+    @Override
+    public void multiplicar(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        int limite = ESPECIE.loopBound(n);
+        int k = 0;
+        for (; k < limite; k += ESPECIE.length()) {
+            DoubleVector a = DoubleVector.fromArray(ESPECIE, aRe, k);
+            DoubleVector b = DoubleVector.fromArray(ESPECIE, aIm, k);
+            DoubleVector c = DoubleVector.fromArray(ESPECIE, bRe, k);
+            DoubleVector d = DoubleVector.fromArray(ESPECIE, bIm, k);
+            a.mul(c).sub(b.mul(d)).intoArray(aRe, k);
+            a.mul(d).add(b.mul(c)).intoArray(aIm, k);
+        }
+        KernelsEscalares.multiplicar(aRe, aIm, bRe, bIm, k, n);
+    }
+
+    @Override
+    public void dividir(double[] aRe, double[] aIm, double[] bRe, double[] bIm, int n) {
+        int limite = ESPECIE.loopBound(n);
+        int k = 0;
+        for (; k < limite; k += ESPECIE.length()) {
+            DoubleVector a = DoubleVector.fromArray(ESPECIE, aRe, k);
+            DoubleVector b = DoubleVector.fromArray(ESPECIE, aIm, k);
+            DoubleVector c = DoubleVector.fromArray(ESPECIE, bRe, k);
+            DoubleVector d = DoubleVector.fromArray(ESPECIE, bIm, k);
+            DoubleVector denominador = c.mul(c).add(d.mul(d));
+            if (denominador.abs().compare(VectorOperators.LT, EPSILON).anyTrue()) {
+                throw divisaoPorZero();
+            }
+            a.mul(c).add(b.mul(d)).div(denominador).intoArray(aRe, k);
+            b.mul(c).sub(a.mul(d)).div(denominador).intoArray(aIm, k);
+        }
+        KernelsEscalares.dividir(aRe, aIm, bRe, bIm, k, n);
+    }
+
+    @Override
+    public void horner(double[] cRe, double[] cIm, double[] zRe, double[] zIm, double[] aRe, double[] aIm, int n) {
+        int grau = cRe.length - 1;
+        int limite = ESPECIE.loopBound(n);
+        int k = 0;
+        for (; k < limite; k += ESPECIE.length()) {
+            DoubleVector c = DoubleVector.fromArray(ESPECIE, zRe, k);
+            DoubleVector d = DoubleVector.fromArray(ESPECIE, zIm, k);
+            DoubleVector a = DoubleVector.broadcast(ESPECIE, cRe[grau]);
+            DoubleVector b = DoubleVector.broadcast(ESPECIE, cIm[grau]);
+            for (int j = grau - 1; j >= 0; j--) {
+                DoubleVector novoA = a.mul(c).sub(b.mul(d));
+                b = a.mul(d).add(b.mul(c)).add(cIm[j]);
+                a = novoA.add(cRe[j]);
+            }
+            a.intoArray(aRe, k);
+            b.intoArray(aIm, k);
+        }
+        KernelsEscalares.horner(cRe, cIm, zRe, zIm, aRe, aIm, k, n);
+    }
+
+    @Override
+    public String getNome() {
+        return "vetorial (" + ESPECIE.length() + " x double)";
+    }
+}
@@ -0,0 +1,474 @@
+package com.zetacompute.avaliacao;
+
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * Avaliação com precisão adaptativa. A primeira passada usa as operações
+ * de NumeroComplexo (mesmos valores e exceções de Expressao.avaliar) e
+ * carrega, junto de cada valor, um limite para o erro absoluto |exato - v|:
+ *
+ *  - constantes e variáveis são exatas (erro 0);
+ *  - soma e subtração: erros dos operandos mais o erro de arredondamento,
+ *    obtido exatamente pelo TwoSum (subtrações exatas não somam nada);
+ *  - produto e quociente: propagação pelos módulos dos operandos mais
+ *    gama(k) = k u / (1 - k u) sobre os termos da fórmula (u = 2^-53);
+ *  - potência e raiz: derivada n z^(n-1) e z^(1/n) / (n z) no disco de
+ *    erro, mais alguns ulps por função de Math. Se o disco de erro de uma
+ *    raiz cruza o corte no semieixo real negativo, o limite é o diâmetro
+ *    do disco que contém as raízes possíveis.
+ *
+ * Os limites são estimativas de primeira ordem feitas em double, baratas
+ * (algumas operações por nó) e não intervalos rigorosos. Quando k u chega
+ * a 1 (expoentes enormes), gama(k) não limita nada e o limite é infinito.
+ *
+ * Se o limite da raiz passa de tolerancia * |v|, só as subárvores com erro
+ * são recalculadas em BigDecimal com 'digitos' dígitos significativos; os
+ * filhos exatos entram com o próprio double, convertido sem perda. O
+ * expoente da potência continua sendo o truncamento do valor em double,
+ * como na árvore, e não é refinado. Valores infinitos ou NaN na fronteira
+ * da parte refinada impedem o refinamento: o resultado fica o da passada
+ * em double.
+ *
+ * As duas passadas percorrem a árvore com uma pilha explícita, então a
+ * profundidade só é limitada pela memória.
+ */
+public final class PrecisaoAdaptativa {
+
+    public static final int DIGITOS_PADRAO = 40;
+
+    private static final double U = Math.ulp(1.0) / 2;
+    private static final double GAMA2 = gama(2);
+    private static final double GAMA5 = gama(5);
+    private static final double GAMA8 = gama(8);
+    private static final Expressao[] SEM_FILHOS = new Expressao[0];
+
+    private final Map<String, NumeroComplexo> variaveis;
+    private final MathContext contexto;
+    private final Map<Expressao, Aproximacao> calculados = new IdentityHashMap<>();
+    private final Map<NoPolinomio, Expressao> expansoes = new IdentityHashMap<>();
+    private final Map<Expressao, Preciso> refinados = new IdentityHashMap<>();
+
+    private PrecisaoAdaptativa(Map<String, NumeroComplexo> variaveis, int digitos) {
+        this.variaveis = variaveis;
+        this.contexto = new MathContext(digitos);
+    }
+
+    public static Resultado avaliar(Expressao expressao, Map<String, NumeroComplexo> variaveis, double tolerancia) {
+        return avaliar(expressao, variaveis, tolerancia, DIGITOS_PADRAO);
+    }
+
+    /*
+     * Avalia em double e, se o limite de erro relativo passar de 'tolerancia',
+     * refina as subárvores afetadas com 'digitos' dígitos decimais.
+     * Tolerância 0 refina sempre que houver algum arredondamento.
+     */
+    public static Resultado avaliar(Expressao expressao, Map<String, NumeroComplexo> variaveis,
+                                    double tolerancia, int digitos) {
+        if (!(tolerancia >= 0)) {
+            throw new IllegalArgumentException("A tolerância deve ser um número não negativo.");
+        }
+        if (digitos <= 17) {
+            throw new IllegalArgumentException("A precisão estendida precisa de mais de 17 dígitos.");
+        }
+        PrecisaoAdaptativa p = new PrecisaoAdaptativa(variaveis, digitos);
+        Expressao raiz = Envoltorio.arvore(expressao);
+        Aproximacao a = p.calcular(raiz);
+        if (a.erro <= tolerancia * modulo(a.valor)) {
+            return new Resultado(a.valor, a.erro, 0);
+        }
+        try {
+            Preciso v = p.refinar(raiz);
+            return new Resultado(v.paraNumeroComplexo(), a.erro, p.refinados.size());
+        } catch (NaoRefinavel e) {
+            return new Resultado(a.valor, a.erro, 0);
+        }
+    }
+
+    // --- Passada em double com limite de erro ---
+
+    private static final class Aproximacao {
+        final NumeroComplexo valor;
+        final double erro; // limite para |exato - valor|
+
+        Aproximacao(NumeroComplexo valor, double erro) {
+            this.valor = valor;
+            // Valor fora do intervalo do double: nada se pode afirmar
+            boolean finito = Double.isFinite(valor.getReal()) && Double.isFinite(valor.getImaginario());
+            this.erro = finito && !Double.isNaN(erro) ? erro : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Pós-ordem com a esquerda antes da direita: os erros saem na mesma ordem de Expressao.avaliar
+    private Aproximacao calcular(Expressao raiz) {
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Expressao no = pilha.peek();
+            if (calculados.containsKey(no)) {
+                pilha.pop();
+                continue;
+            }
+            Expressao[] filhos = filhos(no);
+            boolean pronto = true;
+            for (int k = filhos.length - 1; k >= 0; k--) {
+                if (!calculados.containsKey(filhos[k])) {
+                    pilha.push(filhos[k]);
+                    pronto = false;
+                }
+            }
+            if (!pronto) continue;
+            pilha.pop();
+            calculados.put(no, combinar(no, filhos));
+        }
+        return calculados.get(raiz);
+    }
+
+    private Expressao[] filhos(Expressao no) {
+        if (no instanceof NoConstante || no instanceof NoVariavel) return SEM_FILHOS;
+        if (no instanceof NoPolinomio) return new Expressao[] { expandido(no) };
+        if (!(no instanceof NoOperacao)) {
+            throw new IllegalArgumentException("Nó não suportado na avaliação adaptativa: " + no.getClass().getSimpleName());
+        }
+        NoOperacao op = (NoOperacao) no;
+        return op.getDireita() == null
+                ? new Expressao[] { op.getEsquerda() }
+                : new Expressao[] { op.getEsquerda(), op.getDireita() };
+    }
+
+    // Horner como árvore: mesmo valor de NoPolinomio.avaliar
+    private Expressao expandido(Expressao no) {
+        return no instanceof NoPolinomio ? expansoes.computeIfAbsent((NoPolinomio) no, NoPolinomio::expandir) : no;
+    }
+
+    private Aproximacao combinar(Expressao no, Expressao[] filhos) {
+        if (no instanceof NoConstante) {
+            return new Aproximacao(((NoConstante) no).getValor(), 0);
+        }
+        if (no instanceof NoVariavel) {
+            return new Aproximacao(no.avaliar(variaveis), 0); // mesmo erro de variável indefinida
+        }
+        if (no instanceof NoPolinomio) {
+            return calculados.get(filhos[0]);
+        }
+        NoOperacao op = (NoOperacao) no;
+        Aproximacao a = calculados.get(filhos[0]);
+        switch (op.getOperador()) {
+            case CONJUGADO: return new Aproximacao(a.valor.getConjugado(), a.erro);
+            case RAIZ: return raiz(a, op.getParametroAuxiliar());
+            default: return binaria(op.getOperador(), a, calculados.get(filhos[1]));
+        }
+    }
+
+    private static Aproximacao binaria(NoOperacao.Operador operador, Aproximacao a, Aproximacao b) {
+        NumeroComplexo x = a.valor;
+        NumeroComplexo y = b.valor;
+        switch (operador) {
+            case SOMA: {
+                NumeroComplexo v = x.somar(y);
+                double local = Math.abs(erroSoma(x.getReal(), y.getReal(), v.getReal()))
+                        + Math.abs(erroSoma(x.getImaginario(), y.getImaginario(), v.getImaginario()));
+                return new Aproximacao(v, a.erro + b.erro + local);
+            }
+            case SUBTRACAO: {
+                NumeroComplexo v = x.subtrair(y);
+                double local = Math.abs(erroSoma(x.getReal(), -y.getReal(), v.getReal()))
+                        + Math.abs(erroSoma(x.getImaginario(), -y.getImaginario(), v.getImaginario()));
+                return new Aproximacao(v, a.erro + b.erro + local);
+            }
+            case MULTIPLICACAO: {
+                // |re| + |im| da fórmula de cada componente somam norma1(x) * norma1(y)
+                NumeroComplexo v = x.multiplicar(y);
+                double propagado = modulo(x) * b.erro + modulo(y) * a.erro + a.erro * b.erro;
+                return new Aproximacao(v, propagado + GAMA2 * norma1(x) * norma1(y));
+            }
+            case DIVISAO: {
+                NumeroComplexo v = x.dividir(y);
+                double my = modulo(y);
+                if (b.erro >= my) return new Aproximacao(v, Double.POSITIVE_INFINITY);
+                // |a/b - (a+da)/(b+db)| <= (|v| eb + ea) / (|b| - eb)
+                double propagado = (modulo(v) * b.erro + a.erro) / (my - b.erro);
+                double denominador = y.getReal() * y.getReal() + y.getImaginario() * y.getImaginario();
+                return new Aproximacao(v, propagado + GAMA5 * norma1(x) * norma1(y) / denominador);
+            }
+            case POTENCIA:
+                return potencia(a, (int) y.getReal());
+            default:
+                throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    private static Aproximacao potencia(Aproximacao a, int n) {
+        NumeroComplexo v = a.valor.potencia(n);
+        if (n == 0) return new Aproximacao(v, 0);
+        double m = modulo(a.valor);
+        long k = Math.abs((long) n);
+        double propagado;
+        if (a.erro == 0) {
+            propagado = 0;
+        } else if (n > 0) {
+            // Valor médio: |(z+d)^n - z^n| <= n (|z| + |d|)^(n-1) |d|
+            propagado = k * Math.pow(m + a.erro, k - 1) * a.erro;
+        } else if (a.erro >= m) {
+            propagado = Double.POSITIVE_INFINITY;
+        } else {
+            propagado = k * Math.pow(m + a.erro, k - 1) * a.erro / (Math.pow(m, k) * Math.pow(m - a.erro, k));
+        }
+        // Quadrados sucessivos: até dois produtos por bit do expoente; De Moivre: erro do ângulo vezes n
+        int passos = k <= 64 ? 6 * (64 - Long.numberOfLeadingZeros(k)) + 4 : (int) Math.min(8 * k + 8, Integer.MAX_VALUE / 2);
+        return new Aproximacao(v, propagado + gama(passos) * Math.pow(m, n));
+    }
+
+    private static Aproximacao raiz(Aproximacao a, int n) {
+        NumeroComplexo v = a.valor.raiz(n);
+        double m = modulo(a.valor);
+        double mv = modulo(v);
+        double e = a.erro;
+        if (e >= m || (e > 0 && a.valor.getReal() < 0 && Math.abs(a.valor.getImaginario()) <= e)) {
+            // O disco de erro contém zero ou cruza o corte: qualquer raiz com módulo até (|z| + e)^(1/n)
+            return new Aproximacao(v, 2 * Math.pow(m + e, 1.0 / n));
+        }
+        return new Aproximacao(v, mv * e / (n * (m - e)) + GAMA8 * mv);
+    }
+
+    // Erro exato de arredondamento de s = a + b (TwoSum de Knuth)
+    private static double erroSoma(double a, double b, double s) {
+        double bb = s - a;
+        return (a - (s - bb)) + (b - bb);
+    }
+
+    // k u >= 1: a fórmula trocaria de sinal ou dividiria por zero
+    private static double gama(int k) {
+        double ku = k * U;
+        return ku < 1 ? ku / (1 - ku) : Double.POSITIVE_INFINITY;
+    }
+
+    private static double modulo(NumeroComplexo z) {
+        return Math.hypot(z.getReal(), z.getImaginario());
+    }
+
+    private static double norma1(NumeroComplexo z) {
+        return Math.abs(z.getReal()) + Math.abs(z.getImaginario());
+    }
+
+    // --- Refinamento em BigDecimal ---
+
+    // Só desce nos filhos com erro; os exatos entram pelo próprio double
+    private Preciso refinar(Expressao raiz) {
+        raiz = expandido(raiz);
+        if (!(raiz instanceof NoOperacao)) return Preciso.exato(calculados.get(raiz).valor);
+        Deque<NoOperacao> pilha = new ArrayDeque<>();
+        pilha.push((NoOperacao) raiz);
+        while (!pilha.isEmpty()) {
+            NoOperacao op = pilha.peek();
+            if (refinados.containsKey(op)) {
+                pilha.pop();
+                continue;
+            }
+            boolean pronto = true;
+            // A potência usa o expoente em double: só a base é refinada
+            Expressao dir = op.getOperador() == NoOperacao.Operador.POTENCIA ? null : op.getDireita();
+            if (dir != null && precisaRefinar(dir)) {
+                pilha.push((NoOperacao) expandido(dir));
+                pronto = false;
+            }
+            if (precisaRefinar(op.getEsquerda())) {
+                pilha.push((NoOperacao) expandido(op.getEsquerda()));
+                pronto = false;
+            }
+            if (!pronto) continue;
+            pilha.pop();
+            refinados.put(op, refinarNo(op));
+        }
+        return refinados.get(raiz);
+    }
+
+    private boolean precisaRefinar(Expressao filho) {
+        Expressao no = expandido(filho);
+        return no instanceof NoOperacao && calculados.get(no).erro != 0 && !refinados.containsKey(no);
+    }
+
+    private Preciso refinarNo(NoOperacao op) {
+        Preciso a = operando(op.getEsquerda());
+        switch (op.getOperador()) {
+            case CONJUGADO: return a.conjugar();
+            case RAIZ: return a.raiz(op.getParametroAuxiliar(), contexto);
+            case SOMA: return a.somar(operando(op.getDireita()), contexto);
+            case SUBTRACAO: return a.subtrair(operando(op.getDireita()), contexto);
+            case MULTIPLICACAO: return a.multiplicar(operando(op.getDireita()), contexto);
+            case DIVISAO: return a.dividir(operando(op.getDireita()), contexto);
+            case POTENCIA: return a.potencia((int) calculados.get(expandido(op.getDireita())).valor.getReal(), contexto);
+            default: throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    // Filhos sem erro entram com o valor em double; os demais já foram refinados
+    private Preciso operando(Expressao filho) {
+        Expressao no = expandido(filho);
+        Aproximacao a = calculados.get(no);
+        // Folha com erro só se o valor não for finito: exato() recusa o refinamento
+        if (a.erro == 0 || !(no instanceof NoOperacao)) return Preciso.exato(a.valor);
+        return refinados.get(no);
+    }
+
+    // Infinito ou NaN não têm representação em BigDecimal
+    private static final class NaoRefinavel extends RuntimeException {
+        NaoRefinavel() {
+            super(null, null, false, false);
+        }
+    }
+
+    /*
+     * Complexo com partes BigDecimal. Produtos são feitos sem arredondar e
+     * cada resultado é arredondado uma vez para o MathContext.
+     */
+    private static final class Preciso {
+        private static final Preciso UM = new Preciso(BigDecimal.ONE, BigDecimal.ZERO);
+
+        final BigDecimal re;
+        final BigDecimal im;
+
+        Preciso(BigDecimal re, BigDecimal im) {
+            this.re = re;
+            this.im = im;
+        }
+
+        static Preciso exato(NumeroComplexo z) {
+            return exato(z.getReal(), z.getImaginario());
+        }
+
+        static Preciso exato(double re, double im) {
+            if (!Double.isFinite(re) || !Double.isFinite(im)) throw new NaoRefinavel();
+            return new Preciso(new BigDecimal(re), new BigDecimal(im));
+        }
+
+        NumeroComplexo paraNumeroComplexo() {
+            return new NumeroComplexo(re.doubleValue(), im.doubleValue());
+        }
+
+        boolean zero() {
+            return re.signum() == 0 && im.signum() == 0;
+        }
+
+        BigDecimal norma1() {
+            return re.abs().add(im.abs());
+        }
+
+        Preciso conjugar() {
+            return new Preciso(re, im.negate());
+        }
+
+        Preciso somar(Preciso x, MathContext mc) {
+            return new Preciso(re.add(x.re, mc), im.add(x.im, mc));
+        }
+
+        Preciso subtrair(Preciso x, MathContext mc) {
+            return new Preciso(re.subtract(x.re, mc), im.subtract(x.im, mc));
+        }
+
+        Preciso multiplicar(Preciso x, MathContext mc) {
+            return new Preciso(re.multiply(x.re).subtract(im.multiply(x.im), mc),
+                    re.multiply(x.im).add(im.multiply(x.re), mc));
+        }
+
+        // O divisor em double já passou pela verificação de NumeroComplexo.dividir
+        Preciso dividir(Preciso x, MathContext mc) {
+            BigDecimal denominador = x.re.multiply(x.re).add(x.im.multiply(x.im));
+            if (denominador.signum() == 0) {
+                throw new ArithmeticException("Divisão por zero não é permitida para números complexos.");
+            }
+            return new Preciso(re.multiply(x.re).add(im.multiply(x.im)).divide(denominador, mc),
+                    im.multiply(x.re).subtract(re.multiply(x.im)).divide(denominador, mc));
+        }
+
+        // Quadrados sucessivos para qualquer expoente; negativo: 1 / z^n
+        Preciso potencia(int n, MathContext mc) {
+            if (n == 0) return UM;
+            if (zero()) {
+                if (n < 0) throw new ArithmeticException("Potência de zero com expoente negativo não é definida.");
+                return this;
+            }
+            long k = Math.abs((long) n);
+            Preciso base = this;
+            Preciso r = null;
+            for (;;) {
+                if ((k & 1) != 0) r = r == null ? base : r.multiplicar(base, mc);
+                k >>>= 1;
+                if (k == 0) break;
+                base = base.multiplicar(base, mc);
+            }
+            return n > 0 ? r : UM.dividir(r, mc);
+        }
+
+        /*
+         * Raiz principal por Newton, w <- ((n-1) w + z / w^(n-1)) / n, a partir
+         * da raiz em double (que já escolhe o ramo principal). A convergência é
+         * quadrática: poucas iterações chegam aos dígitos pedidos.
+         */
+        Preciso raiz(int n, MathContext mc) {
+            if (n <= 0) {
+                throw new IllegalArgumentException("O índice da raiz deve ser um número inteiro positivo.");
+            }
+            if (zero() || n == 1) return this;
+            ComplexAccumulator inicio = new ComplexAccumulator(re.doubleValue(), im.doubleValue()).raiz(n);
+            if (inicio.getReal() == 0 && inicio.getImaginario() == 0) throw new NaoRefinavel(); // fora do intervalo do double
+            Preciso w = exato(inicio.getReal(), inicio.getImaginario());
+            BigDecimal indice = BigDecimal.valueOf(n);
+            Preciso fator = new Preciso(BigDecimal.valueOf(n - 1), BigDecimal.ZERO);
+            for (int iteracao = 0; iteracao < 64; iteracao++) {
+                Preciso soma = fator.multiplicar(w, mc).somar(dividir(w.potencia(n - 1, mc), mc), mc);
+                Preciso novo = new Preciso(soma.re.divide(indice, mc), soma.im.divide(indice, mc));
+                BigDecimal passo = novo.subtrair(w, mc).norma1();
+                w = novo;
+                if (passo.compareTo(w.norma1().movePointLeft(mc.getPrecision())) <= 0) break;
+            }
+            return w;
+        }
+    }
+
+    /*
+     * Valor final, limite de erro da passada em double e quantos nós foram
+     * recalculados em precisão estendida (0 quando o double bastou).
+     */
+    public static final class Resultado {
+        private final NumeroComplexo valor;
+        private final double limiteErro;
+        private final int nosRefinados;
+
+        private Resultado(NumeroComplexo valor, double limiteErro, int nosRefinados) {
+            this.valor = valor;
+            this.limiteErro = limiteErro;
+            this.nosRefinados = nosRefinados;
+        }
+
+        public NumeroComplexo getValor() {
+            return valor;
+        }
+
+        // Limite para o erro absoluto do valor calculado em double
+        public double getLimiteErro() {
+            return limiteErro;
+        }
+
+        public boolean isRefinado() {
+            return nosRefinados > 0;
+        }
+
+        public int getNosRefinados() {
+            return nosRefinados;
+        }
+    }
+}
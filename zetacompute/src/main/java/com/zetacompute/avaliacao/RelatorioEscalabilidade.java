@@ -0,0 +1,106 @@
+package com.zetacompute.avaliacao;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Mede a escalabilidade do AvaliadorParalelo de 1 até N threads.
+ * Uso: java --add-modules jdk.incubator.vector -cp target/classes
+ *          com.zetacompute.avaliacao.RelatorioEscalabilidade [expressao] [pontos] [maxThreads]
+ */
+public final class RelatorioEscalabilidade {
+
+    public static final class Medicao {
+        private final int threads;
+        private final double milissegundos;
+        private final double aceleracao;
+
+        Medicao(int threads, double milissegundos, double aceleracao) {
+            this.threads = threads;
+            this.milissegundos = milissegundos;
+            this.aceleracao = aceleracao;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public double getMilissegundos() {
+            return milissegundos;
+        }
+
+        public double getAceleracao() {
+            return aceleracao;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%3d threads: %10.2f ms  (%.2fx)", threads, milissegundos, aceleracao);
+        }
+    }
+
+    private RelatorioEscalabilidade() {
+    }
+
+    /*
+     * Para cada quantidade de threads de 1 a maxThreads, guarda o melhor tempo
+     * entre 'repeticoes' execuções. A aceleração é relativa a 1 thread.
+     */
+    public static List<Medicao> medir(AvaliadorLote lote, double[][] re, double[][] im, int n,
+                                      int maxThreads, int repeticoes) {
+        double[] saidaRe = new double[n];
+        double[] saidaIm = new double[n];
+        List<Medicao> medicoes = new ArrayList<>();
+        double base = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                AvaliadorParalelo paralelo = new AvaliadorParalelo(lote, pool, AvaliadorParalelo.LIMIAR_PADRAO);
+                long melhor = Long.MAX_VALUE;
+                for (int k = 0; k < repeticoes; k++) {
+                    long inicio = System.nanoTime();
+                    paralelo.avaliar(re, im, saidaRe, saidaIm, n);
+                    melhor = Math.min(melhor, System.nanoTime() - inicio);
+                }
+                double ms = melhor / 1e6;
+                if (threads == 1) base = ms;
+                medicoes.add(new Medicao(threads, ms, base / ms));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return medicoes;
+    }
+
+    public static void main(String[] args) {
+        String fonte = args.length > 0 ? args[0] : "(2+3i)*z*z - z/(z+5) + raiz(z,2)";
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 22;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Expressao expressao = new parser(fonte).parse();
+        Bindings layout = Bindings.para(expressao);
+        AvaliadorLote lote = AvaliadorLote.para(expressao, layout);
+
+        Random rnd = new Random(1);
+        double[][] re = new double[layout.tamanho()][n];
+        double[][] im = new double[layout.tamanho()][n];
+        for (int v = 0; v < layout.tamanho(); v++) {
+            for (int k = 0; k < n; k++) {
+                re[v][k] = rnd.nextDouble() * 4 - 2;
+                im[v][k] = rnd.nextDouble() * 4 - 2;
+            }
+        }
+
+        System.out.println("Expressão: " + fonte + "  |  pontos: " + n + "  |  kernels: " + KernelsComplexos.padrao().getNome());
+        for (Medicao m : medir(lote, re, im, n, maxThreads, 5)) {
+            System.out.println(m);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.zetacompute.cache;
+
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ParserIterativo;
+import com.zetacompute.otimizacao.Simplificador;
+
+/*
+ * Cache do texto da expressão para a Expressao já analisada (e, se
+ * configurado, simplificada e compilada). As Expressao são imutáveis, então
+ * a mesma instância pode ser devolvida para várias threads.
+ *
+ * A chave é o texto normalizado: sem espaços nas pontas e com sequências
+ * de espaços reduzidas a um só. Isso não muda o resultado do parser, que
+ * ignora espaços entre os elementos. Erros de sintaxe não são guardados.
+ */
+public final class CacheExpressoes {
+
+    private final CacheLru<String, Expressao> cache;
+    private final boolean simplificar;
+    private final boolean compilar;
+
+    // Capacidade em número de expressões, sem otimização
+    public CacheExpressoes(long capacidade) {
+        this(new CacheLru<>(capacidade), false, false);
+    }
+
+    public CacheExpressoes(long capacidade, boolean simplificar, boolean compilar) {
+        this(new CacheLru<>(capacidade), simplificar, compilar);
+    }
+
+    private CacheExpressoes(CacheLru<String, Expressao> cache, boolean simplificar, boolean compilar) {
+        this.cache = cache;
+        this.simplificar = simplificar;
+        this.compilar = compilar;
+    }
+
+    // Capacidade em número total de nós das árvores guardadas
+    public static CacheExpressoes porNos(long nosMaximos, boolean simplificar, boolean compilar) {
+        return new CacheExpressoes(new CacheLru<>(nosMaximos, Expressao::getTamanho), simplificar, compilar);
+    }
+
+    public Expressao obter(String fonte) {
+        return cache.obter(normalizar(fonte), this::preparar);
+    }
+
+    private Expressao preparar(String fonte) {
+        Expressao expressao = new ParserIterativo(fonte).parse();
+        if (simplificar) {
+            expressao = Simplificador.simplificar(expressao).getExpressao();
+        }
+        if (compilar) {
+            try {
+                expressao = CompiledExpressao.compilar(expressao);
+            } catch (IllegalArgumentException e) {
+                // Grande demais para um método da JVM: fica a árvore
+            }
+        }
+        return expressao;
+    }
+
+    // Só o caractere ' ' é tratado: é o único que o parser ignora
+    public static String normalizar(String fonte) {
+        StringBuilder sb = new StringBuilder(fonte.length());
+        for (int i = 0; i < fonte.length(); i++) {
+            char c = fonte.charAt(i);
+            if (c == ' ' && (sb.length() == 0 || sb.charAt(sb.length() - 1) == ' ')) continue;
+            sb.append(c);
+        }
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    public CacheLru<String, Expressao> getCache() {
+        return cache;
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package com.zetacompute.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/*
+ * Cache limitado e thread-safe com remoção aproximada por LRU.
+ *
+ * A leitura é um get no ConcurrentHashMap mais a escrita de um carimbo de
+ * acesso na entrada: não há trava global. Cada entrada tem um peso (1 por
+ * padrão); quando o peso total passa da capacidade, a thread que inseriu
+ * remove em lote as entradas acessadas há mais tempo até o peso cair para
+ * uma fração da capacidade. Só a remoção usa uma trava, e apenas escritores
+ * passam por ela.
+ */
+public final class CacheLru<K, V> {
+
+    // Depois de uma remoção o peso fica em 90% da capacidade, para amortizar a ordenação
+    private static final double FRACAO_APOS_REMOCAO = 0.9;
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long peso;
+        volatile long ultimoAcesso;
+
+        Entrada(V valor, long peso, long acesso) {
+            this.valor = valor;
+            this.peso = peso;
+            this.ultimoAcesso = acesso;
+        }
+    }
+
+    private static final class Candidata<K, V> {
+        final K chave;
+        final Entrada<V> entrada;
+        final long acesso;
+
+        Candidata(K chave, Entrada<V> entrada) {
+            this.chave = chave;
+            this.entrada = entrada;
+            this.acesso = entrada.ultimoAcesso;
+        }
+    }
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final long capacidade;
+    private final ToLongFunction<V> pesador;
+
+    private final AtomicLong pesoTotal = new AtomicLong();
+    private final ReentrantLock travaRemocao = new ReentrantLock();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+
+    // Capacidade em número de entradas
+    public CacheLru(long capacidade) {
+        this(capacidade, v -> 1);
+    }
+
+    // Capacidade em peso total; o pesador deve devolver um valor positivo e estável para cada valor
+    public CacheLru(long capacidade, ToLongFunction<V> pesador) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva.");
+        }
+        this.capacidade = capacidade;
+        this.pesador = pesador;
+    }
+
+    public V obter(K chave) {
+        Entrada<V> e = entradas.get(chave);
+        if (e == null) {
+            falhas.increment();
+            return null;
+        }
+        e.ultimoAcesso = System.nanoTime(); // sem contador compartilhado: nenhuma escrita disputada
+        acertos.increment();
+        return e.valor;
+    }
+
+    // Leitura para inspeção (JMX, listagens): não conta acerto nem falha e não renova a entrada
+    public V consultar(K chave) {
+        Entrada<V> e = entradas.get(chave);
+        return e == null ? null : e.valor;
+    }
+
+    /*
+     * Devolve o valor da chave, carregando-o se não estiver no cache.
+     * O carregamento roda fora de qualquer trava; se duas threads carregarem
+     * a mesma chave ao mesmo tempo, a primeira inserção vence. Exceções do
+     * carregador são propagadas e nada é guardado.
+     */
+    public V obter(K chave, Function<? super K, ? extends V> carregador) {
+        V valor = obter(chave);
+        if (valor != null) return valor;
+        valor = carregador.apply(chave);
+        if (valor == null) return null;
+        return inserir(chave, valor, true);
+    }
+
+    public void colocar(K chave, V valor) {
+        inserir(chave, valor, false);
+    }
+
+    private V inserir(K chave, V valor, boolean seAusente) {
+        long peso = pesador.applyAsLong(valor);
+        if (peso <= 0) {
+            throw new IllegalArgumentException("O peso de uma entrada deve ser positivo.");
+        }
+        Entrada<V> nova = new Entrada<>(valor, peso, System.nanoTime());
+        Entrada<V> anterior;
+        if (seAusente) {
+            anterior = entradas.putIfAbsent(chave, nova);
+            if (anterior != null) return anterior.valor;
+        } else {
+            anterior = entradas.put(chave, nova);
+            if (anterior != null) pesoTotal.addAndGet(-anterior.peso);
+        }
+        if (pesoTotal.addAndGet(peso) > capacidade) {
+            removerAntigas();
+        }
+        return valor;
+    }
+
+    public void remover(K chave) {
+        Entrada<V> e = entradas.remove(chave);
+        if (e != null) pesoTotal.addAndGet(-e.peso);
+    }
+
+    public void limpar() {
+        travaRemocao.lock();
+        try {
+            for (K chave : new ArrayList<>(entradas.keySet())) {
+                Entrada<V> e = entradas.remove(chave);
+                if (e != null) pesoTotal.addAndGet(-e.peso);
+            }
+        } finally {
+            travaRemocao.unlock();
+        }
+    }
+
+    private void removerAntigas() {
+        travaRemocao.lock();
+        try {
+            if (pesoTotal.get() <= capacidade) return; // outra thread já removeu
+
+            // Copia os carimbos antes de ordenar: leitores continuam atualizando as entradas
+            List<Candidata<K, V>> candidatas = new ArrayList<>(entradas.size());
+            for (Map.Entry<K, Entrada<V>> e : entradas.entrySet()) {
+                candidatas.add(new Candidata<>(e.getKey(), e.getValue()));
+            }
+            candidatas.sort(Comparator.comparingLong(c -> c.acesso));
+
+            long alvo = (long) (capacidade * FRACAO_APOS_REMOCAO);
+            for (Candidata<K, V> c : candidatas) {
+                if (pesoTotal.get() <= alvo) break;
+                // remove(chave, entrada): não remove um valor que foi substituído nesse meio tempo
+                if (entradas.remove(c.chave, c.entrada)) {
+                    pesoTotal.addAndGet(-c.entrada.peso);
+                    remocoes.increment();
+                }
+            }
+        } finally {
+            travaRemocao.unlock();
+        }
+    }
+
+    // Cópias das chaves e dos valores presentes agora (sem afetar os carimbos de acesso)
+    public List<K> chaves() {
+        return new ArrayList<>(entradas.keySet());
+    }
+
+    public List<V> valores() {
+        List<V> valores = new ArrayList<>(entradas.size());
+        for (Entrada<V> e : entradas.values()) valores.add(e.valor);
+        return valores;
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    public long getPeso() {
+        return pesoTotal.get();
+    }
+
+    public long getCapacidade() {
+        return capacidade;
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public long getRemocoes() {
+        return remocoes.sum();
+    }
+
+    public double getTaxaAcerto() {
+        long a = getAcertos();
+        long total = a + getFalhas();
+        return total == 0 ? 0 : (double) a / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheLru[entradas=%d, peso=%d/%d, acertos=%d, falhas=%d, remoções=%d]",
+                tamanho(), getPeso(), capacidade, getAcertos(), getFalhas(), getRemocoes());
+    }
+}
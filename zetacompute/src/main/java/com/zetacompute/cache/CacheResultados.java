@@ -0,0 +1,121 @@
+package com.zetacompute.cache;
+
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.Arrays;
+
+/*
+ * Memorização opcional de resultados: (expressão, valores das variáveis) ->
+ * resultado, num CacheLru limitado e thread-safe.
+ *
+ * A identidade da expressão é canônica: memorizar() reconstrói a árvore com
+ * a FabricaNos deste cache, então árvores estruturalmente iguais (com
+ * constantes iguais bit a bit) viram o mesmo nó e compartilham resultados.
+ * Os valores entram na chave pelos bits de cada double, e não por
+ * NumeroComplexo.equals, cuja tolerância não combina com o hashCode exato.
+ * Assim 0.1 + 0.2 e 0.3 são chaves diferentes, como devem ser.
+ *
+ * A fábrica não cresce sem limite: quando passa de LIMITE_NOS nós, é trocada
+ * por uma nova. As expressões já memorizadas continuam com os seus nós
+ * canônicos (e corretas); só deixam de ser unificadas com as memorizadas
+ * depois da troca. Os resultados da geração antiga saem pelo LRU, levando
+ * consigo os últimos nós que os referenciam.
+ *
+ * Avaliações com erro não são guardadas: repetem o cálculo e o erro.
+ */
+public final class CacheResultados {
+
+    // Nós canônicos guardados antes de a fábrica ser trocada
+    static final int LIMITE_NOS = 1 << 16;
+
+    private final CacheLru<Chave, NumeroComplexo> resultados;
+    private volatile FabricaNos fabrica = new FabricaNos();
+
+    // Capacidade em número de resultados
+    public CacheResultados(long capacidade) {
+        this.resultados = new CacheLru<>(capacidade);
+    }
+
+    /*
+     * Expressão que consulta este cache antes de avaliar. Pode ser chamada
+     * para a mesma expressão várias vezes (ou de várias threads): as
+     * instâncias devolvidas compartilham as entradas.
+     */
+    public ExpressaoMemorizada memorizar(Expressao expressao) {
+        if (expressao instanceof ExpressaoMemorizada) {
+            expressao = ((ExpressaoMemorizada) expressao).getExpressao();
+        }
+        FabricaNos f = fabrica;
+        Expressao canonica = f.internar(Envoltorio.arvore(expressao));
+        // Corrida benigna: duas threads podem trocar a fábrica, o que só custa unificação
+        if (f.tamanho() > LIMITE_NOS) fabrica = new FabricaNos();
+        return new ExpressaoMemorizada(this, expressao, canonica);
+    }
+
+    // Nós canônicos da geração atual da fábrica
+    int nosInternados() {
+        return fabrica.tamanho();
+    }
+
+    NumeroComplexo obter(Chave chave) {
+        return resultados.obter(chave);
+    }
+
+    void colocar(Chave chave, NumeroComplexo resultado) {
+        resultados.colocar(chave, resultado);
+    }
+
+    public int tamanho() {
+        return resultados.tamanho();
+    }
+
+    public long getAcertos() {
+        return resultados.getAcertos();
+    }
+
+    public long getFalhas() {
+        return resultados.getFalhas();
+    }
+
+    public double getTaxaAcerto() {
+        return resultados.getTaxaAcerto();
+    }
+
+    public void limpar() {
+        resultados.limpar();
+    }
+
+    @Override
+    public String toString() {
+        return resultados.toString();
+    }
+
+    // Nó canônico (comparado por identidade) e bits (re, im) de cada variável, em ordem de nome
+    static final class Chave {
+        private final Expressao expressao;
+        private final long[] bits;
+        private final int hash;
+
+        Chave(Expressao expressao, long[] bits) {
+            this.expressao = expressao;
+            this.bits = bits;
+            this.hash = 31 * System.identityHashCode(expressao) + Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave c = (Chave) o;
+            return expressao == c.expressao && hash == c.hash && Arrays.equals(bits, c.bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.zetacompute.cache;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Expressão ligada a um CacheResultados (veja CacheResultados.memorizar).
+ * Cada avaliação monta a chave com os bits dos valores das variáveis; num
+ * acerto o cálculo não acontece. Variável ausente: a avaliação é delegada
+ * sem consulta, para lançar o erro de sempre.
+ */
+public final class ExpressaoMemorizada implements Envoltorio {
+
+    private final CacheResultados cache;
+    private final Expressao expressao;
+    private final Expressao canonica;
+    private final String[] nomes; // ordem das variáveis na chave
+    private volatile Slots slots; // slots de nomes[] no último layout de Bindings visto
+
+    ExpressaoMemorizada(CacheResultados cache, Expressao expressao, Expressao canonica) {
+        this.cache = cache;
+        this.expressao = expressao;
+        this.canonica = canonica;
+        this.nomes = new TreeSet<>(expressao.getVariaveis()).toArray(new String[0]);
+    }
+
+    public Expressao getExpressao() {
+        return expressao;
+    }
+
+    @Override
+    public Expressao getEmbrulhada() {
+        return expressao;
+    }
+
+    public CacheResultados getCache() {
+        return cache;
+    }
+
+    // --- Chaves ---
+
+    private CacheResultados.Chave chave(Map<String, NumeroComplexo> variaveis) {
+        long[] bits = new long[2 * nomes.length];
+        for (int k = 0; k < nomes.length; k++) {
+            NumeroComplexo v = variaveis.get(nomes[k]);
+            if (v == null) return null;
+            bits[2 * k] = Double.doubleToLongBits(v.getReal());
+            bits[2 * k + 1] = Double.doubleToLongBits(v.getImaginario());
+        }
+        return new CacheResultados.Chave(canonica, bits);
+    }
+
+    private CacheResultados.Chave chave(Bindings variaveis) {
+        Slots s = slots;
+        if (s == null || !s.layout.mesmoLayout(variaveis)) {
+            int[] indices = new int[nomes.length];
+            for (int k = 0; k < nomes.length; k++) {
+                if (!variaveis.contem(nomes[k])) return null;
+                indices[k] = variaveis.slot(nomes[k]);
+            }
+            slots = s = new Slots(variaveis, indices);
+        }
+        long[] bits = new long[2 * nomes.length];
+        for (int k = 0; k < nomes.length; k++) {
+            bits[2 * k] = Double.doubleToLongBits(variaveis.getReal(s.indices[k]));
+            bits[2 * k + 1] = Double.doubleToLongBits(variaveis.getImaginario(s.indices[k]));
+        }
+        return new CacheResultados.Chave(canonica, bits);
+    }
+
+    private static final class Slots {
+        final Bindings layout;
+        final int[] indices;
+
+        Slots(Bindings layout, int[] indices) {
+            this.layout = layout;
+            this.indices = indices;
+        }
+    }
+
+    // --- Avaliação ---
+
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        CacheResultados.Chave chave = chave(variaveis);
+        if (chave == null) return expressao.avaliar(variaveis);
+        NumeroComplexo r = cache.obter(chave);
+        if (r == null) {
+            r = expressao.avaliar(variaveis);
+            cache.colocar(chave, r);
+        }
+        return r;
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        CacheResultados.Chave chave = chave(variaveis);
+        if (chave == null) return expressao.avaliar(variaveis);
+        NumeroComplexo r = cache.obter(chave);
+        if (r == null) {
+            r = expressao.avaliar(variaveis);
+            cache.colocar(chave, r);
+        }
+        return r;
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        CacheResultados.Chave chave = chave(variaveis);
+        NumeroComplexo r = chave != null ? cache.obter(chave) : null;
+        if (r != null) {
+            destino.definir(r);
+            return;
+        }
+        expressao.avaliar(variaveis, destino);
+        if (chave != null) cache.colocar(chave, destino.paraNumeroComplexo());
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        CacheResultados.Chave chave = chave(variaveis);
+        NumeroComplexo r = chave != null ? cache.obter(chave) : null;
+        if (r != null) {
+            destino.definir(r);
+            return;
+        }
+        expressao.avaliar(variaveis, destino);
+        if (chave != null) cache.colocar(chave, destino.paraNumeroComplexo());
+    }
+
+    // A versão vinculada continua no mesmo cache, com as mesmas chaves
+    @Override
+    public Expressao vincular(Bindings layout) {
+        return new ExpressaoMemorizada(cache, expressao.vincular(layout), canonica);
+    }
+
+    // --- Delegação ---
+
+    @Override
+    public void exibirArvore() {
+        expressao.exibirArvore();
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        expressao.exibirArvore(prefixo, isLeft);
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return expressao.getVariaveis();
+    }
+
+    @Override
+    public int getTamanho() {
+        return expressao.getTamanho();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return expressao.getProfundidade();
+    }
+
+    @Override
+    public String toLisp() {
+        return expressao.toLisp();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpressaoMemorizada)) return false;
+        return expressao.equals(((ExpressaoMemorizada) o).expressao);
+    }
+
+    @Override
+    public int hashCode() {
+        return expressao.hashCode();
+    }
+}
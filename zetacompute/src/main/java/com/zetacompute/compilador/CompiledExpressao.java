@@ -0,0 +1,522 @@
+package com.zetacompute.compilador;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Expressão compilada para bytecode da JVM.
+ * A árvore é traduzida em um único método linear, carregado como classe
+ * oculta (MethodHandles.Lookup.defineHiddenClass). As partes real e
+ * imaginária de cada resultado intermediário ficam em variáveis locais
+ * double, então não há despacho virtual, switch nem alocação por nó.
+ *
+ * O contrato de avaliar é o mesmo da árvore: mesma ordem de avaliação,
+ * mesmos resultados e as mesmas exceções (variável indefinida, divisão por zero).
+ * Quando compilada para um layout de Bindings, as variáveis são lidas
+ * direto do vetor de valores pelo slot resolvido na compilação.
+ */
+public final class CompiledExpressao implements Envoltorio {
+
+    // Implementado pela classe gerada
+    interface Kernel {
+        NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis);
+
+        void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino);
+    }
+
+    // Classe gerada quando a expressão é compilada para um layout: também lê os slots
+    interface KernelVinculado extends Kernel {
+        NumeroComplexo avaliar(double[] valores);
+
+        void avaliar(double[] valores, ComplexAccumulator destino);
+    }
+
+    private static final String PACOTE = "com/zetacompute/compilador/";
+    private static final String CLASSE_GERADA = PACOTE + "ExpressaoGerada";
+    private static final String KERNEL = PACOTE + "CompiledExpressao$Kernel";
+    private static final String KERNEL_VINCULADO = PACOTE + "CompiledExpressao$KernelVinculado";
+    private static final String COMPILADA = PACOTE + "CompiledExpressao";
+    private static final String COMPLEXO = "com/zetacompute/models/NumeroComplexo";
+    private static final String DESC_COMPLEXO = "L" + COMPLEXO + ";";
+    private static final String ACUMULADOR = "com/zetacompute/models/ComplexAccumulator";
+    private static final String DESC_ACUMULADOR = "L" + ACUMULADOR + ";";
+
+    // Locais: 0 = this, 1 = mapa ou vetor de valores, 2 = acumulador de destino,
+    // 3-4 = temporário, registradores a partir de 5
+    private static final int ALOAD_DESTINO = 0x2c; // aload_2
+    private static final int LOCAL_TEMP = 3;
+    private static final int PRIMEIRO_REGISTRADOR = 5;
+
+    private final Expressao origem;
+    private final Bindings layout; // null quando compilada apenas para o mapa
+    private final Kernel kernel;
+    private final KernelVinculado vinculado; // o mesmo kernel quando há layout, senão null
+
+    private CompiledExpressao(Expressao origem, Bindings layout, Kernel kernel) {
+        this.origem = origem;
+        this.layout = layout;
+        this.kernel = kernel;
+        this.vinculado = layout != null ? (KernelVinculado) kernel : null;
+    }
+
+    /*
+     * Compila a expressão. Lança IllegalArgumentException se a árvore contiver
+     * nós desconhecidos ou for grande demais para um único método da JVM.
+     */
+    public static CompiledExpressao compilar(Expressao expressao) {
+        return compilar(expressao, null);
+    }
+
+    /*
+     * Compila também o caminho por slots do layout. Variáveis ausentes do
+     * layout geram o erro de variável não definida aqui, e não na avaliação.
+     */
+    public static CompiledExpressao compilar(Expressao expressao, Bindings layout) {
+        if (expressao instanceof CompiledExpressao) {
+            CompiledExpressao compilada = (CompiledExpressao) expressao;
+            if (layout == null || layout.mesmoLayout(compilada.layout)) return compilada;
+            expressao = compilada.origem;
+        }
+        Plano plano = planejar(Envoltorio.arvore(expressao));
+
+        GeradorBytecode gerador = new GeradorBytecode(CLASSE_GERADA, layout != null ? KERNEL_VINCULADO : KERNEL);
+        gerador.adicionarMetodo("<init>", "()V", construtor(gerador));
+        gerador.adicionarMetodo("avaliar", "(Ljava/util/Map;)" + DESC_COMPLEXO,
+                corpo(gerador, plano, null, false));
+        gerador.adicionarMetodo("avaliar", "(Ljava/util/Map;" + DESC_ACUMULADOR + ")V",
+                corpo(gerador, plano, null, true));
+        if (layout != null) {
+            gerador.adicionarMetodo("avaliar", "([D)" + DESC_COMPLEXO, corpo(gerador, plano, layout, false));
+            gerador.adicionarMetodo("avaliar", "([D" + DESC_ACUMULADOR + ")V", corpo(gerador, plano, layout, true));
+        }
+        byte[] bytes = gerador.gerar();
+
+        try {
+            MethodHandles.Lookup oculta = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            Kernel kernel = (Kernel) oculta.findConstructor(oculta.lookupClass(), MethodType.methodType(void.class)).invoke();
+            return new CompiledExpressao(expressao, layout, kernel);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Falha ao carregar a expressão compilada.", e);
+        }
+    }
+
+    public Expressao getOrigem() {
+        return origem;
+    }
+
+    @Override
+    public Expressao getEmbrulhada() {
+        return origem;
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        return kernel.avaliar(variaveis);
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        if (vinculado != null && layout.mesmoLayout(variaveis)) {
+            return vinculado.avaliar(variaveis.getValores());
+        }
+        // Layout diferente: resolve os nomes pela árvore de origem
+        return origem.avaliar(variaveis);
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        kernel.avaliar(variaveis, destino);
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        if (vinculado != null && layout.mesmoLayout(variaveis)) {
+            vinculado.avaliar(variaveis.getValores(), destino);
+            return;
+        }
+        origem.avaliar(variaveis, destino);
+    }
+
+    @Override
+    public Expressao vincular(Bindings layout) {
+        return compilar(origem, layout);
+    }
+
+    @Override
+    public void exibirArvore() {
+        origem.exibirArvore();
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        origem.exibirArvore(prefixo, isLeft);
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return origem.getVariaveis();
+    }
+
+    @Override
+    public int getTamanho() {
+        return origem.getTamanho();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return origem.getProfundidade();
+    }
+
+    @Override
+    public String toLisp() {
+        return origem.toLisp();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompiledExpressao)) return false;
+        return origem.equals(((CompiledExpressao) o).origem);
+    }
+
+    @Override
+    public int hashCode() {
+        return origem.hashCode();
+    }
+
+    // --- Geração de código ---
+
+    private static GeradorBytecode.Codigo construtor(GeradorBytecode g) {
+        GeradorBytecode.Codigo c = new GeradorBytecode.Codigo(1);
+        c.op(GeradorBytecode.ALOAD_0, 1);
+        c.opIndice16(GeradorBytecode.INVOKESPECIAL, g.metodo("java/lang/Object", "<init>", "()V"), -1);
+        c.op(GeradorBytecode.RETURN, 0);
+        return c;
+    }
+
+    /*
+     * Corpo de um método avaliar. Com 'acumulador', o resultado é escrito no
+     * acumulador de destino (local 2) e o método não aloca nada; o destino
+     * também serve de rascunho para potência e raiz.
+     */
+    private static GeradorBytecode.Codigo corpo(GeradorBytecode g, Plano plano, Bindings layout,
+                                                boolean acumulador) {
+        GeradorBytecode.Codigo c = new GeradorBytecode.Codigo(PRIMEIRO_REGISTRADOR);
+        for (Passo p : plano.passos) {
+            if (p.carregar >= 0) {
+                c.dload(real(plano.registradores + p.carregar)).dstore(real(p.r));
+                c.dload(imag(plano.registradores + p.carregar)).dstore(imag(p.r));
+            } else {
+                emitir(g, c, p.no, p.r, layout, acumulador);
+            }
+            if (p.guardar >= 0) {
+                c.dload(real(p.r)).dstore(real(plano.registradores + p.guardar));
+                c.dload(imag(p.r)).dstore(imag(plano.registradores + p.guardar));
+            }
+        }
+
+        if (acumulador) {
+            // destino.definir(re0, im0)
+            c.op(ALOAD_DESTINO, 1).dload(real(0)).dload(imag(0));
+            c.opIndice16(GeradorBytecode.INVOKEVIRTUAL,
+                    g.metodo(ACUMULADOR, "definir", "(DD)" + DESC_ACUMULADOR), -4);
+            c.op(GeradorBytecode.POP, -1);
+            c.op(GeradorBytecode.RETURN, 0);
+            return c;
+        }
+
+        // return new NumeroComplexo(re0, im0)
+        c.opIndice16(GeradorBytecode.NEW, g.classe(COMPLEXO), 1);
+        c.op(GeradorBytecode.DUP, 1);
+        c.dload(real(0));
+        c.dload(imag(0));
+        c.opIndice16(GeradorBytecode.INVOKESPECIAL, g.metodo(COMPLEXO, "<init>", "(DD)V"), -5);
+        c.op(GeradorBytecode.ARETURN, -1);
+        return c;
+    }
+
+    /*
+     * Ordem de emissão: pós-ordem com pilha explícita, então a profundidade
+     * da árvore não esbarra na pilha da JVM e o limite de tamanho do método
+     * é o que decide. Como no ProgramaPosfixo, um nó compartilhado é emitido
+     * uma vez e guardado numa local depois dos registradores; as outras
+     * ocorrências só o recarregam. O filho direito usa o registrador r + 1.
+     */
+    private static final class Plano {
+        final List<Passo> passos = new ArrayList<>();
+        int registradores;
+        int compartilhados;
+    }
+
+    private static final class Passo {
+        final Expressao no;
+        final int r;
+        final boolean expandido;
+        int carregar = -1;
+        int guardar = -1;
+
+        Passo(Expressao no, int r, boolean expandido) {
+            this.no = no;
+            this.r = r;
+            this.expandido = expandido;
+        }
+    }
+
+    private static Plano planejar(Expressao raiz) {
+        Map<Expressao, Expressao> expandidos = new IdentityHashMap<>();
+        Map<Expressao, Integer> referencias = contarReferencias(raiz, expandidos);
+        Map<Expressao, Integer> locais = new IdentityHashMap<>();
+        Plano plano = new Plano();
+
+        // A primeira ocorrência de um nó compartilhado termina antes de qualquer outra ser visitada
+        Deque<Passo> pilha = new ArrayDeque<>();
+        pilha.push(new Passo(raiz, 0, false));
+        while (!pilha.isEmpty()) {
+            Passo p = pilha.pop();
+            plano.registradores = Math.max(plano.registradores, p.r + 1);
+            if (p.expandido) {
+                plano.passos.add(p);
+                continue;
+            }
+            Expressao no = expandido(p.no, expandidos);
+            Integer local = locais.get(no);
+            if (local != null) {
+                Passo carregar = new Passo(no, p.r, true);
+                carregar.carregar = local;
+                plano.passos.add(carregar);
+                continue;
+            }
+            if (no instanceof NoConstante || no instanceof NoVariavel) {
+                plano.passos.add(new Passo(no, p.r, true));
+                continue;
+            }
+            if (!(no instanceof NoOperacao)) {
+                throw new IllegalArgumentException("Nó não suportado pelo compilador: " + no.getClass().getSimpleName());
+            }
+            NoOperacao op = (NoOperacao) no;
+            Passo operacao = new Passo(op, p.r, true);
+            if (referencias.get(op) > 1) {
+                operacao.guardar = plano.compartilhados++;
+                locais.put(op, operacao.guardar);
+            }
+            pilha.push(operacao);
+            if (op.getDireita() != null) pilha.push(new Passo(op.getDireita(), p.r + 1, false));
+            pilha.push(new Passo(op.getEsquerda(), p.r, false));
+        }
+        return plano;
+    }
+
+    // Quantas vezes cada operação é alcançada a partir da raiz (filhos contados só na primeira vez)
+    private static Map<Expressao, Integer> contarReferencias(Expressao raiz, Map<Expressao, Expressao> expandidos) {
+        Map<Expressao, Integer> referencias = new IdentityHashMap<>();
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Expressao no = expandido(pilha.pop(), expandidos);
+            if (!(no instanceof NoOperacao)) continue;
+            if (referencias.merge(no, 1, Integer::sum) > 1) continue;
+            NoOperacao op = (NoOperacao) no;
+            pilha.push(op.getEsquerda());
+            if (op.getDireita() != null) pilha.push(op.getDireita());
+        }
+        return referencias;
+    }
+
+    /*
+     * Envoltórios dentro da árvore são transparentes. Um polinômio vira a regra
+     * de Horner como operações (mesmos bits de NoPolinomio.avaliar), expandida
+     * uma vez para que as suas ocorrências sejam o mesmo nó.
+     */
+    private static Expressao expandido(Expressao no, Map<Expressao, Expressao> expandidos) {
+        no = Envoltorio.arvore(no);
+        return no instanceof NoPolinomio ? expandidos.computeIfAbsent(no, p -> ((NoPolinomio) p).expandir()) : no;
+    }
+
+    private static int real(int registrador) {
+        return PRIMEIRO_REGISTRADOR + 4 * registrador;
+    }
+
+    private static int imag(int registrador) {
+        return real(registrador) + 2;
+    }
+
+    /*
+     * Gera o código de um passo do plano: deixa o valor de 'no' no registrador
+     * 'r'. Os operandos de uma operação já estão em r e, se binária, em r + 1.
+     */
+    private static void emitir(GeradorBytecode g, GeradorBytecode.Codigo c, Expressao no, int r, Bindings layout,
+                               boolean acumulador) {
+        if (no instanceof NoConstante) {
+            NumeroComplexo valor = ((NoConstante) no).getValor();
+            c.opIndice16(GeradorBytecode.LDC2_W, g.duplo(valor.getReal()), 2);
+            c.dstore(real(r));
+            c.opIndice16(GeradorBytecode.LDC2_W, g.duplo(valor.getImaginario()), 2);
+            c.dstore(imag(r));
+            return;
+        }
+        if (no instanceof NoVariavel && layout != null) {
+            // valores[2*slot] e valores[2*slot + 1]
+            int slot = layout.slot(((NoVariavel) no).getNome());
+            c.op(GeradorBytecode.ALOAD_1, 1).ldc(g.inteiro(2 * slot)).op(GeradorBytecode.DALOAD, 0).dstore(real(r));
+            c.op(GeradorBytecode.ALOAD_1, 1).ldc(g.inteiro(2 * slot + 1)).op(GeradorBytecode.DALOAD, 0).dstore(imag(r));
+            return;
+        }
+        if (no instanceof NoVariavel) {
+            c.op(GeradorBytecode.ALOAD_1, 1);
+            c.ldc(g.string(((NoVariavel) no).getNome()));
+            c.opIndice16(GeradorBytecode.INVOKESTATIC,
+                    g.metodo(COMPILADA, "variavel", "(Ljava/util/Map;Ljava/lang/String;)" + DESC_COMPLEXO), -1);
+            desempacotar(g, c, r);
+            return;
+        }
+
+        NoOperacao op = (NoOperacao) no;
+        switch (op.getOperador()) {
+            case CONJUGADO:
+                c.dload(imag(r)).op(GeradorBytecode.DNEG, 0).dstore(imag(r));
+                return;
+            case RAIZ:
+                c.dload(real(r)).dload(imag(r));
+                c.ldc(g.inteiro(op.getParametroAuxiliar()));
+                if (acumulador) {
+                    c.op(ALOAD_DESTINO, 1);
+                    c.opIndice16(GeradorBytecode.INVOKESTATIC,
+                            g.metodo(COMPILADA, "raiz", "(DDI" + DESC_ACUMULADOR + ")V"), -6);
+                    lerDestino(g, c, r);
+                } else {
+                    c.opIndice16(GeradorBytecode.INVOKESTATIC,
+                            g.metodo(COMPILADA, "raiz", "(DDI)" + DESC_COMPLEXO), -4);
+                    desempacotar(g, c, r);
+                }
+                return;
+            default:
+                break;
+        }
+
+        int s = r + 1;
+        switch (op.getOperador()) {
+            case SOMA:
+                c.dload(real(r)).dload(real(s)).op(GeradorBytecode.DADD, -2).dstore(real(r));
+                c.dload(imag(r)).dload(imag(s)).op(GeradorBytecode.DADD, -2).dstore(imag(r));
+                break;
+            case SUBTRACAO:
+                c.dload(real(r)).dload(real(s)).op(GeradorBytecode.DSUB, -2).dstore(real(r));
+                c.dload(imag(r)).dload(imag(s)).op(GeradorBytecode.DSUB, -2).dstore(imag(r));
+                break;
+            case MULTIPLICACAO:
+                // re = a*c - b*d ; im = a*d + b*c (mesma ordem de NumeroComplexo.multiplicar)
+                produto(c, real(r), real(s));
+                produto(c, imag(r), imag(s));
+                c.op(GeradorBytecode.DSUB, -2);
+                produto(c, real(r), imag(s));
+                produto(c, imag(r), real(s));
+                c.op(GeradorBytecode.DADD, -2);
+                c.dstore(imag(r)).dstore(real(r));
+                break;
+            case DIVISAO:
+                // den = c*c + d*d, validado com a mesma tolerância de NumeroComplexo.dividir
+                produto(c, real(s), real(s));
+                produto(c, imag(s), imag(s));
+                c.op(GeradorBytecode.DADD, -2).dstore(LOCAL_TEMP);
+                c.dload(LOCAL_TEMP);
+                c.opIndice16(GeradorBytecode.INVOKESTATIC, g.metodo(COMPILADA, "checarDivisor", "(D)V"), -2);
+                produto(c, real(r), real(s));
+                produto(c, imag(r), imag(s));
+                c.op(GeradorBytecode.DADD, -2).dload(LOCAL_TEMP).op(GeradorBytecode.DDIV, -2);
+                produto(c, imag(r), real(s));
+                produto(c, real(r), imag(s));
+                c.op(GeradorBytecode.DSUB, -2).dload(LOCAL_TEMP).op(GeradorBytecode.DDIV, -2);
+                c.dstore(imag(r)).dstore(real(r));
+                break;
+            case POTENCIA:
+                c.dload(real(r)).dload(imag(r)).dload(real(s));
+                if (acumulador) {
+                    c.op(ALOAD_DESTINO, 1);
+                    c.opIndice16(GeradorBytecode.INVOKESTATIC,
+                            g.metodo(COMPILADA, "potencia", "(DDD" + DESC_ACUMULADOR + ")V"), -7);
+                    lerDestino(g, c, r);
+                } else {
+                    c.opIndice16(GeradorBytecode.INVOKESTATIC,
+                            g.metodo(COMPILADA, "potencia", "(DDD)" + DESC_COMPLEXO), -5);
+                    desempacotar(g, c, r);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    private static void produto(GeradorBytecode.Codigo c, int x, int y) {
+        c.dload(x).dload(y).op(GeradorBytecode.DMUL, -2);
+    }
+
+    // Pilha: [NumeroComplexo] -> registrador r
+    private static void desempacotar(GeradorBytecode g, GeradorBytecode.Codigo c, int r) {
+        c.op(GeradorBytecode.DUP, 1);
+        c.opIndice16(GeradorBytecode.INVOKEVIRTUAL, g.metodo(COMPLEXO, "getReal", "()D"), 1);
+        c.dstore(real(r));
+        c.opIndice16(GeradorBytecode.INVOKEVIRTUAL, g.metodo(COMPLEXO, "getImaginario", "()D"), 1);
+        c.dstore(imag(r));
+    }
+
+    // destino -> registrador r
+    private static void lerDestino(GeradorBytecode g, GeradorBytecode.Codigo c, int r) {
+        c.op(ALOAD_DESTINO, 1);
+        c.opIndice16(GeradorBytecode.INVOKEVIRTUAL, g.metodo(ACUMULADOR, "getReal", "()D"), 1);
+        c.dstore(real(r));
+        c.op(ALOAD_DESTINO, 1);
+        c.opIndice16(GeradorBytecode.INVOKEVIRTUAL, g.metodo(ACUMULADOR, "getImaginario", "()D"), 1);
+        c.dstore(imag(r));
+    }
+
+    // --- Auxiliares chamados pelo código gerado ---
+
+    static NumeroComplexo variavel(Map<String, NumeroComplexo> variaveis, String nome) {
+        // Mesmo comportamento de NoVariavel.avaliar (Requisito 5)
+        if (!variaveis.containsKey(nome)) {
+            throw new IllegalArgumentException("Erro: Variável '" + nome + "' não foi definida.");
+        }
+        return variaveis.get(nome);
+    }
+
+    static void checarDivisor(double denominador) {
+        if (Math.abs(denominador) < 1e-9) {
+            throw new ArithmeticException("Divisão por zero não é permitida para números complexos.");
+        }
+    }
+
+    static NumeroComplexo potencia(double real, double imaginario, double expoente) {
+        return new NumeroComplexo(real, imaginario).potencia((int) expoente);
+    }
+
+    static NumeroComplexo raiz(double real, double imaginario, int grau) {
+        return new NumeroComplexo(real, imaginario).raiz(grau);
+    }
+
+    static void potencia(double real, double imaginario, double expoente, ComplexAccumulator destino) {
+        destino.definir(real, imaginario).potencia((int) expoente);
+    }
+
+    static void raiz(double real, double imaginario, int grau, ComplexAccumulator destino) {
+        destino.definir(real, imaginario).raiz(grau);
+    }
+}
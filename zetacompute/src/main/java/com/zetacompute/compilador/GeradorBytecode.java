@@ -0,0 +1,284 @@
+package com.zetacompute.compilador;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Montador mínimo de arquivos .class usado pelo CompiledExpressao.
+ * Gera apenas o que o compilador precisa: uma classe final com construtor
+ * padrão e métodos de código linear (sem desvios), por isso não há
+ * StackMapTable nem tabela de exceções.
+ */
+final class GeradorBytecode {
+
+    // Opcodes utilizados
+    static final int ALOAD_0 = 0x2a;
+    static final int ALOAD_1 = 0x2b;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int DLOAD = 0x18;
+    static final int DALOAD = 0x31;
+    static final int DSTORE = 0x39;
+    static final int DADD = 0x63;
+    static final int DSUB = 0x67;
+    static final int DMUL = 0x6b;
+    static final int DDIV = 0x6f;
+    static final int DNEG = 0x77;
+    static final int DUP = 0x59;
+    static final int POP = 0x57;
+    static final int NEW = 0xbb;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int WIDE = 0xc4;
+
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_METHODREF = 10;
+    private static final int TAG_NAME_AND_TYPE = 12;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int VERSAO_CLASSE = 65; // Java 21
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int proximoIndice = 1;
+
+    private final ByteArrayOutputStream metodosBytes = new ByteArrayOutputStream();
+    private final DataOutputStream metodos = new DataOutputStream(metodosBytes);
+    private int quantidadeMetodos = 0;
+
+    private final String nomeClasse;
+    private final String nomeInterface;
+
+    GeradorBytecode(String nomeClasse, String nomeInterface) {
+        this.nomeClasse = nomeClasse;
+        this.nomeInterface = nomeInterface;
+    }
+
+    // --- Pool de constantes ---
+
+    int utf8(String valor) {
+        return constante("U" + valor, () -> {
+            pool.writeByte(TAG_UTF8);
+            pool.writeUTF(valor);
+        }, 1);
+    }
+
+    int classe(String nomeInterno) {
+        int nome = utf8(nomeInterno);
+        return constante("C" + nomeInterno, () -> {
+            pool.writeByte(TAG_CLASS);
+            pool.writeShort(nome);
+        }, 1);
+    }
+
+    int string(String valor) {
+        int utf = utf8(valor);
+        return constante("S" + valor, () -> {
+            pool.writeByte(TAG_STRING);
+            pool.writeShort(utf);
+        }, 1);
+    }
+
+    int inteiro(int valor) {
+        return constante("I" + valor, () -> {
+            pool.writeByte(TAG_INTEGER);
+            pool.writeInt(valor);
+        }, 1);
+    }
+
+    int duplo(double valor) {
+        // A chave usa os bits exatos para distinguir 0.0 de -0.0 e preservar NaN
+        return constante("D" + Double.doubleToRawLongBits(valor), () -> {
+            pool.writeByte(TAG_DOUBLE);
+            pool.writeLong(Double.doubleToRawLongBits(valor));
+        }, 2);
+    }
+
+    int metodo(String dono, String nome, String descritor) {
+        int classe = classe(dono);
+        int nomeUtf = utf8(nome);
+        int descUtf = utf8(descritor);
+        int nomeETipo = constante("N" + nome + ":" + descritor, () -> {
+            pool.writeByte(TAG_NAME_AND_TYPE);
+            pool.writeShort(nomeUtf);
+            pool.writeShort(descUtf);
+        }, 1);
+        return constante("M" + dono + "." + nome + descritor, () -> {
+            pool.writeByte(TAG_METHODREF);
+            pool.writeShort(classe);
+            pool.writeShort(nomeETipo);
+        }, 1);
+    }
+
+    private interface Escrita {
+        void escrever() throws IOException;
+    }
+
+    private int constante(String chave, Escrita escrita, int tamanho) {
+        Integer existente = indices.get(chave);
+        if (existente != null) return existente;
+        try {
+            escrita.escrever();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int indice = proximoIndice;
+        proximoIndice += tamanho; // long e double ocupam duas entradas
+        if (proximoIndice > 0xFFFF) {
+            throw new IllegalArgumentException("Pool de constantes excedeu o limite da JVM.");
+        }
+        indices.put(chave, indice);
+        return indice;
+    }
+
+    // --- Métodos ---
+
+    void adicionarMetodo(String nome, String descritor, Codigo codigo) {
+        int nomeUtf = utf8(nome);
+        int descUtf = utf8(descritor);
+        int codeUtf = utf8("Code");
+        byte[] bytes = codigo.bytes();
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Expressão grande demais para compilação (" + bytes.length + " bytes de código).");
+        }
+        if (codigo.maxLocais > 0xFFFF) {
+            throw new IllegalArgumentException("Expressão grande demais para compilação (" + codigo.maxLocais + " variáveis locais).");
+        }
+        try {
+            metodos.writeShort(ACC_PUBLIC);
+            metodos.writeShort(nomeUtf);
+            metodos.writeShort(descUtf);
+            metodos.writeShort(1); // um atributo: Code
+            metodos.writeShort(codeUtf);
+            metodos.writeInt(12 + bytes.length);
+            metodos.writeShort(codigo.maxPilha);
+            metodos.writeShort(codigo.maxLocais);
+            metodos.writeInt(bytes.length);
+            metodos.write(bytes);
+            metodos.writeShort(0); // tabela de exceções
+            metodos.writeShort(0); // atributos do Code
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        quantidadeMetodos++;
+    }
+
+    byte[] gerar() {
+        int esta = classe(nomeClasse);
+        int superClasse = classe("java/lang/Object");
+        int interfaceIdx = classe(nomeInterface);
+
+        ByteArrayOutputStream saidaBytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(saidaBytes);
+        try {
+            saida.writeInt(0xCAFEBABE);
+            saida.writeShort(0);
+            saida.writeShort(VERSAO_CLASSE);
+            saida.writeShort(proximoIndice);
+            pool.flush();
+            poolBytes.writeTo(saida);
+            saida.writeShort(ACC_FINAL | ACC_SUPER);
+            saida.writeShort(esta);
+            saida.writeShort(superClasse);
+            saida.writeShort(1);
+            saida.writeShort(interfaceIdx);
+            saida.writeShort(0); // campos
+            saida.writeShort(quantidadeMetodos);
+            metodos.flush();
+            metodosBytes.writeTo(saida);
+            saida.writeShort(0); // atributos da classe
+            saida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saidaBytes.toByteArray();
+    }
+
+    /*
+     * Buffer de instruções de um método. Controla a profundidade máxima
+     * da pilha de operandos e o número de variáveis locais usadas.
+     */
+    static final class Codigo {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int pilha = 0;
+        int maxPilha = 0;
+        int maxLocais = 0;
+
+        Codigo(int locaisIniciais) {
+            this.maxLocais = locaisIniciais;
+        }
+
+        // 'efeito' é a variação da pilha em slots (double ocupa 2)
+        Codigo op(int opcode, int efeito) {
+            bytes.write(opcode);
+            ajustarPilha(efeito);
+            return this;
+        }
+
+        Codigo opIndice16(int opcode, int indice, int efeito) {
+            bytes.write(opcode);
+            bytes.write(indice >>> 8);
+            bytes.write(indice);
+            ajustarPilha(efeito);
+            return this;
+        }
+
+        Codigo ldc(int indice) {
+            if (indice <= 0xFF) {
+                bytes.write(LDC);
+                bytes.write(indice);
+                ajustarPilha(1);
+                return this;
+            }
+            return opIndice16(LDC_W, indice, 1);
+        }
+
+        Codigo dload(int local) {
+            return local(DLOAD, local, 2);
+        }
+
+        Codigo dstore(int local) {
+            return local(DSTORE, local, -2);
+        }
+
+        private Codigo local(int opcode, int local, int efeito) {
+            if (local <= 0xFF) {
+                bytes.write(opcode);
+                bytes.write(local);
+            } else {
+                bytes.write(WIDE);
+                bytes.write(opcode);
+                bytes.write(local >>> 8);
+                bytes.write(local);
+            }
+            maxLocais = Math.max(maxLocais, local + 2);
+            ajustarPilha(efeito);
+            return this;
+        }
+
+        private void ajustarPilha(int efeito) {
+            pilha += efeito;
+            maxPilha = Math.max(maxPilha, pilha);
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
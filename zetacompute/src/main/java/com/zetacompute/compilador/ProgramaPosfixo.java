@@ -0,0 +1,473 @@
+package com.zetacompute.compilador;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Expressão linearizada num programa pós-fixo para uma máquina de pilha.
+ * Em vez de percorrer objetos espalhados pelo heap, o interpretador lê
+ * três vetores contíguos:
+ *
+ *   int[] codigo        uma instrução por int: opcode nos 8 bits baixos e
+ *                       operando (com sinal) nos 24 de cima
+ *   double[] constantes (re, im) de cada constante, sem repetição
+ *   String[] nomes      variáveis, numeradas pela ordem da primeira leitura
+ *
+ * Os operandos ficam numa pilha double[] (re, im) dimensionada na
+ * linearização; o laço não tem recursão, então a profundidade da árvore só
+ * é limitada pela memória, e não há alocação por nó. As operações usam o
+ * ComplexAccumulator, então resultados e exceções (variável indefinida,
+ * divisão por zero) são os mesmos da avaliação da árvore, na mesma ordem.
+ *
+ * Subárvores compartilhadas (DAGs da FabricaNos) são emitidas uma vez: o
+ * resultado é copiado para uma variável local do programa (GUARDAR) e as
+ * outras ocorrências só o recarregam (CARREGAR), então o programa cresce
+ * com o número de nós distintos, e não com o da árvore equivalente.
+ * Polinômios entram pela forma de Horner expandida.
+ */
+public final class ProgramaPosfixo implements Envoltorio {
+
+    static final int CONSTANTE = 0;
+    static final int VARIAVEL = 1;
+    static final int SOMA = 2;
+    static final int SUBTRACAO = 3;
+    static final int MULTIPLICACAO = 4;
+    static final int DIVISAO = 5;
+    static final int POTENCIA = 6;
+    static final int RAIZ = 7;
+    static final int CONJUGADO = 8;
+    static final int GUARDAR = 9;   // copia o topo para a local do operando, sem desempilhar
+    static final int CARREGAR = 10; // empilha a local do operando
+
+    private static final int OPERANDO_MAXIMO = (1 << 23) - 1;
+    private static final int SEM_FALTA = Integer.MAX_VALUE;
+
+    private final Expressao origem;
+    private final int[] codigo;
+    private final double[] constantes;
+    private final String[] nomes;
+    private final int tamanhoPilha; // em números complexos
+    private final int locais; // subárvores compartilhadas guardadas
+    private volatile Slots slots; // nomes[] no último layout de Bindings visto
+
+    private ProgramaPosfixo(Expressao origem, int[] codigo, double[] constantes, String[] nomes,
+                            int tamanhoPilha, int locais) {
+        this.origem = origem;
+        this.codigo = codigo;
+        this.constantes = constantes;
+        this.nomes = nomes;
+        this.tamanhoPilha = tamanhoPilha;
+        this.locais = locais;
+    }
+
+    /*
+     * Lineariza a árvore. Lança IllegalArgumentException para nós
+     * desconhecidos ou operandos que não cabem em 24 bits.
+     */
+    public static ProgramaPosfixo linearizar(Expressao expressao) {
+        if (expressao instanceof ProgramaPosfixo) return (ProgramaPosfixo) expressao;
+        Expressao origem = expressao;
+        expressao = Envoltorio.arvore(expressao);
+
+        int[] codigo = new int[16];
+        int n = 0;
+        double[] constantes = new double[16];
+        Map<ChaveConstante, Integer> indiceConstantes = new HashMap<>();
+        Map<String, Integer> nomes = new LinkedHashMap<>();
+        int altura = 0;
+        int tamanhoPilha = 0;
+        Map<Expressao, Expressao> expandidos = new IdentityHashMap<>();
+        Map<Expressao, Integer> referencias = contarReferencias(expressao, expandidos);
+        Map<Expressao, Integer> locais = new IdentityHashMap<>();
+
+        // Pós-ordem iterativa: um Emitir na pilha guarda o operador até os operandos serem emitidos.
+        // A primeira ocorrência de um nó compartilhado termina antes de qualquer outra ser visitada
+        // (ele não é descendente de si mesmo), então a local já está preenchida quando é recarregada.
+        Deque<Object> pilha = new ArrayDeque<>();
+        pilha.push(expressao);
+        while (!pilha.isEmpty()) {
+            Object item = pilha.pop();
+            int instrucao;
+            int guardar = -1;
+            if (item instanceof Emitir) {
+                Emitir emitir = (Emitir) item;
+                instrucao = emitir.instrucao;
+                guardar = emitir.local;
+                altura -= emitir.operandos - 1;
+            } else {
+                Expressao no = expandido((Expressao) item, expandidos);
+                Integer local = locais.get(no);
+                if (local != null) {
+                    instrucao = instrucao(CARREGAR, local);
+                } else if (no instanceof NoOperacao) {
+                    NoOperacao op = (NoOperacao) no;
+                    boolean unaria = op.getDireita() == null;
+                    int operando = op.getOperador() == NoOperacao.Operador.RAIZ ? op.getParametroAuxiliar() : 0;
+                    int novaLocal = -1;
+                    if (referencias.get(op) > 1) {
+                        novaLocal = locais.size();
+                        locais.put(op, novaLocal);
+                    }
+                    pilha.push(new Emitir(instrucao(opcode(op.getOperador()), operando), unaria ? 1 : 2, novaLocal));
+                    if (!unaria) pilha.push(op.getDireita());
+                    pilha.push(op.getEsquerda());
+                    continue;
+                } else if (no instanceof NoConstante) {
+                    NumeroComplexo v = ((NoConstante) no).getValor();
+                    ChaveConstante chave = new ChaveConstante(v);
+                    Integer k = indiceConstantes.get(chave);
+                    if (k == null) {
+                        k = indiceConstantes.size();
+                        indiceConstantes.put(chave, k);
+                        if (2 * k + 2 > constantes.length) constantes = Arrays.copyOf(constantes, 2 * constantes.length);
+                        constantes[2 * k] = v.getReal();
+                        constantes[2 * k + 1] = v.getImaginario();
+                    }
+                    instrucao = instrucao(CONSTANTE, k);
+                } else if (no instanceof NoVariavel) {
+                    String nome = ((NoVariavel) no).getNome();
+                    Integer slot = nomes.get(nome);
+                    if (slot == null) nomes.put(nome, slot = nomes.size());
+                    instrucao = instrucao(VARIAVEL, slot);
+                } else {
+                    throw new IllegalArgumentException("Nó não suportado na linearização: " + no.getClass().getSimpleName());
+                }
+                altura++;
+                tamanhoPilha = Math.max(tamanhoPilha, altura);
+            }
+            if (n + 2 > codigo.length) codigo = Arrays.copyOf(codigo, 2 * codigo.length);
+            codigo[n++] = instrucao;
+            if (guardar >= 0) codigo[n++] = instrucao(GUARDAR, guardar);
+        }
+        return new ProgramaPosfixo(origem, Arrays.copyOf(codigo, n), Arrays.copyOf(constantes, 2 * indiceConstantes.size()),
+                nomes.keySet().toArray(new String[0]), tamanhoPilha, locais.size());
+    }
+
+    // Quantas vezes cada operação é alcançada a partir da raiz (filhos contados só na primeira vez)
+    private static Map<Expressao, Integer> contarReferencias(Expressao raiz, Map<Expressao, Expressao> expandidos) {
+        Map<Expressao, Integer> referencias = new IdentityHashMap<>();
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Expressao no = expandido(pilha.pop(), expandidos);
+            if (!(no instanceof NoOperacao)) continue;
+            if (referencias.merge(no, 1, Integer::sum) > 1) continue;
+            NoOperacao op = (NoOperacao) no;
+            pilha.push(op.getEsquerda());
+            if (op.getDireita() != null) pilha.push(op.getDireita());
+        }
+        return referencias;
+    }
+
+    // Um polinômio é expandido uma vez, para que as suas ocorrências sejam o mesmo nó
+    private static Expressao expandido(Expressao no, Map<Expressao, Expressao> expandidos) {
+        return no instanceof NoPolinomio ? expandidos.computeIfAbsent(no, p -> ((NoPolinomio) p).expandir()) : no;
+    }
+
+    private static int instrucao(int opcode, int operando) {
+        if (operando > OPERANDO_MAXIMO || operando < -OPERANDO_MAXIMO - 1) {
+            throw new IllegalArgumentException("Operando grande demais para o programa pós-fixo: " + operando);
+        }
+        return opcode | (operando << 8);
+    }
+
+    private static int opcode(NoOperacao.Operador operador) {
+        switch (operador) {
+            case SOMA: return SOMA;
+            case SUBTRACAO: return SUBTRACAO;
+            case MULTIPLICACAO: return MULTIPLICACAO;
+            case DIVISAO: return DIVISAO;
+            case POTENCIA: return POTENCIA;
+            case RAIZ: return RAIZ;
+            case CONJUGADO: return CONJUGADO;
+            default: throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    private static final class Emitir {
+        final int instrucao;
+        final int operandos;
+        final int local; // -1: o resultado não é reaproveitado
+
+        Emitir(int instrucao, int operandos, int local) {
+            this.instrucao = instrucao;
+            this.operandos = operandos;
+            this.local = local;
+        }
+    }
+
+    // Constantes iguais bit a bit ocupam uma única entrada
+    private static final class ChaveConstante {
+        private final long real;
+        private final long imaginario;
+
+        ChaveConstante(NumeroComplexo valor) {
+            this.real = Double.doubleToLongBits(valor.getReal());
+            this.imaginario = Double.doubleToLongBits(valor.getImaginario());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChaveConstante)) return false;
+            ChaveConstante c = (ChaveConstante) o;
+            return real == c.real && imaginario == c.imaginario;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(real) * 31 + Long.hashCode(imaginario);
+        }
+    }
+
+    public Expressao getOrigem() {
+        return origem;
+    }
+
+    @Override
+    public Expressao getEmbrulhada() {
+        return origem;
+    }
+
+    // Cópias dos vetores do programa, para inspeção
+    public int[] getCodigo() {
+        return codigo.clone();
+    }
+
+    public double[] getConstantes() {
+        return constantes.clone();
+    }
+
+    public String[] getNomes() {
+        return nomes.clone();
+    }
+
+    public int getTamanhoPilha() {
+        return tamanhoPilha;
+    }
+
+    public int getLocais() {
+        return locais;
+    }
+
+    // --- Interpretador ---
+
+    /*
+     * Executa o programa com os valores das variáveis em 'valores' (re, im
+     * por slot; indices[v] é o slot da variável v, ou v se indices for null)
+     * e deixa o resultado em 'acc'. Variáveis a partir de 'faltando' não
+     * existem: como são numeradas pela ordem da primeira leitura, a primeira
+     * ausente lida é sempre nomes[faltando], a mesma que a árvore acusaria.
+     */
+    private void executar(double[] valores, int[] indices, int faltando, ComplexAccumulator acc) {
+        double[] p = new double[2 * tamanhoPilha];
+        double[] l = new double[2 * locais];
+        int topo = 0; // posição livre em p (sempre par)
+        for (int instrucao : codigo) {
+            int operando = instrucao >> 8;
+            switch (instrucao & 0xFF) {
+                case CONSTANTE:
+                    p[topo] = constantes[2 * operando];
+                    p[topo + 1] = constantes[2 * operando + 1];
+                    topo += 2;
+                    break;
+                case VARIAVEL: {
+                    if (operando >= faltando) {
+                        throw new IllegalArgumentException("Erro: Variável '" + nomes[faltando] + "' não foi definida.");
+                    }
+                    int slot = indices != null ? indices[operando] : operando;
+                    p[topo] = valores[2 * slot];
+                    p[topo + 1] = valores[2 * slot + 1];
+                    topo += 2;
+                    break;
+                }
+                case SOMA:
+                    topo -= 2;
+                    acc.definir(p[topo - 2], p[topo - 1]).somar(p[topo], p[topo + 1]);
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case SUBTRACAO:
+                    topo -= 2;
+                    acc.definir(p[topo - 2], p[topo - 1]).subtrair(p[topo], p[topo + 1]);
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case MULTIPLICACAO:
+                    topo -= 2;
+                    acc.definir(p[topo - 2], p[topo - 1]).multiplicar(p[topo], p[topo + 1]);
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case DIVISAO:
+                    topo -= 2;
+                    acc.definir(p[topo - 2], p[topo - 1]).dividir(p[topo], p[topo + 1]);
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case POTENCIA:
+                    topo -= 2;
+                    acc.definir(p[topo - 2], p[topo - 1]).potencia((int) p[topo]); // expoente: parte real inteira
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case RAIZ:
+                    acc.definir(p[topo - 2], p[topo - 1]).raiz(operando);
+                    p[topo - 2] = acc.getReal();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case CONJUGADO:
+                    acc.definir(p[topo - 2], p[topo - 1]).conjugar();
+                    p[topo - 1] = acc.getImaginario();
+                    break;
+                case GUARDAR:
+                    l[2 * operando] = p[topo - 2];
+                    l[2 * operando + 1] = p[topo - 1];
+                    break;
+                case CARREGAR:
+                    p[topo] = l[2 * operando];
+                    p[topo + 1] = l[2 * operando + 1];
+                    topo += 2;
+                    break;
+                default:
+                    throw new IllegalStateException("Instrução inválida: " + instrucao);
+            }
+        }
+        acc.definir(p[0], p[1]);
+    }
+
+    // Valores do mapa na ordem de nomes[]; devolve o primeiro ausente (ou SEM_FALTA)
+    private int carregar(Map<String, NumeroComplexo> variaveis, double[] valores) {
+        for (int v = 0; v < nomes.length; v++) {
+            NumeroComplexo x = variaveis.get(nomes[v]);
+            if (x == null) return v;
+            valores[2 * v] = x.getReal();
+            valores[2 * v + 1] = x.getImaginario();
+        }
+        return SEM_FALTA;
+    }
+
+    private Slots slots(Bindings variaveis) {
+        Slots s = slots;
+        if (s == null || !s.layout.mesmoLayout(variaveis)) {
+            int[] indices = new int[nomes.length];
+            int faltando = SEM_FALTA;
+            for (int v = 0; v < nomes.length; v++) {
+                if (!variaveis.contem(nomes[v])) {
+                    faltando = v;
+                    break;
+                }
+                indices[v] = variaveis.slot(nomes[v]);
+            }
+            slots = s = new Slots(variaveis, indices, faltando);
+        }
+        return s;
+    }
+
+    private static final class Slots {
+        final Bindings layout;
+        final int[] indices;
+        final int faltando;
+
+        Slots(Bindings layout, int[] indices, int faltando) {
+            this.layout = layout;
+            this.indices = indices;
+            this.faltando = faltando;
+        }
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        ComplexAccumulator acc = new ComplexAccumulator();
+        avaliar(variaveis, acc);
+        return acc.paraNumeroComplexo();
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        ComplexAccumulator acc = new ComplexAccumulator();
+        avaliar(variaveis, acc);
+        return acc.paraNumeroComplexo();
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        double[] valores = new double[2 * nomes.length];
+        executar(valores, null, carregar(variaveis, valores), destino);
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        Slots s = slots(variaveis);
+        executar(variaveis.getValores(), s.indices, s.faltando, destino);
+    }
+
+    // O programa é o mesmo para qualquer layout; só confere as variáveis e guarda os slots
+    @Override
+    public Expressao vincular(Bindings layout) {
+        Slots s = slots(layout);
+        if (s.faltando != SEM_FALTA) {
+            throw new IllegalArgumentException("Erro: Variável '" + nomes[s.faltando] + "' não foi definida.");
+        }
+        return this;
+    }
+
+    // --- Delegação ---
+
+    @Override
+    public void exibirArvore() {
+        origem.exibirArvore();
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        origem.exibirArvore(prefixo, isLeft);
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return origem.getVariaveis();
+    }
+
+    @Override
+    public int getTamanho() {
+        return origem.getTamanho();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return origem.getProfundidade();
+    }
+
+    @Override
+    public String toLisp() {
+        return origem.toLisp();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProgramaPosfixo)) return false;
+        return origem.equals(((ProgramaPosfixo) o).origem);
+    }
+
+    @Override
+    public int hashCode() {
+        return origem.hashCode();
+    }
+}
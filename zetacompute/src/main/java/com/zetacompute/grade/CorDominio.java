@@ -0,0 +1,51 @@
+package com.zetacompute.grade;
+
+/*
+ * Coloração de domínio: o argumento do número define o matiz (vermelho no
+ * semieixo real positivo, girando no sentido anti-horário) e o módulo define
+ * o brilho, em faixas que se repetem a cada duplicação de |z|, para que
+ * zeros e polos apareçam como pontos onde as cores e as faixas convergem.
+ * NaN vira preto e infinito vira branco.
+ */
+public final class CorDominio {
+
+    private CorDominio() {
+    }
+
+    // Cor 0xRRGGBB do ponto re + im i
+    public static int rgb(double re, double im) {
+        if (Double.isNaN(re) || Double.isNaN(im)) return 0x000000;
+        if (Double.isInfinite(re) || Double.isInfinite(im)) return 0xFFFFFF;
+
+        double matiz = Math.atan2(im, re) / (2 * Math.PI);
+        if (matiz < 0) matiz += 1;
+        double modulo = Math.hypot(re, im);
+        double faixa = modulo == 0 ? 0 : Math.log(modulo) / Math.log(2);
+        faixa -= Math.floor(faixa);
+        double brilho = 0.6 + 0.4 * faixa;
+        return hsv(matiz, 1.0, brilho);
+    }
+
+    private static int hsv(double h, double s, double v) {
+        double setor = h * 6;
+        int i = (int) Math.floor(setor) % 6;
+        double f = setor - Math.floor(setor);
+        double p = v * (1 - s);
+        double q = v * (1 - s * f);
+        double t = v * (1 - s * (1 - f));
+        double r, g, b;
+        switch (i) {
+            case 0: r = v; g = t; b = p; break;
+            case 1: r = q; g = v; b = p; break;
+            case 2: r = p; g = v; b = t; break;
+            case 3: r = p; g = q; b = v; break;
+            case 4: r = t; g = p; b = v; break;
+            default: r = v; g = p; b = q; break;
+        }
+        return (canal(r) << 16) | (canal(g) << 8) | canal(b);
+    }
+
+    private static int canal(double x) {
+        return (int) Math.round(Math.max(0, Math.min(1, x)) * 255);
+    }
+}
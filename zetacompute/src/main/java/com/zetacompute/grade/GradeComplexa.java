@@ -0,0 +1,297 @@
+package com.zetacompute.grade;
+
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Avalia uma expressão sobre uma região retangular do plano complexo
+ * (coloração de domínio, mapas de erro). A variável escolhida percorre a
+ * grade de largura x altura pontos: a coluna 0 é reMin e a última é reMax,
+ * a linha 0 (topo da imagem) é imMax e a última é imMin. As demais
+ * variáveis da expressão recebem valores fixos.
+ *
+ * A grade é dividida em ladrilhos de LADO x LADO pontos (um bloco do
+ * AvaliadorLote, com as coordenadas geradas direto nos registradores) e
+ * avaliada faixa a faixa: os ladrilhos de uma faixa rodam em paralelo no
+ * ForkJoinPool enquanto a faixa anterior é entregue à SaidaGrade. Só duas
+ * faixas ficam na memória, qualquer que seja a altura. Os buffers de trabalho
+ * dos ladrilhos vêm de uma lista livre criada a cada chamada de avaliar: no
+ * máximo um por ladrilho simultâneo, descartados junto com a chamada (nada
+ * fica preso às threads do pool).
+ *
+ * Pontos em que a avaliação lança ArithmeticException (divisão por zero,
+ * 0 elevado a expoente negativo) viram NaN + NaN i; o ladrilho que os contém
+ * é reavaliado ponto a ponto. Os demais valores são idênticos aos de
+ * Expressao.avaliar.
+ */
+public final class GradeComplexa {
+
+    // Lado do ladrilho: LADO * LADO pontos formam um bloco do AvaliadorLote
+    public static final int LADO = 32;
+
+    // Slot da variável da grade no layout; as fixas vêm depois
+    private static final int SLOT = 0;
+
+    private final AvaliadorLote lote;
+    private final double[] fixasRe;
+    private final double[] fixasIm;
+    private final double reMin;
+    private final double reMax;
+    private final double imMin;
+    private final double imMax;
+    private final int largura;
+    private final int altura;
+
+    public GradeComplexa(Expressao expressao, String variavel,
+                         double reMin, double reMax, double imMin, double imMax, int largura, int altura) {
+        this(expressao, variavel, Collections.emptyMap(), reMin, reMax, imMin, imMax, largura, altura);
+    }
+
+    public GradeComplexa(Expressao expressao, String variavel, Map<String, NumeroComplexo> fixas,
+                         double reMin, double reMax, double imMin, double imMax, int largura, int altura) {
+        if (largura <= 0 || altura <= 0) {
+            throw new IllegalArgumentException("A resolução deve ser positiva.");
+        }
+        if (!(reMin <= reMax) || !(imMin <= imMax) || !Double.isFinite(reMax - reMin) || !Double.isFinite(imMax - imMin)) {
+            throw new IllegalArgumentException("Limites inválidos para a região.");
+        }
+        String[] nomes = new String[fixas.size() + 1];
+        nomes[SLOT] = variavel;
+        int k = 1;
+        for (String nome : fixas.keySet()) nomes[k++] = nome;
+        Bindings layout = new Bindings(nomes); // nome repetido: erro aqui
+        this.lote = AvaliadorLote.para(expressao, layout); // variável sem valor: erro aqui
+        this.fixasRe = new double[nomes.length];
+        this.fixasIm = new double[nomes.length];
+        for (int s = 1; s < nomes.length; s++) {
+            NumeroComplexo valor = fixas.get(nomes[s]);
+            fixasRe[s] = valor.getReal();
+            fixasIm[s] = valor.getImaginario();
+        }
+        this.reMin = reMin;
+        this.reMax = reMax;
+        this.imMin = imMin;
+        this.imMax = imMax;
+        this.largura = largura;
+        this.altura = altura;
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+
+    public int getAltura() {
+        return altura;
+    }
+
+    // Parte real dos pontos da coluna x
+    public double real(int x) {
+        return largura == 1 ? reMin : reMin + (reMax - reMin) * x / (largura - 1);
+    }
+
+    // Parte imaginária dos pontos da linha y (a linha 0 fica no topo)
+    public double imaginario(int y) {
+        return altura == 1 ? imMax : imMax - (imMax - imMin) * y / (altura - 1);
+    }
+
+    public void avaliar(SaidaGrade saida) throws IOException {
+        avaliar(saida, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * Avalia a grade inteira e a entrega para 'saida' em faixas de LADO linhas,
+     * de cima para baixo. A saída não é fechada aqui.
+     */
+    public void avaliar(SaidaGrade saida, ForkJoinPool pool) throws IOException {
+        saida.iniciar(largura, altura);
+        Faixa atual = new Faixa();
+        Faixa proxima = new Faixa();
+        Queue<Trabalho> livres = new ConcurrentLinkedQueue<>();
+        ForkJoinTask<?> pendente = pool.submit(new TarefaFaixa(atual, 0, livres));
+        try {
+            for (int y0 = 0; y0 < altura; y0 += LADO) {
+                pendente.join();
+                pendente = null;
+                if (y0 + LADO < altura) pendente = pool.submit(new TarefaFaixa(proxima, y0 + LADO, livres));
+                saida.escreverLinhas(y0, Math.min(LADO, altura - y0), atual.re, atual.im);
+                Faixa t = atual;
+                atual = proxima;
+                proxima = t;
+            }
+        } finally {
+            // Erro na escrita: não deixa a faixa seguinte rodando sobre um buffer abandonado
+            if (pendente != null) {
+                pendente.cancel(false);
+                pendente.quietlyJoin();
+            }
+        }
+    }
+
+    // LADO linhas da grade em ordem de linha (largura * LADO pontos)
+    private final class Faixa {
+        final double[] re = new double[largura * Math.min(LADO, altura)];
+        final double[] im = new double[largura * Math.min(LADO, altura)];
+    }
+
+    private final class TarefaFaixa extends RecursiveAction {
+        private final Faixa faixa;
+        private final int y0;
+        private final Queue<Trabalho> livres;
+
+        TarefaFaixa(Faixa faixa, int y0, Queue<Trabalho> livres) {
+            this.faixa = faixa;
+            this.y0 = y0;
+            this.livres = livres;
+        }
+
+        @Override
+        protected void compute() {
+            int h = Math.min(LADO, altura - y0);
+            Ladrilho[] ladrilhos = new Ladrilho[(largura + LADO - 1) / LADO];
+            for (int t = 0; t < ladrilhos.length; t++) {
+                int x0 = t * LADO;
+                ladrilhos[t] = new Ladrilho(faixa, x0, y0, Math.min(LADO, largura - x0), h, livres);
+            }
+            invokeAll(ladrilhos);
+        }
+    }
+
+    private final class Ladrilho extends RecursiveAction {
+        private final Faixa faixa;
+        private final int x0;
+        private final int y0;
+        private final int w;
+        private final int h;
+        private final Queue<Trabalho> livres;
+
+        Ladrilho(Faixa faixa, int x0, int y0, int w, int h, Queue<Trabalho> livres) {
+            this.faixa = faixa;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.w = w;
+            this.h = h;
+            this.livres = livres;
+        }
+
+        @Override
+        protected void compute() {
+            Trabalho trabalho = livres.poll();
+            if (trabalho == null) trabalho = new Trabalho(lote, fixasRe, fixasIm);
+            try {
+                avaliarLadrilho(trabalho);
+            } finally {
+                livres.offer(trabalho);
+            }
+        }
+
+        private void avaliarLadrilho(Trabalho trabalho) {
+            // Ponto k do ladrilho: coluna x0 + k % w, linha y0 + k / w
+            AvaliadorLote.Colunas entrada = (s, inicio, re, im, n) -> {
+                if (s != SLOT) {
+                    Arrays.fill(re, 0, n, fixasRe[s]);
+                    Arrays.fill(im, 0, n, fixasIm[s]);
+                    return;
+                }
+                for (int k = 0; k < n; k++) {
+                    int p = (int) inicio + k;
+                    re[k] = trabalho.reColuna[p % w];
+                    im[k] = trabalho.imLinha[p / w];
+                }
+            };
+            AvaliadorLote.Destino saida = (inicio, re, im, n) -> {
+                for (int k = 0; k < n; k++) {
+                    int p = (int) inicio + k;
+                    int destino = (p / w) * largura + x0 + p % w;
+                    faixa.re[destino] = re[k];
+                    faixa.im[destino] = im[k];
+                }
+            };
+            for (int i = 0; i < w; i++) trabalho.reColuna[i] = real(x0 + i);
+            for (int j = 0; j < h; j++) trabalho.imLinha[j] = imaginario(y0 + j);
+            try {
+                lote.avaliar(entrada, saida, 0, (long) w * h, trabalho.rascunho);
+            } catch (ArithmeticException e) {
+                avaliarPontoAPonto(trabalho);
+            }
+        }
+
+        private void avaliarPontoAPonto(Trabalho trabalho) {
+            Expressao expressao = lote.getExpressao();
+            Bindings valores = trabalho.valores;
+            for (int j = 0; j < h; j++) {
+                for (int i = 0; i < w; i++) {
+                    int destino = j * largura + x0 + i;
+                    valores.definir(SLOT, trabalho.reColuna[i], trabalho.imLinha[j]);
+                    try {
+                        NumeroComplexo r = expressao.avaliar(valores);
+                        faixa.re[destino] = r.getReal();
+                        faixa.im[destino] = r.getImaginario();
+                    } catch (ArithmeticException e) {
+                        faixa.re[destino] = Double.NaN;
+                        faixa.im[destino] = Double.NaN;
+                    }
+                }
+            }
+        }
+    }
+
+    // Buffers de um ladrilho em andamento; estático para não prender a grade
+    private static final class Trabalho {
+        final AvaliadorLote.Rascunho rascunho;
+        final double[] reColuna = new double[LADO];
+        final double[] imLinha = new double[LADO];
+        final Bindings valores;
+
+        Trabalho(AvaliadorLote lote, double[] fixasRe, double[] fixasIm) {
+            this.rascunho = lote.novoRascunho();
+            this.valores = lote.getLayout().novaInstancia();
+            for (int s = 0; s < fixasRe.length; s++) {
+                if (s != SLOT) valores.definir(s, fixasRe[s], fixasIm[s]);
+            }
+        }
+    }
+
+    /*
+     * Uso: java com.zetacompute.grade.GradeComplexa EXPR VARIAVEL reMin reMax imMin imMax LARGURA ALTURA SAIDA
+     * A extensão de SAIDA escolhe o formato: .png, .ppm ou .f32 (floats crus).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 9) {
+            throw new IllegalArgumentException("Uso: EXPR VARIAVEL reMin reMax imMin imMax LARGURA ALTURA SAIDA");
+        }
+        GradeComplexa grade = new GradeComplexa(new ParserIterativo(args[0]).parse(), args[1],
+                Double.parseDouble(args[2]), Double.parseDouble(args[3]),
+                Double.parseDouble(args[4]), Double.parseDouble(args[5]),
+                Integer.parseInt(args[6]), Integer.parseInt(args[7]));
+        Path caminho = Paths.get(args[8]);
+        String nome = caminho.getFileName().toString().toLowerCase();
+        SaidaGrade saida;
+        if (nome.endsWith(".png")) {
+            saida = ImagemPNG.arquivo(caminho);
+        } else if (nome.endsWith(".ppm")) {
+            saida = ImagemPPM.arquivo(caminho);
+        } else if (nome.endsWith(".f32")) {
+            saida = SaidaFloat.arquivo(caminho);
+        } else {
+            throw new IllegalArgumentException("Formato de saída desconhecido: " + nome);
+        }
+        try (saida) {
+            grade.avaliar(saida);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.zetacompute.grade;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*
+ * Imagem PNG (RGB, 8 bits) com a coloração de domínio da grade. Ao
+ * contrário do ImageIO, que precisa da imagem inteira na memória, as linhas
+ * são comprimidas com Deflater conforme chegam e gravadas em blocos IDAT
+ * de até TAMANHO_IDAT bytes. Cada linha usa o filtro "Sub" do PNG.
+ */
+public final class ImagemPNG implements SaidaGrade {
+
+    private static final byte[] ASSINATURA = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final int TAMANHO_IDAT = 1 << 16;
+    private static final int FILTRO_SUB = 1;
+
+    private final OutputStream saida;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final byte[] comprimido = new byte[TAMANHO_IDAT];
+    private int usados; // bytes de 'comprimido' ainda não gravados
+    private byte[] linha;
+    private int largura;
+    private boolean finalizada;
+
+    public ImagemPNG(OutputStream saida) {
+        this.saida = saida;
+    }
+
+    public static ImagemPNG arquivo(Path caminho) throws IOException {
+        return new ImagemPNG(new BufferedOutputStream(Files.newOutputStream(caminho), 1 << 16));
+    }
+
+    @Override
+    public void iniciar(int largura, int altura) throws IOException {
+        this.largura = largura;
+        this.linha = new byte[1 + 3 * largura];
+        saida.write(ASSINATURA);
+        byte[] cabecalho = new byte[13];
+        inteiro(cabecalho, 0, largura);
+        inteiro(cabecalho, 4, altura);
+        cabecalho[8] = 8; // bits por canal
+        cabecalho[9] = 2; // RGB
+        // compressão, filtro e entrelaçamento: 0
+        bloco("IHDR", cabecalho, cabecalho.length);
+    }
+
+    @Override
+    public void escreverLinhas(int primeiraLinha, int linhas, double[] re, double[] im) throws IOException {
+        for (int j = 0; j < linhas; j++) {
+            linha[0] = FILTRO_SUB;
+            int anterior = 0;
+            for (int i = 0, k = j * largura; i < largura; i++, k++) {
+                int cor = CorDominio.rgb(re[k], im[k]);
+                linha[1 + 3 * i] = (byte) ((cor >> 16) - (anterior >> 16));
+                linha[2 + 3 * i] = (byte) ((cor >> 8) - (anterior >> 8));
+                linha[3 + 3 * i] = (byte) (cor - anterior);
+                anterior = cor;
+            }
+            deflater.setInput(linha);
+            while (!deflater.needsInput()) comprimir();
+        }
+    }
+
+    // Fecha o fluxo comprimido e grava IEND; chamado por close()
+    public void finalizar() throws IOException {
+        if (finalizada) return;
+        finalizada = true;
+        deflater.finish();
+        while (!deflater.finished()) comprimir();
+        if (usados > 0) bloco("IDAT", comprimido, usados);
+        bloco("IEND", comprimido, 0);
+        deflater.end();
+        saida.flush();
+    }
+
+    private void comprimir() throws IOException {
+        usados += deflater.deflate(comprimido, usados, comprimido.length - usados);
+        if (usados == comprimido.length) {
+            bloco("IDAT", comprimido, usados);
+            usados = 0;
+        }
+    }
+
+    private void bloco(String tipo, byte[] dados, int n) throws IOException {
+        byte[] nome = tipo.getBytes(StandardCharsets.US_ASCII);
+        byte[] tamanho = new byte[4];
+        inteiro(tamanho, 0, n);
+        CRC32 crc = new CRC32();
+        crc.update(nome);
+        crc.update(dados, 0, n);
+        byte[] verificacao = new byte[4];
+        inteiro(verificacao, 0, (int) crc.getValue());
+        saida.write(tamanho);
+        saida.write(nome);
+        saida.write(dados, 0, n);
+        saida.write(verificacao);
+    }
+
+    // Inteiro de 32 bits big-endian
+    private static void inteiro(byte[] destino, int posicao, int valor) {
+        destino[posicao] = (byte) (valor >>> 24);
+        destino[posicao + 1] = (byte) (valor >>> 16);
+        destino[posicao + 2] = (byte) (valor >>> 8);
+        destino[posicao + 3] = (byte) valor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finalizar();
+        } finally {
+            saida.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.zetacompute.grade;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * Imagem PPM binária (P6) com a coloração de domínio da grade, escrita
+ * linha a linha conforme as faixas chegam.
+ */
+public final class ImagemPPM implements SaidaGrade {
+
+    private final OutputStream saida;
+    private byte[] linha;
+    private int largura;
+
+    public ImagemPPM(OutputStream saida) {
+        this.saida = saida;
+    }
+
+    public static ImagemPPM arquivo(Path caminho) throws IOException {
+        return new ImagemPPM(new BufferedOutputStream(Files.newOutputStream(caminho), 1 << 16));
+    }
+
+    @Override
+    public void iniciar(int largura, int altura) throws IOException {
+        this.largura = largura;
+        this.linha = new byte[3 * largura];
+        saida.write(("P6\n" + largura + " " + altura + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void escreverLinhas(int primeiraLinha, int linhas, double[] re, double[] im) throws IOException {
+        for (int j = 0; j < linhas; j++) {
+            for (int i = 0, k = j * largura; i < largura; i++, k++) {
+                int cor = CorDominio.rgb(re[k], im[k]);
+                linha[3 * i] = (byte) (cor >> 16);
+                linha[3 * i + 1] = (byte) (cor >> 8);
+                linha[3 * i + 2] = (byte) cor;
+            }
+            saida.write(linha);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        saida.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.zetacompute.grade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Valores da grade como float32 intercalados (re, im) em ordem de linha,
+ * sem cabeçalho: largura * altura * 2 floats. Grava num canal (arquivo,
+ * little-endian) ou num FloatBuffer fornecido (por exemplo, direto ou
+ * mapeado), que precisa ter espaço para a grade inteira.
+ */
+public final class SaidaFloat implements SaidaGrade {
+
+    private final WritableByteChannel canal; // null: grava em 'destino'
+    private final FloatBuffer destino;
+    private ByteBuffer bytes;
+    private int largura;
+
+    public SaidaFloat(WritableByteChannel canal) {
+        this.canal = canal;
+        this.destino = null;
+    }
+
+    public SaidaFloat(FloatBuffer destino) {
+        this.canal = null;
+        this.destino = destino;
+    }
+
+    public static SaidaFloat arquivo(Path caminho) throws IOException {
+        return new SaidaFloat(FileChannel.open(caminho, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    @Override
+    public void iniciar(int largura, int altura) {
+        this.largura = largura;
+        if (destino != null && destino.remaining() < 2L * largura * altura) {
+            throw new IllegalArgumentException("O buffer não comporta a grade de " + largura + "x" + altura + ".");
+        }
+        if (canal != null) {
+            bytes = ByteBuffer.allocateDirect(8 * largura * GradeComplexa.LADO).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    @Override
+    public void escreverLinhas(int primeiraLinha, int linhas, double[] re, double[] im) throws IOException {
+        int n = linhas * largura;
+        if (destino != null) {
+            for (int k = 0; k < n; k++) destino.put((float) re[k]).put((float) im[k]);
+            return;
+        }
+        bytes.clear();
+        for (int k = 0; k < n; k++) bytes.putFloat((float) re[k]).putFloat((float) im[k]);
+        bytes.flip();
+        while (bytes.hasRemaining()) canal.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null) canal.close();
+    }
+}
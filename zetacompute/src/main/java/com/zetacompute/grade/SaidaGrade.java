@@ -0,0 +1,17 @@
+package com.zetacompute.grade;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * Destino dos valores de uma GradeComplexa. As linhas chegam em ordem, de
+ * cima para baixo, em faixas: re e im trazem 'linhas' linhas seguidas de
+ * 'largura' pontos cada (os arrays podem ser maiores e são reaproveitados
+ * depois da chamada).
+ */
+public interface SaidaGrade extends Closeable {
+
+    void iniciar(int largura, int altura) throws IOException;
+
+    void escreverLinhas(int primeiraLinha, int linhas, double[] re, double[] im) throws IOException;
+}
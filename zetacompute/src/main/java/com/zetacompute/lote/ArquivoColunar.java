@@ -0,0 +1,310 @@
+package com.zetacompute.lote;
+
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Arquivo binário colunar de números complexos, lido e escrito com
+ * FileChannel.map. Formato (little-endian):
+ *
+ *   int    mágica "ZCOL"
+ *   int    versão (1)
+ *   int    formato: 0 = separado, 1 = intercalado
+ *   int    quantidade de variáveis
+ *   long   quantidade de pontos
+ *   nomes  (short tamanho + bytes UTF-8) por variável
+ *   ...    preenchimento até múltiplo de 64 bytes
+ *   dados  por variável, na ordem do cabeçalho:
+ *            separado:    re[pontos] seguido de im[pontos]
+ *            intercalado: (re, im)[pontos]
+ *
+ * O arquivo é mapeado em janelas de JANELA_PONTOS pontos por coluna, então
+ * pode ser maior que o heap (e que os 2 GB de um MappedByteBuffer). Como
+ * implementa AvaliadorLote.Colunas, a avaliação em lote copia os valores
+ * direto da memória mapeada para os registradores de cada bloco, sem
+ * conversão de texto nem cópia intermediária.
+ *
+ * Não é thread-safe (as janelas mapeadas ficam guardadas na instância).
+ */
+public final class ArquivoColunar implements AvaliadorLote.Colunas, Closeable {
+
+    private static final int MAGICA = 0x4C4F435A; // "ZCOL" em little-endian
+    private static final int VERSAO = 1;
+    private static final int ALINHAMENTO = 64;
+
+    // Pontos por janela mapeada (múltiplo do bloco do AvaliadorLote)
+    public static final int JANELA_PONTOS = 1 << 20;
+
+    private final FileChannel canal;
+    private final boolean escrita;
+    private final String[] nomes;
+    private final long pontos;
+    private final boolean intercalado;
+    private final long inicioDados;
+
+    // Uma janela por coluna física: 2 por variável no formato separado, 1 no intercalado
+    private final DoubleBuffer[] janelas;
+    private final MappedByteBuffer[] mapeamentos; // para force() ao fechar
+    private final long[] inicioJanela;
+
+    private ArquivoColunar(FileChannel canal, boolean escrita, String[] nomes, long pontos,
+                           boolean intercalado, long inicioDados) {
+        this.canal = canal;
+        this.escrita = escrita;
+        this.nomes = nomes;
+        this.pontos = pontos;
+        this.intercalado = intercalado;
+        this.inicioDados = inicioDados;
+        int colunas = intercalado ? nomes.length : 2 * nomes.length;
+        this.janelas = new DoubleBuffer[colunas];
+        this.mapeamentos = new MappedByteBuffer[colunas];
+        this.inicioJanela = new long[colunas];
+    }
+
+    // --- Abertura e criação ---
+
+    public static ArquivoColunar abrir(Path caminho) throws IOException {
+        FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ);
+        try {
+            return lerCabecalho(canal, false);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // Abre para leitura e escrita (para preencher um arquivo já criado)
+    public static ArquivoColunar abrirParaEscrita(Path caminho) throws IOException {
+        FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return lerCabecalho(canal, true);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Cria (ou substitui) o arquivo com o cabeçalho e espaço para todos os
+     * pontos. Os valores começam zerados e são preenchidos com escrever().
+     */
+    public static ArquivoColunar criar(Path caminho, String[] nomes, long pontos, boolean intercalado) throws IOException {
+        if (pontos < 0) {
+            throw new IllegalArgumentException("A quantidade de pontos não pode ser negativa.");
+        }
+        new Bindings(nomes); // valida nomes repetidos
+
+        int tamanhoCabecalho = 24;
+        byte[][] nomesUtf = new byte[nomes.length][];
+        for (int v = 0; v < nomes.length; v++) {
+            nomesUtf[v] = nomes[v].getBytes(StandardCharsets.UTF_8);
+            if (nomesUtf[v].length > 0xFFFF) {
+                throw new IllegalArgumentException("Nome de variável longo demais: " + nomes[v].substring(0, 16) + "...");
+            }
+            tamanhoCabecalho += 2 + nomesUtf[v].length;
+        }
+        long inicioDados = alinhar(tamanhoCabecalho);
+
+        ByteBuffer cabecalho = ByteBuffer.allocate((int) inicioDados).order(ByteOrder.LITTLE_ENDIAN);
+        cabecalho.putInt(MAGICA).putInt(VERSAO).putInt(intercalado ? 1 : 0).putInt(nomes.length).putLong(pontos);
+        for (byte[] nome : nomesUtf) {
+            cabecalho.putShort((short) nome.length).put(nome);
+        }
+        cabecalho.clear();
+
+        FileChannel canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            while (cabecalho.hasRemaining()) canal.write(cabecalho);
+            long tamanho = inicioDados + nomes.length * pontos * 16;
+            if (tamanho > inicioDados) {
+                canal.write(ByteBuffer.allocate(1), tamanho - 1); // reserva o espaço (arquivo esparso)
+            }
+            return new ArquivoColunar(canal, true, nomes.clone(), pontos, intercalado, inicioDados);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private static ArquivoColunar lerCabecalho(FileChannel canal, boolean escrita) throws IOException {
+        ByteBuffer fixo = lerBytes(canal, 0, 24);
+        if (fixo.getInt() != MAGICA) {
+            throw new IOException("Arquivo colunar inválido: assinatura incorreta.");
+        }
+        int versao = fixo.getInt();
+        if (versao != VERSAO) {
+            throw new IOException("Versão de arquivo colunar não suportada: " + versao);
+        }
+        boolean intercalado = fixo.getInt() == 1;
+        int variaveis = fixo.getInt();
+        long pontos = fixo.getLong();
+
+        String[] nomes = new String[variaveis];
+        long posicao = 24;
+        for (int v = 0; v < variaveis; v++) {
+            int tamanho = Short.toUnsignedInt(lerBytes(canal, posicao, 2).getShort());
+            nomes[v] = StandardCharsets.UTF_8.decode(lerBytes(canal, posicao + 2, tamanho)).toString();
+            posicao += 2 + tamanho;
+        }
+        long inicioDados = alinhar(posicao);
+        if (canal.size() < inicioDados + variaveis * pontos * 16) {
+            throw new IOException("Arquivo colunar truncado.");
+        }
+        return new ArquivoColunar(canal, escrita, nomes, pontos, intercalado, inicioDados);
+    }
+
+    private static ByteBuffer lerBytes(FileChannel canal, long posicao, int tamanho) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(tamanho).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) {
+            if (canal.read(b, posicao + b.position()) < 0) {
+                throw new IOException("Arquivo colunar truncado.");
+            }
+        }
+        return b.flip();
+    }
+
+    private static long alinhar(long posicao) {
+        return (posicao + ALINHAMENTO - 1) / ALINHAMENTO * ALINHAMENTO;
+    }
+
+    // --- Metadados ---
+
+    public String[] getNomes() {
+        return nomes.clone();
+    }
+
+    public long getPontos() {
+        return pontos;
+    }
+
+    public boolean isIntercalado() {
+        return intercalado;
+    }
+
+    // Layout com as variáveis na ordem das colunas do arquivo (slot = coluna)
+    public Bindings layout() {
+        return new Bindings(nomes);
+    }
+
+    // --- Acesso aos dados ---
+
+    @Override
+    public void ler(int slot, long inicio, double[] re, double[] im, int n) {
+        transferir(slot, inicio, re, im, n, false);
+    }
+
+    public void escrever(int slot, long inicio, double[] re, double[] im, int n) {
+        if (!escrita) {
+            throw new IllegalStateException("Arquivo colunar aberto somente para leitura.");
+        }
+        transferir(slot, inicio, re, im, n, true);
+    }
+
+    // Destino do AvaliadorLote que grava os resultados na variável 'slot'
+    public AvaliadorLote.Destino destino(int slot) {
+        return (inicio, re, im, n) -> escrever(slot, inicio, re, im, n);
+    }
+
+    private void transferir(int slot, long inicio, double[] re, double[] im, int n, boolean gravar) {
+        if (inicio < 0 || n < 0 || inicio + n > pontos) {
+            throw new IndexOutOfBoundsException("Pontos [" + inicio + ", " + (inicio + n) + ") fora de [0, " + pontos + ")");
+        }
+        int feitos = 0;
+        while (feitos < n) {
+            long ponto = inicio + feitos;
+            // Um trecho nunca atravessa o fim de uma janela
+            int trecho = (int) Math.min(n - feitos, JANELA_PONTOS - ponto % JANELA_PONTOS);
+            if (intercalado) {
+                DoubleBuffer b = janela(slot, ponto);
+                int base = 2 * (int) (ponto - inicioJanela[slot]);
+                for (int k = 0; k < trecho; k++) {
+                    if (gravar) {
+                        b.put(base + 2 * k, re[feitos + k]);
+                        b.put(base + 2 * k + 1, im[feitos + k]);
+                    } else {
+                        re[feitos + k] = b.get(base + 2 * k);
+                        im[feitos + k] = b.get(base + 2 * k + 1);
+                    }
+                }
+            } else {
+                DoubleBuffer bRe = janela(2 * slot, ponto);
+                DoubleBuffer bIm = janela(2 * slot + 1, ponto);
+                int base = (int) (ponto - inicioJanela[2 * slot]);
+                if (gravar) {
+                    bRe.put(base, re, feitos, trecho);
+                    bIm.put(base, im, feitos, trecho);
+                } else {
+                    bRe.get(base, re, feitos, trecho);
+                    bIm.get(base, im, feitos, trecho);
+                }
+            }
+            feitos += trecho;
+        }
+    }
+
+    // Janela mapeada da coluna física que contém 'ponto'
+    private DoubleBuffer janela(int coluna, long ponto) {
+        long inicio = ponto / JANELA_PONTOS * JANELA_PONTOS;
+        DoubleBuffer b = janelas[coluna];
+        if (b != null && inicioJanela[coluna] == inicio) return b;
+
+        int largura = intercalado ? 16 : 8;
+        long inicioColuna = intercalado
+                ? inicioDados + coluna * pontos * 16
+                : inicioDados + coluna * pontos * 8;
+        long tamanho = Math.min(JANELA_PONTOS, pontos - inicio) * largura;
+        MappedByteBuffer m;
+        try {
+            if (escrita && mapeamentos[coluna] != null) mapeamentos[coluna].force();
+            m = canal.map(escrita ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    inicioColuna + inicio * largura, tamanho);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        b = m.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        mapeamentos[coluna] = m;
+        janelas[coluna] = b;
+        inicioJanela[coluna] = inicio;
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (escrita) {
+            for (MappedByteBuffer m : mapeamentos) {
+                if (m != null) m.force();
+            }
+        }
+        canal.close();
+    }
+
+    // --- Avaliação ---
+
+    /*
+     * Avalia a expressão sobre todos os pontos de 'entrada' e grava o
+     * resultado em 'saida', um arquivo separado com a variável "resultado".
+     * Uma divisão por zero interrompe com ArithmeticException, como no
+     * AvaliadorLote.
+     */
+    public static void avaliar(Expressao expressao, Path entrada, Path saida) throws IOException {
+        try (ArquivoColunar origem = abrir(entrada);
+             ArquivoColunar destino = criar(saida, new String[] { "resultado" }, origem.getPontos(), false)) {
+            AvaliadorLote lote = AvaliadorLote.para(expressao, origem.layout());
+            lote.avaliar(origem, destino.destino(0), 0, origem.getPontos(), lote.novoRascunho());
+        }
+    }
+}
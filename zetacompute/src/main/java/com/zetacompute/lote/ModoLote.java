@@ -0,0 +1,310 @@
+package com.zetacompute.lote;
+
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.cache.CacheExpressoes;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Modo não interativo da calculadora: lê linhas de um Reader, avalia e
+ * escreve uma linha de resultado por linha de entrada ("real,imaginario"
+ * ou "erro: mensagem"). Linhas em branco são ignoradas.
+ *
+ * Há dois formatos de entrada:
+ *  - com uma expressão fixa: a primeira linha é o cabeçalho com os nomes das
+ *    variáveis separados por vírgula e cada linha seguinte traz os valores
+ *    (ex.: "z,w" e depois "1+2i,3"). As linhas são avaliadas em blocos
+ *    com o AvaliadorLote;
+ *  - sem expressão fixa: cada linha é "expressao" ou "expressao; z=1+2i, w=3".
+ *    As expressões passam pelo CacheExpressoes.
+ *
+ * Leitura, avaliação e escrita rodam em três threads ligadas por filas
+ * limitadas (ArrayBlockingQueue) de blocos de linhas: se a escrita ficar para
+ * trás, a avaliação e a leitura esperam, e a memória usada fica limitada.
+ * A ordem das linhas é preservada.
+ */
+public final class ModoLote {
+
+    public static final int LINHAS_POR_BLOCO = AvaliadorLote.TAMANHO_BLOCO;
+    private static final int CAPACIDADE_FILA = 16;
+
+    // Bloco vazio que sinaliza o fim da entrada
+    private static final String[] FIM = new String[0];
+
+    private final String expressao; // null: uma expressão por linha
+
+    public ModoLote(String expressao) {
+        this.expressao = expressao;
+    }
+
+    /*
+     * Processa toda a entrada e devolve a quantidade de linhas escritas.
+     * Erros de uma linha viram linhas de erro; erros de E/S, de cabeçalho ou
+     * da expressão fixa interrompem o processamento e são relançados aqui.
+     */
+    public long executar(Reader entrada, Writer saida) throws IOException, InterruptedException {
+        BlockingQueue<String[]> lidas = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+        BlockingQueue<String[]> avaliadas = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+        AtomicReference<Throwable> falha = new AtomicReference<>();
+        long[] escritas = new long[1];
+
+        BufferedReader leitor = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada, 1 << 16);
+        BufferedWriter escritor = saida instanceof BufferedWriter ? (BufferedWriter) saida : new BufferedWriter(saida, 1 << 16);
+        Avaliacao avaliacao = expressao != null ? new AvaliacaoFixa(expressao) : new AvaliacaoPorLinha();
+
+        Thread[] estagios = new Thread[3];
+        estagios[0] = estagio("zeta-lote-leitura", falha, estagios, () -> {
+            String[] bloco = new String[LINHAS_POR_BLOCO];
+            int n = 0;
+            for (String linha = leitor.readLine(); linha != null; linha = leitor.readLine()) {
+                if (linha.isBlank()) continue;
+                bloco[n++] = linha;
+                if (n == bloco.length) {
+                    lidas.put(bloco);
+                    bloco = new String[LINHAS_POR_BLOCO];
+                    n = 0;
+                }
+            }
+            if (n > 0) lidas.put(Arrays.copyOf(bloco, n));
+            lidas.put(FIM);
+        });
+        estagios[1] = estagio("zeta-lote-avaliacao", falha, estagios, () -> {
+            for (String[] bloco = lidas.take(); bloco != FIM; bloco = lidas.take()) {
+                avaliadas.put(avaliacao.avaliar(bloco));
+            }
+            avaliadas.put(FIM);
+        });
+        estagios[2] = estagio("zeta-lote-escrita", falha, estagios, () -> {
+            for (String[] bloco = avaliadas.take(); bloco != FIM; bloco = avaliadas.take()) {
+                for (String linha : bloco) {
+                    if (linha == null) continue; // cabeçalho
+                    escritor.write(linha);
+                    escritor.newLine();
+                    escritas[0]++;
+                }
+            }
+            escritor.flush();
+        });
+
+        for (Thread t : estagios) t.start();
+        try {
+            for (Thread t : estagios) t.join();
+        } catch (InterruptedException e) {
+            for (Thread t : estagios) t.interrupt();
+            throw e;
+        }
+
+        Throwable erro = falha.get();
+        if (erro instanceof IOException) throw (IOException) erro;
+        if (erro instanceof RuntimeException) throw (RuntimeException) erro;
+        if (erro instanceof Error) throw (Error) erro;
+        if (erro != null) throw new IllegalStateException(erro);
+        return escritas[0];
+    }
+
+    private interface Tarefa {
+        void executar() throws Exception;
+    }
+
+    // Na primeira falha de qualquer estágio, os outros são interrompidos para não ficarem presos nas filas
+    private static Thread estagio(String nome, AtomicReference<Throwable> falha, Thread[] estagios, Tarefa tarefa) {
+        return new Thread(() -> {
+            try {
+                tarefa.executar();
+            } catch (Throwable t) {
+                if (falha.compareAndSet(null, t)) {
+                    for (Thread outro : estagios) {
+                        if (outro != Thread.currentThread()) outro.interrupt();
+                    }
+                } else if (!(t instanceof InterruptedException)) {
+                    falha.get().addSuppressed(t);
+                }
+            }
+        }, nome);
+    }
+
+    // --- Avaliação de um bloco: uma linha de saída por linha de entrada (null = sem saída) ---
+
+    private interface Avaliacao {
+        String[] avaliar(String[] linhas);
+    }
+
+    private static String formatar(double real, double imaginario) {
+        return new StringBuilder(48).append(real).append(',').append(imaginario).toString();
+    }
+
+    private static String erro(Exception e) {
+        return "erro: " + e.getMessage();
+    }
+
+    private static final class AvaliacaoFixa implements Avaliacao {
+        private final Expressao expressao;
+        private Bindings layout;
+        private AvaliadorLote lote;
+        private AvaliadorLote.Rascunho rascunho;
+        private Bindings valores; // avaliação linha a linha quando o bloco falha
+
+        private double[][] re;
+        private double[][] im;
+        private final double[] saidaRe = new double[LINHAS_POR_BLOCO];
+        private final double[] saidaIm = new double[LINHAS_POR_BLOCO];
+
+        AvaliacaoFixa(String fonte) {
+            this.expressao = new ParserIterativo(fonte).parse();
+        }
+
+        @Override
+        public String[] avaliar(String[] linhas) {
+            String[] saida = new String[linhas.length];
+            int inicio = 0;
+            if (layout == null) {
+                lerCabecalho(linhas[0]);
+                inicio = 1;
+            }
+
+            int n = 0;
+            int[] linhaDoPonto = new int[linhas.length];
+            for (int k = inicio; k < linhas.length; k++) {
+                try {
+                    lerValores(linhas[k], n);
+                    linhaDoPonto[n++] = k;
+                } catch (IllegalArgumentException e) {
+                    saida[k] = erro(e);
+                }
+            }
+
+            try {
+                lote.avaliar(re, im, saidaRe, saidaIm, 0, n, rascunho);
+                for (int p = 0; p < n; p++) saida[linhaDoPonto[p]] = formatar(saidaRe[p], saidaIm[p]);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                // Algum ponto do bloco falhou (divisão por zero, índice de raiz inválido...):
+                // reavalia ponto a ponto para isolar os erros
+                for (int p = 0; p < n; p++) {
+                    for (int v = 0; v < layout.tamanho(); v++) valores.definir(v, re[v][p], im[v][p]);
+                    try {
+                        NumeroComplexo r = lote.getExpressao().avaliar(valores);
+                        saida[linhaDoPonto[p]] = formatar(r.getReal(), r.getImaginario());
+                    } catch (ArithmeticException | IllegalArgumentException erro) {
+                        saida[linhaDoPonto[p]] = erro(erro);
+                    }
+                }
+            }
+            return saida;
+        }
+
+        private void lerCabecalho(String cabecalho) {
+            String[] nomes = cabecalho.split(",");
+            for (int k = 0; k < nomes.length; k++) nomes[k] = nomes[k].trim();
+            layout = new Bindings(nomes);
+            lote = AvaliadorLote.para(expressao, layout); // variável fora do cabeçalho: erro aqui
+            rascunho = lote.novoRascunho();
+            valores = layout.novaInstancia();
+            re = new double[layout.tamanho()][LINHAS_POR_BLOCO];
+            im = new double[layout.tamanho()][LINHAS_POR_BLOCO];
+        }
+
+        private void lerValores(String linha, int ponto) {
+            String[] campos = linha.split(",", -1);
+            if (campos.length != layout.tamanho()) {
+                throw new IllegalArgumentException("Esperados " + layout.tamanho() + " valores, encontrados " + campos.length + ".");
+            }
+            for (int v = 0; v < campos.length; v++) {
+                NumeroComplexo valor = NumeroComplexo.parse(campos[v]);
+                re[v][ponto] = valor.getReal();
+                im[v][ponto] = valor.getImaginario();
+            }
+        }
+    }
+
+    private static final class AvaliacaoPorLinha implements Avaliacao {
+        private final CacheExpressoes cache = new CacheExpressoes(1024);
+        private final Map<String, NumeroComplexo> variaveis = new HashMap<>();
+
+        @Override
+        public String[] avaliar(String[] linhas) {
+            String[] saida = new String[linhas.length];
+            for (int k = 0; k < linhas.length; k++) {
+                try {
+                    saida[k] = avaliarLinha(linhas[k]);
+                } catch (ArithmeticException | IllegalArgumentException e) {
+                    saida[k] = erro(e);
+                }
+            }
+            return saida;
+        }
+
+        private String avaliarLinha(String linha) {
+            int separador = linha.indexOf(';');
+            variaveis.clear();
+            if (separador >= 0) {
+                for (String atribuicao : linha.substring(separador + 1).split(",")) {
+                    if (atribuicao.isBlank()) continue;
+                    int igual = atribuicao.indexOf('=');
+                    if (igual < 0) {
+                        throw new IllegalArgumentException("Use nome=valor: " + atribuicao.trim());
+                    }
+                    variaveis.put(atribuicao.substring(0, igual).trim(), NumeroComplexo.parse(atribuicao.substring(igual + 1)));
+                }
+            }
+            String fonte = separador >= 0 ? linha.substring(0, separador) : linha;
+            NumeroComplexo r = cache.obter(fonte).avaliar(variaveis);
+            return formatar(r.getReal(), r.getImaginario());
+        }
+    }
+
+    // --- Linha de comando ---
+
+    /*
+     * Argumentos: [--expressao EXPR] [--entrada ARQUIVO] [--saida ARQUIVO].
+     * Sem arquivos, usa a entrada e a saída padrão.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String expressao = null;
+        String entrada = null;
+        String saida = null;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--expressao": expressao = valor(args, ++k); break;
+                case "--entrada": entrada = valor(args, ++k); break;
+                case "--saida": saida = valor(args, ++k); break;
+                default: throw new IllegalArgumentException("Argumento desconhecido: " + args[k]);
+            }
+        }
+
+        Reader leitor = entrada != null
+                ? Files.newBufferedReader(Paths.get(entrada), StandardCharsets.UTF_8)
+                : new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        Writer escritor = saida != null
+                ? Files.newBufferedWriter(Paths.get(saida), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        try (leitor; escritor) {
+            new ModoLote(expressao).executar(leitor, escritor);
+        }
+    }
+
+    private static String valor(String[] args, int k) {
+        if (k >= args.length) {
+            throw new IllegalArgumentException("Faltou o valor de " + args[k - 1]);
+        }
+        return args[k];
+    }
+}
@@ -0,0 +1,27 @@
+package com.zetacompute.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Evento JFR de uma avaliação instrumentada (duração = tempo de avaliar)
+@Name("com.zetacompute.Avaliacao")
+@Label("Avaliação de expressão")
+@Category("ZetaCompute")
+@Description("Uma chamada de avaliar em uma ExpressaoInstrumentada")
+@StackTrace(false)
+final class EventoAvaliacao extends Event {
+
+    @Label("Expressão")
+    String expressao;
+
+    @Label("Nós")
+    int nos;
+
+    @Label("Erro")
+    @Description("Classe da exceção, ou vazio quando a avaliação termina normalmente")
+    String erro;
+}
@@ -0,0 +1,25 @@
+package com.zetacompute.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+// Evento JFR periódico com as contagens acumuladas de cada operador
+@Name("com.zetacompute.ContagemOperador")
+@Label("Contagem por operador")
+@Category("ZetaCompute")
+@Description("Quantas vezes cada NoOperacao.Operador foi aplicado desde a ativação das métricas")
+@Period("1 s")
+@StackTrace(false)
+final class EventoOperadores extends Event {
+
+    @Label("Operador")
+    String operador;
+
+    @Label("Aplicações")
+    long aplicacoes;
+}
@@ -0,0 +1,286 @@
+package com.zetacompute.metricas;
+
+import com.zetacompute.cache.ExpressaoMemorizada;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Camada opcional em volta de Expressao.avaliar que alimenta MetricasAvaliacao.
+ *
+ * Com as métricas desativadas, cada avaliação custa uma leitura volatile a
+ * mais. Ativadas, cada avaliação concluída soma as aplicações de cada
+ * operador (contadas uma vez, na construção, a partir da árvore), registra a
+ * latência no histograma da expressão e emite um EventoAvaliacao quando o
+ * JFR estiver gravando. Avaliações com erro contam só o erro:
+ * ArithmeticException como divisão por zero, IllegalArgumentException com
+ * alguma variável da expressão ausente como variável indefinida, e o resto
+ * como outros erros. A exceção é sempre relançada sem alteração.
+ */
+public final class ExpressaoInstrumentada implements Envoltorio {
+
+    private static final int MAXIMO_NOME = 80;
+    private static final int PREFIXO_NOME = 40;
+
+    private final Expressao expressao;
+    private final String nome;
+    private final int[] operadores; // aplicações por avaliação, indexadas por Operador.ordinal()
+    private final MetricasAvaliacao metricas;
+    private volatile HistogramaLatencia latencia; // o publicado para o nome, conferido a cada avaliação
+
+    private ExpressaoInstrumentada(Expressao expressao, String nome, int[] operadores) {
+        this.expressao = expressao;
+        this.nome = nome;
+        this.operadores = operadores;
+        this.metricas = MetricasAvaliacao.get();
+        this.latencia = metricas.histograma(nome);
+    }
+
+    /*
+     * O nome padrão é a notação LISP da expressão. Acima de MAXIMO_NOME
+     * caracteres vira o começo da notação seguido do SHA-256 dela inteira,
+     * para expressões diferentes não dividirem o mesmo histograma.
+     */
+    public static ExpressaoInstrumentada instrumentar(Expressao expressao) {
+        return instrumentar(expressao, nomePadrao(expressao.toLisp()));
+    }
+
+    static String nomePadrao(String lisp) {
+        if (lisp.length() <= MAXIMO_NOME) return lisp;
+        try {
+            byte[] resumo = MessageDigest.getInstance("SHA-256").digest(lisp.getBytes(StandardCharsets.UTF_8));
+            return lisp.substring(0, PREFIXO_NOME) + "...#" + HexFormat.of().formatHex(resumo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e); // obrigatório em toda JVM
+        }
+    }
+
+    // Instrumentações com o mesmo nome compartilham o histograma de latência
+    public static ExpressaoInstrumentada instrumentar(Expressao expressao, String nome) {
+        if (expressao instanceof ExpressaoInstrumentada) {
+            expressao = ((ExpressaoInstrumentada) expressao).expressao;
+        }
+        return new ExpressaoInstrumentada(expressao, nome, contarOperadores(expressao));
+    }
+
+    /*
+     * Quantas vezes cada operador é aplicado numa avaliação. A camada que
+     * avalia é a primeira que não só repassa a chamada (instrumentação e
+     * memorização repassam): ExpressaoCompartilhada, ProgramaPosfixo e
+     * CompiledExpressao calculam cada nó distinto uma vez; a árvore comum,
+     * uma vez por ocorrência.
+     */
+    private static int[] contarOperadores(Expressao expressao) {
+        int[] contagem = new int[NoOperacao.Operador.values().length];
+        Expressao avaliadora = expressao;
+        while (avaliadora instanceof ExpressaoInstrumentada || avaliadora instanceof ExpressaoMemorizada) {
+            avaliadora = ((Envoltorio) avaliadora).getEmbrulhada();
+        }
+        boolean distintos = avaliadora instanceof Envoltorio;
+        Expressao raiz = Envoltorio.arvore(avaliadora);
+        Set<Expressao> visitados = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Expressao no = pilha.pop();
+            if (no instanceof NoPolinomio) no = ((NoPolinomio) no).expandir(); // n produtos e n somas
+            if (!(no instanceof NoOperacao) || (distintos && !visitados.add(no))) continue;
+            NoOperacao op = (NoOperacao) no;
+            contagem[op.getOperador().ordinal()]++;
+            pilha.push(op.getEsquerda());
+            if (op.getDireita() != null) pilha.push(op.getDireita());
+        }
+        return contagem;
+    }
+
+    public Expressao getExpressao() {
+        return expressao;
+    }
+
+    @Override
+    public Expressao getEmbrulhada() {
+        return expressao;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    // --- Avaliação ---
+
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        if (!metricas.isAtiva()) return expressao.avaliar(variaveis);
+        EventoAvaliacao evento = new EventoAvaliacao();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            NumeroComplexo r = expressao.avaliar(variaveis);
+            concluir(inicio, evento);
+            return r;
+        } catch (RuntimeException e) {
+            falhar(evento, e, e instanceof IllegalArgumentException && !variaveis.keySet().containsAll(getVariaveis()));
+            throw e;
+        }
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        if (!metricas.isAtiva()) return expressao.avaliar(variaveis);
+        EventoAvaliacao evento = new EventoAvaliacao();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            NumeroComplexo r = expressao.avaliar(variaveis);
+            concluir(inicio, evento);
+            return r;
+        } catch (RuntimeException e) {
+            falhar(evento, e, e instanceof IllegalArgumentException && faltaVariavel(variaveis));
+            throw e;
+        }
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        if (!metricas.isAtiva()) {
+            expressao.avaliar(variaveis, destino);
+            return;
+        }
+        EventoAvaliacao evento = new EventoAvaliacao();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            expressao.avaliar(variaveis, destino);
+            concluir(inicio, evento);
+        } catch (RuntimeException e) {
+            falhar(evento, e, e instanceof IllegalArgumentException && !variaveis.keySet().containsAll(getVariaveis()));
+            throw e;
+        }
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        if (!metricas.isAtiva()) {
+            expressao.avaliar(variaveis, destino);
+            return;
+        }
+        EventoAvaliacao evento = new EventoAvaliacao();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            expressao.avaliar(variaveis, destino);
+            concluir(inicio, evento);
+        } catch (RuntimeException e) {
+            falhar(evento, e, e instanceof IllegalArgumentException && faltaVariavel(variaveis));
+            throw e;
+        }
+    }
+
+    private boolean faltaVariavel(Bindings variaveis) {
+        for (String v : getVariaveis()) {
+            if (!variaveis.contem(v)) return true;
+        }
+        return false;
+    }
+
+    private void concluir(long inicio, EventoAvaliacao evento) {
+        long duracao = System.nanoTime() - inicio;
+        HistogramaLatencia h = metricas.histograma(nome, latencia);
+        if (h != latencia) latencia = h;
+        h.registrar(duracao);
+        metricas.registrarAvaliacao(operadores);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.expressao = nome;
+            evento.nos = expressao.getTamanho();
+            evento.erro = "";
+            evento.commit();
+        }
+    }
+
+    private void falhar(EventoAvaliacao evento, RuntimeException e, boolean variavelIndefinida) {
+        if (e instanceof ArithmeticException) {
+            metricas.registrarDivisaoPorZero();
+        } else if (variavelIndefinida) {
+            metricas.registrarVariavelIndefinida();
+        } else {
+            metricas.registrarOutroErro();
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.expressao = nome;
+            evento.nos = expressao.getTamanho();
+            evento.erro = e.getClass().getSimpleName();
+            evento.commit();
+        }
+    }
+
+    // A versão vinculada continua instrumentada, com o mesmo nome e histograma
+    @Override
+    public Expressao vincular(Bindings layout) {
+        return new ExpressaoInstrumentada(expressao.vincular(layout), nome, operadores);
+    }
+
+    // --- Delegação ---
+
+    @Override
+    public void exibirArvore() {
+        expressao.exibirArvore();
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        expressao.exibirArvore(prefixo, isLeft);
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return expressao.getVariaveis();
+    }
+
+    @Override
+    public int getTamanho() {
+        return expressao.getTamanho();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return expressao.getProfundidade();
+    }
+
+    @Override
+    public String toLisp() {
+        return expressao.toLisp();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpressaoInstrumentada)) return false;
+        return expressao.equals(((ExpressaoInstrumentada) o).expressao);
+    }
+
+    @Override
+    public int hashCode() {
+        return expressao.hashCode();
+    }
+}
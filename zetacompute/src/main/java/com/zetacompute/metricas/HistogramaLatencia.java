@@ -0,0 +1,84 @@
+package com.zetacompute.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Histograma de latências em nanossegundos com faixas em potências de 2:
+ * a faixa b guarda os valores em [2^(b-1), 2^b). O registro é um incremento
+ * atômico, sem travas nem alocação, e pode ser feito por várias threads.
+ *
+ * Percentis são aproximados pelo limite superior da faixa (erro de até 2x),
+ * o suficiente para ver ordens de grandeza e caudas.
+ */
+public final class HistogramaLatencia {
+
+    private static final int FAIXAS = 64;
+
+    private final AtomicLongArray faixas = new AtomicLongArray(FAIXAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        faixas.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+        total.add(nanos);
+        maximo.accumulate(nanos);
+    }
+
+    public long getContagem() {
+        long n = 0;
+        for (int b = 0; b < FAIXAS; b++) n += faixas.get(b);
+        return n;
+    }
+
+    public double getMedia() {
+        long n = getContagem();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /*
+     * Limite superior da faixa que contém o percentil p (0 < p <= 100).
+     * Sem registros, devolve 0.
+     */
+    public long percentil(double p) {
+        if (!(p > 0 && p <= 100)) {
+            throw new IllegalArgumentException("Percentil deve estar em (0, 100]: " + p);
+        }
+        long[] copia = new long[FAIXAS];
+        long n = 0;
+        for (int b = 0; b < FAIXAS; b++) {
+            copia[b] = faixas.get(b);
+            n += copia[b];
+        }
+        if (n == 0) return 0;
+        long alvo = (long) Math.ceil(n * p / 100);
+        long acumulado = 0;
+        for (int b = 0; b < FAIXAS; b++) {
+            acumulado += copia[b];
+            if (acumulado >= alvo) return Math.min(limiteSuperior(b), getMaximo());
+        }
+        return getMaximo();
+    }
+
+    private static long limiteSuperior(int faixa) {
+        return faixa >= 63 ? Long.MAX_VALUE : (1L << faixa) - 1;
+    }
+
+    public void limpar() {
+        for (int b = 0; b < FAIXAS; b++) faixas.set(b, 0);
+        total.reset();
+        maximo.reset();
+    }
+
+    // Ex.: "n=1200 media=850ns p50=1023ns p99=4095ns max=3900ns"
+    public String resumo() {
+        return String.format("n=%d media=%.0fns p50=%dns p99=%dns max=%dns",
+                getContagem(), getMedia(), percentil(50), percentil(99), getMaximo());
+    }
+}
@@ -0,0 +1,211 @@
+package com.zetacompute.metricas;
+
+import com.zetacompute.cache.CacheLru;
+import com.zetacompute.models.NoOperacao;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.FlightRecorder;
+
+/*
+ * Métricas globais das avaliações feitas por ExpressaoInstrumentada:
+ * aplicações de cada operador, erros por tipo e um histograma de latência
+ * por expressão. Os histogramas ficam num CacheLru de até
+ * MAXIMO_EXPRESSOES nomes: os menos usados deixam de ser publicados e
+ * voltam, com as contagens que tinham, na próxima avaliação registrada. As
+ * leituras por JMX não contam como uso. Expostas por JMX
+ * (MetricasAvaliacaoMBean) e por eventos do JDK Flight Recorder
+ * (EventoAvaliacao e EventoOperadores).
+ *
+ * Começa desativada; enquanto estiver assim, uma ExpressaoInstrumentada só
+ * lê um campo volatile antes de delegar a avaliação. Os contadores são
+ * LongAdder, então threads avaliando ao mesmo tempo não disputam a mesma
+ * linha de cache.
+ */
+public final class MetricasAvaliacao implements MetricasAvaliacaoMBean {
+
+    public static final String NOME_JMX = "com.zetacompute:type=MetricasAvaliacao";
+
+    public static final int MAXIMO_EXPRESSOES = 1024;
+
+    private static final NoOperacao.Operador[] OPERADORES = NoOperacao.Operador.values();
+    private static final MetricasAvaliacao INSTANCIA = new MetricasAvaliacao();
+
+    private volatile boolean ativa = false;
+    private boolean registrada = false;
+
+    private final LongAdder avaliacoes = new LongAdder();
+    private final LongAdder[] porOperador = new LongAdder[OPERADORES.length];
+    private final LongAdder divisoesPorZero = new LongAdder();
+    private final LongAdder variaveisIndefinidas = new LongAdder();
+    private final LongAdder outrosErros = new LongAdder();
+    private final CacheLru<String, HistogramaLatencia> latencias = new CacheLru<>(MAXIMO_EXPRESSOES);
+
+    private MetricasAvaliacao() {
+        for (int k = 0; k < porOperador.length; k++) porOperador[k] = new LongAdder();
+    }
+
+    public static MetricasAvaliacao get() {
+        return INSTANCIA;
+    }
+
+    /*
+     * Liga a coleta e, na primeira vez, registra o MBean e o evento JFR periódico.
+     */
+    public static MetricasAvaliacao ativar() {
+        INSTANCIA.registrar();
+        INSTANCIA.ativa = true;
+        return INSTANCIA;
+    }
+
+    public static void desativar() {
+        INSTANCIA.ativa = false;
+    }
+
+    private synchronized void registrar() {
+        if (registrada) return;
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = new ObjectName(NOME_JMX);
+            if (!servidor.isRegistered(nome)) servidor.registerMBean(this, nome);
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível registrar o MBean " + NOME_JMX, e);
+        }
+        FlightRecorder.addPeriodicEvent(EventoOperadores.class, this::emitirContagens);
+        registrada = true;
+    }
+
+    private void emitirContagens() {
+        for (int k = 0; k < OPERADORES.length; k++) {
+            EventoOperadores evento = new EventoOperadores();
+            evento.operador = OPERADORES[k].name();
+            evento.aplicacoes = porOperador[k].sum();
+            evento.commit();
+        }
+    }
+
+    // --- Registro (chamado por ExpressaoInstrumentada) ---
+
+    // Histograma da expressão com esse nome; o mesmo para todas as instrumentações com o nome
+    HistogramaLatencia histograma(String expressao) {
+        return latencias.obter(expressao, k -> new HistogramaLatencia());
+    }
+
+    /*
+     * Histograma publicado para o nome a cada avaliação: renova a entrada e,
+     * se ela tiver sido removida, publica de novo o histograma da instrumentação.
+     */
+    HistogramaLatencia histograma(String expressao, HistogramaLatencia atual) {
+        return latencias.obter(expressao, k -> atual);
+    }
+
+    void registrarAvaliacao(int[] operadores) {
+        avaliacoes.increment();
+        for (int k = 0; k < operadores.length; k++) {
+            if (operadores[k] != 0) porOperador[k].add(operadores[k]);
+        }
+    }
+
+    void registrarDivisaoPorZero() {
+        divisoesPorZero.increment();
+    }
+
+    void registrarVariavelIndefinida() {
+        variaveisIndefinidas.increment();
+    }
+
+    void registrarOutroErro() {
+        outrosErros.increment();
+    }
+
+    // --- MBean ---
+
+    @Override
+    public boolean isAtiva() {
+        return ativa;
+    }
+
+    @Override
+    public void setAtiva(boolean ativa) {
+        if (ativa) {
+            ativar();
+        } else {
+            desativar();
+        }
+    }
+
+    @Override
+    public long getAvaliacoes() {
+        return avaliacoes.sum();
+    }
+
+    @Override
+    public String[] getOperadores() {
+        String[] nomes = new String[OPERADORES.length];
+        for (int k = 0; k < nomes.length; k++) nomes[k] = OPERADORES[k].name();
+        return nomes;
+    }
+
+    @Override
+    public long[] getContagemPorOperador() {
+        long[] contagens = new long[porOperador.length];
+        for (int k = 0; k < contagens.length; k++) contagens[k] = porOperador[k].sum();
+        return contagens;
+    }
+
+    public long getContagem(NoOperacao.Operador operador) {
+        return porOperador[operador.ordinal()].sum();
+    }
+
+    @Override
+    public long getDivisoesPorZero() {
+        return divisoesPorZero.sum();
+    }
+
+    @Override
+    public long getVariaveisIndefinidas() {
+        return variaveisIndefinidas.sum();
+    }
+
+    @Override
+    public long getOutrosErros() {
+        return outrosErros.sum();
+    }
+
+    @Override
+    public String[] getExpressoes() {
+        return latencias.chaves().toArray(new String[0]);
+    }
+
+    public HistogramaLatencia getLatencia(String expressao) {
+        return latencias.consultar(expressao);
+    }
+
+    @Override
+    public String resumoLatencia(String expressao) {
+        HistogramaLatencia h = latencias.consultar(expressao);
+        return h == null ? "" : h.resumo();
+    }
+
+    @Override
+    public long percentilLatencia(String expressao, double percentil) {
+        HistogramaLatencia h = latencias.consultar(expressao);
+        return h == null ? 0 : h.percentil(percentil);
+    }
+
+    // Zera contadores e histogramas (as expressões instrumentadas continuam registradas)
+    @Override
+    public void limpar() {
+        avaliacoes.reset();
+        for (LongAdder contador : porOperador) contador.reset();
+        divisoesPorZero.reset();
+        variaveisIndefinidas.reset();
+        outrosErros.reset();
+        for (HistogramaLatencia h : latencias.valores()) h.limpar();
+    }
+}
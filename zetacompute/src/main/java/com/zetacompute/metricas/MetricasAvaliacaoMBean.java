@@ -0,0 +1,28 @@
+package com.zetacompute.metricas;
+
+/*
+ * Interface JMX (MBean padrão) das métricas de avaliação, registrada como
+ * com.zetacompute:type=MetricasAvaliacao.
+ */
+public interface MetricasAvaliacaoMBean {
+
+    boolean isAtiva();
+    void setAtiva(boolean ativa);
+
+    long getAvaliacoes();
+
+    // Nomes de NoOperacao.Operador e, na mesma ordem, quantas vezes cada um foi aplicado
+    String[] getOperadores();
+    long[] getContagemPorOperador();
+
+    long getDivisoesPorZero();
+    long getVariaveisIndefinidas();
+    long getOutrosErros();
+
+    // Expressões instrumentadas e o resumo do histograma de latência de uma delas
+    String[] getExpressoes();
+    String resumoLatencia(String expressao);
+    long percentilLatencia(String expressao, double percentil);
+
+    void limpar();
+}
@@ -0,0 +1,160 @@
+package com.zetacompute.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * Valores de variáveis indexados por slot inteiro.
+ * Cada nome recebe um slot fixo (o "layout"); os valores ficam em um único
+ * double[] reutilizável no formato [re0, im0, re1, im1, ...].
+ *
+ * Uma expressão vinculada a um layout (Expressao.vincular) lê as variáveis
+ * direto do vetor, sem consultar o mapa por nome a cada avaliação.
+ */
+public final class Bindings {
+
+    private final String[] nomes;
+    private final Map<String, Integer> slots;
+    private final double[] valores;
+    private final NumeroComplexo[] lidos; // último NumeroComplexo devolvido por get(slot)
+
+    public Bindings(String... nomes) {
+        this.nomes = nomes.clone();
+        this.slots = new HashMap<>();
+        for (int i = 0; i < this.nomes.length; i++) {
+            if (slots.put(this.nomes[i], i) != null) {
+                throw new IllegalArgumentException("Variável repetida no layout: " + this.nomes[i]);
+            }
+        }
+        this.valores = new double[2 * this.nomes.length];
+        this.lidos = new NumeroComplexo[this.nomes.length];
+    }
+
+    // Cópia com o mesmo layout e valores próprios
+    private Bindings(Bindings layout) {
+        this.nomes = layout.nomes;
+        this.slots = layout.slots;
+        this.valores = new double[layout.valores.length];
+        this.lidos = new NumeroComplexo[layout.nomes.length];
+    }
+
+    /*
+     * Cria um layout com as variáveis da expressão, em ordem alfabética.
+     */
+    public static Bindings para(Expressao expressao) {
+        return new Bindings(new TreeSet<>(expressao.getVariaveis()).toArray(new String[0]));
+    }
+
+    /*
+     * Nova instância com o mesmo layout (útil para uma área de valores por thread).
+     */
+    public Bindings novaInstancia() {
+        return new Bindings(this);
+    }
+
+    public boolean mesmoLayout(Bindings outro) {
+        return outro != null && nomes == outro.nomes;
+    }
+
+    public int tamanho() {
+        return nomes.length;
+    }
+
+    public String getNome(int slot) {
+        return nomes[slot];
+    }
+
+    public String[] getNomes() {
+        return Arrays.copyOf(nomes, nomes.length);
+    }
+
+    public boolean contem(String nome) {
+        return slots.containsKey(nome);
+    }
+
+    /*
+     * Retorna o slot da variável. Mesmo erro de NoVariavel.avaliar (Requisito 5).
+     */
+    public int slot(String nome) {
+        Integer slot = slots.get(nome);
+        if (slot == null) {
+            throw new IllegalArgumentException("Erro: Variável '" + nome + "' não foi definida.");
+        }
+        return slot;
+    }
+
+    // Verificação barata usada pelos nós vinculados: o nome do slot é a mesma instância?
+    boolean slotPertence(int slot, String nome) {
+        return slot >= 0 && slot < nomes.length && nomes[slot] == nome;
+    }
+
+    public void definir(int slot, double real, double imaginario) {
+        valores[2 * slot] = real;
+        valores[2 * slot + 1] = imaginario;
+    }
+
+    public void definir(int slot, NumeroComplexo valor) {
+        definir(slot, valor.getReal(), valor.getImaginario());
+    }
+
+    public void definir(String nome, NumeroComplexo valor) {
+        definir(slot(nome), valor);
+    }
+
+    /*
+     * Copia os valores do mapa para os slots correspondentes.
+     * Nomes do layout ausentes no mapa geram o erro de variável não definida.
+     */
+    public void definirTodos(Map<String, NumeroComplexo> variaveis) {
+        for (int i = 0; i < nomes.length; i++) {
+            NumeroComplexo valor = variaveis.get(nomes[i]);
+            if (valor == null) {
+                throw new IllegalArgumentException("Erro: Variável '" + nomes[i] + "' não foi definida.");
+            }
+            definir(i, valor);
+        }
+    }
+
+    public double getReal(int slot) {
+        return valores[2 * slot];
+    }
+
+    public double getImaginario(int slot) {
+        return valores[2 * slot + 1];
+    }
+
+    /*
+     * Valor do slot como NumeroComplexo. Enquanto os bits do slot não mudam,
+     * devolve a mesma instância: avaliar uma variável vinculada não aloca.
+     * A comparação é com o vetor, então escritas diretas em getValores()
+     * também são vistas.
+     */
+    public NumeroComplexo get(int slot) {
+        double re = valores[2 * slot];
+        double im = valores[2 * slot + 1];
+        NumeroComplexo v = lidos[slot];
+        if (v == null || Double.doubleToRawLongBits(v.getReal()) != Double.doubleToRawLongBits(re)
+                || Double.doubleToRawLongBits(v.getImaginario()) != Double.doubleToRawLongBits(im)) {
+            v = new NumeroComplexo(re, im);
+            lidos[slot] = v;
+        }
+        return v;
+    }
+
+    // Acesso direto ao vetor [re0, im0, re1, im1, ...]
+    public double[] getValores() {
+        return valores;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < nomes.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(nomes[i]).append('=').append(get(i));
+        }
+        return sb.append('}').toString();
+    }
+}
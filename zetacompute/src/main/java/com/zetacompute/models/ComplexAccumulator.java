@@ -0,0 +1,215 @@
+package com.zetacompute.models;
+
+/*
+ * Número complexo mutável usado como acumulador nas avaliações.
+ * Cada operação altera o próprio objeto (this = this op x), sem alocar.
+ * As fórmulas e a ordem das operações são as mesmas de NumeroComplexo,
+ * então os resultados são idênticos bit a bit.
+ *
+ * Não é thread-safe: cada thread deve usar os seus próprios acumuladores.
+ */
+public final class ComplexAccumulator {
+
+    private static final double EPSILON = 1e-9;
+
+    // Acumulador por thread usado por Expressao.avaliar quando o chamador não fornece um
+    private static final ThreadLocal<ComplexAccumulator> LOCAL = ThreadLocal.withInitial(ComplexAccumulator::new);
+
+    private double real;
+    private double imaginario;
+
+    private ComplexAccumulator filho; // rascunho para o operando direito (criado sob demanda)
+    private boolean emUso;
+
+    public ComplexAccumulator() {
+    }
+
+    public ComplexAccumulator(double real, double imaginario) {
+        this.real = real;
+        this.imaginario = imaginario;
+    }
+
+    /*
+     * Obtém o acumulador da thread atual. Se ele já estiver em uso (avaliação
+     * aninhada), devolve um novo. Deve ser devolvido com liberar().
+     */
+    static ComplexAccumulator obter() {
+        ComplexAccumulator acc = LOCAL.get();
+        if (acc.emUso) return new ComplexAccumulator();
+        acc.emUso = true;
+        return acc;
+    }
+
+    void liberar() {
+        emUso = false;
+    }
+
+    /*
+     * Acumulador auxiliar encadeado. Na avaliação recursiva, o filho esquerdo
+     * usa o próprio destino e o filho direito usa destino.filho(), então a
+     * cadeia cresce até a profundidade necessária e depois é reutilizada.
+     */
+    public ComplexAccumulator filho() {
+        if (filho == null) filho = new ComplexAccumulator();
+        return filho;
+    }
+
+    // getters
+    public double getReal() {
+        return real;
+    }
+
+    public double getImaginario() {
+        return imaginario;
+    }
+
+    public ComplexAccumulator definir(double real, double imaginario) {
+        this.real = real;
+        this.imaginario = imaginario;
+        return this;
+    }
+
+    public ComplexAccumulator definir(NumeroComplexo x) {
+        return definir(x.getReal(), x.getImaginario());
+    }
+
+    public ComplexAccumulator definir(ComplexAccumulator x) {
+        return definir(x.real, x.imaginario);
+    }
+
+    public NumeroComplexo paraNumeroComplexo() {
+        return new NumeroComplexo(real, imaginario);
+    }
+
+    public ComplexAccumulator conjugar() {
+        imaginario = -imaginario;
+        return this;
+    }
+
+    public ComplexAccumulator somar(double xReal, double xImaginario) {
+        real = real + xReal;
+        imaginario = imaginario + xImaginario;
+        return this;
+    }
+
+    public ComplexAccumulator somar(ComplexAccumulator x) {
+        return somar(x.real, x.imaginario);
+    }
+
+    public ComplexAccumulator subtrair(double xReal, double xImaginario) {
+        real = real - xReal;
+        imaginario = imaginario - xImaginario;
+        return this;
+    }
+
+    public ComplexAccumulator subtrair(ComplexAccumulator x) {
+        return subtrair(x.real, x.imaginario);
+    }
+
+    public ComplexAccumulator multiplicar(double xReal, double xImaginario) {
+        double novoReal = real * xReal - imaginario * xImaginario;
+        imaginario = real * xImaginario + imaginario * xReal;
+        real = novoReal;
+        return this;
+    }
+
+    public ComplexAccumulator multiplicar(ComplexAccumulator x) {
+        return multiplicar(x.real, x.imaginario);
+    }
+
+    /*
+     * Mesma regra de NumeroComplexo.dividir (Requisito 5).
+     */
+    public ComplexAccumulator dividir(double xReal, double xImaginario) {
+        double denominador = xReal * xReal + xImaginario * xImaginario;
+        if (Math.abs(denominador) < EPSILON) {
+            throw new ArithmeticException("Divisão por zero não é permitida para números complexos.");
+        }
+        double novoReal = (real * xReal + imaginario * xImaginario) / denominador;
+        imaginario = (imaginario * xReal - real * xImaginario) / denominador;
+        real = novoReal;
+        return this;
+    }
+
+    public ComplexAccumulator dividir(ComplexAccumulator x) {
+        return dividir(x.real, x.imaginario);
+    }
+
+    /*
+     * Potência inteira, usada também por NumeroComplexo.potencia: quadrados
+     * sucessivos até NumeroComplexo.EXPOENTE_MAXIMO_QUADRADOS, De Moivre acima.
+     * Expoente negativo: conj(z^n) / |z^n|², ou a forma polar se |z^n|² sair
+     * do intervalo do double.
+     */
+    public ComplexAccumulator potencia(int x) {
+        if (x == 0) return definir(1, 0);
+        if (real == 0 && imaginario == 0) {
+            if (x < 0) {
+                throw new ArithmeticException("Potência de zero com expoente negativo não é definida.");
+            }
+            return definir(0, 0);
+        }
+
+        long n = Math.abs((long) x);
+        if (n <= NumeroComplexo.EXPOENTE_MAXIMO_QUADRADOS) {
+            double baseReal = real;
+            double baseImaginario = imaginario;
+            double novoReal = 0;
+            double novoImaginario = 0;
+            boolean primeiro = true;
+            for (;;) {
+                if ((n & 1) != 0) {
+                    if (primeiro) {
+                        novoReal = baseReal;
+                        novoImaginario = baseImaginario;
+                        primeiro = false;
+                    } else {
+                        double r = novoReal * baseReal - novoImaginario * baseImaginario;
+                        novoImaginario = novoReal * baseImaginario + novoImaginario * baseReal;
+                        novoReal = r;
+                    }
+                }
+                n >>>= 1;
+                if (n == 0) break;
+                double r = baseReal * baseReal - baseImaginario * baseImaginario;
+                baseImaginario = 2 * baseReal * baseImaginario;
+                baseReal = r;
+            }
+            if (x > 0) return definir(novoReal, novoImaginario);
+            double modulo2 = novoReal * novoReal + novoImaginario * novoImaginario;
+            if (modulo2 > 0 && modulo2 < Double.POSITIVE_INFINITY) {
+                return definir(novoReal / modulo2, -novoImaginario / modulo2);
+            }
+        }
+
+        double modulo = Math.sqrt(real * real + imaginario * imaginario);
+        double angulo = Math.atan2(imaginario, real);
+
+        double novoModulo = Math.pow(modulo, x);
+        double novoAngulo = angulo * x;
+
+        return definir(novoModulo * Math.cos(novoAngulo), novoModulo * Math.sin(novoAngulo));
+    }
+
+    /*
+     * Raiz n-ésima principal (mesmo cálculo de NumeroComplexo.raiz).
+     */
+    public ComplexAccumulator raiz(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("O índice da raiz deve ser um número inteiro positivo.");
+        }
+
+        double r = Math.sqrt(real * real + imaginario * imaginario);
+        double theta = Math.atan2(imaginario, real);
+
+        double raizM = Math.pow(r, 1.0 / n);
+        double raizTheta = theta / n;
+
+        return definir(raizM * Math.cos(raizTheta), raizM * Math.sin(raizTheta));
+    }
+
+    @Override
+    public String toString() {
+        return paraNumeroComplexo().toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.zetacompute.models;
+
+/*
+ * Expressão que só embrulha outra para mudar a forma de avaliar
+ * (compilação, programa pós-fixo, compartilhamento, métricas, memorização),
+ * sem mudar o valor. Quem trabalha sobre a árvore (derivação, serialização,
+ * precisão adaptativa, cache de resultados) atravessa as camadas com arvore().
+ */
+public interface Envoltorio extends Expressao {
+
+    // Expressão embrulhada, que pode ser outro envoltório
+    Expressao getEmbrulhada();
+
+    // Árvore (ou DAG) por trás de todas as camadas; expressões comuns voltam como estão
+    static Expressao arvore(Expressao expressao) {
+        while (expressao instanceof Envoltorio) {
+            expressao = ((Envoltorio) expressao).getEmbrulhada();
+        }
+        return expressao;
+    }
+}
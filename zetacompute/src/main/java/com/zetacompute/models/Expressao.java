@@ -6,9 +6,25 @@ import java.util.Set;
 
 public interface Expressao {
     NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis);
+
+    // Avaliação por slots: variáveis lidas do vetor de Bindings em vez do mapa
+    NumeroComplexo avaliar(Bindings variaveis);
+
+    // Avaliação sem alocação: o resultado é escrito no acumulador de destino
+    void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino);
+    void avaliar(Bindings variaveis, ComplexAccumulator destino);
+
+    // Resolve cada variável para o slot do layout (erro de variável indefinida acontece aqui)
+    Expressao vincular(Bindings layout);
+
     void exibirArvore();
     void exibirArvore(String prefixo, boolean isLeft);
+    // Conjunto imutável, calculado na primeira chamada e guardado no nó
     Set<String> getVariaveis();
 
+    // Quantidade de nós e altura da árvore, também calculadas na construção
+    int getTamanho();
+    int getProfundidade();
+
     String toLisp();
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.zetacompute.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Avaliador para expressões com subárvores compartilhadas (DAG), como as
+ * produzidas pela FabricaNos. Os nós distintos são numerados na ordem em que
+ * a avaliação recursiva os visitaria pela primeira vez; avaliar percorre essa
+ * lista uma vez, calculando cada nó compartilhado uma única vez e guardando
+ * os valores em vetores de double. Os vetores vêm de um rascunho por
+ * thread compartilhado por todas as instâncias (cresce até o maior DAG
+ * avaliado), então nenhuma expressão fica presa às threads que a avaliaram.
+ *
+ * Resultados, ordem de avaliação e exceções são os mesmos da árvore.
+ */
+public final class ExpressaoCompartilhada implements Envoltorio {
+
+    private static final int TIPO_CONSTANTE = 0;
+    private static final int TIPO_VARIAVEL = 1;
+    private static final int TIPO_OPERACAO = 2;
+    private static final int TIPO_OPACO = 3; // outro tipo de Expressao: avaliado por ele mesmo
+
+    private final Expressao raiz;
+    private final Expressao[] nos;
+    private final int[] tipos;
+    private final int[] esquerda;
+    private final int[] direita;
+    private final Bindings layout; // null quando não vinculada
+    private final int[] slots;
+
+    private static final ThreadLocal<Rascunho> RASCUNHOS = ThreadLocal.withInitial(() -> new Rascunho(0));
+
+    private ExpressaoCompartilhada(Expressao raiz, Expressao[] nos, int[] tipos, int[] esquerda, int[] direita,
+                                   Bindings layout, int[] slots) {
+        this.raiz = raiz;
+        this.nos = nos;
+        this.tipos = tipos;
+        this.esquerda = esquerda;
+        this.direita = direita;
+        this.layout = layout;
+        this.slots = slots;
+    }
+
+    /*
+     * Cria o avaliador para um DAG já construído (nós compartilhados por identidade).
+     */
+    public static ExpressaoCompartilhada de(Expressao raiz) {
+        List<Expressao> ordem = new ArrayList<>();
+        Map<Expressao, Integer> indices = new IdentityHashMap<>();
+        numerar(raiz, ordem, indices);
+
+        int n = ordem.size();
+        Expressao[] nos = ordem.toArray(new Expressao[0]);
+        int[] tipos = new int[n];
+        int[] esquerda = new int[n];
+        int[] direita = new int[n];
+        for (int i = 0; i < n; i++) {
+            Expressao no = nos[i];
+            esquerda[i] = -1;
+            direita[i] = -1;
+            if (no instanceof NoConstante) {
+                tipos[i] = TIPO_CONSTANTE;
+            } else if (no instanceof NoVariavel) {
+                tipos[i] = TIPO_VARIAVEL;
+            } else if (no instanceof NoOperacao) {
+                NoOperacao op = (NoOperacao) no;
+                tipos[i] = TIPO_OPERACAO;
+                esquerda[i] = indices.get(op.getEsquerda());
+                if (op.getDireita() != null) direita[i] = indices.get(op.getDireita());
+            } else {
+                tipos[i] = TIPO_OPACO;
+            }
+        }
+        return new ExpressaoCompartilhada(raiz, nos, tipos, esquerda, direita, null, null);
+    }
+
+    /*
+     * Interna a árvore em uma nova FabricaNos e cria o avaliador.
+     */
+    public static ExpressaoCompartilhada compartilhar(Expressao expressao) {
+        return de(new FabricaNos().internar(expressao));
+    }
+
+    // Pós-ordem (esquerda, direita, nó), visitando cada nó distinto uma vez; pilha explícita, sem limite de profundidade
+    private static void numerar(Expressao raiz, List<Expressao> ordem, Map<Expressao, Integer> indices) {
+        Deque<Expressao> pilha = new ArrayDeque<>();
+        Deque<Boolean> expandido = new ArrayDeque<>();
+        pilha.push(raiz);
+        expandido.push(false);
+        while (!pilha.isEmpty()) {
+            Expressao no = pilha.pop();
+            boolean filhosProntos = expandido.pop();
+            if (indices.containsKey(no)) continue;
+            if (filhosProntos || !(no instanceof NoOperacao)) {
+                indices.put(no, ordem.size());
+                ordem.add(no);
+                continue;
+            }
+            NoOperacao op = (NoOperacao) no;
+            pilha.push(no);
+            expandido.push(true);
+            if (op.getDireita() != null) {
+                pilha.push(op.getDireita());
+                expandido.push(false);
+            }
+            pilha.push(op.getEsquerda());
+            expandido.push(false);
+        }
+    }
+
+    public Expressao getRaiz() {
+        return raiz;
+    }
+
+    @Override
+    public Expressao getEmbrulhada() {
+        return raiz;
+    }
+
+    // Quantidade de nós distintos (calculados uma vez por avaliação)
+    public int getNosUnicos() {
+        return nos.length;
+    }
+
+    private static final class Rascunho {
+        double[] re;
+        double[] im;
+        final ComplexAccumulator acc = new ComplexAccumulator();
+        final ComplexAccumulator aux = new ComplexAccumulator();
+        boolean emUso;
+
+        Rascunho(int n) {
+            re = new double[n];
+            im = new double[n];
+        }
+    }
+
+    private Rascunho obterRascunho() {
+        Rascunho r = RASCUNHOS.get();
+        if (r.emUso) return new Rascunho(nos.length); // avaliação aninhada na mesma thread
+        if (r.re.length < nos.length) {
+            r.re = new double[nos.length];
+            r.im = new double[nos.length];
+        }
+        r.emUso = true;
+        return r;
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        ComplexAccumulator destino = new ComplexAccumulator();
+        avaliar(variaveis, destino);
+        return destino.paraNumeroComplexo();
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        ComplexAccumulator destino = new ComplexAccumulator();
+        avaliar(variaveis, destino);
+        return destino.paraNumeroComplexo();
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        Rascunho r = obterRascunho();
+        try {
+            for (int i = 0; i < nos.length; i++) {
+                if (tipos[i] == TIPO_VARIAVEL || tipos[i] == TIPO_OPACO) {
+                    nos[i].avaliar(variaveis, r.acc);
+                    guardar(r, i);
+                } else {
+                    calcular(r, i);
+                }
+            }
+            destino.definir(r.re[nos.length - 1], r.im[nos.length - 1]);
+        } finally {
+            r.emUso = false;
+        }
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        boolean vinculada = layout != null && layout.mesmoLayout(variaveis);
+        double[] valores = variaveis.getValores();
+        Rascunho r = obterRascunho();
+        try {
+            for (int i = 0; i < nos.length; i++) {
+                if (tipos[i] == TIPO_VARIAVEL && vinculada) {
+                    r.re[i] = valores[2 * slots[i]];
+                    r.im[i] = valores[2 * slots[i] + 1];
+                } else if (tipos[i] == TIPO_VARIAVEL || tipos[i] == TIPO_OPACO) {
+                    nos[i].avaliar(variaveis, r.acc);
+                    guardar(r, i);
+                } else {
+                    calcular(r, i);
+                }
+            }
+            destino.definir(r.re[nos.length - 1], r.im[nos.length - 1]);
+        } finally {
+            r.emUso = false;
+        }
+    }
+
+    // Constantes e operações: não dependem de como as variáveis são lidas
+    private void calcular(Rascunho r, int i) {
+        if (tipos[i] == TIPO_CONSTANTE) {
+            NumeroComplexo valor = ((NoConstante) nos[i]).getValor();
+            r.re[i] = valor.getReal();
+            r.im[i] = valor.getImaginario();
+            return;
+        }
+        NoOperacao op = (NoOperacao) nos[i];
+        int e = esquerda[i];
+        r.acc.definir(r.re[e], r.im[e]);
+        int d = direita[i];
+        if (d >= 0) r.aux.definir(r.re[d], r.im[d]);
+        aplicar(op, r.acc, r.aux);
+        guardar(r, i);
+    }
+
+    // acc = acc (operador) aux, com as operações que NoOperacao usa
+    private static void aplicar(NoOperacao op, ComplexAccumulator acc, ComplexAccumulator aux) {
+        switch (op.getOperador()) {
+            case CONJUGADO: acc.conjugar(); break;
+            case RAIZ: acc.raiz(op.getParametroAuxiliar()); break;
+            case SOMA: acc.somar(aux); break;
+            case SUBTRACAO: acc.subtrair(aux); break;
+            case MULTIPLICACAO: acc.multiplicar(aux); break;
+            case DIVISAO: acc.dividir(aux); break;
+            case POTENCIA: acc.potencia((int) aux.getReal()); break;
+            default: throw new UnsupportedOperationException("Operador desconhecido");
+        }
+    }
+
+    private static void guardar(Rascunho r, int i) {
+        r.re[i] = r.acc.getReal();
+        r.im[i] = r.acc.getImaginario();
+    }
+
+    /*
+     * Resolve as variáveis para os slots do layout sem desfazer o
+     * compartilhamento (vincular a árvore copiaria cada caminho).
+     */
+    @Override
+    public Expressao vincular(Bindings layout) {
+        int[] slots = new int[nos.length];
+        for (int i = 0; i < nos.length; i++) {
+            slots[i] = tipos[i] == TIPO_VARIAVEL ? layout.slot(((NoVariavel) nos[i]).getNome()) : -1;
+            if (tipos[i] == TIPO_OPACO) nos[i].vincular(layout); // valida as variáveis
+        }
+        return new ExpressaoCompartilhada(raiz, nos, tipos, esquerda, direita, layout, slots);
+    }
+
+    @Override
+    public void exibirArvore() {
+        raiz.exibirArvore();
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        raiz.exibirArvore(prefixo, isLeft);
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return raiz.getVariaveis();
+    }
+
+    @Override
+    public int getTamanho() {
+        return raiz.getTamanho();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return raiz.getProfundidade();
+    }
+
+    @Override
+    public String toLisp() {
+        return raiz.toLisp();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpressaoCompartilhada)) return false;
+        return raiz.equals(((ExpressaoCompartilhada) o).raiz);
+    }
+
+    @Override
+    public int hashCode() {
+        return raiz.hashCode();
+    }
+}
@@ -0,0 +1,162 @@
+package com.zetacompute.models;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Fábrica de nós com "hash-consing": cada subárvore estruturalmente igual
+ * é criada uma única vez e reaproveitada, transformando a árvore em um DAG.
+ *
+ * Constantes são comparadas pelos bits exatos (e não pela tolerância de
+ * NumeroComplexo.equals) e operações pela identidade dos filhos, que já são
+ * canônicos quando vêm desta mesma fábrica. Pode ser compartilhada entre threads.
+ */
+public final class FabricaNos {
+
+    private final Map<ChaveConstante, NoConstante> constantes = new ConcurrentHashMap<>();
+    private final Map<String, NoVariavel> variaveis = new ConcurrentHashMap<>();
+    private final Map<ChaveOperacao, NoOperacao> operacoes = new ConcurrentHashMap<>();
+
+    public NoConstante constante(NumeroComplexo valor) {
+        return constantes.computeIfAbsent(new ChaveConstante(valor), k -> new NoConstante(valor));
+    }
+
+    public NoVariavel variavel(String nome) {
+        return variaveis.computeIfAbsent(nome, NoVariavel::new);
+    }
+
+    /*
+     * Os filhos devem ser nós desta fábrica para que o compartilhamento
+     * funcione; filhos de fora continuam corretos, apenas não são unificados.
+     */
+    public NoOperacao operacao(Expressao esquerda, Expressao direita, NoOperacao.Operador operador) {
+        return operacoes.computeIfAbsent(new ChaveOperacao(esquerda, direita, operador, 0),
+                k -> new NoOperacao(esquerda, direita, operador));
+    }
+
+    public NoOperacao raiz(Expressao esquerda, int grau) {
+        return operacoes.computeIfAbsent(new ChaveOperacao(esquerda, null, NoOperacao.Operador.RAIZ, grau),
+                k -> new NoOperacao(esquerda, grau));
+    }
+
+    public NoOperacao conjugado(Expressao esquerda) {
+        return operacoes.computeIfAbsent(new ChaveOperacao(esquerda, null, NoOperacao.Operador.CONJUGADO, 0),
+                k -> new NoOperacao(esquerda));
+    }
+
+    /*
+     * Reconstrói uma árvore qualquer com nós canônicos desta fábrica.
+     * Nós de tipos desconhecidos são mantidos como estão. Iterativo e
+     * memorizado por identidade: árvores profundas não estouram a pilha e
+     * subárvores compartilhadas são visitadas uma vez.
+     */
+    public Expressao internar(Expressao expressao) {
+        if (!(expressao instanceof NoOperacao)) return internarFolha(expressao);
+        Map<Expressao, Expressao> internados = new IdentityHashMap<>();
+        Deque<NoOperacao> pilha = new ArrayDeque<>();
+        pilha.push((NoOperacao) expressao);
+        while (!pilha.isEmpty()) {
+            NoOperacao op = pilha.peek();
+            if (internados.containsKey(op)) {
+                pilha.pop();
+                continue;
+            }
+            // Pós-ordem: o nó só é criado depois dos filhos
+            Expressao esq = op.getEsquerda();
+            Expressao dir = op.getDireita();
+            boolean pronto = true;
+            if (esq instanceof NoOperacao && !internados.containsKey(esq)) {
+                pilha.push((NoOperacao) esq);
+                pronto = false;
+            }
+            if (dir instanceof NoOperacao && !internados.containsKey(dir)) {
+                pilha.push((NoOperacao) dir);
+                pronto = false;
+            }
+            if (!pronto) continue;
+            pilha.pop();
+            Expressao e = internarFilho(esq, internados);
+            switch (op.getOperador()) {
+                case RAIZ: internados.put(op, raiz(e, op.getParametroAuxiliar())); break;
+                case CONJUGADO: internados.put(op, conjugado(e)); break;
+                default: internados.put(op, operacao(e, internarFilho(dir, internados), op.getOperador())); break;
+            }
+        }
+        return internados.get(expressao);
+    }
+
+    private Expressao internarFilho(Expressao filho, Map<Expressao, Expressao> internados) {
+        return filho instanceof NoOperacao ? internados.get(filho) : internarFolha(filho);
+    }
+
+    private Expressao internarFolha(Expressao expressao) {
+        if (expressao instanceof NoConstante) {
+            return constante(((NoConstante) expressao).getValor());
+        }
+        if (expressao instanceof NoVariavel) {
+            return variavel(((NoVariavel) expressao).getNome());
+        }
+        return expressao;
+    }
+
+    // Quantidade de nós distintos criados pela fábrica
+    public int tamanho() {
+        return constantes.size() + variaveis.size() + operacoes.size();
+    }
+
+    private static final class ChaveConstante {
+        private final long real;
+        private final long imaginario;
+
+        ChaveConstante(NumeroComplexo valor) {
+            this.real = Double.doubleToLongBits(valor.getReal());
+            this.imaginario = Double.doubleToLongBits(valor.getImaginario());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChaveConstante)) return false;
+            ChaveConstante that = (ChaveConstante) o;
+            return real == that.real && imaginario == that.imaginario;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(real) * 31 + Long.hashCode(imaginario);
+        }
+    }
+
+    private static final class ChaveOperacao {
+        private final Expressao esquerda;
+        private final Expressao direita;
+        private final NoOperacao.Operador operador;
+        private final int parametro;
+
+        ChaveOperacao(Expressao esquerda, Expressao direita, NoOperacao.Operador operador, int parametro) {
+            this.esquerda = esquerda;
+            this.direita = direita;
+            this.operador = operador;
+            this.parametro = parametro;
+        }
+
+        // Filhos comparados por identidade: custo O(1), sem percorrer as subárvores
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChaveOperacao)) return false;
+            ChaveOperacao that = (ChaveOperacao) o;
+            return esquerda == that.esquerda && direita == that.direita
+                    && operador == that.operador && parametro == that.parametro;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(esquerda);
+            h = h * 31 + System.identityHashCode(direita);
+            h = h * 31 + operador.ordinal();
+            return h * 31 + parametro;
+        }
+    }
+}
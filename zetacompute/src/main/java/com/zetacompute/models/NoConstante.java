@@ -9,9 +9,15 @@ import java.util.Set;
 
 public class NoConstante implements Expressao {
     private final NumeroComplexo valor;
+    private final int hash;
 
     public NoConstante(NumeroComplexo valor) {
         this.valor = valor;
+        this.hash = Objects.hash(valor);
+    }
+
+    public NumeroComplexo getValor() {
+        return valor;
     }
 
     @Override
@@ -19,6 +25,26 @@ public class NoConstante implements Expressao {
         return valor;
     }
 
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        return valor;
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        destino.definir(valor);
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        destino.definir(valor);
+    }
+
+    @Override
+    public Expressao vincular(Bindings layout) {
+        return this;
+    }
+
     @Override
     public void exibirArvore() {
         exibirArvore("", false);
@@ -40,7 +66,7 @@ public class NoConstante implements Expressao {
     
     @Override
     public int hashCode() {
-        return Objects.hash(valor);
+        return hash;
     }
 
     @Override
@@ -48,6 +74,16 @@ public class NoConstante implements Expressao {
         return Collections.emptySet(); // Constante não tem variável
     }
 
+    @Override
+    public int getTamanho() {
+        return 1;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return 1;
+    }
+
     @Override
     public String toLisp() {
         // Retorna o número. Ex: "2+3i"
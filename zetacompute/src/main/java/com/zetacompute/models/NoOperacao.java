@@ -2,7 +2,11 @@ package com.zetacompute.models;
 
 import com.zetacompute.models.NumeroComplexo;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -18,47 +22,168 @@ public class NoOperacao implements Expressao {
     private final Operador operador;
     private final int parametroAuxiliar; // Usado para o 'n' da Raiz n-ésima
 
+    // Metadados imutáveis, calculados uma vez a partir dos filhos
+    private final int hash;
+    private volatile Set<String> variaveis; // coletado na primeira chamada de getVariaveis
+    private final int tamanho;
+    private final int profundidade;
+
     // Construtor para Operações Binárias (+, -, *, /, **)
     public NoOperacao(Expressao esquerda, Expressao direita, Operador operador) {
-        this.esquerda = esquerda;
-        this.direita = direita;
-        this.operador = operador;
-        this.parametroAuxiliar = 0;
+        this(esquerda, direita, operador, 0);
     }
 
     // Construtor para Raiz (Raiz n-ésima)
     public NoOperacao(Expressao esquerda, int grauRaiz) {
-        this.esquerda = esquerda;
-        this.direita = null;
-        this.operador = Operador.RAIZ;
-        this.parametroAuxiliar = grauRaiz;
+        this(esquerda, null, Operador.RAIZ, grauRaiz);
     }
     
     // Construtor para Conjugado
     public NoOperacao(Expressao esquerda) {
+        this(esquerda, null, Operador.CONJUGADO, 0);
+    }
+
+    // Também usado por vincular para copiar o nó com os filhos já vinculados
+    private NoOperacao(Expressao esquerda, Expressao direita, Operador operador, int parametroAuxiliar) {
         this.esquerda = esquerda;
-        this.direita = null;
-        this.operador = Operador.CONJUGADO;
-        this.parametroAuxiliar = 0;
+        this.direita = direita;
+        this.operador = operador;
+        this.parametroAuxiliar = parametroAuxiliar;
+
+        // Ordinal em vez do hash do enum, para o valor não variar entre execuções
+        this.hash = Objects.hash(esquerda, direita, operador.ordinal(), parametroAuxiliar);
+        if (direita == null) {
+            this.tamanho = somarTamanhos(1L + esquerda.getTamanho());
+            this.profundidade = 1 + esquerda.getProfundidade();
+        } else {
+            this.tamanho = somarTamanhos(1L + esquerda.getTamanho() + direita.getTamanho());
+            this.profundidade = 1 + Math.max(esquerda.getProfundidade(), direita.getProfundidade());
+        }
+    }
+
+    /*
+     * Uma única travessia (pilha explícita, cada nó distinto uma vez) que junta
+     * os nomes num só conjunto. Subárvores que já calcularam o seu conjunto
+     * entram inteiras, sem serem percorridas de novo.
+     */
+    private Set<String> coletarVariaveis() {
+        Set<String> nomes = new HashSet<>();
+        Set<Expressao> visitados = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expressao> pendentes = new ArrayDeque<>();
+        pendentes.push(this);
+        while (!pendentes.isEmpty()) {
+            Expressao no = pendentes.pop();
+            if (!visitados.add(no)) continue;
+            if (!(no instanceof NoOperacao)) {
+                nomes.addAll(no.getVariaveis());
+                continue;
+            }
+            NoOperacao op = (NoOperacao) no;
+            Set<String> pronto = op.variaveis;
+            if (pronto != null) {
+                nomes.addAll(pronto);
+                continue;
+            }
+            if (op.direita != null) pendentes.push(op.direita);
+            pendentes.push(op.esquerda);
+        }
+        return Collections.unmodifiableSet(nomes);
+    }
+
+    // Em DAGs da FabricaNos a árvore equivalente pode ter mais nós que um int comporta
+    private static int somarTamanhos(long total) {
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    // getters
+    public Expressao getEsquerda() {
+        return esquerda;
+    }
+
+    public Expressao getDireita() {
+        return direita;
+    }
+
+    public Operador getOperador() {
+        return operador;
+    }
+
+    public int getParametroAuxiliar() {
+        return parametroAuxiliar;
     }
 
     @Override
     public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
-        NumeroComplexo valEsq = esquerda.avaliar(variaveis);
-        
+        // Os nós intermediários usam acumuladores mutáveis; só o resultado é alocado
+        ComplexAccumulator acc = ComplexAccumulator.obter();
+        try {
+            avaliar(variaveis, acc);
+            return acc.paraNumeroComplexo();
+        } finally {
+            acc.liberar();
+        }
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        ComplexAccumulator acc = ComplexAccumulator.obter();
+        try {
+            avaliar(variaveis, acc);
+            return acc.paraNumeroComplexo();
+        } finally {
+            acc.liberar();
+        }
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        esquerda.avaliar(variaveis, destino);
+
         // Operações Unárias
-        if (operador == Operador.CONJUGADO) return valEsq.getConjugado();
-        if (operador == Operador.RAIZ) return valEsq.raiz(parametroAuxiliar);
+        if (isUnaria()) {
+            aplicar(destino, null);
+            return;
+        }
+
+        // Operações Binárias: o operando direito usa o acumulador auxiliar
+        ComplexAccumulator valDir = destino.filho();
+        direita.avaliar(variaveis, valDir);
+        aplicar(destino, valDir);
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        esquerda.avaliar(variaveis, destino);
+        if (isUnaria()) {
+            aplicar(destino, null);
+            return;
+        }
+        ComplexAccumulator valDir = destino.filho();
+        direita.avaliar(variaveis, valDir);
+        aplicar(destino, valDir);
+    }
 
-        // Operações Binárias
-        NumeroComplexo valDir = direita.avaliar(variaveis);
+    @Override
+    public Expressao vincular(Bindings layout) {
+        Expressao esq = esquerda.vincular(layout);
+        Expressao dir = direita != null ? direita.vincular(layout) : null;
+        return new NoOperacao(esq, dir, operador, parametroAuxiliar);
+    }
 
+    private boolean isUnaria() {
+        return operador == Operador.CONJUGADO || operador == Operador.RAIZ;
+    }
+
+    // valEsq = valEsq (operador) valDir
+    private void aplicar(ComplexAccumulator valEsq, ComplexAccumulator valDir) {
         switch (operador) {
-            case SOMA: return valEsq.somar(valDir);
-            case SUBTRACAO: return valEsq.subtrair(valDir);
-            case MULTIPLICACAO: return valEsq.multiplicar(valDir);
-            case DIVISAO: return valEsq.dividir(valDir); // Exceções já tratadas na classe NumeroComplexo
-            case POTENCIA: return valEsq.potencia((int) valDir.getReal()); // Assume expoente real inteiro
+            case CONJUGADO: valEsq.conjugar(); break;
+            case RAIZ: valEsq.raiz(parametroAuxiliar); break;
+            case SOMA: valEsq.somar(valDir); break;
+            case SUBTRACAO: valEsq.subtrair(valDir); break;
+            case MULTIPLICACAO: valEsq.multiplicar(valDir); break;
+            case DIVISAO: valEsq.dividir(valDir); break; // Exceções já tratadas no acumulador
+            case POTENCIA: valEsq.potencia((int) valDir.getReal()); break; // Assume expoente real inteiro
             default: throw new UnsupportedOperationException("Operador desconhecido");
         }
     }
@@ -91,6 +216,8 @@ public class NoOperacao implements Expressao {
         if (this == o) return true;
         if (!(o instanceof NoOperacao)) return false;
         NoOperacao that = (NoOperacao) o;
+        // Tamanho e profundidade descartam árvores diferentes sem percorrê-las
+        if (tamanho != that.tamanho || profundidade != that.profundidade) return false;
         return parametroAuxiliar == that.parametroAuxiliar &&
                 operador == that.operador &&
                 Objects.equals(esquerda, that.esquerda) &&
@@ -99,16 +226,29 @@ public class NoOperacao implements Expressao {
 
     @Override
     public int hashCode() {
-        return Objects.hash(esquerda, direita, operador, parametroAuxiliar);
+        return hash;
     }
 
     @Override
     public Set<String> getVariaveis() {
-        Set<String> vars = new HashSet<>();
-        if (esquerda != null) vars.addAll(esquerda.getVariaveis());
-        if (direita != null) vars.addAll(direita.getVariaveis());
-        return vars;
+        Set<String> v = variaveis;
+        if (v == null) {
+            v = coletarVariaveis();
+            variaveis = v;
+        }
+        return v;
     }
+
+    @Override
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return profundidade;
+    }
+
     @Override
     public String toLisp() {
         String opSimbolo = getSimboloLisp();
@@ -0,0 +1,199 @@
+package com.zetacompute.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Polinômio em uma variável, c0 + c1 z + ... + cn z^n, com coeficientes
+ * complexos. Criado pelo ReconhecedorPolinomios no lugar de subárvores de
+ * somas, produtos e potências inteiras; avaliado pela regra de Horner
+ * (n multiplicações e n somas, sem potencia).
+ *
+ * expandir() devolve a mesma regra de Horner como árvore de NoOperacao,
+ * ((cn * z + cn-1) * z + ...) + c0, que avalia para os mesmos bits. Ela é
+ * usada por quem só entende NoOperacao (compilador, derivação).
+ */
+public final class NoPolinomio implements Expressao {
+
+    private final NoVariavel variavel;
+    private final double[] re; // re[k], im[k]: coeficiente de z^k
+    private final double[] im;
+    private final int hash;
+
+    /*
+     * Coeficientes em ordem crescente de grau (coeficientes[k] multiplica z^k).
+     * O grau é o do último coeficiente; zeros à direita são mantidos.
+     */
+    public NoPolinomio(NoVariavel variavel, NumeroComplexo[] coeficientes) {
+        this(variavel, partesReais(coeficientes), partesImaginarias(coeficientes));
+    }
+
+    private NoPolinomio(NoVariavel variavel, double[] re, double[] im) {
+        if (re.length == 0) {
+            throw new IllegalArgumentException("O polinômio precisa de pelo menos um coeficiente.");
+        }
+        this.variavel = variavel;
+        this.re = re;
+        this.im = im;
+        this.hash = 31 * (31 * variavel.hashCode() + Arrays.hashCode(re)) + Arrays.hashCode(im);
+    }
+
+    private static double[] partesReais(NumeroComplexo[] coeficientes) {
+        double[] v = new double[coeficientes.length];
+        for (int k = 0; k < v.length; k++) v[k] = coeficientes[k].getReal();
+        return v;
+    }
+
+    private static double[] partesImaginarias(NumeroComplexo[] coeficientes) {
+        double[] v = new double[coeficientes.length];
+        for (int k = 0; k < v.length; k++) v[k] = coeficientes[k].getImaginario();
+        return v;
+    }
+
+    public NoVariavel getVariavel() {
+        return variavel;
+    }
+
+    public int getGrau() {
+        return re.length - 1;
+    }
+
+    public NumeroComplexo getCoeficiente(int k) {
+        return new NumeroComplexo(re[k], im[k]);
+    }
+
+    // Cópias dos coeficientes, para kernels que avaliam o polinômio em bloco
+    public double[] getCoeficientesReais() {
+        return re.clone();
+    }
+
+    public double[] getCoeficientesImaginarios() {
+        return im.clone();
+    }
+
+    /*
+     * A regra de Horner como árvore de operações (mesmos resultados, bit a bit).
+     */
+    public Expressao expandir() {
+        int n = getGrau();
+        Expressao acc = new NoConstante(new NumeroComplexo(re[n], im[n]));
+        for (int k = n - 1; k >= 0; k--) {
+            Expressao produto = new NoOperacao(acc, variavel, NoOperacao.Operador.MULTIPLICACAO);
+            acc = new NoOperacao(produto, new NoConstante(new NumeroComplexo(re[k], im[k])), NoOperacao.Operador.SOMA);
+        }
+        return acc;
+    }
+
+    // --- Avaliação (Horner) ---
+
+    // Como em NoOperacao, o acumulador da thread serve de rascunho: só o resultado é alocado
+    @Override
+    public NumeroComplexo avaliar(Map<String, NumeroComplexo> variaveis) {
+        ComplexAccumulator acc = ComplexAccumulator.obter();
+        try {
+            avaliar(variaveis, acc);
+            return acc.paraNumeroComplexo();
+        } finally {
+            acc.liberar();
+        }
+    }
+
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        ComplexAccumulator acc = ComplexAccumulator.obter();
+        try {
+            avaliar(variaveis, acc);
+            return acc.paraNumeroComplexo();
+        } finally {
+            acc.liberar();
+        }
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        variavel.avaliar(variaveis, destino);
+        horner(destino.getReal(), destino.getImaginario(), destino);
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        variavel.avaliar(variaveis, destino);
+        horner(destino.getReal(), destino.getImaginario(), destino);
+    }
+
+    // Mesmas fórmulas de ComplexAccumulator.multiplicar e somar
+    private void horner(double zRe, double zIm, ComplexAccumulator destino) {
+        int n = getGrau();
+        double aRe = re[n];
+        double aIm = im[n];
+        for (int k = n - 1; k >= 0; k--) {
+            double novoRe = aRe * zRe - aIm * zIm;
+            aIm = aRe * zIm + aIm * zRe;
+            aRe = novoRe + re[k];
+            aIm = aIm + im[k];
+        }
+        destino.definir(aRe, aIm);
+    }
+
+    @Override
+    public Expressao vincular(Bindings layout) {
+        return new NoPolinomio((NoVariavel) variavel.vincular(layout), re, im);
+    }
+
+    // --- Representação ---
+
+    @Override
+    public void exibirArvore() {
+        System.out.println("Raiz: " + rotulo());
+        variavel.exibirArvore("", false);
+    }
+
+    @Override
+    public void exibirArvore(String prefixo, boolean isLeft) {
+        System.out.println(prefixo + (isLeft ? "├── " : "└── ") + rotulo());
+        variavel.exibirArvore(prefixo + (isLeft ? "│   " : "    "), false);
+    }
+
+    private String rotulo() {
+        return "POLINOMIO(grau " + getGrau() + ")";
+    }
+
+    @Override
+    public Set<String> getVariaveis() {
+        return variavel.getVariaveis();
+    }
+
+    // O nó e a variável
+    @Override
+    public int getTamanho() {
+        return 2;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return 2;
+    }
+
+    // Ex.: (poly z 7.00 -1.00 0.00 2.00 3.00), coeficientes em ordem crescente de grau
+    @Override
+    public String toLisp() {
+        StringBuilder sb = new StringBuilder("(poly ").append(variavel.toLisp());
+        for (int k = 0; k < re.length; k++) sb.append(' ').append(getCoeficiente(k));
+        return sb.append(')').toString();
+    }
+
+    // Comparação exata dos coeficientes
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NoPolinomio)) return false;
+        NoPolinomio that = (NoPolinomio) o;
+        return variavel.equals(that.variavel) && Arrays.equals(re, that.re) && Arrays.equals(im, that.im);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
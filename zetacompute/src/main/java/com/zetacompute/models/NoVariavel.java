@@ -2,16 +2,28 @@ package com.zetacompute.models;
 
 import com.zetacompute.models.NumeroComplexo;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 public class NoVariavel implements Expressao {
     private final String nome;
+    private final int slot; // -1 enquanto não vinculada a um layout
+    private final Set<String> variaveis;
 
     public NoVariavel(String nome) {
+        this(nome, -1);
+    }
+
+    private NoVariavel(String nome, int slot) {
         this.nome = nome;
+        this.slot = slot;
+        this.variaveis = Collections.singleton(nome);
+    }
+
+    public String getNome() {
+        return nome;
     }
 
     @Override
@@ -23,6 +35,33 @@ public class NoVariavel implements Expressao {
         return variaveis.get(nome);
     }
 
+    @Override
+    public NumeroComplexo avaliar(Bindings variaveis) {
+        // Vinculada ao mesmo layout: leitura direta do slot, sem hash do nome
+        if (variaveis.slotPertence(slot, nome)) {
+            return variaveis.get(slot);
+        }
+        return variaveis.get(variaveis.slot(nome));
+    }
+
+    @Override
+    public void avaliar(Map<String, NumeroComplexo> variaveis, ComplexAccumulator destino) {
+        destino.definir(avaliar(variaveis));
+    }
+
+    @Override
+    public void avaliar(Bindings variaveis, ComplexAccumulator destino) {
+        int s = variaveis.slotPertence(slot, nome) ? slot : variaveis.slot(nome);
+        destino.definir(variaveis.getReal(s), variaveis.getImaginario(s));
+    }
+
+    @Override
+    public Expressao vincular(Bindings layout) {
+        int s = layout.slot(nome);
+        // Usa a instância do nome guardada no layout para a verificação por referência
+        return new NoVariavel(layout.getNome(s), s);
+    }
+
     @Override
     public void exibirArvore() {
         exibirArvore("", false);
@@ -46,12 +85,22 @@ public class NoVariavel implements Expressao {
     public int hashCode() {
         return Objects.hash(nome);
     }
+
     @Override
     public Set<String> getVariaveis() {
-        Set<String> s = new HashSet<>();
-        s.add(this.nome);
-        return s;
+        return variaveis;
     }
+
+    @Override
+    public int getTamanho() {
+        return 1;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return 1;
+    }
+
     @Override
     public String toLisp() {
         return nome;
@@ -128,32 +128,22 @@ public final class NumeroComplexo {
                 (this.imaginario * x.real - this.real * x.imaginario) / denominador);
     }
 
+    // Acima deste expoente (em módulo) a potência usa a forma polar
+    static final int EXPOENTE_MAXIMO_QUADRADOS = 64;
+
     /*
      * Retorna o número complexo elevado à potência inteira x.
      * (Atende uma parte do Requisito 1)
-     */
-    // Nota -- Revisar a lógica de potência para garantir que está correta
-/*
-     * Retorna o número complexo elevado à potência inteira x usando a Fórmula de De Moivre.
-     * (Atende Requisito 1 de forma otimizada)
+     *
+     * Para |x| <= EXPOENTE_MAXIMO_QUADRADOS usa quadrados sucessivos: poucas
+     * multiplicações, sem sqrt/atan2/pow/cos/sin, e resultados exatos para
+     * inteiros de Gauss (ex.: i^2 = -1, (1+i)^4 = -4). Expoentes maiores usam
+     * a Fórmula de De Moivre. Expoente negativo: z^-n = 1 / z^n, e 0^x com
+     * x < 0 lança ArithmeticException (Requisito 5).
      */
     public NumeroComplexo potencia(int x) {
-        if (x == 0) return new NumeroComplexo(1, 0);
-        if (real == 0 && imaginario == 0) return new NumeroComplexo(0, 0); // 0^x = 0 (para x>0)
-
-        // Converte para polar
-        double modulo = Math.sqrt(real * real + imaginario * imaginario);
-        double angulo = Math.atan2(imaginario, real);
-
-        // Aplica a potência
-        double novoModulo = Math.pow(modulo, x);
-        double novoAngulo = angulo * x;
-
-        // Volta para retangular
-        double novoReal = novoModulo * Math.cos(novoAngulo);
-        double novoImaginario = novoModulo * Math.sin(novoAngulo);
-
-        return new NumeroComplexo(novoReal, novoImaginario);
+        // Uma única implementação: a do acumulador (mesmos bits nos dois caminhos)
+        return new ComplexAccumulator(real, imaginario).potencia(x).paraNumeroComplexo();
     }
     /*
      * Retorna a raiz n-ésima principal do número complexo.
@@ -179,6 +169,29 @@ public final class NumeroComplexo {
         return new NumeroComplexo(raizReal, raizImaginario); // retorno da raiz n-ésima principal
     }
 
+    /*
+     * Retorna as n raízes n-ésimas, começando pela principal (a mesma de raiz(n))
+     * e seguindo no sentido anti-horário. Cada raiz é a anterior multiplicada
+     * por uma única raiz da unidade, calculada uma vez: uma chamada de
+     * sqrt/atan2/pow/cos/sin para todas as raízes.
+     */
+    public NumeroComplexo[] raizes(int n) {
+        NumeroComplexo principal = raiz(n); // valida n
+        NumeroComplexo[] raizes = new NumeroComplexo[n];
+        raizes[0] = principal;
+        double passoReal = Math.cos(2 * Math.PI / n);
+        double passoImaginario = Math.sin(2 * Math.PI / n);
+        double r = principal.real;
+        double i = principal.imaginario;
+        for (int k = 1; k < n; k++) {
+            double novoReal = r * passoReal - i * passoImaginario;
+            i = r * passoImaginario + i * passoReal;
+            r = novoReal;
+            raizes[k] = new NumeroComplexo(r, i);
+        }
+        return raizes;
+    }
+
     /*
      * Representação em String do número complexo.
      * Formato: "a + bi" ou "a - bi" ou "a" ou "bi"
@@ -0,0 +1,356 @@
+package com.zetacompute.models;
+
+import java.util.Arrays;
+
+/*
+ * Parser sem recursão, equivalente ao parser descendente: mesma gramática,
+ * mesmas árvores e mesmas mensagens de erro. Usa o algoritmo shunting-yard
+ * com pilhas explícitas (operandos, operadores e marcas de parênteses,
+ * raiz e conj), então a profundidade da expressão não é limitada pela pilha
+ * de chamadas.
+ *
+ * A leitura é feita direto do CharSequence: números curtos são convertidos
+ * sem criar String (com o mesmo arredondamento de Double.parseDouble) e os
+ * nomes de variáveis passam por uma tabela, criando uma String e um
+ * NoVariavel por nome distinto em vez de um por ocorrência.
+ *
+ * Uma instância analisa uma única fonte e não é thread-safe.
+ */
+public final class ParserIterativo {
+
+    // Operadores na pilha (o código é a própria precedência relativa)
+    private static final int SOMA = 0;
+    private static final int SUBTRACAO = 1;
+    private static final int MULTIPLICACAO = 2;
+    private static final int DIVISAO = 3;
+    private static final int POTENCIA = 4;
+
+    // Marcas de contexto; NEGATIVO indica um '-' antes do '(' / raiz / conj
+    private static final int MARCA_PARENTESES = 8;
+    private static final int MARCA_RAIZ = 9;
+    private static final int MARCA_CONJ = 10;
+    private static final int NEGATIVO = 16;
+
+    private static final NoOperacao.Operador[] OPERADORES = {
+            NoOperacao.Operador.SOMA, NoOperacao.Operador.SUBTRACAO,
+            NoOperacao.Operador.MULTIPLICACAO, NoOperacao.Operador.DIVISAO,
+            NoOperacao.Operador.POTENCIA
+    };
+
+    // Potências de 10 exatamente representáveis em double
+    private static final double[] POTENCIAS_10 = new double[23];
+    static {
+        POTENCIAS_10[0] = 1;
+        for (int k = 1; k < POTENCIAS_10.length; k++) POTENCIAS_10[k] = POTENCIAS_10[k - 1] * 10;
+    }
+
+    private final CharSequence fonte;
+    private final int tamanho;
+    private final FabricaNos fabrica; // null: cria nós novos (sem compartilhamento)
+    private int pos = 0;
+
+    private Expressao[] operandos = new Expressao[16];
+    private int topoOperandos = 0;
+    private int[] operadores = new int[16];
+    private int topoOperadores = 0;
+
+    // Tabela de nomes (endereçamento aberto)
+    private String[] nomes = new String[16];
+    private NoVariavel[] variaveis = new NoVariavel[16];
+    private int quantidadeNomes = 0;
+
+    public ParserIterativo(CharSequence fonte) {
+        this(fonte, null);
+    }
+
+    public ParserIterativo(CharSequence fonte, FabricaNos fabrica) {
+        this.fonte = fonte;
+        this.tamanho = fonte.length();
+        this.fabrica = fabrica;
+    }
+
+    public Expressao parse() {
+        for (;;) {
+            // --- Operando (parsePrimario) ---
+            boolean negativo = false;
+            if (comer('-')) {
+                negativo = true;
+            } else {
+                comer('+');
+            }
+
+            if (comer('(')) {
+                empilharOperador(MARCA_PARENTESES | (negativo ? NEGATIVO : 0));
+                continue;
+            }
+
+            int c = atual();
+            Expressao x;
+            if (Character.isLetter(c)) {
+                int inicio = pos;
+                while (Character.isLetter(atual()) || Character.isDigit(atual())) pos++;
+                int indice = nome(inicio, pos);
+                String nome = nomes[indice];
+
+                if (nome.equals("i")) {
+                    x = constante(0, 1);
+                } else if (nome.equalsIgnoreCase("raiz")) {
+                    if (!comer('(')) {
+                        throw new IllegalArgumentException("Use raiz(expressao, grau)");
+                    }
+                    empilharOperador(MARCA_RAIZ | (negativo ? NEGATIVO : 0));
+                    continue;
+                } else if (nome.equalsIgnoreCase("conj")) {
+                    if (!comer('(')) {
+                        throw new IllegalArgumentException("Use conj(expressao)");
+                    }
+                    empilharOperador(MARCA_CONJ | (negativo ? NEGATIVO : 0));
+                    continue;
+                } else {
+                    x = variavel(indice);
+                }
+            } else if (Character.isDigit(c) || c == '.') {
+                double valor = lerNumero();
+                if (atual() == 'i') {
+                    pos++;
+                    x = constante(0, valor);
+                } else {
+                    x = constante(valor, 0);
+                }
+            } else {
+                throw new IllegalArgumentException("Caractere inválido: " + (char) c);
+            }
+            empilharOperando(negativo ? negar(x) : x);
+
+            // --- Operadores e fechamentos, até aparecer um operador binário ---
+            for (;;) {
+                pularEspacos();
+                int op = operador(atual());
+                if (op >= 0) {
+                    pos++;
+                    reduzirPara(op);
+                    empilharOperador(op);
+                    break;
+                }
+
+                reduzirAteMarca();
+                if (topoOperadores == 0) {
+                    if (pos < tamanho) {
+                        throw new IllegalArgumentException("Caractere inesperado: " + (char) atual());
+                    }
+                    return operandos[--topoOperandos];
+                }
+                fecharContexto(operadores[--topoOperadores]);
+            }
+        }
+    }
+
+    private void fecharContexto(int marca) {
+        Expressao exp = operandos[--topoOperandos];
+        Expressao x;
+        switch (marca & ~NEGATIVO) {
+            case MARCA_PARENTESES:
+                if (!comer(')')) {
+                    throw new IllegalArgumentException("Faltou fechar parênteses ')'");
+                }
+                x = exp;
+                break;
+            case MARCA_RAIZ: {
+                if (!comer(',')) {
+                    throw new IllegalArgumentException("Use raiz(expressao, grau)");
+                }
+                int grau = lerGrau();
+                if (!comer(')')) {
+                    throw new IllegalArgumentException("Faltou ')' após raiz");
+                }
+                x = fabrica != null ? fabrica.raiz(exp, grau) : new NoOperacao(exp, grau);
+                break;
+            }
+            default:
+                if (!comer(')')) {
+                    throw new IllegalArgumentException("Faltou ')' após conj");
+                }
+                x = fabrica != null ? fabrica.conjugado(exp) : new NoOperacao(exp);
+                break;
+        }
+        empilharOperando((marca & NEGATIVO) != 0 ? negar(x) : x);
+    }
+
+    // --- Pilhas ---
+
+    private static int operador(int c) {
+        switch (c) {
+            case '+': return SOMA;
+            case '-': return SUBTRACAO;
+            case '*': return MULTIPLICACAO;
+            case '/': return DIVISAO;
+            case '^': return POTENCIA;
+            default: return -1;
+        }
+    }
+
+    private static int precedencia(int op) {
+        return op == POTENCIA ? 3 : op >= MULTIPLICACAO ? 2 : 1;
+    }
+
+    // + - * / associam à esquerda; ^ à direita
+    private void reduzirPara(int op) {
+        int p = precedencia(op);
+        while (topoOperadores > 0) {
+            int topo = operadores[topoOperadores - 1];
+            if (topo >= MARCA_PARENTESES) return;
+            int pt = precedencia(topo);
+            if (pt < p || (pt == p && op == POTENCIA)) return;
+            reduzir();
+        }
+    }
+
+    private void reduzirAteMarca() {
+        while (topoOperadores > 0 && operadores[topoOperadores - 1] < MARCA_PARENTESES) {
+            reduzir();
+        }
+    }
+
+    private void reduzir() {
+        int op = operadores[--topoOperadores];
+        Expressao dir = operandos[--topoOperandos];
+        Expressao esq = operandos[topoOperandos - 1];
+        operandos[topoOperandos - 1] = operacao(esq, dir, OPERADORES[op]);
+    }
+
+    private void empilharOperando(Expressao x) {
+        if (topoOperandos == operandos.length) operandos = Arrays.copyOf(operandos, topoOperandos * 2);
+        operandos[topoOperandos++] = x;
+    }
+
+    private void empilharOperador(int op) {
+        if (topoOperadores == operadores.length) operadores = Arrays.copyOf(operadores, topoOperadores * 2);
+        operadores[topoOperadores++] = op;
+    }
+
+    // --- Criação de nós (mesma forma do parser recursivo) ---
+
+    private Expressao constante(double real, double imaginario) {
+        NumeroComplexo valor = new NumeroComplexo(real, imaginario);
+        return fabrica != null ? fabrica.constante(valor) : new NoConstante(valor);
+    }
+
+    private Expressao operacao(Expressao esquerda, Expressao direita, NoOperacao.Operador operador) {
+        return fabrica != null ? fabrica.operacao(esquerda, direita, operador) : new NoOperacao(esquerda, direita, operador);
+    }
+
+    private Expressao negar(Expressao x) {
+        return operacao(constante(0, 0), x, NoOperacao.Operador.SUBTRACAO);
+    }
+
+    // NoVariavel é imutável: as ocorrências do mesmo nome usam o mesmo nó
+    private Expressao variavel(int indice) {
+        if (fabrica != null) return fabrica.variavel(nomes[indice]);
+        if (variaveis[indice] == null) variaveis[indice] = new NoVariavel(nomes[indice]);
+        return variaveis[indice];
+    }
+
+    // --- Leitura ---
+
+    private int atual() {
+        return pos < tamanho ? fonte.charAt(pos) : -1;
+    }
+
+    private void pularEspacos() {
+        while (pos < tamanho && fonte.charAt(pos) == ' ') pos++;
+    }
+
+    private boolean comer(int esperado) {
+        pularEspacos();
+        if (atual() == esperado) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * Mesma sequência aceita pelo parser recursivo (dígitos e '.').
+     * Até 15 dígitos ASCII e um ponto, o valor é mantissa / 10^k: os dois
+     * são exatos em double e a divisão é corretamente arredondada, como em
+     * Double.parseDouble. Nos demais casos (e para gerar o mesmo erro)
+     * usa Double.parseDouble.
+     */
+    private double lerNumero() {
+        int inicio = pos;
+        long mantissa = 0;
+        int digitos = 0;
+        int pontos = 0;
+        int decimais = 0;
+        boolean simples = true;
+        for (int c = atual(); Character.isDigit(c) || c == '.'; c = atual()) {
+            if (c == '.') {
+                pontos++;
+            } else if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digitos++;
+                if (pontos > 0) decimais++;
+            } else {
+                simples = false; // dígito não ASCII
+            }
+            pos++;
+        }
+        if (simples && pontos <= 1 && digitos > 0 && digitos <= 15) {
+            return decimais == 0 ? (double) mantissa : mantissa / POTENCIAS_10[decimais];
+        }
+        return Double.parseDouble(fonte.subSequence(inicio, pos).toString());
+    }
+
+    private int lerGrau() {
+        int inicio = pos;
+        while (Character.isDigit(atual()) || atual() == '.') pos++;
+        return Integer.parseInt(fonte.subSequence(inicio, pos).toString());
+    }
+
+    // Índice do nome fonte[inicio, fim) na tabela, inserindo se for novo
+    private int nome(int inicio, int fim) {
+        int hash = 0;
+        for (int k = inicio; k < fim; k++) hash = 31 * hash + fonte.charAt(k);
+        int mascara = nomes.length - 1;
+        int i = espalhar(hash) & mascara;
+        while (nomes[i] != null) {
+            if (mesmoNome(nomes[i], inicio, fim)) return i;
+            i = (i + 1) & mascara;
+        }
+        nomes[i] = fonte.subSequence(inicio, fim).toString();
+        if (++quantidadeNomes * 2 > nomes.length) {
+            return crescerTabela(nomes[i]);
+        }
+        return i;
+    }
+
+    private boolean mesmoNome(String nome, int inicio, int fim) {
+        if (nome.length() != fim - inicio) return false;
+        for (int k = 0; k < nome.length(); k++) {
+            if (nome.charAt(k) != fonte.charAt(inicio + k)) return false;
+        }
+        return true;
+    }
+
+    private int crescerTabela(String procurado) {
+        String[] antigosNomes = nomes;
+        NoVariavel[] antigasVariaveis = variaveis;
+        nomes = new String[antigosNomes.length * 2];
+        variaveis = new NoVariavel[nomes.length];
+        int mascara = nomes.length - 1;
+        int indiceProcurado = -1;
+        for (int k = 0; k < antigosNomes.length; k++) {
+            if (antigosNomes[k] == null) continue;
+            int i = espalhar(antigosNomes[k].hashCode()) & mascara;
+            while (nomes[i] != null) i = (i + 1) & mascara;
+            nomes[i] = antigosNomes[k];
+            variaveis[i] = antigasVariaveis[k];
+            if (antigosNomes[k] == procurado) indiceProcurado = i;
+        }
+        return indiceProcurado;
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,73 @@
+package com.zetacompute.models;
+
+import java.util.Random;
+import java.util.function.Function;
+
+/*
+ * Mede a vazão de análise do parser recursivo e do ParserIterativo.
+ * Uso: java -cp target/classes com.zetacompute.models.RelatorioParser [termos] [repeticoes]
+ *
+ * A expressão gerada é larga (somas de produtos, potências e funções) para
+ * que o parser recursivo também consiga analisá-la sem estourar a pilha.
+ */
+public final class RelatorioParser {
+
+    private RelatorioParser() {
+    }
+
+    /*
+     * Expressão aleatória com 'termos' parcelas do tipo
+     * (2.5 + 3i) * z ^ 2 - raiz(w * 1.25, 3) / conj(-x7 + 0.125).
+     */
+    public static String gerarExpressao(int termos, long semente) {
+        Random rnd = new Random(semente);
+        StringBuilder sb = new StringBuilder(termos * 24);
+        for (int t = 0; t < termos; t++) {
+            if (t > 0) sb.append(rnd.nextBoolean() ? " + " : " - ");
+            switch (rnd.nextInt(4)) {
+                case 0:
+                    sb.append('(').append(rnd.nextInt(100) / 4.0).append(" + ").append(rnd.nextInt(10)).append("i) * z ^ 2");
+                    break;
+                case 1:
+                    sb.append("raiz(w * ").append(rnd.nextInt(1000) / 8.0).append(',').append(2 + rnd.nextInt(3)).append(')');
+                    break;
+                case 2:
+                    sb.append("conj(-x").append(rnd.nextInt(16)).append(" + ").append(rnd.nextInt(1000) / 1000.0).append(')');
+                    break;
+                default:
+                    sb.append("z*w/(").append(rnd.nextInt(50)).append(" - y").append(rnd.nextInt(8)).append(')');
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    // Melhor tempo, em nanossegundos, entre 'repeticoes' análises
+    public static long medir(Function<String, Expressao> analisador, String fonte, int repeticoes) {
+        long melhor = Long.MAX_VALUE;
+        for (int k = 0; k < repeticoes; k++) {
+            long inicio = System.nanoTime();
+            Expressao e = analisador.apply(fonte);
+            long tempo = System.nanoTime() - inicio;
+            if (e.getTamanho() <= 0) throw new IllegalStateException(); // mantém o resultado vivo
+            melhor = Math.min(melhor, tempo);
+        }
+        return melhor;
+    }
+
+    public static void main(String[] args) {
+        int termos = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String fonte = gerarExpressao(termos, 1);
+        double megabytes = fonte.length() / 1e6;
+        System.out.printf("Expressão com %d termos, %.2f MB%n", termos, megabytes);
+
+        long recursivo = medir(s -> new parser(s).parse(), fonte, repeticoes);
+        long iterativo = medir(s -> new ParserIterativo(s).parse(), fonte, repeticoes);
+
+        System.out.printf("parser:          %8.2f ms  %8.1f MB/s%n", recursivo / 1e6, megabytes / (recursivo / 1e9));
+        System.out.printf("ParserIterativo: %8.2f ms  %8.1f MB/s  (%.2fx)%n",
+                iterativo / 1e6, megabytes / (iterativo / 1e9), (double) recursivo / iterativo);
+    }
+}
@@ -5,9 +5,16 @@ public class parser {
     private String source;
     private int pos = -1;
     private int ch;
+    private final FabricaNos fabrica; // null: cria nós novos (sem compartilhamento)
 
     public parser(String source) {
+        this(source, null);
+    }
+
+    // Com uma fábrica, subárvores repetidas viram o mesmo nó (DAG)
+    public parser(String source, FabricaNos fabrica) {
         this.source = source;
+        this.fabrica = fabrica;
     }
 
     public Expressao parse() {
@@ -41,10 +48,10 @@ public class parser {
         Expressao x = parseTermo();
         for (;;) {
             if (comer('+')){
-                x = new NoOperacao(x, parseTermo(), NoOperacao.Operador.SOMA);
+                x = operacao(x, parseTermo(), NoOperacao.Operador.SOMA);
             }
             else if (comer('-')){
-                x = new NoOperacao(x, parseTermo(), NoOperacao.Operador.SUBTRACAO);
+                x = operacao(x, parseTermo(), NoOperacao.Operador.SUBTRACAO);
             }
             else{
                 return x;
@@ -57,10 +64,10 @@ public class parser {
         Expressao x = parseFator();
         for (;;) {
             if (comer('*')) {
-                x = new NoOperacao(x, parseFator(), NoOperacao.Operador.MULTIPLICACAO);
+                x = operacao(x, parseFator(), NoOperacao.Operador.MULTIPLICACAO);
             }
             else if (comer('/')) {
-                x = new NoOperacao(x, parseFator(), NoOperacao.Operador.DIVISAO);
+                x = operacao(x, parseFator(), NoOperacao.Operador.DIVISAO);
             }
             else{
                 return x;
@@ -72,7 +79,7 @@ public class parser {
     private Expressao parseFator() {
         Expressao x = parsePrimario();
         if (comer('^')) {
-            x = new NoOperacao(x, parseFator(), NoOperacao.Operador.POTENCIA);
+            x = operacao(x, parseFator(), NoOperacao.Operador.POTENCIA);
         }
         return x;
     }
@@ -97,7 +104,7 @@ public class parser {
                 throw new IllegalArgumentException("Faltou fechar parênteses ')'");
             }
             if (negativo) {
-                return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                return negar(x);
             }
             return x;
         }
@@ -108,9 +115,9 @@ public class parser {
 
             // Caso especial: 'i' é imaginário
             if (nome.equals("i")) {
-                Expressao x = new NoConstante(new NumeroComplexo(0, 1));
+                Expressao x = constante(0, 1);
                 if (negativo){
-                    return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                    return negar(x);
                 }
                 return x;
             }
@@ -130,10 +137,10 @@ public class parser {
                     throw new IllegalArgumentException("Faltou ')' após raiz");
                 }
 
-                Expressao x = new NoOperacao(exp, grau); // mantive sua estrutura
+                Expressao x = fabrica != null ? fabrica.raiz(exp, grau) : new NoOperacao(exp, grau); // mantive sua estrutura
 
                 if (negativo){
-                    return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                    return negar(x);
                 }
                 return x;
             }
@@ -148,18 +155,18 @@ public class parser {
                     throw new IllegalArgumentException("Faltou ')' após conj");
                 }
 
-                Expressao x = new NoOperacao(exp); // mantive sua estrutura
+                Expressao x = fabrica != null ? fabrica.conjugado(exp) : new NoOperacao(exp); // mantive sua estrutura
 
                 if (negativo){
-                    return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                    return negar(x);
                 }
                 return x;
             }
 
             // Variável simples
-            Expressao x = new NoVariavel(nome);
+            Expressao x = fabrica != null ? fabrica.variavel(nome) : new NoVariavel(nome);
             if (negativo){
-                return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                return negar(x);
             }
             return x;
         }
@@ -172,19 +179,19 @@ public class parser {
             if (ch == 'i') {
                 proximoChar();
                 double valor = Double.parseDouble(numStr);
-                Expressao x = new NoConstante(new NumeroComplexo(0, valor));
+                Expressao x = constante(0, valor);
                 if (negativo){
-                    return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                    return negar(x);
                 }
                 return x;
             }
 
             // Real puro
             double valor = Double.parseDouble(numStr);
-            Expressao x = new NoConstante(new NumeroComplexo(valor, 0));
+            Expressao x = constante(valor, 0);
 
             if (negativo){
-                return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+                return negar(x);
             }
             return x;
         }
@@ -192,6 +199,22 @@ public class parser {
         throw new IllegalArgumentException("Caractere inválido: " + (char) ch);
     }
 
+    // Métodos auxiliares de criação de nós
+
+    private Expressao constante(double real, double imaginario) {
+        NumeroComplexo valor = new NumeroComplexo(real, imaginario);
+        return fabrica != null ? fabrica.constante(valor) : new NoConstante(valor);
+    }
+
+    private Expressao operacao(Expressao esquerda, Expressao direita, NoOperacao.Operador operador) {
+        return fabrica != null ? fabrica.operacao(esquerda, direita, operador) : new NoOperacao(esquerda, direita, operador);
+    }
+
+    // Sinal negativo: representado como 0 - x
+    private Expressao negar(Expressao x) {
+        return operacao(constante(0, 0), x, NoOperacao.Operador.SUBTRACAO);
+    }
+
     // Métodos auxiliares de leitura de String
     private String lerIdentificador() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,190 @@
+package com.zetacompute.otimizacao;
+
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * Passo de análise que troca subárvores polinomiais em uma variável por
+ * NoPolinomio (avaliado pela regra de Horner). Ex.: 3*z^4 + 2*z^3 - z + 7
+ * vira (poly z 7 -1 0 2 3).
+ *
+ * De baixo para cima, cada nó recebe os coeficientes do polinômio que ele
+ * representa, ou nenhum quando não é polinômio. São polinômios:
+ * constantes, uma variável, somas, subtrações e produtos de polinômios na
+ * mesma variável, potências com expoente constante inteiro não negativo e
+ * divisões por constante não nula. Conjugado e raiz só de constantes.
+ * Operações entre constantes são calculadas com NumeroComplexo; se uma delas
+ * lançar exceção, o nó não é polinômio e o erro fica para a avaliação.
+ *
+ * Só as maiores subárvores polinomiais com grau >= 2 são trocadas (até
+ * MAXIMO_GRAU); o resto da árvore é reaproveitado. O resultado pode diferir
+ * da árvore original no arredondamento, pois os coeficientes são agrupados.
+ */
+public final class ReconhecedorPolinomios {
+
+    public static final int MAXIMO_GRAU = 64;
+
+    private static final NumeroComplexo ZERO = new NumeroComplexo(0, 0);
+    private static final NumeroComplexo UM = new NumeroComplexo(1, 0);
+
+    private ReconhecedorPolinomios() {
+    }
+
+    // Coeficientes em ordem crescente de grau; variavel == null para constantes
+    private static final class Polinomio {
+        final NoVariavel variavel;
+        final NumeroComplexo[] coeficientes;
+
+        Polinomio(NoVariavel variavel, NumeroComplexo[] coeficientes) {
+            this.variavel = variavel;
+            this.coeficientes = coeficientes;
+        }
+
+        int grau() {
+            return coeficientes.length - 1;
+        }
+    }
+
+    public static Expressao reconhecer(Expressao expressao) {
+        expressao = Envoltorio.arvore(expressao);
+        Map<Expressao, Polinomio> analisados = new IdentityHashMap<>();
+        analisar(expressao, analisados);
+        return substituir(expressao, analisados, new IdentityHashMap<>());
+    }
+
+    // Memorizado por identidade: subárvores compartilhadas (DAG) continuam compartilhadas
+    private static Expressao substituir(Expressao no, Map<Expressao, Polinomio> analisados,
+                                        Map<Expressao, Expressao> substituidos) {
+        if (!(no instanceof NoOperacao)) return no;
+        Expressao pronto = substituidos.get(no);
+        if (pronto != null) return pronto;
+        Expressao r;
+        Polinomio p = analisados.get(no);
+        if (p != null && p.variavel != null && p.grau() >= 2) {
+            r = new NoPolinomio(p.variavel, p.coeficientes);
+        } else {
+            NoOperacao op = (NoOperacao) no;
+            Expressao esq = substituir(op.getEsquerda(), analisados, substituidos);
+            Expressao dir = op.getDireita() != null ? substituir(op.getDireita(), analisados, substituidos) : null;
+            if (esq == op.getEsquerda() && dir == op.getDireita()) {
+                r = op;
+            } else {
+                switch (op.getOperador()) {
+                    case RAIZ: r = new NoOperacao(esq, op.getParametroAuxiliar()); break;
+                    case CONJUGADO: r = new NoOperacao(esq); break;
+                    default: r = new NoOperacao(esq, dir, op.getOperador()); break;
+                }
+            }
+        }
+        substituidos.put(no, r);
+        return r;
+    }
+
+    // --- Análise ---
+
+    private static Polinomio analisar(Expressao no, Map<Expressao, Polinomio> analisados) {
+        if (no instanceof NoConstante) {
+            return new Polinomio(null, new NumeroComplexo[] { ((NoConstante) no).getValor() });
+        }
+        if (no instanceof NoVariavel) {
+            return new Polinomio((NoVariavel) no, new NumeroComplexo[] { ZERO, UM });
+        }
+        if (!(no instanceof NoOperacao)) return null;
+        if (analisados.containsKey(no)) return analisados.get(no);
+
+        NoOperacao op = (NoOperacao) no;
+        Polinomio a = analisar(op.getEsquerda(), analisados);
+        Polinomio b = op.getDireita() != null ? analisar(op.getDireita(), analisados) : null;
+        Polinomio r = null;
+        if (a != null && (b != null || op.getDireita() == null)) {
+            try {
+                r = combinar(op, a, b);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                r = null; // o erro fica para a avaliação
+            }
+        }
+        analisados.put(no, r);
+        return r;
+    }
+
+    private static Polinomio combinar(NoOperacao op, Polinomio a, Polinomio b) {
+        switch (op.getOperador()) {
+            case CONJUGADO:
+                return a.variavel == null ? constante(a.coeficientes[0].getConjugado()) : null;
+            case RAIZ:
+                return a.variavel == null ? constante(a.coeficientes[0].raiz(op.getParametroAuxiliar())) : null;
+            default:
+                break;
+        }
+
+        NoVariavel variavel = a.variavel != null ? a.variavel : b.variavel;
+        if (a.variavel != null && b.variavel != null && !a.variavel.getNome().equals(b.variavel.getNome())) {
+            return null; // mais de uma variável
+        }
+
+        switch (op.getOperador()) {
+            case SOMA:
+                return new Polinomio(variavel, somar(a.coeficientes, b.coeficientes, false));
+            case SUBTRACAO:
+                return new Polinomio(variavel, somar(a.coeficientes, b.coeficientes, true));
+            case MULTIPLICACAO:
+                if (a.grau() + b.grau() > MAXIMO_GRAU) return null;
+                return new Polinomio(variavel, multiplicar(a.coeficientes, b.coeficientes));
+            case DIVISAO: {
+                if (b.variavel != null) return null;
+                NumeroComplexo divisor = b.coeficientes[0];
+                NumeroComplexo[] c = new NumeroComplexo[a.coeficientes.length];
+                for (int k = 0; k < c.length; k++) c[k] = a.coeficientes[k].dividir(divisor);
+                return new Polinomio(a.variavel, c);
+            }
+            case POTENCIA: {
+                if (b.variavel != null) return null;
+                int n = (int) b.coeficientes[0].getReal(); // mesmo truncamento da avaliação
+                if (a.variavel == null) return constante(a.coeficientes[0].potencia(n));
+                if (n < 0 || (long) a.grau() * n > MAXIMO_GRAU) return null;
+                // z^0 continua ligado a z: a avaliação ainda exige que z esteja definida
+                if (a.grau() == 0) {
+                    // O grau não cresce, então o expoente não é limitado: nada de laço de n passos
+                    return new Polinomio(a.variavel, new NumeroComplexo[] { a.coeficientes[0].potencia(n) });
+                }
+                NumeroComplexo[] c = { UM };
+                for (int k = 0; k < n; k++) c = multiplicar(c, a.coeficientes);
+                return new Polinomio(a.variavel, c);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static Polinomio constante(NumeroComplexo valor) {
+        return new Polinomio(null, new NumeroComplexo[] { valor });
+    }
+
+    private static NumeroComplexo[] somar(NumeroComplexo[] a, NumeroComplexo[] b, boolean subtrair) {
+        NumeroComplexo[] c = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int k = 0; k < c.length; k++) {
+            NumeroComplexo x = k < a.length ? a[k] : ZERO;
+            NumeroComplexo y = k < b.length ? b[k] : ZERO;
+            c[k] = subtrair ? x.subtrair(y) : x.somar(y);
+        }
+        return c;
+    }
+
+    private static NumeroComplexo[] multiplicar(NumeroComplexo[] a, NumeroComplexo[] b) {
+        NumeroComplexo[] c = new NumeroComplexo[a.length + b.length - 1];
+        Arrays.fill(c, ZERO);
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) c[i + j] = c[i + j].somar(a[i].multiplicar(b[j]));
+        }
+        return c;
+    }
+}
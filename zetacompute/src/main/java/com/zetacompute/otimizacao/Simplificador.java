@@ -0,0 +1,282 @@
+package com.zetacompute.otimizacao;
+
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+
+/*
+ * Passo de otimização sobre a árvore de expressão. De baixo para cima:
+ *
+ *  - dobra de constantes: operações só com constantes viram uma constante,
+ *    calculada pelo próprio avaliar do nó (mesmo resultado, bit a bit);
+ *    se o cálculo lançar exceção (ex.: divisão por zero) o nó é mantido
+ *    para que o erro continue acontecendo na avaliação;
+ *  - identidades: x * 1, 1 * x, x + 0, 0 + x, x - 0, x / 1, x ^ 1 e conj(conj(x));
+ *  - negação: o parser escreve -x como (0 - x). Essa passa a ser a única
+ *    forma de negação, e ela é absorvida quando possível:
+ *    a + (0 - b) = a - b, a - (0 - b) = a + b, (0 - a) * (0 - b) = a * b,
+ *    x * -1 = 0 - x, 0 - (0 - x) = x;
+ *  - ordem canônica dos operandos de + e *: constantes, variáveis (por nome)
+ *    e depois operações, para que expressões iguais a menos da ordem fiquem
+ *    iguais (e sejam unificadas pela FabricaNos).
+ *
+ * Trocar a ordem de + e * não altera o resultado em ponto flutuante e as
+ * demais regras são exatas para valores finitos (x ^ 1 é calculado por
+ * quadrados sucessivos, que devolvem o próprio x). Subárvores que não mudam
+ * são reaproveitadas.
+ */
+public final class Simplificador {
+
+    private Simplificador() {
+    }
+
+    public static final class Resultado {
+        private final Expressao expressao;
+        private final int nosAntes;
+        private final int nosDepois;
+
+        private Resultado(Expressao expressao, int nosAntes, int nosDepois) {
+            this.expressao = expressao;
+            this.nosAntes = nosAntes;
+            this.nosDepois = nosDepois;
+        }
+
+        public Expressao getExpressao() {
+            return expressao;
+        }
+
+        public int getNosAntes() {
+            return nosAntes;
+        }
+
+        public int getNosDepois() {
+            return nosDepois;
+        }
+
+        public int getNosRemovidos() {
+            return nosAntes - nosDepois;
+        }
+
+        @Override
+        public String toString() {
+            return expressao.toLisp() + " (" + getNosRemovidos() + " nós removidos)";
+        }
+    }
+
+    public static Resultado simplificar(Expressao expressao) {
+        expressao = Envoltorio.arvore(expressao);
+        Expressao simplificada = simplificarNo(expressao);
+        return new Resultado(simplificada, expressao.getTamanho(), simplificada.getTamanho());
+    }
+
+    private static Expressao simplificarNo(Expressao no) {
+        if (!(no instanceof NoOperacao)) return no; // constantes, variáveis e nós desconhecidos
+
+        NoOperacao op = (NoOperacao) no;
+        Expressao esq = simplificarNo(op.getEsquerda());
+        Expressao dir = op.getDireita() != null ? simplificarNo(op.getDireita()) : null;
+        if (esq != op.getEsquerda() || dir != op.getDireita()) {
+            op = criar(esq, dir, op);
+        }
+        return reduzir(op);
+    }
+
+    // Aplica as regras a um nó cujos filhos já estão simplificados
+    private static Expressao reduzir(NoOperacao op) {
+        Expressao esq = op.getEsquerda();
+        Expressao dir = op.getDireita();
+
+        if (esq instanceof NoConstante && (dir == null || dir instanceof NoConstante)) {
+            try {
+                return new NoConstante(op.avaliar(Collections.emptyMap()));
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                return op; // o erro fica para a avaliação
+            }
+        }
+
+        switch (op.getOperador()) {
+            case CONJUGADO: {
+                if (ehOperacao(esq, NoOperacao.Operador.CONJUGADO)) {
+                    return ((NoOperacao) esq).getEsquerda();
+                }
+                Expressao negado = negado(esq);
+                if (negado != null) {
+                    return negar(reduzir(new NoOperacao(negado)));
+                }
+                return op;
+            }
+            case SOMA: {
+                if (ehZero(dir)) return esq;
+                if (ehZero(esq)) return dir;
+                Expressao negDir = negado(dir);
+                if (negDir != null) return reduzir(new NoOperacao(esq, negDir, NoOperacao.Operador.SUBTRACAO));
+                Expressao negEsq = negado(esq);
+                if (negEsq != null) return reduzir(new NoOperacao(dir, negEsq, NoOperacao.Operador.SUBTRACAO));
+                return ordenar(op);
+            }
+            case SUBTRACAO: {
+                if (ehZero(dir)) return esq;
+                Expressao negDir = negado(dir);
+                if (negDir != null) {
+                    if (ehZero(esq)) return negDir;
+                    return reduzir(new NoOperacao(esq, negDir, NoOperacao.Operador.SOMA));
+                }
+                return op;
+            }
+            case MULTIPLICACAO: {
+                if (ehUm(dir)) return esq;
+                if (ehUm(esq)) return dir;
+                if (ehMenosUm(dir)) return negar(esq);
+                if (ehMenosUm(esq)) return negar(dir);
+                Expressao negEsq = negado(esq);
+                Expressao negDir = negado(dir);
+                if (negEsq != null && negDir != null) {
+                    return reduzir(new NoOperacao(negEsq, negDir, NoOperacao.Operador.MULTIPLICACAO));
+                }
+                return ordenar(op);
+            }
+            case DIVISAO: {
+                if (ehUm(dir)) return esq;
+                Expressao negEsq = negado(esq);
+                Expressao negDir = negado(dir);
+                if (negEsq != null && negDir != null) {
+                    return reduzir(new NoOperacao(negEsq, negDir, NoOperacao.Operador.DIVISAO));
+                }
+                return op;
+            }
+            case POTENCIA:
+                if (ehUm(dir)) return esq;
+                return op;
+            default:
+                return op;
+        }
+    }
+
+    // Forma canônica da negação: 0 - x (a mesma gerada pelo parser)
+    private static Expressao negar(Expressao x) {
+        if (x instanceof NoConstante) {
+            return new NoConstante(new NumeroComplexo(0, 0).subtrair(((NoConstante) x).getValor()));
+        }
+        Expressao negado = negado(x);
+        if (negado != null) return negado;
+        return new NoOperacao(new NoConstante(new NumeroComplexo(0, 0)), x, NoOperacao.Operador.SUBTRACAO);
+    }
+
+    // Se x = 0 - y devolve y; senão null
+    private static Expressao negado(Expressao x) {
+        if (!ehOperacao(x, NoOperacao.Operador.SUBTRACAO)) return null;
+        NoOperacao op = (NoOperacao) x;
+        return ehZero(op.getEsquerda()) ? op.getDireita() : null;
+    }
+
+    private static Expressao ordenar(NoOperacao op) {
+        if (comparar(op.getEsquerda(), op.getDireita()) <= 0) return op;
+        return new NoOperacao(op.getDireita(), op.getEsquerda(), op.getOperador());
+    }
+
+    /*
+     * Constantes < variáveis < operações; constantes por valor e variáveis por nome.
+     * Operações por tamanho e hash (guardados no nó) e, no empate, pela
+     * estrutura: operador, parâmetro e depois os filhos, com uma pilha
+     * explícita. Cada par de nós é visto no máximo uma vez.
+     */
+    private static int comparar(Expressao a, Expressao b) {
+        Deque<Expressao> pendentes = new ArrayDeque<>();
+        pendentes.push(a);
+        pendentes.push(b);
+        while (!pendentes.isEmpty()) {
+            Expressao y = pendentes.pop();
+            Expressao x = pendentes.pop();
+            if (x == y) continue;
+            int c = compararNo(x, y);
+            if (c != 0) return c;
+            if (x instanceof NoOperacao) {
+                NoOperacao opX = (NoOperacao) x;
+                NoOperacao opY = (NoOperacao) y;
+                if (opX.getDireita() != null) {
+                    pendentes.push(opX.getDireita());
+                    pendentes.push(opY.getDireita());
+                }
+                pendentes.push(opX.getEsquerda());
+                pendentes.push(opY.getEsquerda());
+            }
+        }
+        return 0;
+    }
+
+    // Compara só o próprio nó; 0 em operações iguais significa "comparar os filhos"
+    private static int compararNo(Expressao a, Expressao b) {
+        int grupo = Integer.compare(grupo(a), grupo(b));
+        if (grupo != 0) return grupo;
+        if (a instanceof NoConstante) {
+            NumeroComplexo x = ((NoConstante) a).getValor();
+            NumeroComplexo y = ((NoConstante) b).getValor();
+            int real = Double.compare(x.getReal(), y.getReal());
+            return real != 0 ? real : Double.compare(x.getImaginario(), y.getImaginario());
+        }
+        if (a instanceof NoVariavel) {
+            return ((NoVariavel) a).getNome().compareTo(((NoVariavel) b).getNome());
+        }
+        int tamanho = Integer.compare(a.getTamanho(), b.getTamanho());
+        if (tamanho != 0) return tamanho;
+        int hash = Integer.compare(a.hashCode(), b.hashCode());
+        if (hash != 0) return hash;
+        if (a instanceof NoOperacao && b instanceof NoOperacao) {
+            NoOperacao x = (NoOperacao) a;
+            NoOperacao y = (NoOperacao) b;
+            int operador = Integer.compare(x.getOperador().ordinal(), y.getOperador().ordinal());
+            if (operador != 0) return operador;
+            int parametro = Integer.compare(x.getParametroAuxiliar(), y.getParametroAuxiliar());
+            if (parametro != 0) return parametro;
+            // Mesmo tamanho e operador binário em ambos: só os filhos decidem
+            return (x.getDireita() == null) == (y.getDireita() == null) ? 0 : (x.getDireita() == null ? -1 : 1);
+        }
+        // Outros nós (ex.: NoPolinomio) têm tamanho fixo: a notação LISP é barata
+        int classe = a.getClass().getName().compareTo(b.getClass().getName());
+        return classe != 0 ? classe : a.toLisp().compareTo(b.toLisp());
+    }
+
+    private static int grupo(Expressao x) {
+        if (x instanceof NoConstante) return 0;
+        if (x instanceof NoVariavel) return 1;
+        return 2;
+    }
+
+    private static NoOperacao criar(Expressao esq, Expressao dir, NoOperacao modelo) {
+        switch (modelo.getOperador()) {
+            case RAIZ: return new NoOperacao(esq, modelo.getParametroAuxiliar());
+            case CONJUGADO: return new NoOperacao(esq);
+            default: return new NoOperacao(esq, dir, modelo.getOperador());
+        }
+    }
+
+    private static boolean ehOperacao(Expressao x, NoOperacao.Operador operador) {
+        return x instanceof NoOperacao && ((NoOperacao) x).getOperador() == operador;
+    }
+
+    // Comparações exatas: a tolerância de NumeroComplexo.equals mudaria o resultado
+    private static boolean ehConstante(Expressao x, double real, double imaginario) {
+        if (!(x instanceof NoConstante)) return false;
+        NumeroComplexo valor = ((NoConstante) x).getValor();
+        return valor.getReal() == real && valor.getImaginario() == imaginario;
+    }
+
+    private static boolean ehZero(Expressao x) {
+        return ehConstante(x, 0, 0);
+    }
+
+    private static boolean ehUm(Expressao x) {
+        return ehConstante(x, 1, 0);
+    }
+
+    private static boolean ehMenosUm(Expressao x) {
+        return ehConstante(x, -1, 0);
+    }
+}
@@ -0,0 +1,348 @@
+package com.zetacompute.servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.cache.CacheLru;
+import com.zetacompute.metricas.HistogramaLatencia;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Servidor HTTP local (só na interface de loopback) para avaliar expressões
+ * sem pagar o parser e a troca de thread a cada chamada. Cada requisição é
+ * atendida numa virtual thread.
+ *
+ *   POST /avaliar   corpo com uma linha por ponto, no formato do modo lote:
+ *                   "expressao; z=1+2i, w=3". Resposta: uma linha por linha
+ *                   não vazia, "real,imaginario" ou "erro: mensagem".
+ *   GET  /metricas  requisições, pontos, lotes, vazão e latência (p50/p99).
+ *
+ * Pontos da mesma expressão que chegam ao mesmo tempo são avaliados juntos:
+ * cada expressão tem uma fila e uma trava. Quem consegue a trava esvazia a
+ * fila inteira (até PONTOS_POR_LOTE pontos) e avalia tudo numa única chamada
+ * do AvaliadorLote; os outros, ao conseguir a trava, já encontram o seu
+ * resultado pronto. Não há espera artificial: quanto maior a concorrência,
+ * maiores os lotes. As expressões analisadas ficam num CacheLru; os buffers
+ * de cada uma crescem com o maior lote que ela já recebeu.
+ */
+public final class ServidorAvaliacao implements Closeable {
+
+    public static final int PORTA_PADRAO = 8088;
+    public static final int PONTOS_POR_LOTE = 16 * AvaliadorLote.TAMANHO_BLOCO;
+    private static final int EXPRESSOES_EM_CACHE = 1024;
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final CacheLru<String, Grupo> grupos = new CacheLru<>(EXPRESSOES_EM_CACHE);
+
+    private final long inicio = System.nanoTime();
+    private final LongAdder requisicoes = new LongAdder();
+    private final LongAdder pontos = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+
+    private ServidorAvaliacao(int porta) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(executor);
+        servidor.createContext("/avaliar", this::tratarAvaliacao);
+        servidor.createContext("/metricas", this::tratarMetricas);
+    }
+
+    // Porta 0: escolhida pelo sistema (veja getPorta)
+    public static ServidorAvaliacao iniciar(int porta) throws IOException {
+        ServidorAvaliacao s = new ServidorAvaliacao(porta);
+        s.servidor.start();
+        return s;
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    public long getRequisicoes() {
+        return requisicoes.sum();
+    }
+
+    public long getPontos() {
+        return pontos.sum();
+    }
+
+    public long getLotes() {
+        return lotes.sum();
+    }
+
+    // Latência de cada requisição /avaliar, do recebimento até a resposta pronta
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    // Requisições por segundo desde o início
+    public double getVazao() {
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return segundos > 0 ? requisicoes.sum() / segundos : 0;
+    }
+
+    public String relatorio() {
+        long l = lotes.sum();
+        long p = pontos.sum();
+        return String.format("requisicoes=%d pontos=%d lotes=%d pontos/lote=%.1f vazao=%.1f req/s%nlatencia %s%n",
+                requisicoes.sum(), p, l, l > 0 ? (double) p / l : 0.0, getVazao(), latencia.resumo());
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        executor.close();
+    }
+
+    // --- HTTP ---
+
+    private void tratarAvaliacao(HttpExchange troca) throws IOException {
+        long t0 = System.nanoTime();
+        try (troca) {
+            if (!troca.getRequestMethod().equals("POST")) {
+                responder(troca, 405, "use POST\n");
+                return;
+            }
+            String corpo = new String(troca.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String resposta = avaliar(corpo);
+            // Contada antes do envio: quem recebe a resposta já a vê nas métricas
+            requisicoes.increment();
+            latencia.registrar(System.nanoTime() - t0);
+            responder(troca, 200, resposta);
+        }
+    }
+
+    private void tratarMetricas(HttpExchange troca) throws IOException {
+        try (troca) {
+            responder(troca, 200, relatorio());
+        }
+    }
+
+    private static void responder(HttpExchange troca, int status, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    // --- Avaliação ---
+
+    // Avalia as linhas do corpo e devolve o texto da resposta
+    String avaliar(String corpo) {
+        List<Pedido> pedidos = new ArrayList<>();
+        for (String linha : corpo.split("\n")) {
+            if (linha.isBlank()) continue;
+            Pedido p = new Pedido();
+            try {
+                p.preparar(linha);
+                p.grupo.enfileirar(p);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                p.concluir(e);
+            }
+            pedidos.add(p);
+        }
+        StringBuilder sb = new StringBuilder(pedidos.size() * 40);
+        for (Pedido p : pedidos) {
+            if (!p.pronto) p.grupo.aguardar(p);
+            if (p.erro != null) {
+                sb.append("erro: ").append(p.erro);
+            } else {
+                sb.append(p.re).append(',').append(p.im);
+            }
+            sb.append('\n');
+        }
+        pontos.add(pedidos.size());
+        return sb.toString();
+    }
+
+    // Um ponto: valores por slot do layout da expressão e, no fim, o resultado
+    private final class Pedido {
+        Grupo grupo;
+        double[] valoresRe;
+        double[] valoresIm;
+        double re;
+        double im;
+        String erro;
+        volatile boolean pronto;
+
+        void preparar(String linha) {
+            int separador = linha.indexOf(';');
+            String fonte = (separador >= 0 ? linha.substring(0, separador) : linha).trim();
+            Map<String, NumeroComplexo> variaveis = new HashMap<>();
+            if (separador >= 0) {
+                for (String atribuicao : linha.substring(separador + 1).split(",")) {
+                    if (atribuicao.isBlank()) continue;
+                    int igual = atribuicao.indexOf('=');
+                    if (igual < 0) {
+                        throw new IllegalArgumentException("Use nome=valor: " + atribuicao.trim());
+                    }
+                    variaveis.put(atribuicao.substring(0, igual).trim(), NumeroComplexo.parse(atribuicao.substring(igual + 1)));
+                }
+            }
+            Grupo g = grupos.obter(fonte, Grupo::new);
+            Bindings layout = g.lote.getLayout();
+            valoresRe = new double[layout.tamanho()];
+            valoresIm = new double[layout.tamanho()];
+            for (int s = 0; s < layout.tamanho(); s++) {
+                NumeroComplexo v = variaveis.get(layout.getNome(s));
+                if (v == null) {
+                    throw new IllegalArgumentException("Erro: Variável '" + layout.getNome(s) + "' não foi definida.");
+                }
+                valoresRe[s] = v.getReal();
+                valoresIm[s] = v.getImaginario();
+            }
+            grupo = g;
+        }
+
+        void concluir(double re, double im) {
+            this.re = re;
+            this.im = im;
+            pronto = true;
+        }
+
+        void concluir(RuntimeException e) {
+            concluir(e.getMessage());
+        }
+
+        void concluir(String mensagem) {
+            erro = mensagem;
+            pronto = true;
+        }
+    }
+
+    // Fila, trava e área de trabalho de uma expressão
+    private final class Grupo {
+        final AvaliadorLote lote;
+        final Queue<Pedido> fila = new ConcurrentLinkedQueue<>();
+        final ReentrantLock trava = new ReentrantLock();
+        // Usados só por quem tem a trava; crescem até o maior lote visto (no máximo PONTOS_POR_LOTE)
+        final AvaliadorLote.Rascunho rascunho;
+        final Bindings valores;
+        double[][] re;
+        double[][] im;
+        double[] saidaRe = new double[0];
+        double[] saidaIm = new double[0];
+        Pedido[] pendentes = new Pedido[0];
+
+        Grupo(String fonte) {
+            Expressao expressao = new ParserIterativo(fonte).parse(); // erro de sintaxe: nada é guardado
+            lote = AvaliadorLote.para(expressao, Bindings.para(expressao));
+            rascunho = lote.novoRascunho();
+            valores = lote.getLayout().novaInstancia();
+            re = new double[valores.tamanho()][0];
+            im = new double[valores.tamanho()][0];
+        }
+
+        void enfileirar(Pedido p) {
+            fila.add(p);
+        }
+
+        void aguardar(Pedido p) {
+            while (!p.pronto) {
+                trava.lock();
+                try {
+                    if (!p.pronto) processar();
+                } finally {
+                    trava.unlock();
+                }
+            }
+        }
+
+        // Esvazia a fila (até PONTOS_POR_LOTE) e avalia tudo de uma vez
+        private void processar() {
+            int n = 0;
+            for (Pedido p = fila.poll(); p != null; p = n < PONTOS_POR_LOTE ? fila.poll() : null) {
+                if (n == pendentes.length) {
+                    pendentes = Arrays.copyOf(pendentes, Math.min(PONTOS_POR_LOTE, Math.max(16, 2 * n)));
+                }
+                pendentes[n++] = p;
+            }
+            if (n == 0) return;
+            lotes.increment();
+            try {
+                avaliarLote(n);
+            } finally {
+                // Nenhum pedido retirado da fila fica sem resposta, nem diante de uma falha inesperada
+                for (int k = 0; k < n; k++) {
+                    if (!pendentes[k].pronto) pendentes[k].concluir("falha interna na avaliação");
+                }
+                Arrays.fill(pendentes, 0, n, null);
+            }
+        }
+
+        private void avaliarLote(int n) {
+            if (saidaRe.length < n) {
+                int capacidade = pendentes.length;
+                re = new double[re.length][capacidade];
+                im = new double[im.length][capacidade];
+                saidaRe = new double[capacidade];
+                saidaIm = new double[capacidade];
+            }
+            for (int k = 0; k < n; k++) {
+                for (int s = 0; s < re.length; s++) {
+                    re[s][k] = pendentes[k].valoresRe[s];
+                    im[s][k] = pendentes[k].valoresIm[s];
+                }
+            }
+            try {
+                lote.avaliar(re, im, saidaRe, saidaIm, 0, n, rascunho);
+                for (int k = 0; k < n; k++) pendentes[k].concluir(saidaRe[k], saidaIm[k]);
+            } catch (RuntimeException e) {
+                // Algum ponto falhou (divisão por zero, índice de raiz inválido...):
+                // reavalia ponto a ponto para que cada linha receba o seu erro
+                for (int k = 0; k < n; k++) {
+                    for (int s = 0; s < re.length; s++) valores.definir(s, re[s][k], im[s][k]);
+                    try {
+                        NumeroComplexo r = lote.getExpressao().avaliar(valores);
+                        pendentes[k].concluir(r.getReal(), r.getImaginario());
+                    } catch (RuntimeException erro) {
+                        pendentes[k].concluir(erro);
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Linha de comando ---
+
+    // Argumentos: [--porta N]. Encerra com Ctrl+C.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int porta = PORTA_PADRAO;
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("--porta") && k + 1 < args.length) {
+                porta = Integer.parseInt(args[++k]);
+            } else {
+                throw new IllegalArgumentException("Argumento desconhecido: " + args[k]);
+            }
+        }
+        ServidorAvaliacao s = iniciar(porta);
+        System.out.println("Servidor em http://localhost:" + s.getPorta() + "/avaliar");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(s.relatorio())));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,387 @@
+package com.zetacompute.sessao;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Variáveis de uma sessão da calculadora. Cada nome é uma entrada (valor
+ * fixo) ou uma definição (w = z*z + 1) que pode usar outros nomes.
+ *
+ * A área guarda o grafo de dependências entre nomes e, dentro de cada
+ * definição, entre nomes e nós da árvore. Cada definição mantém o valor de
+ * todos os seus nós; quando um nome muda, só os nós que dependem dele
+ * (nas definições que o usam, direta ou indiretamente) são marcados e
+ * recalculados na próxima leitura. O resto reaproveita os valores guardados.
+ *
+ * Os valores são calculados com as mesmas operações de NumeroComplexo da
+ * avaliação da árvore, então coincidem com Expressao.avaliar. Nós cujo
+ * cálculo lança exceção continuam marcados e o erro se repete a cada
+ * leitura até a causa mudar. Definições circulares são recusadas.
+ *
+ * Não é thread-safe.
+ */
+public final class AreaTrabalho {
+
+    private final Map<String, Definicao> definicoes = new LinkedHashMap<>();
+    // nome -> definições cuja expressão usa o nome (definido ou não)
+    private final Map<String, Set<Definicao>> dependentes = new HashMap<>();
+    private long nosRecalculados = 0;
+
+    // --- Definição ---
+
+    public void definirValor(String nome, NumeroComplexo valor) {
+        Definicao d = substituir(nome, null);
+        d.valor = valor;
+        d.sujo = false;
+    }
+
+    public void definir(String nome, String fonte) {
+        definir(nome, new ParserIterativo(fonte).parse());
+    }
+
+    /*
+     * Define (ou redefine) o nome como uma expressão dos outros nomes.
+     * Nomes ainda não definidos são aceitos; o erro de variável não definida
+     * aparece na leitura. Lança IllegalArgumentException se a definição
+     * criar um ciclo.
+     */
+    public void definir(String nome, Expressao expressao) {
+        List<String> ciclo = caminho(expressao.getVariaveis(), nome);
+        if (ciclo != null) {
+            ciclo.add(0, nome);
+            throw new IllegalArgumentException("Dependência circular: " + String.join(" -> ", ciclo));
+        }
+        substituir(nome, expressao);
+    }
+
+    public boolean remover(String nome) {
+        Definicao d = definicoes.remove(validarNome(nome));
+        if (d == null) return false;
+        desligar(d);
+        invalidar(nome);
+        return true;
+    }
+
+    private Definicao substituir(String nome, Expressao expressao) {
+        Definicao antiga = definicoes.get(validarNome(nome));
+        if (antiga != null) desligar(antiga);
+        Definicao d = new Definicao(nome, expressao);
+        definicoes.put(nome, d);
+        if (expressao != null) {
+            for (String v : expressao.getVariaveis()) {
+                dependentes.computeIfAbsent(v, k -> new LinkedHashSet<>()).add(d);
+            }
+        }
+        invalidar(nome);
+        return d;
+    }
+
+    private void desligar(Definicao d) {
+        if (d.expressao == null) return;
+        for (String v : d.expressao.getVariaveis()) {
+            Set<Definicao> s = dependentes.get(v);
+            if (s == null) continue;
+            s.remove(d);
+            if (s.isEmpty()) dependentes.remove(v);
+        }
+    }
+
+    private static String validarNome(String nome) {
+        if (nome == null || nome.isEmpty() || !Character.isLetter(nome.charAt(0))) {
+            throw new IllegalArgumentException("Nome de variável inválido: " + nome);
+        }
+        for (int k = 1; k < nome.length(); k++) {
+            if (!Character.isLetterOrDigit(nome.charAt(k))) {
+                throw new IllegalArgumentException("Nome de variável inválido: " + nome);
+            }
+        }
+        if (nome.equals("i") || nome.equalsIgnoreCase("raiz") || nome.equalsIgnoreCase("conj")) {
+            throw new IllegalArgumentException("Nome reservado: " + nome);
+        }
+        return nome;
+    }
+
+    // Caminho de algum nome de 'inicio' até 'alvo' pelas definições, ou null
+    private List<String> caminho(Set<String> inicio, String alvo) {
+        Map<String, String> anterior = new HashMap<>();
+        Deque<String> fila = new ArrayDeque<>();
+        for (String v : inicio) {
+            if (anterior.putIfAbsent(v, "") == null) fila.add(v);
+        }
+        while (!fila.isEmpty()) {
+            String v = fila.poll();
+            if (v.equals(alvo)) {
+                List<String> caminho = new ArrayList<>();
+                for (String x = v; !x.isEmpty(); x = anterior.get(x)) caminho.add(0, x);
+                return caminho;
+            }
+            Definicao d = definicoes.get(v);
+            if (d == null || d.expressao == null) continue;
+            for (String u : d.expressao.getVariaveis()) {
+                if (anterior.putIfAbsent(u, v) == null) fila.add(u);
+            }
+        }
+        return null;
+    }
+
+    // Marca os nós que usam 'nome' e, se o valor de uma definição mudar, os que usam ela
+    private void invalidar(String nome) {
+        Set<Definicao> usam = dependentes.get(nome);
+        if (usam == null) return;
+        for (Definicao d : usam) {
+            d.plano().marcar(nome);
+            if (!d.sujo) {
+                d.sujo = true;
+                invalidar(d.nome);
+            }
+        }
+    }
+
+    // --- Leitura ---
+
+    public boolean contem(String nome) {
+        return definicoes.containsKey(nome);
+    }
+
+    public Set<String> getNomes() {
+        return Collections.unmodifiableSet(definicoes.keySet());
+    }
+
+    // Expressão da definição, ou null para entradas
+    public Expressao getExpressao(String nome) {
+        Definicao d = definicoes.get(nome);
+        return d != null ? d.expressao : null;
+    }
+
+    // Nomes usados diretamente pela definição
+    public Set<String> getDependencias(String nome) {
+        Definicao d = definicoes.get(nome);
+        return d == null || d.expressao == null ? Collections.emptySet() : d.expressao.getVariaveis();
+    }
+
+    // Definições que usam o nome diretamente
+    public Set<String> getDependentes(String nome) {
+        Set<String> nomes = new TreeSet<>();
+        for (Definicao d : dependentes.getOrDefault(nome, Collections.emptySet())) nomes.add(d.nome);
+        return nomes;
+    }
+
+    /*
+     * Nomes usados pela expressão, direta ou indiretamente, que ainda não
+     * foram definidos (em ordem alfabética).
+     */
+    public Set<String> faltando(Expressao expressao) {
+        Set<String> faltando = new TreeSet<>();
+        Set<String> vistos = new HashSet<>();
+        Deque<String> pilha = new ArrayDeque<>(expressao.getVariaveis());
+        while (!pilha.isEmpty()) {
+            String v = pilha.pop();
+            if (!vistos.add(v)) continue;
+            Definicao d = definicoes.get(v);
+            if (d == null) {
+                faltando.add(v);
+            } else if (d.expressao != null) {
+                pilha.addAll(d.expressao.getVariaveis());
+            }
+        }
+        return faltando;
+    }
+
+    /*
+     * Valor atual do nome, recalculando só o que mudou desde a última leitura.
+     * Nome ausente: mesmo erro de variável não definida da avaliação.
+     */
+    public NumeroComplexo obter(String nome) {
+        Definicao d = definicoes.get(nome);
+        if (d == null) {
+            throw new IllegalArgumentException("Erro: Variável '" + nome + "' não foi definida.");
+        }
+        if (d.sujo) {
+            d.valor = d.plano().recalcular();
+            d.sujo = false;
+        }
+        return d.valor;
+    }
+
+    // Avalia uma expressão avulsa com os valores atuais (sem guardar nada)
+    public NumeroComplexo avaliar(Expressao expressao) {
+        return expressao.avaliar(valores(expressao.getVariaveis()));
+    }
+
+    private Map<String, NumeroComplexo> valores(Set<String> nomes) {
+        Map<String, NumeroComplexo> valores = new HashMap<>();
+        for (String v : nomes) valores.put(v, obter(v));
+        return valores;
+    }
+
+    // Nós de árvore recalculados desde a criação da área (para acompanhar o reaproveitamento)
+    public long getNosRecalculados() {
+        return nosRecalculados;
+    }
+
+    // --- Definições e nós ---
+
+    private final class Definicao {
+        final String nome;
+        final Expressao expressao; // null para entradas
+        private Plano plano;
+        NumeroComplexo valor;
+        boolean sujo = true;
+
+        Definicao(String nome, Expressao expressao) {
+            this.nome = nome;
+            this.expressao = expressao;
+        }
+
+        // Criado na primeira leitura ou marcação
+        Plano plano() {
+            if (plano == null) plano = new Plano(expressao);
+            return plano;
+        }
+    }
+
+    private static final int CONSTANTE = 0;
+    private static final int VARIAVEL = 1;
+    private static final int OPERACAO = 2;
+    private static final int OPACO = 3; // outros tipos de Expressao: avaliados por eles mesmos
+
+    /*
+     * Nós distintos da árvore em pós-ordem (filhos antes do pai), com o
+     * valor guardado de cada um e, para cada nome, os nós que dependem dele.
+     * Um nó depende de um nome se o nome está em getVariaveis(), então os
+     * ancestrais de um nó marcado também são marcados.
+     */
+    private final class Plano {
+        final Expressao[] nos;
+        final int[] tipos;
+        final int[] esquerda;
+        final int[] direita;
+        final NumeroComplexo[] valores;
+        final boolean[] sujos;
+        final Map<String, int[]> porNome = new HashMap<>();
+
+        Plano(Expressao raiz) {
+            List<Expressao> ordem = new ArrayList<>();
+            Map<Expressao, Integer> indices = new IdentityHashMap<>();
+            numerar(raiz, ordem, indices);
+
+            int n = ordem.size();
+            nos = ordem.toArray(new Expressao[0]);
+            tipos = new int[n];
+            esquerda = new int[n];
+            direita = new int[n];
+            valores = new NumeroComplexo[n];
+            sujos = new boolean[n];
+            Arrays.fill(sujos, true);
+            Map<String, List<Integer>> listas = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                Expressao no = nos[i];
+                esquerda[i] = direita[i] = -1;
+                if (no instanceof NoConstante) {
+                    tipos[i] = CONSTANTE;
+                } else if (no instanceof NoVariavel) {
+                    tipos[i] = VARIAVEL;
+                } else if (no instanceof NoOperacao) {
+                    tipos[i] = OPERACAO;
+                    NoOperacao op = (NoOperacao) no;
+                    esquerda[i] = indices.get(op.getEsquerda());
+                    if (op.getDireita() != null) direita[i] = indices.get(op.getDireita());
+                } else {
+                    tipos[i] = OPACO;
+                }
+                for (String v : no.getVariaveis()) listas.computeIfAbsent(v, k -> new ArrayList<>()).add(i);
+            }
+            for (Map.Entry<String, List<Integer>> e : listas.entrySet()) {
+                porNome.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        // Pós-ordem iterativa, cada nó compartilhado uma única vez
+        private void numerar(Expressao raiz, List<Expressao> ordem, Map<Expressao, Integer> indices) {
+            Deque<Expressao> pilha = new ArrayDeque<>();
+            Deque<Boolean> expandido = new ArrayDeque<>();
+            pilha.push(raiz);
+            expandido.push(false);
+            while (!pilha.isEmpty()) {
+                Expressao no = pilha.pop();
+                boolean filhosProntos = expandido.pop();
+                if (indices.containsKey(no)) continue;
+                if (filhosProntos || !(no instanceof NoOperacao)) {
+                    indices.put(no, ordem.size());
+                    ordem.add(no);
+                    continue;
+                }
+                NoOperacao op = (NoOperacao) no;
+                pilha.push(no);
+                expandido.push(true);
+                if (op.getDireita() != null) {
+                    pilha.push(op.getDireita());
+                    expandido.push(false);
+                }
+                pilha.push(op.getEsquerda());
+                expandido.push(false);
+            }
+        }
+
+        void marcar(String nome) {
+            int[] indices = porNome.get(nome);
+            if (indices == null) return;
+            for (int i : indices) sujos[i] = true;
+        }
+
+        NumeroComplexo recalcular() {
+            for (int i = 0; i < nos.length; i++) {
+                if (!sujos[i]) continue;
+                valores[i] = calcular(i);
+                sujos[i] = false;
+                nosRecalculados++;
+            }
+            return valores[nos.length - 1];
+        }
+
+        private NumeroComplexo calcular(int i) {
+            switch (tipos[i]) {
+                case CONSTANTE:
+                    return ((NoConstante) nos[i]).getValor();
+                case VARIAVEL:
+                    return obter(((NoVariavel) nos[i]).getNome());
+                case OPACO:
+                    return nos[i].avaliar(valores(nos[i].getVariaveis()));
+                default:
+                    break;
+            }
+            NoOperacao op = (NoOperacao) nos[i];
+            NumeroComplexo a = valores[esquerda[i]];
+            NumeroComplexo b = direita[i] >= 0 ? valores[direita[i]] : null;
+            switch (op.getOperador()) {
+                case SOMA: return a.somar(b);
+                case SUBTRACAO: return a.subtrair(b);
+                case MULTIPLICACAO: return a.multiplicar(b);
+                case DIVISAO: return a.dividir(b);
+                case POTENCIA: return a.potencia((int) b.getReal());
+                case RAIZ: return a.raiz(op.getParametroAuxiliar());
+                case CONJUGADO: return a.getConjugado();
+                default: throw new UnsupportedOperationException("Operador desconhecido");
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.zetacompute.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.cache.CacheExpressoes;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+import com.zetacompute.models.RelatorioParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArmazemExpressoesTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    @DisplayName("Deve gravar uma biblioteca de fórmulas e lê-las sem passar pelo parser")
+    void testBiblioteca() throws IOException {
+        List<String> fontes = new ArrayList<>();
+        for (int k = 0; k < 2000; k++) fontes.add(RelatorioParser.gerarExpressao(1 + k % 7, k));
+        fontes.add("z  *  w + 1"); // normalizada como "z * w + 1"
+        fontes.add("z * w + 1");
+        Path arquivo = pasta.resolve("formulas.zexp");
+        ArmazemExpressoes.gravar(arquivo, fontes);
+
+        try (ArmazemExpressoes armazem = ArmazemExpressoes.abrir(arquivo)) {
+            Set<String> distintas = new HashSet<>();
+            for (String f : fontes) distintas.add(CacheExpressoes.normalizar(f));
+            assertEquals(distintas.size(), armazem.tamanho());
+            for (int k = 0; k < fontes.size(); k += 37) {
+                Expressao esperada = new ParserIterativo(fontes.get(k)).parse();
+                Expressao lida = armazem.obter(fontes.get(k));
+                assertEquals(esperada, lida);
+                Map<String, NumeroComplexo> valores = new HashMap<>();
+                for (String v : esperada.getVariaveis()) valores.put(v, new NumeroComplexo(v.length() + 0.5, -1.25));
+                NumeroComplexo a = esperada.avaliar(valores);
+                NumeroComplexo b = lida.avaliar(valores);
+                assertEquals(Double.doubleToLongBits(a.getReal()), Double.doubleToLongBits(b.getReal()));
+                assertEquals(Double.doubleToLongBits(a.getImaginario()), Double.doubleToLongBits(b.getImaginario()));
+                assertSame(lida, armazem.obter(" " + fontes.get(k) + "  "));
+            }
+            assertEquals(armazem.obter("z * w + 1"), armazem.obter("z   *   w + 1"));
+            assertNull(armazem.obter("z * w + 2"));
+            assertEquals(new ParserIterativo("z * w + 2").parse(), armazem.obterOuAnalisar("z * w + 2"));
+            assertEquals(armazem.tamanho(), armazem.getFontes().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recusar arquivos que não são armazéns")
+    void testArquivoInvalido() throws IOException {
+        Path arquivo = pasta.resolve("outro.bin");
+        Files.write(arquivo, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+        assertThrows(IllegalArgumentException.class, () -> ArmazemExpressoes.abrir(arquivo));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArmazemExpressoes.gravar(pasta.resolve("erro.zexp"), List.of("z +")));
+    }
+}
@@ -0,0 +1,96 @@
+package com.zetacompute.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+import com.zetacompute.models.RelatorioParser;
+import com.zetacompute.otimizacao.ReconhecedorPolinomios;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FormatoBinarioTest {
+
+    private static void assertMesmosBits(NumeroComplexo esperado, NumeroComplexo obtido) {
+        assertEquals(Double.doubleToLongBits(esperado.getReal()), Double.doubleToLongBits(obtido.getReal()));
+        assertEquals(Double.doubleToLongBits(esperado.getImaginario()), Double.doubleToLongBits(obtido.getImaginario()));
+    }
+
+    private static Map<String, NumeroComplexo> valores(Expressao e) {
+        Map<String, NumeroComplexo> valores = new HashMap<>();
+        int k = 1;
+        for (String v : e.getVariaveis()) valores.put(v, new NumeroComplexo(0.37 * k, 1.1 - 0.23 * k++));
+        return valores;
+    }
+
+    @Test
+    @DisplayName("Deve ler de volta árvores que avaliam bit a bit como as originais")
+    void testIdaEVolta() {
+        for (int k = 0; k < 200; k++) {
+            String fonte = RelatorioParser.gerarExpressao(1 + k % 20, k);
+            Expressao original = new ParserIterativo(fonte).parse();
+            byte[] bytes = FormatoBinario.serializar(original);
+            Expressao lida = FormatoBinario.ler(bytes);
+            assertEquals(original, lida, fonte);
+            assertEquals(original.getVariaveis(), lida.getVariaveis());
+            Map<String, NumeroComplexo> v = valores(original);
+            assertMesmosBits(original.avaliar(v), lida.avaliar(v));
+        }
+
+        // Constantes com todos os bits (toLisp arredonda para 2 casas) e -0.0
+        Expressao e = new ParserIterativo("z * 0.1234567890123 + 3.5i ^ 3 - raiz(conj(z),5)").parse();
+        Expressao lida = FormatoBinario.ler(FormatoBinario.serializar(e));
+        assertEquals(e.toLisp(), lida.toLisp());
+        assertMesmosBits(e.avaliar(valores(e)), lida.avaliar(valores(e)));
+        NumeroComplexo negativo = ((NoConstante) FormatoBinario.ler(FormatoBinario.serializar(
+                new NoConstante(new NumeroComplexo(-0.0, -0.0))))).getValor();
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(negativo.getImaginario()));
+    }
+
+    @Test
+    @DisplayName("Deve gravar nós repetidos uma vez, polinômios e árvores profundas")
+    void testCompartilhamentoEPolinomios() {
+        // Seis ocorrências de (z * w + 1) viram um nó só
+        String termo = "(z * w + 1)";
+        Expressao repetida = new ParserIterativo(String.join(" * ", Arrays.asList(termo, termo, termo, termo, termo, termo))).parse();
+        Expressao dag = FormatoBinario.ler(FormatoBinario.serializar(
+                new FabricaNos().internar(repetida)));
+        assertEquals(repetida, dag);
+        assertTrue(FormatoBinario.serializar(new FabricaNos().internar(repetida)).length
+                < FormatoBinario.serializar(new ParserIterativo(termo).parse()).length + 20);
+
+        Expressao polinomio = ReconhecedorPolinomios.reconhecer(new ParserIterativo("z^5 - 3*z^2 + (2 + i)*z - 7").parse());
+        assertTrue(polinomio instanceof NoPolinomio);
+        Expressao lido = FormatoBinario.ler(FormatoBinario.serializar(polinomio));
+        assertTrue(lido instanceof NoPolinomio);
+        assertMesmosBits(polinomio.avaliar(valores(polinomio)), lido.avaliar(valores(polinomio)));
+
+        int n = 100_000;
+        Expressao profunda = new ParserIterativo("(".repeat(n) + "z" + " + 1)".repeat(n)).parse();
+        assertEquals(n + 1, FormatoBinario.ler(FormatoBinario.serializar(profunda)).getProfundidade());
+    }
+
+    @Test
+    @DisplayName("Deve recusar dados truncados ou corrompidos")
+    void testDadosInvalidos() {
+        byte[] bytes = FormatoBinario.serializar(new ParserIterativo("z * w - raiz(z,3)").parse());
+        for (int n = 0; n < bytes.length; n++) {
+            byte[] truncado = Arrays.copyOf(bytes, n);
+            assertThrows(IllegalArgumentException.class, () -> FormatoBinario.ler(truncado));
+        }
+        byte[] opcode = bytes.clone();
+        opcode[bytes.length - 3] = 42; // opcode da raiz (o último nó) trocado
+        assertThrows(IllegalArgumentException.class, () -> FormatoBinario.ler(opcode));
+    }
+}
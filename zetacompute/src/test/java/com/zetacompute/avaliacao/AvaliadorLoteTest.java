@@ -0,0 +1,135 @@
+package com.zetacompute.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.compilador.ProgramaPosfixo;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AvaliadorLoteTest {
+
+    private static final String[] EXPRESSOES = {
+            "(2+3i)*z + raiz(z,2)",
+            "z * w - conj(z) / (w + 1)",
+            "z ^ 3 + 2 * z ^ 2 - z + 7",
+            "-(z - 4i) * w / (z * z + 10)",
+            "3 - 2i"
+    };
+
+    // Quantidade que não é múltipla do bloco nem do tamanho do vetor
+    private static final int N = 3 * AvaliadorLote.TAMANHO_BLOCO + 37;
+
+    private static Expressao parse(String s) {
+        return new parser(s).parse();
+    }
+
+    private static double[][] aleatorios(Random rnd, int variaveis) {
+        double[][] v = new double[variaveis][N];
+        for (double[] linha : v) {
+            for (int k = 0; k < N; k++) linha[k] = rnd.nextDouble() * 20 - 10;
+        }
+        return v;
+    }
+
+    private static void assertIgualAoPontoAPonto(String s, KernelsComplexos kernels) {
+        assertIgualAoPontoAPonto(s, kernels, UnaryOperator.identity());
+    }
+
+    private static void assertIgualAoPontoAPonto(String s, KernelsComplexos kernels, UnaryOperator<Expressao> envolver) {
+        Expressao arvore = parse(s);
+        Bindings layout = new Bindings("w", "z");
+        Random rnd = new Random(42);
+        double[][] re = aleatorios(rnd, 2);
+        double[][] im = aleatorios(rnd, 2);
+        double[] saidaRe = new double[N];
+        double[] saidaIm = new double[N];
+
+        AvaliadorLote.para(envolver.apply(arvore), layout, kernels).avaliar(re, im, saidaRe, saidaIm, N);
+
+        Map<String, NumeroComplexo> mapa = new HashMap<>();
+        for (int k = 0; k < N; k++) {
+            mapa.put("w", new NumeroComplexo(re[0][k], im[0][k]));
+            mapa.put("z", new NumeroComplexo(re[1][k], im[1][k]));
+            NumeroComplexo esperado = arvore.avaliar(mapa);
+            assertEquals(esperado.getReal(), saidaRe[k], 0.0, s + " (ponto " + k + ")");
+            assertEquals(esperado.getImaginario(), saidaIm[k], 0.0, s + " (ponto " + k + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("Kernels escalares devem reproduzir a avaliação ponto a ponto")
+    void testEscalar() {
+        for (String s : EXPRESSOES) assertIgualAoPontoAPonto(s, KernelsComplexos.escalares());
+    }
+
+    @Test
+    @DisplayName("Kernels vetoriais devem reproduzir a avaliação ponto a ponto")
+    void testVetorial() {
+        assertNotNull(KernelsComplexos.vetoriais(), "Testes rodam com --add-modules jdk.incubator.vector");
+        for (String s : EXPRESSOES) assertIgualAoPontoAPonto(s, KernelsComplexos.vetoriais());
+    }
+
+    @Test
+    @DisplayName("Deve lançar ArithmeticException quando algum ponto divide por zero")
+    void testDivisaoPorZero() {
+        AvaliadorLote lote = AvaliadorLote.para(parse("1 / z"), new Bindings("z"));
+        double[][] re = { { 1, 2, 0, 4 } };
+        double[][] im = { { 0, 0, 0, 0 } };
+        assertThrows(ArithmeticException.class, () -> lote.avaliar(re, im, new double[4], new double[4], 4));
+    }
+
+    @Test
+    @DisplayName("Variável fora do layout deve falhar na preparação")
+    void testVariavelForaDoLayout() {
+        assertThrows(IllegalArgumentException.class, () -> AvaliadorLote.para(parse("z + y"), new Bindings("z")));
+    }
+
+    @Test
+    @DisplayName("Deve avaliar em lote a árvore por trás de qualquer envoltório")
+    void testEnvoltorios() {
+        List<UnaryOperator<Expressao>> envoltorios = List.of(
+                ExpressaoCompartilhada::de,
+                ProgramaPosfixo::linearizar,
+                CompiledExpressao::compilar);
+        for (UnaryOperator<Expressao> envolver : envoltorios) {
+            for (String s : EXPRESSOES) assertIgualAoPontoAPonto(s, KernelsComplexos.escalares(), envolver);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve avaliar em lote árvores muito profundas sem estourar a pilha")
+    void testArvoreProfunda() {
+        Expressao e = new NoVariavel("z");
+        for (int k = 0; k < 200_000; k++) {
+            e = new NoOperacao(e, new NoConstante(new NumeroComplexo(1, 0)), NoOperacao.Operador.SOMA);
+        }
+        AvaliadorLote lote = AvaliadorLote.para(e, new Bindings("z"));
+        double[][] re = { { 0, 1, -2 } };
+        double[][] im = { { 0, 3, 4 } };
+        double[] saidaRe = new double[3];
+        double[] saidaIm = new double[3];
+        lote.avaliar(re, im, saidaRe, saidaIm, 3);
+        for (int k = 0; k < 3; k++) {
+            assertEquals(re[0][k] + 200_000, saidaRe[k], 0.0);
+            assertEquals(im[0][k], saidaIm[k], 0.0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.zetacompute.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.parser;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AvaliadorParaleloTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Resultado paralelo deve ser idêntico ao sequencial")
+    void testIgualAoSequencial() {
+        Expressao expressao = new parser("(2+3i)*z*z - z/(z+5) + raiz(z,3) ^ 2").parse();
+        AvaliadorLote lote = AvaliadorLote.para(expressao, new Bindings("z"));
+        int n = 37 * AvaliadorLote.TAMANHO_BLOCO + 11;
+
+        Random rnd = new Random(7);
+        double[][] re = new double[1][n];
+        double[][] im = new double[1][n];
+        for (int k = 0; k < n; k++) {
+            re[0][k] = rnd.nextGaussian();
+            im[0][k] = rnd.nextGaussian();
+        }
+
+        double[] seqRe = new double[n], seqIm = new double[n];
+        lote.avaliar(re, im, seqRe, seqIm, n);
+
+        // Limiar pequeno para forçar muitas divisões
+        double[] parRe = new double[n], parIm = new double[n];
+        new AvaliadorParalelo(lote, pool, 1).avaliar(re, im, parRe, parIm, n);
+
+        assertArrayEquals(seqRe, parRe, 0.0);
+        assertArrayEquals(seqIm, parIm, 0.0);
+
+        // Limiar enorme: arredondar para o bloco não pode estourar o int
+        double[] unicoRe = new double[n], unicoIm = new double[n];
+        new AvaliadorParalelo(lote, pool, Integer.MAX_VALUE).avaliar(re, im, unicoRe, unicoIm, n);
+        assertArrayEquals(seqRe, unicoRe, 0.0);
+        assertArrayEquals(seqIm, unicoIm, 0.0);
+    }
+
+    @Test
+    @DisplayName("Divisão por zero em uma tarefa deve ser relançada")
+    void testExcecaoNaTarefa() {
+        AvaliadorLote lote = AvaliadorLote.para(new parser("1 / z").parse(), new Bindings("z"));
+        int n = 10 * AvaliadorLote.TAMANHO_BLOCO;
+        double[][] re = new double[1][n];
+        double[][] im = new double[1][n];
+        java.util.Arrays.fill(re[0], 1);
+        re[0][n - 3] = 0; // único ponto com divisor zero
+
+        AvaliadorParalelo paralelo = new AvaliadorParalelo(lote, pool, 1);
+        assertThrows(ArithmeticException.class, () -> paralelo.avaliar(re, im, new double[n], new double[n], n));
+    }
+}
@@ -0,0 +1,145 @@
+package com.zetacompute.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.RelatorioParser;
+import com.zetacompute.models.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DerivacaoAutomaticaTest {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    private static void assertProximo(NumeroComplexo esperado, NumeroComplexo obtido, double tolerancia) {
+        double escala = Math.max(1, Math.hypot(esperado.getReal(), esperado.getImaginario()));
+        assertEquals(esperado.getReal(), obtido.getReal(), tolerancia * escala, "real de " + obtido);
+        assertEquals(esperado.getImaginario(), obtido.getImaginario(), tolerancia * escala, "imaginário de " + obtido);
+    }
+
+    @Test
+    @DisplayName("Deve calcular derivadas holomorfas conhecidas")
+    void testHolomorfas() {
+        NumeroComplexo z = new NumeroComplexo(1.5, -0.5);
+        Map<String, NumeroComplexo> v = Map.of("z", z, "w", new NumeroComplexo(2, 1));
+
+        DerivacaoAutomatica.Resultado r = DerivacaoAutomatica.avaliar(new parser("z ^ 3 + 2 * z * w").parse(), v, "z", "w");
+        // 3z² + 2w e 2z
+        assertProximo(z.potencia(2).multiplicar(new NumeroComplexo(3, 0)).somar(new NumeroComplexo(4, 2)), r.getDerivada("z"), TOLERANCIA);
+        assertProximo(z.multiplicar(new NumeroComplexo(2, 0)), r.getDerivada("w"), TOLERANCIA);
+        assertTrue(r.isHolomorfa("z"));
+        assertTrue(r.isHolomorfa("w"));
+
+        // d/dz raiz(z, 2) = 1 / (2 raiz(z, 2))
+        r = DerivacaoAutomatica.avaliar(new parser("raiz(z,2)").parse(), v, "z");
+        assertProximo(new NumeroComplexo(1, 0).dividir(z.raiz(2).multiplicar(new NumeroComplexo(2, 0))), r.getDerivada("z"), TOLERANCIA);
+
+        // d/dz 1/z = -1/z²
+        r = DerivacaoAutomatica.avaliar(new parser("1 / z").parse(), v, "z");
+        assertProximo(new NumeroComplexo(-1, 0).dividir(z.multiplicar(z)), r.getDerivada("z"), TOLERANCIA);
+    }
+
+    @Test
+    @DisplayName("Conjugado deve gerar derivadas de Wirtinger não holomorfas")
+    void testConjugado() {
+        NumeroComplexo z = new NumeroComplexo(0.75, 2);
+        // |z|² = z z̄: d/dz = z̄ e d/dz̄ = z
+        DerivacaoAutomatica.Resultado r = DerivacaoAutomatica.avaliar(new parser("z * conj(z)").parse(), Map.of("z", z), "z");
+        assertProximo(z.getConjugado(), r.getDerivada("z"), TOLERANCIA);
+        assertProximo(z, r.getDerivadaConjugada("z"), TOLERANCIA);
+        assertFalse(r.isHolomorfa("z"));
+    }
+
+    @Test
+    @DisplayName("Deve coincidir com diferenças finitas em expressões aleatórias")
+    void testDiferencasFinitas() {
+        Map<String, NumeroComplexo> v = new HashMap<>();
+        v.put("z", new NumeroComplexo(0.8, 0.3));
+        v.put("w", new NumeroComplexo(-0.4, 0.9));
+        for (int k = 0; k < 16; k++) v.put("x" + k, new NumeroComplexo(0.1 * k + 0.2, -0.05 * k));
+        for (int k = 0; k < 8; k++) v.put("y" + k, new NumeroComplexo(60 + k, 0.5 * k));
+
+        double h = 1e-6;
+        for (int semente = 0; semente < 50; semente++) {
+            Expressao e = new parser(RelatorioParser.gerarExpressao(4, semente) + " + conj(z) * w ^ 3").parse();
+            DerivacaoAutomatica.Resultado r = DerivacaoAutomatica.avaliar(e, v, "z", "w");
+            assertEquals(e.avaliar(v), r.getValor());
+
+            for (String nome : new String[] { "z", "w" }) {
+                NumeroComplexo dz = r.getDerivada(nome);
+                NumeroComplexo dzConj = r.getDerivadaConjugada(nome);
+                NumeroComplexo original = v.get(nome);
+                // f(z + d) - f(z - d) ≈ 2 (df/dz d + df/dz̄ conj(d)), para d real e imaginário
+                // (multiplica por 1/h: dividir recusa divisores com módulo² < 1e-9)
+                for (NumeroComplexo d : new NumeroComplexo[] { new NumeroComplexo(h, 0), new NumeroComplexo(0, h) }) {
+                    v.put(nome, original.somar(d));
+                    NumeroComplexo mais = e.avaliar(v);
+                    v.put(nome, original.subtrair(d));
+                    NumeroComplexo menos = e.avaliar(v);
+                    v.put(nome, original);
+                    NumeroComplexo numerica = mais.subtrair(menos).multiplicar(new NumeroComplexo(1 / (2 * h), 0));
+                    NumeroComplexo automatica = dz.multiplicar(d).somar(dzConj.multiplicar(d.getConjugado()))
+                            .multiplicar(new NumeroComplexo(1 / h, 0));
+                    assertProximo(numerica, automatica, 1e-5);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve derivar DAGs compartilhados e manter os erros da avaliação")
+    void testCompartilhadaEErros() {
+        FabricaNos fabrica = new FabricaNos();
+        Expressao arvore = new parser("(z * z + 1) * (z * z + 1) - z ^ 2", fabrica).parse();
+        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(0.5, -1));
+        DerivacaoAutomatica.Resultado r = DerivacaoAutomatica.avaliar(ExpressaoCompartilhada.de(arvore), v, "z");
+        // d/dz (z²+1)² - z² = 4z(z²+1) - 2z
+        NumeroComplexo z = v.get("z");
+        NumeroComplexo esperado = z.multiplicar(new NumeroComplexo(4, 0)).multiplicar(z.multiplicar(z).somar(new NumeroComplexo(1, 0)))
+                .subtrair(z.multiplicar(new NumeroComplexo(2, 0)));
+        assertProximo(esperado, r.getDerivada("z"), TOLERANCIA);
+
+        assertThrows(ArithmeticException.class,
+                () -> DerivacaoAutomatica.avaliar(new parser("1 / (z - z)").parse(), v, "z"));
+        assertThrows(IllegalArgumentException.class,
+                () -> DerivacaoAutomatica.avaliar(new parser("z + w").parse(), v, "z"));
+        assertThrows(IllegalArgumentException.class, () -> r.getDerivada("w"));
+
+        // raiz(z, 2) vale 0 em z = 0, mas não tem derivada
+        Map<String, NumeroComplexo> zero = Map.of("z", new NumeroComplexo(0, 0));
+        assertEquals(new NumeroComplexo(0, 0), new parser("raiz(z,2)").parse().avaliar(zero));
+        ArithmeticException raiz = assertThrows(ArithmeticException.class,
+                () -> DerivacaoAutomatica.avaliar(new parser("raiz(z,2)").parse(), zero, "z"));
+        assertEquals("A derivada da raiz não existe quando o radicando é zero.", raiz.getMessage());
+
+        // O primeiro erro da esquerda para a direita, como na avaliação
+        assertThrows(IllegalArgumentException.class,
+                () -> DerivacaoAutomatica.avaliar(new parser("w + 1 / (z - z)").parse(), v, "z"));
+    }
+
+    @Test
+    @DisplayName("Deve derivar árvores profundas sem estourar a pilha")
+    void testArvoreProfunda() {
+        Expressao x = new NoVariavel("z");
+        for (int k = 0; k < 200_000; k++) {
+            x = new NoOperacao(x, new NoConstante(new NumeroComplexo(1, 0)), NoOperacao.Operador.SOMA);
+        }
+        DerivacaoAutomatica.Resultado r = DerivacaoAutomatica.avaliar(x, Map.of("z", new NumeroComplexo(0.5, 0)), "z");
+        assertEquals(new NumeroComplexo(200_000.5, 0), r.getValor());
+        assertEquals(new NumeroComplexo(1, 0), r.getDerivada("z"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.zetacompute.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IteracaoEscapeTest {
+
+    // Laço de referência com avaliar e HashMap
+    private static int referencia(Expressao f, NumeroComplexo z, NumeroComplexo c, int maximo, double raio) {
+        Map<String, NumeroComplexo> valores = new HashMap<>();
+        int n;
+        for (n = 0; n < maximo; n++) {
+            double m = z.getReal() * z.getReal() + z.getImaginario() * z.getImaginario();
+            if (!(m <= raio * raio)) break;
+            valores.put("z", z);
+            valores.put("c", c);
+            try {
+                z = f.avaliar(valores);
+            } catch (ArithmeticException e) {
+                z = new NumeroComplexo(Double.NaN, Double.NaN);
+            }
+        }
+        return n;
+    }
+
+    private static void assertMesmasContagens(String fonte, double[] z0Re, double[] z0Im, double[] cRe, double[] cIm) {
+        Expressao f = new ParserIterativo(fonte).parse();
+        IteracaoEscape iteracao = new IteracaoEscape(f, "z", "c", 200, 2);
+        int n = cRe.length;
+        int[] obtidas = new int[n];
+        iteracao.calcular(cRe, cIm, z0Re, z0Im, obtidas, n);
+        int[] esperadas = new int[n];
+        for (int k = 0; k < n; k++) {
+            NumeroComplexo z0 = z0Re != null ? new NumeroComplexo(z0Re[k], z0Im[k]) : new NumeroComplexo(0, 0);
+            esperadas[k] = referencia(f, z0, new NumeroComplexo(cRe[k], cIm[k]), 200, 2);
+        }
+        assertArrayEquals(esperadas, obtidas, fonte);
+    }
+
+    @Test
+    @DisplayName("Deve reproduzir o laço com avaliar no conjunto de Mandelbrot e num conjunto de Julia")
+    void testMandelbrotEJulia() {
+        int largura = 90;
+        int altura = 50; // 4500 pontos: vários blocos, o último incompleto
+        double[] re = new double[largura * altura];
+        double[] im = new double[largura * altura];
+        for (int y = 0; y < altura; y++) {
+            for (int x = 0; x < largura; x++) {
+                re[y * largura + x] = -2.2 + 3.0 * x / (largura - 1);
+                im[y * largura + x] = -1.2 + 2.4 * y / (altura - 1);
+            }
+        }
+        assertMesmasContagens("z^2 + c", null, null, re, im);
+
+        double[] cRe = new double[re.length];
+        double[] cIm = new double[re.length];
+        Arrays.fill(cRe, -0.8);
+        Arrays.fill(cIm, 0.156);
+        assertMesmasContagens("z*z + c", re, im, cRe, cIm);
+
+        IteracaoEscape mandelbrot = new IteracaoEscape(new ParserIterativo("z^2 + c").parse(), "z", "c", 50, 2);
+        assertEquals(50, mandelbrot.calcular(new NumeroComplexo(-1, 0)));
+        assertEquals(1, mandelbrot.calcular(new NumeroComplexo(3, 0)));
+    }
+
+    @Test
+    @DisplayName("Deve tratar divisão por zero como escape no passo seguinte")
+    void testDivisaoPorZero() {
+        double[] cRe = { 0, 1, -1, 0.5, 0 };
+        double[] cIm = { 0, 0, 0, 0.5, 1 };
+        assertMesmasContagens("1 / z + c", new double[] { 1, 1, 1, 1, 1 }, new double[5], cRe, cIm);
+
+        IteracaoEscape iteracao = new IteracaoEscape(new ParserIterativo("1 / z + c").parse(), "z", "c", 10, 2);
+        // z0 = 0: z1 = 1/0 -> NaN, detectado no passo 1
+        assertEquals(1, iteracao.calcular(new NumeroComplexo(-1, 0)));
+        // z0 = 1, c = -1: z1 = 0, z2 = NaN, detectado no passo 2
+        int[] contagem = new int[1];
+        iteracao.calcular(new double[] { -1 }, new double[] { 0 }, new double[] { 1 }, new double[] { 0 }, contagem, 1);
+        assertEquals(2, contagem[0]);
+
+        Expressao f = new ParserIterativo("z^2 + w").parse();
+        assertThrows(IllegalArgumentException.class, () -> new IteracaoEscape(f, "z", "c", 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> new IteracaoEscape(f, "z", "w", 10, 0));
+    }
+}
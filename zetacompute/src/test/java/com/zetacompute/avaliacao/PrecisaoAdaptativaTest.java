@@ -0,0 +1,100 @@
+package com.zetacompute.avaliacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PrecisaoAdaptativaTest {
+
+    @Test
+    @DisplayName("Deve manter o valor em double quando o limite de erro cabe na tolerância")
+    void testSemRefinamento() {
+        Expressao expressao = new parser("(2+3i)*z*z - z/(z+5) + raiz(z,3) ^ 2").parse();
+        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(1.5, -0.5));
+        NumeroComplexo arvore = expressao.avaliar(v);
+
+        PrecisaoAdaptativa.Resultado r = PrecisaoAdaptativa.avaliar(expressao, v, 1e-12);
+        assertFalse(r.isRefinado());
+        assertEquals(arvore.getReal(), r.getValor().getReal());
+        assertEquals(arvore.getImaginario(), r.getValor().getImaginario());
+        assertTrue(r.getLimiteErro() > 0 && r.getLimiteErro() < 1e-12 * Math.hypot(arvore.getReal(), arvore.getImaginario()),
+                "limite " + r.getLimiteErro());
+
+        // Cancelamento exato não tem erro
+        r = PrecisaoAdaptativa.avaliar(new parser("z - z").parse(), v, 0);
+        assertFalse(r.isRefinado());
+        assertEquals(0, r.getLimiteErro());
+    }
+
+    @Test
+    @DisplayName("Deve refinar só as subárvores afetadas por cancelamento")
+    void testCancelamento() {
+        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(1e-20, 0));
+
+        Expressao expressao = new parser("(z + 1) - 1").parse();
+        assertEquals(0, expressao.avaliar(v).getReal());
+        PrecisaoAdaptativa.Resultado r = PrecisaoAdaptativa.avaliar(expressao, v, 1e-9);
+        assertTrue(r.isRefinado());
+        assertEquals(2, r.getNosRefinados()); // a subtração e a soma; z e as constantes entram exatas
+        assertEquals(1e-20, r.getValor().getReal(), 1e-35);
+        assertEquals(0, r.getValor().getImaginario());
+
+        // raiz(1 + z, 2) - 1 = z / 2 - z² / 8 + ...
+        r = PrecisaoAdaptativa.avaliar(new parser("raiz(z + 1,2) - 1").parse(), v, 1e-9);
+        assertEquals(3, r.getNosRefinados());
+        assertEquals(5e-21, r.getValor().getReal(), 1e-35);
+
+        // (1 + z)^3 - 1 - 3z = 3z² + z³, fora do alcance do double sem refinamento
+        Map<String, NumeroComplexo> w = Map.of("z", new NumeroComplexo(1e-6, 0));
+        r = PrecisaoAdaptativa.avaliar(new parser("(z + 1) ^ 3 - 1 - 3 * z").parse(), w, 1e-12);
+        assertTrue(r.isRefinado());
+        assertEquals(3e-12 + 1e-18, r.getValor().getReal(), 1e-27);
+    }
+
+    @Test
+    @DisplayName("Deve refinar árvores profundas e limitar expoentes enormes")
+    void testProfundaEExpoenteGrande() {
+        int n = 200_000;
+        Expressao x = new NoVariavel("z");
+        for (int k = 0; k < n; k++) {
+            x = new NoOperacao(x, new NoConstante(new NumeroComplexo(1, 0)), NoOperacao.Operador.SOMA);
+        }
+        x = new NoOperacao(x, new NoConstante(new NumeroComplexo(n, 0)), NoOperacao.Operador.SUBTRACAO);
+        PrecisaoAdaptativa.Resultado r = PrecisaoAdaptativa.avaliar(x, Map.of("z", new NumeroComplexo(1e-20, 0)), 1e-9);
+        assertEquals(n + 1, r.getNosRefinados());
+        assertEquals(1e-20, r.getValor().getReal(), 1e-35);
+
+        // Limite positivo (ou infinito), nunca negativo, mesmo com o expoente perto de Integer.MAX_VALUE
+        r = PrecisaoAdaptativa.avaliar(new parser("z ^ 2147483647").parse(), Map.of("z", new NumeroComplexo(1, 1e-300)), 1e-9);
+        assertTrue(r.getLimiteErro() >= 0, "limite " + r.getLimiteErro());
+    }
+
+    @Test
+    @DisplayName("Deve lançar os mesmos erros da avaliação em double")
+    void testErros() {
+        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(2, 1));
+        ArithmeticException divisao = assertThrows(ArithmeticException.class,
+                () -> PrecisaoAdaptativa.avaliar(new parser("1 / (z - z)").parse(), v, 1e-9));
+        assertEquals("Divisão por zero não é permitida para números complexos.", divisao.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PrecisaoAdaptativa.avaliar(new parser("z + w").parse(), v, 1e-9));
+        assertThrows(IllegalArgumentException.class,
+                () -> PrecisaoAdaptativa.avaliar(new parser("z").parse(), v, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> PrecisaoAdaptativa.avaliar(new parser("z").parse(), v, 1e-9, 16));
+    }
+}
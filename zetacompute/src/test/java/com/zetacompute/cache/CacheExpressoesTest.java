@@ -0,0 +1,51 @@
+package com.zetacompute.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CacheExpressoesTest {
+
+    @Test
+    @DisplayName("Textos que diferem só em espaços devem compartilhar a entrada")
+    void testNormalizacao() {
+        CacheExpressoes cache = new CacheExpressoes(16);
+        Expressao e = cache.obter("z *  w + 1");
+        assertSame(e, cache.obter("  z * w  +  1 "));
+        assertEquals(1, cache.getCache().getFalhas());
+        assertEquals("z * w + 1", CacheExpressoes.normalizar("  z  * w +  1  "));
+        assertEquals(new parser("z * w + 1").parse(), e);
+    }
+
+    @Test
+    @DisplayName("Deve simplificar e compilar quando configurado")
+    void testOtimizacao() {
+        CacheExpressoes cache = new CacheExpressoes(16, true, true);
+        Expressao e = cache.obter("z * 1 + (2 + 3)");
+        assertTrue(e instanceof CompiledExpressao);
+        assertEquals(3, e.getTamanho());
+        Map<String, NumeroComplexo> variaveis = Map.of("z", new NumeroComplexo(1, 2));
+        assertEquals(new NumeroComplexo(6, 2), e.avaliar(variaveis));
+    }
+
+    @Test
+    @DisplayName("Não deve guardar expressões inválidas e deve limitar pelo número de nós")
+    void testErrosEPeso() {
+        CacheExpressoes cache = CacheExpressoes.porNos(20, false, false);
+        assertThrows(IllegalArgumentException.class, () -> cache.obter("z +"));
+        assertEquals(0, cache.getCache().tamanho());
+        for (int k = 0; k < 10; k++) cache.obter("z * " + k + " + w");
+        assertTrue(cache.getCache().getPeso() <= 20);
+    }
+}
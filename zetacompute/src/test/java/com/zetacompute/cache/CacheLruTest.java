@@ -0,0 +1,111 @@
+package com.zetacompute.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CacheLruTest {
+
+    @Test
+    @DisplayName("Deve contar acertos e falhas e carregar só uma vez")
+    void testAcertosEFalhas() {
+        CacheLru<String, Integer> cache = new CacheLru<>(10);
+        AtomicInteger cargas = new AtomicInteger();
+        for (int k = 0; k < 5; k++) {
+            assertEquals(3, cache.obter("abc", s -> {
+                cargas.incrementAndGet();
+                return s.length();
+            }));
+        }
+        assertEquals(1, cargas.get());
+        assertEquals(4, cache.getAcertos());
+        assertEquals(1, cache.getFalhas());
+        assertNull(cache.obter("outra"));
+    }
+
+    @Test
+    @DisplayName("Deve remover as entradas acessadas há mais tempo")
+    void testRemocaoLru() throws InterruptedException {
+        CacheLru<Integer, String> cache = new CacheLru<>(10);
+        for (int k = 0; k < 10; k++) cache.colocar(k, "v" + k);
+        Thread.sleep(1);
+        for (int k = 5; k < 10; k++) cache.obter(k); // 5..9 ficam mais recentes
+        cache.colocar(10, "v10");
+
+        assertTrue(cache.tamanho() <= 10);
+        assertTrue(cache.getRemocoes() > 0);
+        assertNull(cache.obter(0));
+        for (int k = 5; k <= 10; k++) assertEquals("v" + k, cache.obter(k));
+    }
+
+    @Test
+    @DisplayName("Deve respeitar a capacidade por peso")
+    void testPeso() {
+        CacheLru<Integer, String> cache = new CacheLru<>(100, String::length);
+        for (int k = 0; k < 50; k++) cache.colocar(k, "x".repeat(10));
+        assertTrue(cache.getPeso() <= 100);
+        cache.colocar(1000, "y".repeat(10));
+        assertEquals("y".repeat(10), cache.obter(1000));
+        assertThrows(IllegalArgumentException.class, () -> new CacheLru<>(0));
+    }
+
+    @Test
+    @DisplayName("Deve listar chaves e valores sem mexer nas estatísticas")
+    void testListagem() {
+        CacheLru<String, Integer> cache = new CacheLru<>(10);
+        cache.colocar("a", 1);
+        cache.colocar("b", 2);
+        assertEquals(List.of("a", "b"), cache.chaves().stream().sorted().toList());
+        assertEquals(List.of(1, 2), cache.valores().stream().sorted().toList());
+        assertEquals(0, cache.getAcertos() + cache.getFalhas());
+    }
+
+    @Test
+    @DisplayName("Consulta não deve contar nas estatísticas nem renovar a entrada")
+    void testConsulta() {
+        CacheLru<Integer, Integer> cache = new CacheLru<>(10);
+        for (int k = 0; k < 10; k++) cache.colocar(k, k);
+        assertEquals(0, cache.consultar(0));
+        assertNull(cache.consultar(42));
+        assertEquals(0, cache.getAcertos() + cache.getFalhas());
+
+        cache.colocar(10, 10); // remove as mais antigas: a 0 continua sendo uma delas
+        assertNull(cache.consultar(0));
+    }
+
+    @Test
+    @DisplayName("Deve manter peso e tamanho consistentes sob concorrência")
+    void testConcorrencia() throws Exception {
+        CacheLru<Integer, Integer> cache = new CacheLru<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int semente = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int k = 0; k < 20_000; k++) {
+                        int chave = (k * 31 + semente) % 200;
+                        assertEquals(chave * 2, cache.obter(chave, c -> c * 2));
+                    }
+                }));
+            }
+            for (Future<?> f : tarefas) f.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.tamanho() <= 64);
+        assertEquals(cache.tamanho(), cache.getPeso());
+        assertEquals(80_000, cache.getAcertos() + cache.getFalhas());
+    }
+}
@@ -0,0 +1,141 @@
+package com.zetacompute.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CacheResultadosTest {
+
+    private static void assertMesmosBits(NumeroComplexo esperado, NumeroComplexo obtido) {
+        assertEquals(Double.doubleToLongBits(esperado.getReal()), Double.doubleToLongBits(obtido.getReal()));
+        assertEquals(Double.doubleToLongBits(esperado.getImaginario()), Double.doubleToLongBits(obtido.getImaginario()));
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar resultados entre árvores iguais e caminhos de avaliação")
+    void testAcertos() {
+        CacheResultados cache = new CacheResultados(100);
+        String fonte = "raiz(z,3) ^ 5 + w * conj(z)";
+        Expressao original = new ParserIterativo(fonte).parse();
+        Map<String, NumeroComplexo> valores = Map.of("z", new NumeroComplexo(1.5, -2), "w", new NumeroComplexo(0.25, 3));
+        NumeroComplexo esperado = original.avaliar(valores);
+
+        ExpressaoMemorizada a = cache.memorizar(original);
+        assertMesmosBits(esperado, a.avaliar(valores));
+        assertEquals(0, cache.getAcertos());
+        assertMesmosBits(esperado, a.avaliar(valores));
+        assertEquals(1, cache.getAcertos());
+
+        // Outra árvore com a mesma estrutura, compilada: mesma identidade canônica
+        ExpressaoMemorizada b = cache.memorizar(CompiledExpressao.compilar(new ParserIterativo(fonte).parse()));
+        assertMesmosBits(esperado, b.avaliar(valores));
+        assertEquals(2, cache.getAcertos());
+
+        Bindings slots = new Bindings("w", "x", "z");
+        slots.definirTodos(Map.of("z", valores.get("z"), "w", valores.get("w"), "x", new NumeroComplexo(9, 9)));
+        assertMesmosBits(esperado, b.avaliar(slots));
+        ComplexAccumulator destino = new ComplexAccumulator();
+        a.vincular(slots).avaliar(slots, destino);
+        assertMesmosBits(esperado, destino.paraNumeroComplexo());
+        assertEquals(4, cache.getAcertos());
+        assertEquals(1, cache.tamanho());
+    }
+
+    @Test
+    @DisplayName("Deve comparar valores bit a bit, e não pela tolerância de NumeroComplexo.equals")
+    void testChaveExata() {
+        CacheResultados cache = new CacheResultados(100);
+        ExpressaoMemorizada e = cache.memorizar(new ParserIterativo("z * 1").parse());
+        NumeroComplexo quase = new NumeroComplexo(0.1 + 0.2, 0);
+        NumeroComplexo exato = new NumeroComplexo(0.3, 0);
+        assertEquals(quase, exato); // iguais para equals, mas não para a chave
+
+        assertMesmosBits(quase, e.avaliar(Map.of("z", quase)));
+        assertMesmosBits(exato, e.avaliar(Map.of("z", exato)));
+        assertMesmosBits(new NumeroComplexo(-0.0, 0), e.avaliar(Map.of("z", new NumeroComplexo(-0.0, 0))));
+        assertMesmosBits(new NumeroComplexo(0.0, 0), e.avaliar(Map.of("z", new NumeroComplexo(0.0, 0))));
+        assertEquals(0, cache.getAcertos());
+        assertEquals(4, cache.tamanho());
+
+        // Constantes que só diferem no último bit são expressões diferentes
+        ExpressaoMemorizada c1 = cache.memorizar(new ParserIterativo("z + 0.3").parse());
+        ExpressaoMemorizada c2 = cache.memorizar(new ParserIterativo("z + 0.30000000000000004").parse());
+        NumeroComplexo um = new NumeroComplexo(1, 0);
+        c1.avaliar(Map.of("z", um));
+        assertMesmosBits(new NumeroComplexo(1 + 0.30000000000000004, 0), c2.avaliar(Map.of("z", um)));
+        assertEquals(0, cache.getAcertos());
+    }
+
+    @Test
+    @DisplayName("Deve limitar o tamanho, não guardar erros e funcionar com várias threads")
+    void testLimiteErrosEConcorrencia() throws Exception {
+        CacheResultados cache = new CacheResultados(64);
+        ExpressaoMemorizada e = cache.memorizar(new ParserIterativo("1 / z + z ^ 7").parse());
+        for (int k = 1; k <= 1000; k++) e.avaliar(Map.of("z", new NumeroComplexo(k, 0)));
+        assertTrue(cache.tamanho() <= 64);
+
+        int antes = cache.tamanho();
+        Map<String, NumeroComplexo> zero = Map.of("z", new NumeroComplexo(0, 0));
+        assertThrows(ArithmeticException.class, () -> e.avaliar(zero));
+        assertThrows(ArithmeticException.class, () -> e.avaliar(zero));
+        assertThrows(IllegalArgumentException.class, () -> e.avaliar(Map.of("w", new NumeroComplexo(1, 0))));
+        assertTrue(cache.tamanho() <= antes);
+
+        Expressao referencia = new ParserIterativo("1 / z + z ^ 7").parse();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tarefas.add(threads.submit(() -> {
+                    for (int k = 0; k < 5000; k++) {
+                        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(1 + k % 100, 0.5));
+                        assertMesmosBits(referencia.avaliar(v), e.avaliar(v));
+                    }
+                }));
+            }
+            for (Future<?> f : tarefas) f.get();
+        } finally {
+            threads.shutdown();
+        }
+        assertTrue(cache.getAcertos() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve limitar os nós internados e aceitar árvores profundas")
+    void testLimiteNos() {
+        CacheResultados cache = new CacheResultados(16);
+        Expressao profunda = new NoVariavel("z");
+        for (int k = 0; k < 200_000; k++) {
+            profunda = new NoOperacao(profunda, new NoConstante(new NumeroComplexo(k % 7, 0)), NoOperacao.Operador.SOMA);
+        }
+        cache.memorizar(profunda);
+        assertEquals(0, cache.nosInternados()); // passou do limite: a fábrica foi trocada
+
+        // Depois da troca a unificação continua funcionando
+        Map<String, NumeroComplexo> v = Map.of("z", new NumeroComplexo(2, 1));
+        cache.memorizar(new ParserIterativo("z * z + 1").parse()).avaliar(v);
+        cache.memorizar(new ParserIterativo("z*z + 1").parse()).avaliar(v);
+        assertEquals(1, cache.getAcertos());
+        assertTrue(cache.nosInternados() <= CacheResultados.LIMITE_NOS);
+    }
+}
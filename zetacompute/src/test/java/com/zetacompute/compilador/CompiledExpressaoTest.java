@@ -0,0 +1,199 @@
+package com.zetacompute.compilador;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.NoConstante;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoVariavel;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CompiledExpressaoTest {
+
+    private static final String[] EXPRESSOES = {
+            "3",
+            "4i",
+            "z",
+            "-z",
+            "(2 + 3i) * z + raiz(16,2)",
+            "z * w - conj(z) / (w + 1)",
+            "(z - w) * (z + w) / (z * z - 2.5i)",
+            "z ^ 3 + 2 * z ^ 2 - z + 7",
+            "raiz(z * w + 1,3) - conj(conj(w))",
+            "-(z + 1) * -w ^ 2",
+            "((((z))))",
+            "1 / (1 / (1 / (z + w)))"
+    };
+
+    private Map<String, NumeroComplexo> variaveis;
+
+    @BeforeEach
+    void setUp() {
+        variaveis = new HashMap<>();
+        variaveis.put("z", new NumeroComplexo(1.5, -0.75));
+        variaveis.put("w", new NumeroComplexo(-2, 3.25));
+    }
+
+    private static Expressao parse(String s) {
+        return new parser(s).parse();
+    }
+
+    // A expressão compilada deve reproduzir exatamente os bits da avaliação em árvore
+    private static void assertMesmoResultado(NumeroComplexo esperado, NumeroComplexo obtido, String expressao) {
+        assertEquals(Double.doubleToLongBits(esperado.getReal()), Double.doubleToLongBits(obtido.getReal()),
+                "Parte real diferente para " + expressao);
+        assertEquals(Double.doubleToLongBits(esperado.getImaginario()), Double.doubleToLongBits(obtido.getImaginario()),
+                "Parte imaginária diferente para " + expressao);
+    }
+
+    @Test
+    @DisplayName("Deve produzir os mesmos resultados do avaliador em árvore")
+    void testMesmoResultadoQueArvore() {
+        for (String s : EXPRESSOES) {
+            Expressao arvore = parse(s);
+            CompiledExpressao compilada = CompiledExpressao.compilar(arvore);
+            assertMesmoResultado(arvore.avaliar(variaveis), compilada.avaliar(variaveis), s);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ser reutilizável com valores diferentes das variáveis")
+    void testReutilizacao() {
+        Expressao arvore = parse("z * z + w");
+        CompiledExpressao compilada = CompiledExpressao.compilar(arvore);
+        for (int k = -20; k <= 20; k++) {
+            variaveis.put("z", new NumeroComplexo(k * 0.37, 1.0 / (k + 0.5)));
+            variaveis.put("w", new NumeroComplexo(-k, k * k));
+            assertMesmoResultado(arvore.avaliar(variaveis), compilada.avaliar(variaveis), "z * z + w");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve lançar a mesma exceção para variável não definida")
+    void testVariavelNaoDefinida() {
+        CompiledExpressao compilada = CompiledExpressao.compilar(parse("z + y"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> compilada.avaliar(variaveis));
+        assertEquals("Erro: Variável 'y' não foi definida.", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve lançar ArithmeticException ao dividir por zero")
+    void testDivisaoPorZero() {
+        CompiledExpressao compilada = CompiledExpressao.compilar(parse("z / (w - w)"));
+        assertThrows(ArithmeticException.class, () -> compilada.avaliar(variaveis));
+    }
+
+    @Test
+    @DisplayName("Deve delegar representação e variáveis para a árvore de origem")
+    void testDelegacao() {
+        Expressao arvore = parse("(2 + 3i) * z");
+        CompiledExpressao compilada = CompiledExpressao.compilar(arvore);
+        assertEquals(arvore.toLisp(), compilada.toLisp());
+        assertEquals(arvore.getVariaveis(), compilada.getVariaveis());
+        assertSame(compilada, CompiledExpressao.compilar(compilada));
+    }
+
+    @Test
+    @DisplayName("Deve compilar expressões com muitos registradores")
+    void testExpressaoProfunda() {
+        // Árvore inclinada à direita: exige um registrador por nível
+        StringBuilder sb = new StringBuilder("z");
+        for (int k = 0; k < 200; k++) sb.append(" + (w");
+        for (int k = 0; k < 200; k++) sb.append(")");
+        Expressao arvore = parse(sb.toString());
+        assertMesmoResultado(arvore.avaliar(variaveis), CompiledExpressao.compilar(arvore).avaliar(variaveis), "profunda");
+    }
+
+    @Test
+    @DisplayName("Deve ler as variáveis pelos slots quando compilada para um layout")
+    void testCompilacaoComLayout() {
+        for (String s : EXPRESSOES) {
+            Expressao arvore = parse(s);
+            Bindings valores = new Bindings("w", "z");
+            valores.definirTodos(variaveis);
+            Expressao vinculada = CompiledExpressao.compilar(arvore).vincular(valores);
+            assertMesmoResultado(arvore.avaliar(variaveis), vinculada.avaliar(valores), s);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledExpressao.compilar(parse("z + y"), new Bindings("z")));
+    }
+
+    @Test
+    @DisplayName("Deve escrever no acumulador o mesmo resultado da árvore")
+    void testAvaliacaoComAcumulador() {
+        Bindings valores = new Bindings("w", "z");
+        valores.definirTodos(variaveis);
+        ComplexAccumulator destino = new ComplexAccumulator();
+        for (String s : EXPRESSOES) {
+            Expressao arvore = parse(s);
+            NumeroComplexo esperado = arvore.avaliar(variaveis);
+
+            CompiledExpressao.compilar(arvore).avaliar(variaveis, destino);
+            assertMesmoResultado(esperado, destino.paraNumeroComplexo(), s);
+
+            CompiledExpressao.compilar(arvore, valores).avaliar(valores, destino);
+            assertMesmoResultado(esperado, destino.paraNumeroComplexo(), s);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve compilar a árvore por trás de qualquer envoltório")
+    void testEnvoltorios() {
+        for (String s : EXPRESSOES) {
+            Expressao arvore = parse(s);
+            Expressao[] envoltorios = {
+                    ExpressaoCompartilhada.de(arvore),
+                    ProgramaPosfixo.linearizar(arvore),
+                    new NoOperacao(ExpressaoCompartilhada.de(arvore), ProgramaPosfixo.linearizar(arvore),
+                            NoOperacao.Operador.SOMA)
+            };
+            for (Expressao envolta : envoltorios) {
+                assertMesmoResultado(envolta.avaliar(variaveis), CompiledExpressao.compilar(envolta).avaliar(variaveis), s);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve emitir cada subárvore compartilhada uma única vez")
+    void testCompartilhamento() {
+        // 2^40 nós na árvore equivalente, 81 distintos
+        Expressao dag = new NoVariavel("z");
+        for (int k = 0; k < 40; k++) {
+            dag = new NoOperacao(new NoOperacao(dag, dag, NoOperacao.Operador.SOMA), new NoVariavel("w"),
+                    NoOperacao.Operador.DIVISAO);
+        }
+        NumeroComplexo esperado = ProgramaPosfixo.linearizar(dag).avaliar(variaveis);
+        assertMesmoResultado(esperado, CompiledExpressao.compilar(dag).avaliar(variaveis), "dag");
+
+        Bindings valores = new Bindings("w", "z");
+        valores.definirTodos(variaveis);
+        assertMesmoResultado(esperado, CompiledExpressao.compilar(dag, valores).avaliar(valores), "dag vinculado");
+    }
+
+    @Test
+    @DisplayName("Árvore profunda demais deve esbarrar no limite do método, e não na pilha")
+    void testLimiteDeTamanho() {
+        Expressao arvore = new NoVariavel("z");
+        for (int k = 0; k < 100_000; k++) {
+            arvore = new NoOperacao(arvore, new NoConstante(new NumeroComplexo(1, 0)), NoOperacao.Operador.SOMA);
+        }
+        Expressao profunda = arvore;
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> CompiledExpressao.compilar(profunda));
+        assertTrue(erro.getMessage().contains("grande demais"), erro.getMessage());
+    }
+}
@@ -0,0 +1,126 @@
+package com.zetacompute.compilador;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.cache.CacheResultados;
+import com.zetacompute.metricas.ExpressaoInstrumentada;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Envoltorio;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.FabricaNos;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+import com.zetacompute.models.RelatorioParser;
+import com.zetacompute.otimizacao.ReconhecedorPolinomios;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ProgramaPosfixoTest {
+
+    private static void assertMesmosBits(NumeroComplexo esperado, NumeroComplexo obtido) {
+        assertEquals(Double.doubleToLongBits(esperado.getReal()), Double.doubleToLongBits(obtido.getReal()));
+        assertEquals(Double.doubleToLongBits(esperado.getImaginario()), Double.doubleToLongBits(obtido.getImaginario()));
+    }
+
+    @Test
+    @DisplayName("Deve produzir os mesmos bits da árvore pelo mapa, por slots e no acumulador")
+    void testMesmoResultado() {
+        for (int k = 0; k < 300; k++) {
+            Expressao arvore = new ParserIterativo(RelatorioParser.gerarExpressao(1 + k % 12, k)).parse();
+            ProgramaPosfixo programa = ProgramaPosfixo.linearizar(arvore);
+            Map<String, NumeroComplexo> valores = new HashMap<>();
+            for (String v : arvore.getVariaveis()) valores.put(v, new NumeroComplexo(0.5 + v.hashCode() % 7, -1.5 + k % 5));
+
+            NumeroComplexo esperado = arvore.avaliar(valores);
+            assertMesmosBits(esperado, programa.avaliar(valores));
+
+            Bindings slots = Bindings.para(arvore);
+            slots.definirTodos(valores);
+            assertMesmosBits(esperado, programa.vincular(slots).avaliar(slots));
+            ComplexAccumulator destino = new ComplexAccumulator(9, 9);
+            programa.avaliar(slots, destino);
+            assertMesmosBits(esperado, destino.paraNumeroComplexo());
+        }
+
+        Expressao polinomio = ReconhecedorPolinomios.reconhecer(new ParserIterativo("z^6 - 2*z^3 + (1 - i)*z + 4").parse());
+        Map<String, NumeroComplexo> z = Map.of("z", new NumeroComplexo(1.25, -0.75));
+        assertMesmosBits(polinomio.avaliar(z), ProgramaPosfixo.linearizar(polinomio).avaliar(z));
+    }
+
+    @Test
+    @DisplayName("Deve gerar código pós-fixo com constantes únicas e pilha mínima")
+    void testPrograma() {
+        ProgramaPosfixo p = ProgramaPosfixo.linearizar(new ParserIterativo("(z + 2) * (w + 2) - raiz(z,3)").parse());
+        assertEquals(10, p.getCodigo().length);
+        assertEquals(2, p.getConstantes().length); // o 2 aparece uma vez no pool
+        assertEquals("z", p.getNomes()[0]);
+        assertEquals("w", p.getNomes()[1]);
+        assertEquals(3, p.getTamanhoPilha());
+        assertEquals(ProgramaPosfixo.RAIZ | (3 << 8), p.getCodigo()[8]);
+    }
+
+    @Test
+    @DisplayName("Deve emitir cada subárvore compartilhada uma única vez")
+    void testDag() {
+        // x = x * x - 1 repetido: 60 níveis viram 2^60 caminhos na árvore
+        FabricaNos fabrica = new FabricaNos();
+        Expressao x = fabrica.variavel("z");
+        Expressao um = fabrica.constante(new NumeroComplexo(1, 0));
+        for (int k = 0; k < 60; k++) {
+            x = fabrica.operacao(fabrica.operacao(x, x, NoOperacao.Operador.MULTIPLICACAO), um, NoOperacao.Operador.SUBTRACAO);
+        }
+        ProgramaPosfixo programa = ProgramaPosfixo.linearizar(x);
+        assertEquals(59, programa.getLocais()); // a raiz não é compartilhada
+        assertTrue(programa.getCodigo().length < 6 * 60);
+
+        Map<String, NumeroComplexo> z = Map.of("z", new NumeroComplexo(0.25, -0.5));
+        assertMesmosBits(ExpressaoCompartilhada.de(x).avaliar(z), programa.avaliar(z));
+        Bindings slots = Bindings.para(x);
+        slots.definirTodos(z);
+        assertMesmosBits(ExpressaoCompartilhada.de(x).avaliar(z), programa.vincular(slots).avaliar(slots));
+    }
+
+    @Test
+    @DisplayName("Deve linearizar a árvore por trás de qualquer combinação de envoltórios")
+    void testEnvoltorios() {
+        Expressao arvore = new ParserIterativo("z * z + raiz(w,2)").parse();
+        Expressao camadas = ExpressaoInstrumentada.instrumentar(
+                new CacheResultados(8).memorizar(ExpressaoCompartilhada.compartilhar(CompiledExpressao.compilar(arvore))));
+        assertSame(arvore, Envoltorio.arvore(CompiledExpressao.compilar(arvore)));
+        assertArrayEquals(ProgramaPosfixo.linearizar(arvore).getCodigo(), ProgramaPosfixo.linearizar(camadas).getCodigo());
+        assertSame(camadas, ProgramaPosfixo.linearizar(camadas).getOrigem());
+    }
+
+    @Test
+    @DisplayName("Deve avaliar árvores profundas sem recursão e repetir os erros da árvore na mesma ordem")
+    void testProfundidadeEErros() {
+        int n = 200_000;
+        ProgramaPosfixo profunda = ProgramaPosfixo.linearizar(
+                new ParserIterativo("(".repeat(n) + "z" + " + 1)".repeat(n)).parse());
+        assertEquals(2, profunda.getTamanhoPilha());
+        assertMesmosBits(new NumeroComplexo(n + 0.5, 2), profunda.avaliar(Map.of("z", new NumeroComplexo(0.5, 2))));
+        ProgramaPosfixo direita = ProgramaPosfixo.linearizar(new ParserIterativo("z" + " + (1".repeat(n) + ")".repeat(n)).parse());
+        assertEquals(n + 1, direita.getTamanhoPilha());
+        assertMesmosBits(new NumeroComplexo(n + 0.5, 2), direita.avaliar(Map.of("z", new NumeroComplexo(0.5, 2))));
+
+        Map<String, NumeroComplexo> soZ = Map.of("z", new NumeroComplexo(1, 1));
+        // Divisão por zero antes de ler w: o erro é a divisão, como na árvore
+        ProgramaPosfixo divisaoAntes = ProgramaPosfixo.linearizar(new ParserIterativo("1 / (z - z) + w").parse());
+        assertThrows(ArithmeticException.class, () -> divisaoAntes.avaliar(soZ));
+        ProgramaPosfixo variavelAntes = ProgramaPosfixo.linearizar(new ParserIterativo("w + 1 / (z - z) + x").parse());
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class, () -> variavelAntes.avaliar(soZ));
+        assertEquals("Erro: Variável 'w' não foi definida.", erro.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> variavelAntes.vincular(new Bindings("z", "x")));
+    }
+}
@@ -0,0 +1,102 @@
+package com.zetacompute.grade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GradeComplexaTest {
+
+    @Test
+    @DisplayName("Deve coincidir com a avaliação ponto a ponto, com NaN nos pontos inválidos")
+    void testValores() throws IOException {
+        // Dimensões que não são múltiplas do ladrilho; o polo em z = 1 cai na grade
+        Expressao e = new ParserIterativo("(z ^ 3 - a) / (z - 1) + conj(z) * a").parse();
+        NumeroComplexo a = new NumeroComplexo(0.5, -2);
+        GradeComplexa grade = new GradeComplexa(e, "z", Map.of("a", a), -1, 1, -1, 1, 71, 45);
+        assertEquals(1.0, grade.real(70));
+        assertEquals(0.0, grade.imaginario(22));
+
+        FloatBuffer buffer = FloatBuffer.allocate(2 * 71 * 45);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try (SaidaFloat saida = new SaidaFloat(buffer)) {
+            grade.avaliar(saida, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(buffer.capacity(), buffer.position());
+
+        int nan = 0;
+        for (int y = 0; y < 45; y++) {
+            for (int x = 0; x < 71; x++) {
+                int k = 2 * (y * 71 + x);
+                NumeroComplexo z = new NumeroComplexo(grade.real(x), grade.imaginario(y));
+                try {
+                    NumeroComplexo r = e.avaliar(Map.of("z", z, "a", a));
+                    assertEquals((float) r.getReal(), buffer.get(k));
+                    assertEquals((float) r.getImaginario(), buffer.get(k + 1));
+                } catch (ArithmeticException erro) {
+                    assertTrue(Float.isNaN(buffer.get(k)) && Float.isNaN(buffer.get(k + 1)));
+                    nan++;
+                }
+            }
+        }
+        assertEquals(1, nan);
+
+        assertThrows(IllegalArgumentException.class, () -> new GradeComplexa(e, "z", -1, 1, -1, 1, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradeComplexa(e, "z", Map.of("a", a), 1, -1, -1, 1, 10, 10));
+    }
+
+    @Test
+    @DisplayName("Deve gerar PNG legível e PPM com as mesmas cores da coloração de domínio")
+    void testImagens() throws IOException {
+        GradeComplexa grade = new GradeComplexa(new ParserIterativo("(z ^ 2 + 1) / (z - 2i)").parse(), "z",
+                -3, 3, -2, 2, 100, 70);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try (ImagemPNG saida = new ImagemPNG(png)) {
+            grade.avaliar(saida);
+        }
+        ByteArrayOutputStream ppm = new ByteArrayOutputStream();
+        try (ImagemPPM saida = new ImagemPPM(ppm)) {
+            grade.avaliar(saida);
+        }
+
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(png.toByteArray()));
+        assertEquals(100, imagem.getWidth());
+        assertEquals(70, imagem.getHeight());
+
+        byte[] bytes = ppm.toByteArray();
+        byte[] cabecalho = "P6\n100 70\n255\n".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(cabecalho.length + 3 * 100 * 70, bytes.length);
+        for (int y = 0; y < 70; y++) {
+            for (int x = 0; x < 100; x++) {
+                int p = cabecalho.length + 3 * (y * 100 + x);
+                int cor = ((bytes[p] & 0xFF) << 16) | ((bytes[p + 1] & 0xFF) << 8) | (bytes[p + 2] & 0xFF);
+                assertEquals(cor, imagem.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+        // Semieixo real positivo vermelho, com |z| = 1 no início de uma faixa de brilho
+        assertEquals(0x000000, CorDominio.rgb(Double.NaN, 0));
+        assertEquals(0xFFFFFF, CorDominio.rgb(Double.POSITIVE_INFINITY, 0));
+        assertEquals(0x990000, CorDominio.rgb(1, 0));
+        assertEquals(0x990000, CorDominio.rgb(4, 0));
+    }
+}
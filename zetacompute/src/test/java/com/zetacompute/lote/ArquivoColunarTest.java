@@ -0,0 +1,111 @@
+package com.zetacompute.lote;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArquivoColunarTest {
+
+    @TempDir
+    Path pasta;
+
+    private static double[][] aleatorios(int variaveis, int n, long semente) {
+        Random rnd = new Random(semente);
+        double[][] v = new double[variaveis][n];
+        for (double[] coluna : v) {
+            for (int k = 0; k < n; k++) coluna[k] = rnd.nextDouble() * 4 - 2;
+        }
+        return v;
+    }
+
+    private static void gravar(Path caminho, String[] nomes, double[][] re, double[][] im, boolean intercalado) throws IOException {
+        try (ArquivoColunar arquivo = ArquivoColunar.criar(caminho, nomes, re[0].length, intercalado)) {
+            for (int v = 0; v < nomes.length; v++) arquivo.escrever(v, 0, re[v], im[v], re[v].length);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve gravar e ler de volta nos dois formatos")
+    void testIdaEVolta() throws IOException {
+        int n = 5000;
+        double[][] re = aleatorios(2, n, 1);
+        double[][] im = aleatorios(2, n, 2);
+        for (boolean intercalado : new boolean[] { false, true }) {
+            Path caminho = pasta.resolve("dados" + intercalado + ".zcol");
+            gravar(caminho, new String[] { "z", "w" }, re, im, intercalado);
+            try (ArquivoColunar arquivo = ArquivoColunar.abrir(caminho)) {
+                assertArrayEquals(new String[] { "z", "w" }, arquivo.getNomes());
+                assertEquals(n, arquivo.getPontos());
+                assertEquals(intercalado, arquivo.isIntercalado());
+                double[] lidoRe = new double[n - 100];
+                double[] lidoIm = new double[n - 100];
+                arquivo.ler(1, 100, lidoRe, lidoIm, n - 100);
+                for (int k = 0; k < n - 100; k++) {
+                    assertEquals(re[1][k + 100], lidoRe[k]);
+                    assertEquals(im[1][k + 100], lidoIm[k]);
+                }
+                assertThrows(IllegalStateException.class, () -> arquivo.escrever(0, 0, lidoRe, lidoIm, 1));
+                assertThrows(IndexOutOfBoundsException.class, () -> arquivo.ler(0, n - 1, lidoRe, lidoIm, 2));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Avaliação sobre o arquivo mapeado deve coincidir com a avaliação em memória")
+    void testAvaliacaoMapeada() throws IOException {
+        // Mais pontos que uma janela, para atravessar a fronteira do mapeamento
+        int n = ArquivoColunar.JANELA_PONTOS + 3000;
+        double[][] re = aleatorios(1, n, 3);
+        double[][] im = aleatorios(1, n, 4);
+        Path entrada = pasta.resolve("entrada.zcol");
+        Path saida = pasta.resolve("saida.zcol");
+        gravar(entrada, new String[] { "z" }, re, im, true);
+
+        Expressao expressao = new parser("(2 + 3i) * z ^ 2 - conj(z) / (z + 5)").parse();
+        ArquivoColunar.avaliar(expressao, entrada, saida);
+
+        double[] esperadoRe = new double[n];
+        double[] esperadoIm = new double[n];
+        AvaliadorLote.para(expressao, new Bindings("z")).avaliar(re, im, esperadoRe, esperadoIm, n);
+
+        try (ArquivoColunar resultado = ArquivoColunar.abrir(saida)) {
+            assertArrayEquals(new String[] { "resultado" }, resultado.getNomes());
+            double[] obtidoRe = new double[n];
+            double[] obtidoIm = new double[n];
+            resultado.ler(0, 0, obtidoRe, obtidoIm, n);
+            assertArrayEquals(esperadoRe, obtidoRe);
+            assertArrayEquals(esperadoIm, obtidoIm);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recusar arquivos inválidos")
+    void testArquivoInvalido() throws IOException {
+        Path invalido = pasta.resolve("invalido.zcol");
+        Files.write(invalido, new byte[64]);
+        IOException e = assertThrows(IOException.class, () -> ArquivoColunar.abrir(invalido));
+        assertTrue(e.getMessage().contains("assinatura"));
+
+        Path truncado = pasta.resolve("truncado.zcol");
+        gravar(truncado, new String[] { "z" }, new double[][] { new double[10] }, new double[][] { new double[10] }, false);
+        byte[] bytes = Files.readAllBytes(truncado);
+        Files.write(truncado, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> ArquivoColunar.abrir(truncado));
+    }
+}
@@ -0,0 +1,92 @@
+package com.zetacompute.lote;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ModoLoteTest {
+
+    private static String[] executar(String expressao, String entrada) throws Exception {
+        StringWriter saida = new StringWriter();
+        long linhas = new ModoLote(expressao).executar(new StringReader(entrada), saida);
+        String[] resultado = saida.toString().isEmpty() ? new String[0] : saida.toString().split("\\R");
+        assertEquals(linhas, resultado.length);
+        return resultado;
+    }
+
+    @Test
+    @DisplayName("Deve avaliar linhas de valores com expressão fixa")
+    void testExpressaoFixa() throws Exception {
+        String[] saida = executar("z * w + 1", "z, w\n1+2i,3\n\n2,2i\n");
+        assertArrayEquals(new String[] { "4.0,6.0", "1.0,4.0" }, saida);
+    }
+
+    @Test
+    @DisplayName("Erros de uma linha não devem interromper as demais")
+    void testErrosPorLinha() throws Exception {
+        String[] saida = executar("1 / (z - w)", "z,w\n1,1\n3,1\nabc,1\n1\n");
+        assertEquals("erro: Divisão por zero não é permitida para números complexos.", saida[0]);
+        assertEquals("0.5,0.0", saida[1]);
+        assertEquals("erro: Formato de número complexo inválido: abc", saida[2]);
+        assertEquals("erro: Esperados 2 valores, encontrados 1.", saida[3]);
+        // IllegalArgumentException na avaliação também vira erro por linha
+        saida = executar("raiz(z,0)", "z\n1\n2\n");
+        assertArrayEquals(new String[] {
+                "erro: O índice da raiz deve ser um número inteiro positivo.",
+                "erro: O índice da raiz deve ser um número inteiro positivo."
+        }, saida);
+    }
+
+    @Test
+    @DisplayName("Deve avaliar uma expressão por linha com atribuições")
+    void testExpressaoPorLinha() throws Exception {
+        String[] saida = executar(null, "2 + 3i\nz * z; z=2i\nz + y; z=1\nz / 0; z = 1\n");
+        assertArrayEquals(new String[] {
+                "2.0,3.0",
+                "-4.0,0.0",
+                "erro: Erro: Variável 'y' não foi definida.",
+                "erro: Divisão por zero não é permitida para números complexos."
+        }, saida);
+    }
+
+    @Test
+    @DisplayName("Deve processar muitas linhas na ordem e com os resultados da árvore")
+    void testMuitasLinhas() throws Exception {
+        String fonte = "(2 + 3i) * z ^ 2 - conj(w) / (z + 1)";
+        Expressao arvore = new parser(fonte).parse();
+        int n = 50_000;
+        StringBuilder entrada = new StringBuilder("z,w\n");
+        for (int k = 0; k < n; k++) {
+            entrada.append(k % 97 * 0.25).append('+').append(k % 13).append("i,").append(k % 7).append('\n');
+        }
+        String[] saida = executar(fonte, entrada.toString());
+        assertEquals(n, saida.length);
+
+        Map<String, NumeroComplexo> variaveis = new HashMap<>();
+        for (int k = 0; k < n; k += 997) {
+            variaveis.put("z", new NumeroComplexo(k % 97 * 0.25, k % 13));
+            variaveis.put("w", new NumeroComplexo(k % 7, 0));
+            NumeroComplexo r = arvore.avaliar(variaveis);
+            assertEquals(r.getReal() + "," + r.getImaginario(), saida[k]);
+        }
+    }
+
+    @Test
+    @DisplayName("Cabeçalho sem as variáveis da expressão deve interromper o processamento")
+    void testCabecalhoInvalido() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> executar("z + y", "z\n1\n"));
+        assertEquals("Erro: Variável 'y' não foi definida.", e.getMessage());
+    }
+}
@@ -0,0 +1,187 @@
+package com.zetacompute.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.cache.CacheResultados;
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.compilador.ProgramaPosfixo;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExpressaoInstrumentadaTest {
+
+    private static final Map<String, NumeroComplexo> VALORES = Map.of("z", new NumeroComplexo(1, 2), "w", new NumeroComplexo(3, 0));
+
+    @AfterEach
+    void desligar() {
+        MetricasAvaliacao.desativar();
+        MetricasAvaliacao.get().limpar();
+    }
+
+    @Test
+    @DisplayName("Desativada, deve só delegar, sem contar nada")
+    void testDesativada() {
+        Expressao original = new parser("z * w + 1").parse();
+        ExpressaoInstrumentada e = ExpressaoInstrumentada.instrumentar(original, "desativada");
+        MetricasAvaliacao.get().limpar();
+        assertEquals(original.avaliar(VALORES), e.avaliar(VALORES));
+        assertEquals(0, MetricasAvaliacao.get().getAvaliacoes());
+        assertEquals(0, e.getLatencia().getContagem());
+    }
+
+    @Test
+    @DisplayName("Deve contar operadores, erros e latências")
+    void testContagens() throws Exception {
+        MetricasAvaliacao metricas = MetricasAvaliacao.ativar();
+        metricas.limpar();
+        ExpressaoInstrumentada e = ExpressaoInstrumentada.instrumentar(new parser("z * w + z * 2 - conj(z) / w").parse(), "contagens");
+
+        for (int k = 0; k < 10; k++) e.avaliar(VALORES);
+        Bindings b = Bindings.para(e);
+        b.definirTodos(VALORES);
+        e.vincular(b).avaliar(b);
+
+        assertEquals(11, metricas.getAvaliacoes());
+        assertEquals(22, metricas.getContagem(NoOperacao.Operador.MULTIPLICACAO));
+        assertEquals(11, metricas.getContagem(NoOperacao.Operador.SOMA));
+        assertEquals(11, metricas.getContagem(NoOperacao.Operador.CONJUGADO));
+        assertEquals(0, metricas.getContagem(NoOperacao.Operador.POTENCIA));
+        assertEquals(11, e.getLatencia().getContagem());
+
+        assertThrows(ArithmeticException.class, () -> e.avaliar(Map.of("z", new NumeroComplexo(1, 0), "w", new NumeroComplexo(0, 0))));
+        assertThrows(IllegalArgumentException.class, () -> e.avaliar(Map.of("z", new NumeroComplexo(1, 0))));
+        assertThrows(IllegalArgumentException.class, () -> e.avaliar(new Bindings("z")));
+        assertEquals(1, metricas.getDivisoesPorZero());
+        assertEquals(2, metricas.getVariaveisIndefinidas());
+        assertEquals(11, metricas.getAvaliacoes()); // avaliações com erro não somam operadores
+
+        // Os mesmos valores pelo MBean registrado
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nome = new ObjectName(MetricasAvaliacao.NOME_JMX);
+        assertEquals(11L, servidor.getAttribute(nome, "Avaliacoes"));
+        assertArrayEquals(metricas.getContagemPorOperador(), (long[]) servidor.getAttribute(nome, "ContagemPorOperador"));
+        assertTrue(((String) servidor.invoke(nome, "resumoLatencia", new Object[] { "contagens" },
+                new String[] { String.class.getName() })).startsWith("n=11 "));
+    }
+
+    @Test
+    @DisplayName("Deve contar os operadores pela camada que realmente avalia")
+    void testContagemPorEnvoltorio() {
+        MetricasAvaliacao metricas = MetricasAvaliacao.ativar();
+        Expressao produto = new parser("z * w").parse();
+        Expressao dag = new NoOperacao(produto, produto, NoOperacao.Operador.SOMA);
+        Expressao compilada = CompiledExpressao.compilar(dag);
+        Object[][] casos = {
+                { dag, 2L },
+                { compilada, 1L },
+                { ProgramaPosfixo.linearizar(dag), 1L },
+                { ExpressaoCompartilhada.de(dag), 1L },
+                { new CacheResultados(8).memorizar(dag), 2L },
+                { new CacheResultados(8).memorizar(compilada), 1L },
+                { ExpressaoInstrumentada.instrumentar(compilada, "interna"), 1L }
+        };
+        for (Object[] caso : casos) {
+            Expressao e = (Expressao) caso[0];
+            metricas.limpar();
+            ExpressaoInstrumentada.instrumentar(e, "envoltorio").avaliar(VALORES);
+            assertEquals(caso[1], metricas.getContagem(NoOperacao.Operador.MULTIPLICACAO), e.getClass().getSimpleName());
+            assertEquals(1L, metricas.getContagem(NoOperacao.Operador.SOMA), e.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve emitir eventos JFR das avaliações")
+    void testEventosJfr(@TempDir Path pasta) throws Exception {
+        MetricasAvaliacao.ativar();
+        ExpressaoInstrumentada e = ExpressaoInstrumentada.instrumentar(new parser("z / w").parse());
+        Path arquivo = pasta.resolve("avaliacoes.jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable(EventoAvaliacao.class);
+            gravacao.start();
+            e.avaliar(VALORES);
+            assertThrows(ArithmeticException.class, () -> e.avaliar(Map.of("z", new NumeroComplexo(1, 0), "w", new NumeroComplexo(0, 0))));
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(arquivo);
+        assertEquals(2, eventos.size());
+        assertEquals("(/ z w)", eventos.get(0).getString("expressao"));
+        assertEquals("", eventos.get(0).getString("erro"));
+        assertEquals("ArithmeticException", eventos.get(1).getString("erro"));
+    }
+
+    @Test
+    @DisplayName("Percentis do histograma devem respeitar as faixas em potências de 2")
+    void testHistograma() {
+        HistogramaLatencia h = new HistogramaLatencia();
+        assertEquals(0, h.percentil(99));
+        for (int k = 0; k < 99; k++) h.registrar(100);
+        h.registrar(1_000_000);
+        assertEquals(127, h.percentil(50));
+        assertEquals(127, h.percentil(99));
+        assertEquals(1_000_000, h.percentil(100));
+        assertEquals(100, h.getContagem());
+        assertThrows(IllegalArgumentException.class, () -> h.percentil(0));
+    }
+
+    @Test
+    @DisplayName("Nomes padrão não devem colidir e os histogramas publicados são limitados")
+    void testNomesPadrao() {
+        String base = "z" + " + z".repeat(40);
+        ExpressaoInstrumentada a = ExpressaoInstrumentada.instrumentar(new parser(base + " + 1").parse());
+        ExpressaoInstrumentada b = ExpressaoInstrumentada.instrumentar(new parser(base + " + 2").parse());
+        assertNotEquals(a.getNome(), b.getNome());
+        assertNotSame(a.getLatencia(), b.getLatencia());
+
+        for (int k = 0; k < 2 * MetricasAvaliacao.MAXIMO_EXPRESSOES; k++) {
+            ExpressaoInstrumentada.instrumentar(new parser("z").parse(), "limite " + k);
+        }
+        assertTrue(MetricasAvaliacao.get().getExpressoes().length <= MetricasAvaliacao.MAXIMO_EXPRESSOES);
+    }
+
+    @Test
+    @DisplayName("Histograma removido do cache deve voltar a ser publicado na avaliação seguinte")
+    void testHistogramaRemovido() {
+        MetricasAvaliacao metricas = MetricasAvaliacao.ativar();
+        ExpressaoInstrumentada e = ExpressaoInstrumentada.instrumentar(new parser("z * w").parse(), "removida");
+        e.avaliar(VALORES);
+        for (int k = 0; k < 2 * MetricasAvaliacao.MAXIMO_EXPRESSOES; k++) {
+            ExpressaoInstrumentada.instrumentar(new parser("z").parse(), "outra " + k);
+        }
+        assertNull(metricas.getLatencia("removida"));
+        assertEquals("", metricas.resumoLatencia("removida"));
+
+        e.avaliar(VALORES);
+        assertSame(e.getLatencia(), metricas.getLatencia("removida"));
+        assertEquals(2, e.getLatencia().getContagem());
+        assertTrue(metricas.resumoLatencia("removida").startsWith("n=2 "));
+    }
+}
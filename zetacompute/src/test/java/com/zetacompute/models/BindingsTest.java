@@ -0,0 +1,90 @@
+package com.zetacompute.models;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BindingsTest {
+
+    private static Expressao parse(String s) {
+        return new parser(s).parse();
+    }
+
+    @Test
+    @DisplayName("Deve criar o layout com as variáveis da expressão em ordem alfabética")
+    void testLayoutDaExpressao() {
+        Bindings layout = Bindings.para(parse("z * w + conj(a)"));
+        assertArrayEquals(new String[] { "a", "w", "z" }, layout.getNomes());
+        assertEquals(1, layout.slot("w"));
+    }
+
+    @Test
+    @DisplayName("Avaliação vinculada deve coincidir com a avaliação pelo mapa")
+    void testAvaliacaoVinculada() {
+        Expressao arvore = parse("(2 + 3i) * z + raiz(z * w,2) - z / w");
+        Bindings valores = Bindings.para(arvore);
+        Expressao vinculada = arvore.vincular(valores);
+
+        Map<String, NumeroComplexo> mapa = new HashMap<>();
+        for (int k = 1; k <= 10; k++) {
+            mapa.put("z", new NumeroComplexo(k, -k * 0.5));
+            mapa.put("w", new NumeroComplexo(0.25 * k, 3));
+            valores.definirTodos(mapa);
+            assertEquals(arvore.avaliar(mapa), vinculada.avaliar(valores));
+        }
+        assertEquals(arvore, vinculada, "Vincular não deve alterar a estrutura da árvore");
+    }
+
+    @Test
+    @DisplayName("Variável desconhecida deve falhar ao vincular, com a mesma mensagem")
+    void testVariavelDesconhecida() {
+        Expressao arvore = parse("z + y");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> arvore.vincular(new Bindings("z")));
+        assertEquals("Erro: Variável 'y' não foi definida.", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Árvore vinculada avaliada com outro layout deve resolver pelos nomes")
+    void testOutroLayout() {
+        Expressao vinculada = parse("z - w").vincular(new Bindings("z", "w"));
+        Bindings invertido = new Bindings("w", "z");
+        invertido.definir("z", new NumeroComplexo(5, 1));
+        invertido.definir("w", new NumeroComplexo(2, 1));
+        assertEquals(new NumeroComplexo(3, 0), vinculada.avaliar(invertido));
+    }
+
+    @Test
+    @DisplayName("Nova instância deve compartilhar o layout mas não os valores")
+    void testNovaInstancia() {
+        Bindings a = new Bindings("z");
+        Bindings b = a.novaInstancia();
+        a.definir(0, 1, 2);
+        assertEquals(0.0, b.getReal(0));
+        assertEquals(true, a.mesmoLayout(b));
+        assertEquals(false, a.mesmoLayout(new Bindings("z")));
+    }
+
+    @Test
+    @DisplayName("Variável vinculada deve reutilizar o valor enquanto o slot não muda")
+    void testLeituraSemAlocacao() {
+        Bindings valores = new Bindings("z");
+        Expressao z = parse("z").vincular(valores);
+        valores.definir(0, 1, 2);
+        NumeroComplexo primeiro = z.avaliar(valores);
+        assertSame(primeiro, z.avaliar(valores));
+
+        valores.getValores()[1] = 3; // escrita direta no vetor
+        NumeroComplexo segundo = z.avaliar(valores);
+        assertNotSame(primeiro, segundo);
+        assertEquals(new NumeroComplexo(1, 3), segundo);
+    }
+}
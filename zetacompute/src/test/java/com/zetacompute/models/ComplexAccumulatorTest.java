@@ -0,0 +1,81 @@
+package com.zetacompute.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ComplexAccumulatorTest {
+
+    private static final NumeroComplexo A = new NumeroComplexo(3.25, -4.5);
+    private static final NumeroComplexo B = new NumeroComplexo(-1.75, 2.125);
+
+    // Compara bit a bit com o resultado imutável
+    private static void assertIgual(NumeroComplexo esperado, ComplexAccumulator obtido) {
+        assertEquals(esperado.getReal(), obtido.getReal(), 0.0);
+        assertEquals(esperado.getImaginario(), obtido.getImaginario(), 0.0);
+    }
+
+    private static ComplexAccumulator acc(NumeroComplexo x) {
+        return new ComplexAccumulator().definir(x);
+    }
+
+    @Test
+    @DisplayName("Operações no lugar devem coincidir com NumeroComplexo")
+    void testOperacoes() {
+        ComplexAccumulator b = acc(B);
+        assertIgual(A.somar(B), acc(A).somar(b));
+        assertIgual(A.subtrair(B), acc(A).subtrair(b));
+        assertIgual(A.multiplicar(B), acc(A).multiplicar(b));
+        assertIgual(A.dividir(B), acc(A).dividir(b));
+        assertIgual(A.getConjugado(), acc(A).conjugar());
+        for (int n = -70; n <= 70; n++) assertIgual(A.potencia(n), acc(A).potencia(n));
+        for (int n = 1; n <= 5; n++) assertIgual(A.raiz(n), acc(A).raiz(n));
+    }
+
+    @Test
+    @DisplayName("Deve lançar as mesmas exceções de NumeroComplexo")
+    void testExcecoes() {
+        assertThrows(ArithmeticException.class, () -> acc(A).dividir(new ComplexAccumulator()));
+        assertThrows(IllegalArgumentException.class, () -> acc(A).raiz(0));
+        assertThrows(ArithmeticException.class, () -> new ComplexAccumulator().potencia(-2));
+    }
+
+    @Test
+    @DisplayName("Avaliação com acumulador não deve alocar memória em regime")
+    void testAvaliacaoSemAlocacao() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Expressao arvore = new parser("(2 + 3i) * z ^ 3 - raiz(z * w,2) / conj(w + 1)").parse();
+        Map<String, NumeroComplexo> mapa = new HashMap<>();
+        mapa.put("z", A);
+        mapa.put("w", B);
+        Bindings valores = Bindings.para(arvore);
+        valores.definirTodos(mapa);
+        Expressao vinculada = arvore.vincular(valores);
+        ComplexAccumulator destino = new ComplexAccumulator();
+
+        // Aquecimento: cria a cadeia de acumuladores auxiliares
+        for (int k = 0; k < 20_000; k++) {
+            arvore.avaliar(mapa, destino);
+            vinculada.avaliar(valores, destino);
+        }
+
+        long tid = Thread.currentThread().threadId();
+        long antes = mx.getThreadAllocatedBytes(tid);
+        long calibracao = mx.getThreadAllocatedBytes(tid) - antes;
+        antes = mx.getThreadAllocatedBytes(tid);
+        for (int k = 0; k < 10_000; k++) {
+            arvore.avaliar(mapa, destino);
+            vinculada.avaliar(valores, destino);
+        }
+        long alocado = mx.getThreadAllocatedBytes(tid) - antes - calibracao;
+
+        assertEquals(0, alocado, "Bytes alocados durante as avaliações");
+        assertIgual(arvore.avaliar(mapa), destino);
+    }
+}
@@ -0,0 +1,128 @@
+package com.zetacompute.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FabricaNosTest {
+
+    private static final String[] EXPRESSOES = {
+            "z * w + z * w",
+            "(z + 1) * (z + 1) - conj(z + 1)",
+            "raiz(z * w,2) + raiz(z * w,2) / (w - 2i)",
+            "-z ^ 2 + -z ^ 2 * 3"
+    };
+
+    private static Map<String, NumeroComplexo> valores() {
+        Map<String, NumeroComplexo> mapa = new HashMap<>();
+        mapa.put("z", new NumeroComplexo(1.25, -0.5));
+        mapa.put("w", new NumeroComplexo(-3, 0.75));
+        return mapa;
+    }
+
+    @Test
+    @DisplayName("Subárvores iguais devem ser o mesmo nó")
+    void testCompartilhamento() {
+        FabricaNos fabrica = new FabricaNos();
+        NoOperacao soma = (NoOperacao) new parser("z * w + z * w", fabrica).parse();
+        assertSame(soma.getEsquerda(), soma.getDireita());
+        assertSame(soma, new parser("z*w + z*w", fabrica).parse());
+        assertEquals(4, fabrica.tamanho()); // z, w, z * w e a soma
+        assertEquals(new parser("z * w + z * w").parse(), soma);
+    }
+
+    @Test
+    @DisplayName("Constantes devem ser distinguidas pelos bits exatos")
+    void testConstantesExatas() {
+        FabricaNos fabrica = new FabricaNos();
+        assertSame(fabrica.constante(new NumeroComplexo(0.5, 0)), fabrica.constante(new NumeroComplexo(0.5, 0)));
+        // Iguais pela tolerância de NumeroComplexo, mas não pelos bits
+        assertNotSame(fabrica.constante(new NumeroComplexo(1, 0)), fabrica.constante(new NumeroComplexo(1 + 1e-12, 0)));
+        assertNotSame(fabrica.constante(new NumeroComplexo(0.0, 0)), fabrica.constante(new NumeroComplexo(-0.0, 0)));
+    }
+
+    @Test
+    @DisplayName("Avaliação compartilhada deve coincidir com a árvore")
+    void testMesmoResultadoQueArvore() {
+        Map<String, NumeroComplexo> mapa = valores();
+        for (String s : EXPRESSOES) {
+            Expressao arvore = new parser(s).parse();
+            ExpressaoCompartilhada dag = ExpressaoCompartilhada.compartilhar(arvore);
+            assertEquals(arvore.avaliar(mapa), dag.avaliar(mapa), s);
+
+            Bindings slots = Bindings.para(arvore);
+            slots.definirTodos(mapa);
+            assertEquals(arvore.avaliar(mapa), dag.vincular(slots).avaliar(slots), s);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve avaliar DAGs cuja árvore equivalente seria exponencial")
+    void testDagProfundo() {
+        // x = x * x - 1 repetido: 60 níveis viram 2^60 caminhos na árvore
+        FabricaNos fabrica = new FabricaNos();
+        Expressao x = fabrica.variavel("z");
+        Expressao um = fabrica.constante(new NumeroComplexo(1, 0));
+        for (int k = 0; k < 60; k++) {
+            x = fabrica.operacao(fabrica.operacao(x, x, NoOperacao.Operador.MULTIPLICACAO), um, NoOperacao.Operador.SUBTRACAO);
+        }
+        ExpressaoCompartilhada dag = ExpressaoCompartilhada.de(x);
+        assertEquals(122, dag.getNosUnicos());
+
+        Map<String, NumeroComplexo> mapa = new HashMap<>();
+        mapa.put("z", new NumeroComplexo(0, 0));
+        NumeroComplexo esperado = new NumeroComplexo(0, 0);
+        for (int k = 0; k < 60; k++) esperado = esperado.multiplicar(esperado).subtrair(new NumeroComplexo(1, 0));
+        assertEquals(esperado, dag.avaliar(mapa));
+    }
+
+    @Test
+    @DisplayName("Deve internar árvores profundas sem estourar a pilha")
+    void testInternarProfunda() {
+        Expressao profunda = new NoVariavel("z");
+        for (int k = 0; k < 200_000; k++) {
+            profunda = new NoOperacao(profunda, new NoVariavel("w"), NoOperacao.Operador.SUBTRACAO);
+        }
+        FabricaNos fabrica = new FabricaNos();
+        Expressao canonica = fabrica.internar(profunda);
+        assertEquals(200_002, fabrica.tamanho()); // z, w e uma subtração por nível
+        assertSame(canonica, fabrica.internar(profunda));
+        assertEquals(profunda.getTamanho(), canonica.getTamanho());
+    }
+
+    @Test
+    @DisplayName("Deve numerar e avaliar DAGs profundos sem estourar a pilha")
+    void testCompartilharProfunda() {
+        Expressao profunda = new NoVariavel("z");
+        for (int k = 0; k < 200_000; k++) {
+            profunda = new NoOperacao(profunda, new NoVariavel("w"), NoOperacao.Operador.SUBTRACAO);
+        }
+        ExpressaoCompartilhada dag = ExpressaoCompartilhada.compartilhar(profunda);
+        assertEquals(200_002, dag.getNosUnicos());
+        NumeroComplexo r = dag.avaliar(Map.of("z", new NumeroComplexo(1, 2), "w", new NumeroComplexo(0.5, 0)));
+        assertEquals(1 - 0.5 * 200_000, r.getReal(), 0.0);
+        assertEquals(2, r.getImaginario(), 0.0);
+
+        // Sem internar: cada w é um nó distinto
+        assertEquals(400_001, ExpressaoCompartilhada.de(profunda).getNosUnicos());
+    }
+
+    @Test
+    @DisplayName("Deve manter as exceções da árvore")
+    void testExcecoes() {
+        Map<String, NumeroComplexo> mapa = valores();
+        ExpressaoCompartilhada dag = ExpressaoCompartilhada.compartilhar(new parser("z / (w - w) + z / (w - w)").parse());
+        assertThrows(ArithmeticException.class, () -> dag.avaliar(mapa));
+
+        ExpressaoCompartilhada semY = ExpressaoCompartilhada.compartilhar(new parser("z + y").parse());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> semY.avaliar(mapa));
+        assertEquals("Erro: Variável 'y' não foi definida.", e.getMessage());
+    }
+}
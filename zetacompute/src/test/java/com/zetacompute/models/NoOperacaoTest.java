@@ -0,0 +1,74 @@
+package com.zetacompute.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NoOperacaoTest {
+
+    private static Expressao parse(String s) {
+        return new parser(s).parse();
+    }
+
+    @Test
+    @DisplayName("Deve calcular tamanho e profundidade na construção")
+    void testTamanhoEProfundidade() {
+        Expressao e = parse("(z + 1) * raiz(w,2)");
+        assertEquals(6, e.getTamanho());
+        assertEquals(3, e.getProfundidade());
+        assertEquals(1, parse("z").getTamanho());
+        assertEquals(1, parse("3i").getProfundidade());
+    }
+
+    @Test
+    @DisplayName("Conjunto de variáveis deve ser imutável e calculado uma vez")
+    void testVariaveis() {
+        NoOperacao e = (NoOperacao) parse("(z * w) + z");
+        assertEquals(Set.of("z", "w"), e.getVariaveis());
+        assertSame(e.getVariaveis(), e.getVariaveis());
+        assertThrows(UnsupportedOperationException.class, () -> e.getVariaveis().add("x"));
+    }
+
+    @Test
+    @DisplayName("Hash estrutural deve ser consistente com equals")
+    void testHash() {
+        assertEquals(parse("z * (w + 2)").hashCode(), parse("z*(w+2)").hashCode());
+        assertEquals(parse("z * (w + 2)"), parse("z*(w+2)"));
+        assertNotEquals(parse("z * (w + 2)"), parse("z * (w + 2) + 0"));
+        assertNotEquals(parse("z * w"), parse("w * z"));
+    }
+
+    @Test
+    @DisplayName("Metadados devem ser baratos em árvores profundas e DAGs")
+    void testArvoresGrandes() {
+        Expressao x = new NoVariavel("z");
+        for (int k = 0; k < 100_000; k++) {
+            x = new NoOperacao(new NoVariavel("v" + (k % 10)), x, NoOperacao.Operador.SOMA);
+        }
+        assertEquals(200_001, x.getTamanho());
+        assertEquals(100_001, x.getProfundidade());
+        assertEquals(11, x.getVariaveis().size());
+        assertEquals(x.hashCode(), x.hashCode());
+
+        // Uma variável nova por nível: um conjunto por nó seria quadrático
+        Expressao cadeia = new NoVariavel("z");
+        for (int k = 0; k < 100_000; k++) {
+            cadeia = new NoOperacao(new NoVariavel("v" + k), cadeia, NoOperacao.Operador.SOMA);
+        }
+        assertEquals(100_001, cadeia.getVariaveis().size());
+
+        // DAG com 2^60 caminhos: o tamanho da árvore equivalente satura em Integer.MAX_VALUE
+        FabricaNos fabrica = new FabricaNos();
+        Expressao d = fabrica.variavel("z");
+        for (int k = 0; k < 60; k++) d = fabrica.operacao(d, d, NoOperacao.Operador.MULTIPLICACAO);
+        assertEquals(Integer.MAX_VALUE, d.getTamanho());
+        assertEquals(61, d.getProfundidade());
+        assertEquals(Set.of("z"), d.getVariaveis());
+    }
+}
@@ -111,6 +111,66 @@ public class NumeroComplexoTest {
         assertTrue(Math.abs(esperadoNegI.getImaginario() - resultadoNegI.getImaginario()) < EPSILON);
     }
 
+    @Test
+    @DisplayName("Potências de inteiros de Gauss devem ser exatas")
+    void testPotenciaExata() {
+        // Compara bit a bit: quadrados sucessivos não passam por sqrt/atan2/cos/sin
+        NumeroComplexo r = new NumeroComplexo(1, 1).potencia(4); // (1+i)^4 = -4
+        assertEquals(-4.0, r.getReal(), 0.0);
+        assertEquals(0.0, r.getImaginario(), 0.0);
+
+        r = new NumeroComplexo(2, 1).potencia(3); // (2+i)^3 = 2 + 11i
+        assertEquals(2.0, r.getReal(), 0.0);
+        assertEquals(11.0, r.getImaginario(), 0.0);
+
+        r = a.potencia(-2); // (3+4i)^-2 = (-7 - 24i) / 625
+        assertEquals(-7.0 / 625, r.getReal(), 0.0);
+        assertEquals(-24.0 / 625, r.getImaginario(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Potência deve mudar para a forma polar sem salto nos expoentes grandes")
+    void testPotenciaExpoentesGrandes() {
+        NumeroComplexo z = new NumeroComplexo(0.6, 0.8); // |z| = 1
+        int limite = NumeroComplexo.EXPOENTE_MAXIMO_QUADRADOS;
+        for (int n : new int[] { limite - 1, limite, limite + 1, -limite - 1, 1000, Integer.MIN_VALUE + 1 }) {
+            NumeroComplexo p = z.potencia(n);
+            double angulo = Math.atan2(0.8, 0.6) * n;
+            assertEquals(Math.cos(angulo), p.getReal(), 1e-6, "n = " + n);
+            assertEquals(Math.sin(angulo), p.getImaginario(), 1e-6, "n = " + n);
+        }
+        // z^(n+1) = z^n * z dos dois lados do limite
+        NumeroComplexo antes = z.potencia(limite);
+        NumeroComplexo depois = z.potencia(limite + 1);
+        assertEquals(antes.multiplicar(z), depois);
+    }
+
+    @Test
+    @DisplayName("Zero com expoente negativo deve lançar ArithmeticException")
+    void testPotenciaZeroNegativa() {
+        assertThrows(ArithmeticException.class, () -> zero.potencia(-1));
+        assertThrows(ArithmeticException.class, () -> zero.potencia(Integer.MIN_VALUE));
+        assertEquals(zero, zero.potencia(3));
+        assertEquals(um, zero.potencia(0));
+    }
+
+    @Test
+    @DisplayName("Deve devolver todas as n raízes, começando pela principal")
+    void testRaizes() {
+        for (int n = 1; n <= 12; n++) {
+            NumeroComplexo[] raizes = a.raizes(n);
+            assertEquals(n, raizes.length);
+            assertEquals(a.raiz(n), raizes[0]);
+            for (int k = 0; k < n; k++) {
+                NumeroComplexo volta = raizes[k].potencia(n);
+                assertEquals(a.getReal(), volta.getReal(), 1e-9, "n = " + n + ", k = " + k);
+                assertEquals(a.getImaginario(), volta.getImaginario(), 1e-9, "n = " + n + ", k = " + k);
+                for (int j = 0; j < k; j++) assertNotEquals(raizes[j], raizes[k]);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> a.raizes(0));
+    }
+
     @Test
     @DisplayName("Deve calcular a raiz n-ésima principal de um número complexo")
     void testRaiz() {
@@ -0,0 +1,140 @@
+package com.zetacompute.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ParserIterativoTest {
+
+    private static final String[] EXPRESSOES = {
+            "3", "4i", "i", "-i", ".5", "5.", "z", "-z", "+z",
+            "(2 + 3i) * z + raiz(16,2)",
+            "z * w - conj(z) / (w + 1)",
+            "z ^ 3 ^ 2 + 2 * z ^ 2 - z + 7",
+            "-(z + 1) * -w ^ 2",
+            "a - b - c / d / e ^ f ^ -g",
+            "RAIZ(z,3) + Conj(-conj(w))",
+            "  ((((z))))  ",
+            "0.1 + 123456789.123456 + 1234567890123456789 + 0.00000000000000000000001",
+            "x1 * xy2 + x1"
+    };
+
+    private static final String[] INVALIDAS = {
+            "", "z +", "(z", "z)", "raiz z", "raiz(z)", "raiz(z, 2)", "raiz(z,2", "raiz(z,2.5)",
+            "conj z", "conj(z", "1.2.3", ".", "2z", "z * * w", "--z", "z ^", "$", "z w"
+    };
+
+    // Comparação exata (bits das constantes), sem recursão
+    private static void assertMesmaArvore(Expressao esperada, Expressao obtida) {
+        Deque<Expressao[]> pilha = new ArrayDeque<>();
+        pilha.push(new Expressao[] { esperada, obtida });
+        while (!pilha.isEmpty()) {
+            Expressao[] par = pilha.pop();
+            Expressao a = par[0];
+            Expressao b = par[1];
+            assertEquals(a.getClass(), b.getClass());
+            if (a instanceof NoConstante) {
+                NumeroComplexo x = ((NoConstante) a).getValor();
+                NumeroComplexo y = ((NoConstante) b).getValor();
+                assertEquals(Double.doubleToLongBits(x.getReal()), Double.doubleToLongBits(y.getReal()));
+                assertEquals(Double.doubleToLongBits(x.getImaginario()), Double.doubleToLongBits(y.getImaginario()));
+            } else if (a instanceof NoVariavel) {
+                assertEquals(((NoVariavel) a).getNome(), ((NoVariavel) b).getNome());
+            } else {
+                NoOperacao x = (NoOperacao) a;
+                NoOperacao y = (NoOperacao) b;
+                assertEquals(x.getOperador(), y.getOperador());
+                assertEquals(x.getParametroAuxiliar(), y.getParametroAuxiliar());
+                pilha.push(new Expressao[] { x.getEsquerda(), y.getEsquerda() });
+                if (x.getDireita() != null) pilha.push(new Expressao[] { x.getDireita(), y.getDireita() });
+            }
+        }
+    }
+
+    // Mesma árvore ou mesma exceção (tipo e mensagem)
+    private static void assertMesmoComportamento(String fonte) {
+        Expressao esperada = null;
+        RuntimeException erroEsperado = null;
+        try {
+            esperada = new parser(fonte).parse();
+        } catch (RuntimeException e) {
+            erroEsperado = e;
+        }
+        try {
+            Expressao obtida = new ParserIterativo(fonte).parse();
+            if (erroEsperado != null) fail("Esperado erro para '" + fonte + "': " + erroEsperado.getMessage());
+            assertMesmaArvore(esperada, obtida);
+        } catch (RuntimeException e) {
+            if (erroEsperado == null) throw e;
+            assertEquals(erroEsperado.getClass(), e.getClass(), fonte);
+            assertEquals(erroEsperado.getMessage(), e.getMessage(), fonte);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve produzir as mesmas árvores e erros do parser recursivo")
+    void testMesmoResultado() {
+        for (String s : EXPRESSOES) assertMesmoComportamento(s);
+        for (String s : INVALIDAS) assertMesmoComportamento(s);
+    }
+
+    @Test
+    @DisplayName("Deve coincidir com o parser recursivo em expressões aleatórias e corrompidas")
+    void testAleatorio() {
+        Random rnd = new Random(42);
+        String alfabeto = "0123456789.i+-*/^(), zwraizconj";
+        for (int k = 0; k < 300; k++) {
+            String s = RelatorioParser.gerarExpressao(1 + rnd.nextInt(8), k);
+            assertMesmoComportamento(s);
+            // Troca um caractere por outro do alfabeto da linguagem
+            int p = rnd.nextInt(s.length());
+            assertMesmoComportamento(s.substring(0, p) + alfabeto.charAt(rnd.nextInt(alfabeto.length())) + s.substring(p + 1));
+        }
+        for (int k = 0; k < 2000; k++) {
+            double valor = rnd.nextInt(1_000_000) / Math.pow(10, rnd.nextInt(12));
+            assertMesmoComportamento(Double.toString(valor).replace("E", "") + "i");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve analisar expressões com centenas de milhares de elementos")
+    void testExpressoesGrandes() {
+        int n = 200_000;
+
+        // Aninhamento profundo: estouraria a pilha no parser recursivo
+        String aninhada = "(".repeat(n) + "z" + " + 1)".repeat(n);
+        Expressao e = new ParserIterativo(aninhada).parse();
+        assertEquals(2 * n + 1, e.getTamanho());
+        assertEquals(n + 1, e.getProfundidade());
+
+        // Cadeia de potências, associativa à direita
+        String potencias = "z" + " ^ w".repeat(n);
+        NoOperacao p = (NoOperacao) new ParserIterativo(potencias).parse();
+        assertEquals(NoOperacao.Operador.POTENCIA, p.getOperador());
+        assertTrue(p.getEsquerda() instanceof NoVariavel);
+        assertEquals(n + 1, p.getProfundidade());
+
+        // Expressão larga: mesmo resultado do parser recursivo
+        String larga = RelatorioParser.gerarExpressao(n / 8, 7);
+        assertMesmaArvore(new parser(larga).parse(), new ParserIterativo(larga).parse());
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar variáveis e usar a fábrica de nós")
+    void testCompartilhamento() {
+        NoOperacao soma = (NoOperacao) new ParserIterativo("z + z").parse();
+        assertSame(soma.getEsquerda(), soma.getDireita());
+
+        FabricaNos fabrica = new FabricaNos();
+        Expressao a = new ParserIterativo("(z * w) + (z * w)", fabrica).parse();
+        assertSame(a, new parser("z*w + z*w", fabrica).parse());
+    }
+}
@@ -0,0 +1,162 @@
+package com.zetacompute.otimizacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.avaliacao.AvaliadorLote;
+import com.zetacompute.avaliacao.KernelsComplexos;
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.compilador.ProgramaPosfixo;
+import com.zetacompute.models.Bindings;
+import com.zetacompute.models.ComplexAccumulator;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.NoOperacao;
+import com.zetacompute.models.NoPolinomio;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ReconhecedorPolinomiosTest {
+
+    private static Expressao reconhecer(String fonte) {
+        return ReconhecedorPolinomios.reconhecer(new parser(fonte).parse());
+    }
+
+    private static void assertCoeficientes(double[] esperados, NoPolinomio p) {
+        assertEquals(esperados.length - 1, p.getGrau());
+        for (int k = 0; k < esperados.length; k++) {
+            assertEquals(esperados[k], p.getCoeficiente(k).getReal(), 0.0, "z^" + k);
+            assertEquals(0.0, p.getCoeficiente(k).getImaginario(), 0.0, "z^" + k);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer polinômios na forma expandida")
+    void testReconhecimento() {
+        Expressao e = reconhecer("3*z^4 + 2*z^3 - z + 7");
+        assertTrue(e instanceof NoPolinomio);
+        assertCoeficientes(new double[] { 7, -1, 0, 2, 3 }, (NoPolinomio) e);
+        assertEquals("(poly z 7.00 -1.00 0.00 2.00 3.00)", e.toLisp());
+
+        assertCoeficientes(new double[] { 1, 2, 1 }, (NoPolinomio) reconhecer("(z + 1) * (z + 1)"));
+        assertCoeficientes(new double[] { 0, 0, 0.5 }, (NoPolinomio) reconhecer("z ^ 2 / 2"));
+
+        NumeroComplexo z = new NumeroComplexo(0.75, -1.25);
+        NumeroComplexo esperado = new parser("3*z^4 + 2*z^3 - z + 7").parse().avaliar(Map.of("z", z));
+        NumeroComplexo obtido = e.avaliar(Map.of("z", z));
+        assertEquals(esperado.getReal(), obtido.getReal(), 1e-12);
+        assertEquals(esperado.getImaginario(), obtido.getImaginario(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Deve elevar base de grau zero a expoentes enormes sem laço por expoente")
+    void testPotenciaGrauZero() {
+        long inicio = System.nanoTime();
+        Expressao e = reconhecer("(z^0)^2000000000 + z^2");
+        assertTrue(System.nanoTime() - inicio < 2_000_000_000L, "reconhecimento lento demais");
+        assertCoeficientes(new double[] { 1, 0, 1 }, (NoPolinomio) e);
+
+        NumeroComplexo z = new NumeroComplexo(0.5, 2);
+        NumeroComplexo esperado = new parser("(z^0)^2000000000 + z^2").parse().avaliar(Map.of("z", z));
+        NumeroComplexo obtido = e.avaliar(Map.of("z", z));
+        assertEquals(esperado.getReal(), obtido.getReal(), 1e-12);
+        assertEquals(esperado.getImaginario(), obtido.getImaginario(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Deve trocar só as subárvores polinomiais e manter os erros")
+    void testSubarvores() {
+        NoOperacao soma = (NoOperacao) reconhecer("z * w + (z ^ 2 - 1)");
+        assertTrue(soma.getDireita() instanceof NoPolinomio);
+        assertTrue(soma.getEsquerda() instanceof NoOperacao);
+
+        Expressao semGrau = new parser("2 * z + 1").parse();
+        assertSame(semGrau, ReconhecedorPolinomios.reconhecer(semGrau));
+        assertTrue(reconhecer("conj(z) ^ 2 + z") instanceof NoOperacao);
+        assertTrue(reconhecer("z ^ -2 + z") instanceof NoOperacao);
+
+        Expressao divisao = reconhecer("z ^ 2 / (1 - 1)");
+        assertTrue(divisao instanceof NoOperacao);
+        assertThrows(ArithmeticException.class, () -> divisao.avaliar(Map.of("z", new NumeroComplexo(1, 0))));
+        assertThrows(IllegalArgumentException.class, () -> reconhecer("z ^ 3").avaliar(Map.of()));
+
+        // z^0 não apaga z: sem z definida a avaliação continua falhando
+        Expressao semZ = reconhecer("z ^ 0 * w ^ 2 + w");
+        assertThrows(IllegalArgumentException.class, () -> semZ.avaliar(Map.of("w", new NumeroComplexo(2, 0))));
+        assertEquals(6, semZ.avaliar(Map.of("z", new NumeroComplexo(3, 1), "w", new NumeroComplexo(2, 0))).getReal());
+    }
+
+    @Test
+    @DisplayName("Deve preservar o compartilhamento de subárvores ao substituir")
+    void testCompartilhamento() {
+        Expressao comum = new parser("w * (z ^ 2 + 1)").parse();
+        NoOperacao dag = new NoOperacao(comum, comum, NoOperacao.Operador.SOMA);
+        NoOperacao r = (NoOperacao) ReconhecedorPolinomios.reconhecer(dag);
+        assertSame(r.getEsquerda(), r.getDireita());
+        assertTrue(((NoOperacao) r.getEsquerda()).getDireita() instanceof NoPolinomio);
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer a árvore por trás de qualquer envoltório")
+    void testEnvoltorios() {
+        Expressao e = new parser("z^2 + 2*z + 1").parse();
+        Expressao[] envoltorios = {
+                ExpressaoCompartilhada.de(e),
+                ProgramaPosfixo.linearizar(e),
+                CompiledExpressao.compilar(e)
+        };
+        for (Expressao envolta : envoltorios) {
+            Expressao r = ReconhecedorPolinomios.reconhecer(envolta);
+            assertTrue(r instanceof NoPolinomio, envolta.getClass().getSimpleName());
+            assertCoeficientes(new double[] { 1, 2, 1 }, (NoPolinomio) r);
+        }
+    }
+
+    @Test
+    @DisplayName("Horner da árvore, do compilador e dos kernels em lote devem coincidir bit a bit")
+    void testAvaliadoresIguais() {
+        NoPolinomio p = (NoPolinomio) reconhecer("(2 - 3i) * z ^ 7 + 1.5i * z ^ 5 - z ^ 2 / 3 + 4 - i");
+        Bindings layout = Bindings.para(p);
+        Expressao expandida = p.expandir();
+        CompiledExpressao compilada = CompiledExpressao.compilar(p, layout);
+
+        int n = 2 * AvaliadorLote.TAMANHO_BLOCO + 13;
+        Random rnd = new Random(5);
+        double[][] re = new double[1][n];
+        double[][] im = new double[1][n];
+        for (int k = 0; k < n; k++) {
+            re[0][k] = rnd.nextDouble() * 4 - 2;
+            im[0][k] = rnd.nextDouble() * 4 - 2;
+        }
+        double[][] saidaRe = new double[2][n];
+        double[][] saidaIm = new double[2][n];
+        AvaliadorLote.para(p, layout, KernelsComplexos.escalares()).avaliar(re, im, saidaRe[0], saidaIm[0], n);
+        KernelsComplexos vetoriais = KernelsComplexos.vetoriais() != null ? KernelsComplexos.vetoriais() : KernelsComplexos.escalares();
+        AvaliadorLote.para(p, layout, vetoriais).avaliar(re, im, saidaRe[1], saidaIm[1], n);
+
+        Bindings valores = layout.novaInstancia();
+        ComplexAccumulator acc = new ComplexAccumulator();
+        for (int k = 0; k < n; k++) {
+            valores.definir(0, re[0][k], im[0][k]);
+            NumeroComplexo esperado = p.avaliar(valores);
+            NumeroComplexo[] obtidos = {
+                    expandida.avaliar(valores), compilada.avaliar(valores),
+                    new NumeroComplexo(saidaRe[0][k], saidaIm[0][k]), new NumeroComplexo(saidaRe[1][k], saidaIm[1][k])
+            };
+            p.avaliar(valores, acc);
+            assertEquals(esperado.getReal(), acc.getReal(), 0.0);
+            for (NumeroComplexo obtido : obtidos) {
+                assertEquals(esperado.getReal(), obtido.getReal(), 0.0, "ponto " + k);
+                assertEquals(esperado.getImaginario(), obtido.getImaginario(), 0.0, "ponto " + k);
+            }
+        }
+    }
+}
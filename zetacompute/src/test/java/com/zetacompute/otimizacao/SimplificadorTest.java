@@ -0,0 +1,113 @@
+package com.zetacompute.otimizacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.compilador.CompiledExpressao;
+import com.zetacompute.compilador.ProgramaPosfixo;
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.ExpressaoCompartilhada;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SimplificadorTest {
+
+    private static final String[] EXPRESSOES = {
+            "(2 + 3i) * z + raiz(16,2)",
+            "z * 1 + 0 - w / 1",
+            "conj(conj(z * w)) - -w",
+            "-z * -w + -(z + 1)",
+            "w * z + z * w",
+            "z * -1 + (3 - 5) * w",
+            "z ^ 1 + conj(-z)"
+    };
+
+    private static Expressao parse(String s) {
+        return new parser(s).parse();
+    }
+
+    private static String simplificado(String s) {
+        return Simplificador.simplificar(parse(s)).getExpressao().toLisp();
+    }
+
+    @Test
+    @DisplayName("Deve dobrar constantes")
+    void testDobraDeConstantes() {
+        Simplificador.Resultado r = Simplificador.simplificar(parse("(2 + 3i) * (1 - i) + raiz(16,2)"));
+        assertEquals(parse("9 + 1i").avaliar(new HashMap<>()), r.getExpressao().avaliar(new HashMap<>()));
+        assertEquals(1, r.getNosDepois());
+        assertEquals(r.getNosAntes() - 1, r.getNosRemovidos());
+        assertEquals(parse("-3").avaliar(new HashMap<>()).toString(), simplificado("-3"));
+    }
+
+    @Test
+    @DisplayName("Deve eliminar identidades")
+    void testIdentidades() {
+        assertEquals("z", simplificado("z * 1"));
+        assertEquals("z", simplificado("1 * (z + 0)"));
+        assertEquals("z", simplificado("z - 0"));
+        assertEquals("z", simplificado("z / 1"));
+        assertEquals("z", simplificado("conj(conj(z))"));
+        assertEquals("z", simplificado("-(-z)"));
+    }
+
+    @Test
+    @DisplayName("Deve absorver negações e ordenar operandos comutativos")
+    void testNegacaoEOrdem() {
+        assertEquals("(- z w)", simplificado("z + -w"));
+        assertEquals("(+ w z)", simplificado("z - -w"));
+        assertEquals("(* w z)", simplificado("-z * -w"));
+        assertEquals(simplificado("-z"), simplificado("z * -1"));
+        assertEquals(simplificado("w * z + 2"), simplificado("2 + z * w"));
+    }
+
+    @Test
+    @DisplayName("Resultado simplificado deve ser equivalente ao original")
+    void testEquivalencia() {
+        Map<String, NumeroComplexo> variaveis = new HashMap<>();
+        for (int k = 1; k <= 5; k++) {
+            variaveis.put("z", new NumeroComplexo(k * 0.7, -k));
+            variaveis.put("w", new NumeroComplexo(2 - k, k * 0.3));
+            for (String s : EXPRESSOES) {
+                Expressao arvore = parse(s);
+                Simplificador.Resultado r = Simplificador.simplificar(arvore);
+                assertEquals(arvore.avaliar(variaveis), r.getExpressao().avaliar(variaveis), s);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve dobrar divisões por zero nem alterar árvores já simples")
+    void testSemAlteracao() {
+        Expressao divisao = Simplificador.simplificar(parse("1 / (2 - 2)")).getExpressao();
+        assertThrows(ArithmeticException.class, () -> divisao.avaliar(new HashMap<>()));
+
+        Expressao simples = parse("2 + w * z");
+        Simplificador.Resultado r = Simplificador.simplificar(simples);
+        assertSame(simples, r.getExpressao());
+        assertEquals(0, r.getNosRemovidos());
+    }
+
+    @Test
+    @DisplayName("Deve simplificar a árvore por trás de qualquer envoltório")
+    void testEnvoltorios() {
+        Expressao e = parse("z * 1 + 0");
+        Expressao[] envoltorios = {
+                ExpressaoCompartilhada.de(e),
+                ProgramaPosfixo.linearizar(e),
+                CompiledExpressao.compilar(e)
+        };
+        for (Expressao envolta : envoltorios) {
+            Simplificador.Resultado r = Simplificador.simplificar(envolta);
+            assertEquals("z", r.getExpressao().toLisp(), envolta.getClass().getSimpleName());
+            assertEquals(4, r.getNosRemovidos(), envolta.getClass().getSimpleName());
+        }
+    }
+}
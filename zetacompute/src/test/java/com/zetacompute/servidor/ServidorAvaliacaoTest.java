@@ -0,0 +1,96 @@
+package com.zetacompute.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ServidorAvaliacaoTest {
+
+    private static String esperado(String fonte, double re, double im) {
+        NumeroComplexo r = new ParserIterativo(fonte).parse().avaliar(Map.of("z", new NumeroComplexo(re, im)));
+        return r.getReal() + "," + r.getImaginario();
+    }
+
+    @Test
+    @DisplayName("Deve avaliar linhas com variáveis e isolar os erros de cada ponto")
+    void testAvaliacao() throws IOException {
+        try (ServidorAvaliacao servidor = ServidorAvaliacao.iniciar(0)) {
+            String[] linhas = servidor.avaliar("z*z + 1; z=1+2i\n\n1 / (z - 1); z=1\nz + w; z=1\nz +; z=1\n1 / (z - 1); z=3\n")
+                    .split("\n");
+            assertEquals(5, linhas.length);
+            assertEquals("-2.0,4.0", linhas[0]);
+            assertEquals("erro: Divisão por zero não é permitida para números complexos.", linhas[1]);
+            assertEquals("erro: Erro: Variável 'w' não foi definida.", linhas[2]);
+            assertTrue(linhas[3].startsWith("erro: "));
+            assertEquals("0.5,0.0", linhas[4]);
+            assertEquals(5, servidor.getPontos());
+
+            // Erro fora de ArithmeticException no lote: cada linha recebe o seu resultado
+            linhas = servidor.avaliar("raiz(z,0); z=1\nraiz(z,0); z=2\nz + 1; z=2\n").split("\n");
+            assertEquals(3, linhas.length);
+            assertTrue(linhas[0].startsWith("erro: "));
+            assertEquals(linhas[0], linhas[1]);
+            assertEquals("3.0,0.0", linhas[2]);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve atender requisições concorrentes por HTTP, agrupando pontos da mesma expressão")
+    void testConcorrencia() throws Exception {
+        String[] fontes = { "z^3 - 2*z + conj(z)", "raiz(z,3) / (z + 4)" };
+        int requisicoes = 200;
+        try (ServidorAvaliacao servidor = ServidorAvaliacao.iniciar(0);
+             HttpClient cliente = HttpClient.newHttpClient();
+             ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            URI uri = URI.create("http://localhost:" + servidor.getPorta() + "/avaliar");
+            List<Future<String[]>> respostas = new ArrayList<>();
+            for (int r = 0; r < requisicoes; r++) {
+                String fonte = fontes[r % 2];
+                int k = r;
+                respostas.add(threads.submit(() -> {
+                    StringBuilder corpo = new StringBuilder();
+                    for (int p = 0; p < 10; p++) corpo.append(fonte).append("; z=").append(k).append('+').append(p).append("i\n");
+                    HttpResponse<String> resposta = cliente.send(HttpRequest.newBuilder(uri)
+                            .POST(HttpRequest.BodyPublishers.ofString(corpo.toString())).build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, resposta.statusCode());
+                    return resposta.body().split("\n");
+                }));
+            }
+            for (int r = 0; r < requisicoes; r++) {
+                String[] esperadas = new String[10];
+                for (int p = 0; p < 10; p++) esperadas[p] = esperado(fontes[r % 2], r, p);
+                assertArrayEquals(esperadas, respostas.get(r).get());
+            }
+
+            assertEquals(requisicoes, servidor.getRequisicoes());
+            assertEquals(10L * requisicoes, servidor.getPontos());
+            assertTrue(servidor.getLotes() > 0 && servidor.getLotes() <= servidor.getPontos());
+            assertEquals(requisicoes, servidor.getLatencia().getContagem());
+
+            HttpResponse<String> metricas = cliente.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + servidor.getPorta() + "/metricas")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertTrue(metricas.body().startsWith("requisicoes=" + requisicoes + " pontos=" + 10 * requisicoes));
+            assertTrue(metricas.body().contains("p99="));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.zetacompute.sessao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.zetacompute.models.Expressao;
+import com.zetacompute.models.NumeroComplexo;
+import com.zetacompute.models.ParserIterativo;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AreaTrabalhoTest {
+
+    @Test
+    @DisplayName("Deve recalcular só os nós e definições que dependem da variável alterada")
+    void testRecalculoIncremental() {
+        AreaTrabalho area = new AreaTrabalho();
+        area.definirValor("z", new NumeroComplexo(1, 2));
+        area.definirValor("a", new NumeroComplexo(3, 0));
+        area.definir("w", "z*z + 1");             // 4 nós (z compartilhado)
+        area.definir("u", "(a*a*a - 2) * w + a"); // 8 nós
+        area.definir("v", "a / 4");               // 3 nós
+
+        assertEquals(new NumeroComplexo(-2, 4), area.obter("w"));
+        assertEquals(new NumeroComplexo(-47, 100), area.obter("u"));
+        assertEquals(new NumeroComplexo(0.75, 0), area.obter("v"));
+        long inicial = area.getNosRecalculados();
+        assertEquals(15, inicial);
+
+        // Nada mudou: tudo vem dos valores guardados
+        area.obter("u");
+        assertEquals(inicial, area.getNosRecalculados());
+
+        // z muda: em w, z, z*z e a soma; em u, w, o produto e a soma final; (a*a*a - 2) e v ficam
+        area.definirValor("z", new NumeroComplexo(0, 1));
+        assertEquals(new NumeroComplexo(0.75, 0), area.obter("v"));
+        assertEquals(new NumeroComplexo(3, 0), area.obter("u"));
+        assertEquals(inicial + 3 + 3, area.getNosRecalculados());
+        assertEquals(Set.of("u"), area.getDependentes("w"));
+    }
+
+    @Test
+    @DisplayName("Deve coincidir com a avaliação da árvore completa")
+    void testMesmoResultadoDaArvore() {
+        AreaTrabalho area = new AreaTrabalho();
+        String fonte = "raiz(z*w - conj(z),3) / (w ^ 2 + 1) - 1 / z ^ 2";
+        area.definir("r", fonte);
+        Expressao e = new ParserIterativo(fonte).parse();
+        for (int k = 1; k <= 20; k++) {
+            NumeroComplexo z = new NumeroComplexo(k * 0.37, -k * 0.11);
+            NumeroComplexo w = new NumeroComplexo(1.5 - k * 0.05, k * 0.21);
+            area.definirValor(k % 2 == 0 ? "z" : "w", k % 2 == 0 ? z : w);
+            if (k == 1) area.definirValor("z", z);
+            NumeroComplexo esperado = e.avaliar(Map.of("z", area.obter("z"), "w", area.obter("w")));
+            NumeroComplexo obtido = area.obter("r");
+            assertEquals(Double.doubleToLongBits(esperado.getReal()), Double.doubleToLongBits(obtido.getReal()));
+            assertEquals(Double.doubleToLongBits(esperado.getImaginario()), Double.doubleToLongBits(obtido.getImaginario()));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recusar dependências circulares e repetir erros até a causa mudar")
+    void testCiclosEErros() {
+        AreaTrabalho area = new AreaTrabalho();
+        area.definir("a", "b + 1");
+        area.definir("b", "c * 2");
+        IllegalArgumentException ciclo = assertThrows(IllegalArgumentException.class, () -> area.definir("c", "a - 1"));
+        assertEquals("Dependência circular: c -> a -> b -> c", ciclo.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> area.definir("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> area.definirValor("i", new NumeroComplexo(0, 0)));
+
+        // c ainda não existe
+        assertEquals(Set.of("c"), area.faltando(new ParserIterativo("a").parse()));
+        assertThrows(IllegalArgumentException.class, () -> area.obter("a"));
+
+        area.definirValor("c", new NumeroComplexo(0, 0));
+        area.definir("d", "1 / c");
+        assertThrows(ArithmeticException.class, () -> area.obter("d"));
+        assertThrows(ArithmeticException.class, () -> area.obter("d"));
+        assertEquals(new NumeroComplexo(1, 0), area.obter("a"));
+
+        area.definirValor("c", new NumeroComplexo(2, 0));
+        assertEquals(new NumeroComplexo(0.5, 0), area.obter("d"));
+        assertEquals(new NumeroComplexo(5, 0), area.obter("a"));
+
+        // Redefinir b desliga a dependência de c
+        area.definir("b", "10");
+        assertEquals(new NumeroComplexo(11, 0), area.obter("a"));
+        assertEquals(Set.of("d"), area.getDependentes("c"));
+        area.remover("b");
+        assertThrows(IllegalArgumentException.class, () -> area.obter("a"));
+    }
+}